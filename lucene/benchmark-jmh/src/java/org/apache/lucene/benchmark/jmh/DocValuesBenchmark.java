@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures iteration over numeric, sorted and sorted set doc values as written by the default
+ * doc values format ({@code Lucene80DocValuesFormat}), both densely and through {@code advanceExact}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocValuesBenchmark {
+
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Fraction of the documents that have a value. */
+  @Param({"1.0", "0.1"})
+  public double density;
+
+  /** Number of bits required per numeric value. */
+  @Param({"4", "20", "64"})
+  public int bitsPerValue;
+
+  /** Number of unique terms of the sorted and sorted set fields. */
+  @Param({"1000"})
+  public int cardinality;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReader leaf;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random random = new Random(0xD0C5);
+    BytesRef[] terms = new BytesRef[cardinality];
+    for (int i = 0; i < cardinality; ++i) {
+      terms[i] = new BytesRef(String.format(Locale.ROOT, "term%08d", i));
+    }
+    long mask = bitsPerValue == 64 ? -1L : (1L << bitsPerValue) - 1;
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        if (random.nextDouble() < density) {
+          doc.add(new NumericDocValuesField("numeric", random.nextLong() & mask));
+          doc.add(new SortedDocValuesField("sorted", terms[random.nextInt(cardinality)]));
+          int numValues = 1 + random.nextInt(3);
+          for (int j = 0; j < numValues; ++j) {
+            doc.add(new SortedSetDocValuesField("sorted_set", terms[random.nextInt(cardinality)]));
+          }
+        }
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    leaf = reader.leaves().get(0).reader();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public long numericNextDoc() throws IOException {
+    NumericDocValues values = DocValues.getNumeric(leaf, "numeric");
+    long sum = 0;
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      sum += values.longValue();
+    }
+    return sum;
+  }
+
+  /** Looks up every 7th document, as a collector would do for a sparse set of matches. */
+  @Benchmark
+  public long numericAdvanceExact() throws IOException {
+    NumericDocValues values = DocValues.getNumeric(leaf, "numeric");
+    long sum = 0;
+    for (int doc = 0; doc < numDocs; doc += 7) {
+      if (values.advanceExact(doc)) {
+        sum += values.longValue();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long sortedNextDoc() throws IOException {
+    SortedDocValues values = DocValues.getSorted(leaf, "sorted");
+    long sum = 0;
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      sum += values.ordValue();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long sortedSetNextDoc() throws IOException {
+    SortedSetDocValues values = DocValues.getSortedSet(leaf, "sorted_set");
+    long sum = 0;
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+        sum += ord;
+      }
+    }
+    return sum;
+  }
+}
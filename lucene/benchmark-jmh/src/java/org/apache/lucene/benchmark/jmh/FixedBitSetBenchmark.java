@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.FixedBitSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the {@link FixedBitSet} operations that filters and caches rely upon. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixedBitSetBenchmark {
+
+  @Param({"1000000"})
+  public int numBits;
+
+  /** Fraction of the bits that are set. */
+  @Param({"0.001", "0.1", "0.5"})
+  public double density;
+
+  private FixedBitSet a, b, scratch;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(0xB175);
+    a = new FixedBitSet(numBits);
+    b = new FixedBitSet(numBits);
+    for (int i = 0; i < numBits; ++i) {
+      if (random.nextDouble() < density) {
+        a.set(i);
+      }
+      if (random.nextDouble() < density) {
+        b.set(i);
+      }
+    }
+    scratch = new FixedBitSet(numBits);
+  }
+
+  @Benchmark
+  public int cardinality() {
+    return a.cardinality();
+  }
+
+  @Benchmark
+  public long intersectionCount() {
+    return FixedBitSet.intersectionCount(a, b);
+  }
+
+  @Benchmark
+  public int or() {
+    System.arraycopy(a.getBits(), 0, scratch.getBits(), 0, a.getBits().length);
+    scratch.or(b);
+    return scratch.length();
+  }
+
+  @Benchmark
+  public int and() {
+    System.arraycopy(a.getBits(), 0, scratch.getBits(), 0, a.getBits().length);
+    scratch.and(b);
+    return scratch.length();
+  }
+
+  @Benchmark
+  public long nextSetBit() {
+    long sum = 0;
+    for (int i = a.nextSetBit(0); i != DocIdSetIterator.NO_MORE_DOCS; ) {
+      sum += i;
+      i = i + 1 < numBits ? a.nextSetBit(i + 1) : DocIdSetIterator.NO_MORE_DOCS;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.compress.LZ4;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures {@link LZ4} compression with both hash tables, and decompression. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LZ4Benchmark {
+
+  /** Size of the input, 16kB and 60kB match the block sizes used by stored fields. */
+  @Param({"16384", "61440"})
+  public int length;
+
+  /** Number of distinct words the input is made of: fewer words compress better. */
+  @Param({"16", "4096"})
+  public int vocabulary;
+
+  private byte[] uncompressed;
+  private byte[] compressed;
+  private int compressedLength;
+  private byte[] scratch;
+  private byte[] restored;
+  private LZ4.FastCompressionHashTable fastHashTable;
+  private LZ4.HighCompressionHashTable highHashTable;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    Random random = new Random(0x124);
+    String[] words = new String[vocabulary];
+    for (int i = 0; i < vocabulary; ++i) {
+      char[] chars = new char[3 + random.nextInt(8)];
+      for (int j = 0; j < chars.length; ++j) {
+        chars[j] = (char) ('a' + random.nextInt(26));
+      }
+      words[i] = new String(chars);
+    }
+    uncompressed = new byte[length];
+    for (int i = 0; i < length; ) {
+      String word = words[random.nextInt(vocabulary)];
+      for (int j = 0; j < word.length() && i < length; ++j) {
+        uncompressed[i++] = (byte) word.charAt(j);
+      }
+      if (i < length) {
+        uncompressed[i++] = ' ';
+      }
+    }
+    // worst-case LZ4 expansion is well below 1%, leave some slack for tokens
+    scratch = new byte[length + length / 64 + 16];
+    fastHashTable = new LZ4.FastCompressionHashTable();
+    highHashTable = new LZ4.HighCompressionHashTable();
+    compressedLength = compressFast();
+    compressed = Arrays.copyOf(scratch, compressedLength);
+    restored = new byte[length];
+  }
+
+  @Benchmark
+  public int compressFast() throws IOException {
+    ByteArrayDataOutput out = new ByteArrayDataOutput(scratch);
+    LZ4.compress(uncompressed, 0, length, out, fastHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int compressHigh() throws IOException {
+    ByteArrayDataOutput out = new ByteArrayDataOutput(scratch);
+    LZ4.compress(uncompressed, 0, length, out, highHashTable);
+    return out.getPosition();
+  }
+
+  @Benchmark
+  public int decompress() throws IOException {
+    ByteArrayDataInput in = new ByteArrayDataInput(compressed, 0, compressedLength);
+    return LZ4.decompress(in, length, restored);
+  }
+}
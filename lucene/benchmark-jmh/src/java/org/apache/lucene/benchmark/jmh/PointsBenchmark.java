@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures range intersection of a one-dimensional BKD tree, which is dominated by leaf visiting:
+ * decoding doc IDs and packed values of the leaves that cross the query range.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointsBenchmark {
+
+  private static final String FIELD = "timestamp";
+
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Fraction of the value range covered by the query. */
+  @Param({"0.001", "0.1", "0.5"})
+  public double selectivity;
+
+  /**
+   * Distribution of the indexed values: {@code random} values produce leaves whose doc IDs are
+   * unordered, {@code sequential} values mimic timestamps and produce runs of increasing doc IDs.
+   */
+  @Param({"random", "sequential"})
+  public String distribution;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private PointValues points;
+  private byte[] lower, upper;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random random = new Random(0xB0D);
+    boolean sequential = "sequential".equals(distribution);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        long value = sequential ? i * 10L + random.nextInt(10) : (long) (random.nextDouble() * numDocs * 10L);
+        doc.add(new LongPoint(FIELD, value));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    points = reader.leaves().get(0).reader().getPointValues(FIELD);
+
+    long max = numDocs * 10L;
+    long width = (long) (max * selectivity);
+    long min = (max - width) / 2;
+    lower = new byte[Long.BYTES];
+    upper = new byte[Long.BYTES];
+    LongPoint.encodeDimension(min, lower, 0);
+    LongPoint.encodeDimension(min + width, upper, 0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public long intersect() throws IOException {
+    long[] count = new long[1];
+    points.intersect(new IntersectVisitor() {
+      @Override
+      public void visit(int docID) {
+        count[0]++;
+      }
+
+      @Override
+      public void visit(int docID, byte[] packedValue) {
+        if (Arrays.compareUnsigned(packedValue, 0, Long.BYTES, lower, 0, Long.BYTES) >= 0
+            && Arrays.compareUnsigned(packedValue, 0, Long.BYTES, upper, 0, Long.BYTES) <= 0) {
+          count[0]++;
+        }
+      }
+
+      @Override
+      public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+        if (Arrays.compareUnsigned(minPackedValue, 0, Long.BYTES, upper, 0, Long.BYTES) > 0
+            || Arrays.compareUnsigned(maxPackedValue, 0, Long.BYTES, lower, 0, Long.BYTES) < 0) {
+          return Relation.CELL_OUTSIDE_QUERY;
+        }
+        if (Arrays.compareUnsigned(minPackedValue, 0, Long.BYTES, lower, 0, Long.BYTES) >= 0
+            && Arrays.compareUnsigned(maxPackedValue, 0, Long.BYTES, upper, 0, Long.BYTES) <= 0) {
+          return Relation.CELL_INSIDE_QUERY;
+        }
+        return Relation.CELL_CROSSES_QUERY;
+      }
+    });
+    return count[0];
+  }
+}
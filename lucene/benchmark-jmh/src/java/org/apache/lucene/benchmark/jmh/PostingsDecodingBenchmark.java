@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decoding of postings lists, which exercises the block decoders of the default postings
+ * format ({@code ForUtil}, {@code PForUtil} and {@code ForDeltaUtil}) as well as skip data when advancing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostingsDecodingBenchmark {
+
+  private static final String FIELD = "body";
+  private static final BytesRef TERM = new BytesRef("term");
+
+  /** Number of documents in the index. */
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Fraction of the documents that contain the benchmarked term. */
+  @Param({"0.001", "0.01", "0.1", "0.5"})
+  public double docFreqRatio;
+
+  /** Maximum within-document frequency of the term; frequencies are uniformly distributed in [1, maxFreq]. */
+  @Param({"1", "16"})
+  public int maxFreq;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReader leaf;
+  private int advanceStride;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    FieldType type = new FieldType();
+    type.setTokenized(false);
+    type.setOmitNorms(true);
+    type.setIndexOptions(IndexOptions.DOCS_AND_FREQS);
+    type.freeze();
+
+    Random random = new Random(0xC0FFEE);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+      Document empty = new Document();
+      for (int i = 0; i < numDocs; ++i) {
+        if (random.nextDouble() < docFreqRatio) {
+          Document doc = new Document();
+          int freq = 1 + random.nextInt(maxFreq);
+          for (int j = 0; j < freq; ++j) {
+            doc.add(new Field(FIELD, TERM.utf8ToString(), type));
+          }
+          w.addDocument(doc);
+        } else {
+          w.addDocument(empty);
+        }
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    leaf = reader.leaves().get(0).reader();
+    // advance by ~8 blocks at a time so that skip data is exercised
+    advanceStride = Math.max(1, (int) (8 * 128 / docFreqRatio));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  private PostingsEnum postings(int flags) throws IOException {
+    TermsEnum termsEnum = leaf.terms(FIELD).iterator();
+    if (termsEnum.seekExact(TERM) == false) {
+      throw new IllegalStateException("Missing term " + new Term(FIELD, TERM));
+    }
+    return termsEnum.postings(null, flags);
+  }
+
+  @Benchmark
+  public long nextDoc() throws IOException {
+    PostingsEnum postings = postings(PostingsEnum.NONE);
+    long sum = 0;
+    for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+      sum += doc;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long nextDocWithFreqs() throws IOException {
+    PostingsEnum postings = postings(PostingsEnum.FREQS);
+    long sum = 0;
+    for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+      sum += postings.freq();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long advance() throws IOException {
+    PostingsEnum postings = postings(PostingsEnum.NONE);
+    long sum = 0;
+    for (int doc = postings.advance(0); doc != DocIdSetIterator.NO_MORE_DOCS; ) {
+      sum += doc;
+      if (doc + advanceStride >= numDocs) {
+        break;
+      }
+      doc = postings.advance(doc + advanceStride);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LRUQueryCache;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCache;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.ShardedLRUQueryCache;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures query cache throughput when many threads run cached filters at once, which is
+ * dominated by lock contention in the cache and in the caching policy. Run with
+ * {@code -t <threads>} to change the number of concurrent searching threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class QueryCacheContentionBenchmark {
+
+  private static final String FIELD = "value";
+  private static final int MAX_VALUE = 1000;
+
+  private static final QueryCachingPolicy ALWAYS_CACHE = new QueryCachingPolicy() {
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) {
+      return true;
+    }
+  };
+
+  @Param({"200000"})
+  public int numDocs;
+
+  /** Number of segments that the index is made of. */
+  @Param({"20"})
+  public int numSegments;
+
+  /** Number of distinct filters that queries pick from. */
+  @Param({"32"})
+  public int numFilters;
+
+  /** {@code lru} for {@link LRUQueryCache}, {@code sharded} for {@link ShardedLRUQueryCache}. */
+  @Param({"lru", "sharded"})
+  public String cache;
+
+  /** Number of shards of the sharded cache. */
+  @Param({"16"})
+  public int numShards;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+  private Query[] filters;
+  private UsageTrackingQueryCachingPolicy policy;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random random = new Random(0xCAC4E);
+    IndexWriterConfig iwc = new IndexWriterConfig()
+        .setMergePolicy(NoMergePolicy.INSTANCE)
+        .setMaxBufferedDocs(Math.max(2, numDocs / numSegments));
+    try (IndexWriter w = new IndexWriter(dir, iwc)) {
+      for (int i = 0; i < numDocs; ++i) {
+        Document doc = new Document();
+        doc.add(new IntPoint(FIELD, random.nextInt(MAX_VALUE)));
+        w.addDocument(doc);
+      }
+    }
+    reader = DirectoryReader.open(dir);
+
+    final long maxRamBytesUsed = 256L * 1024 * 1024;
+    final QueryCache queryCache;
+    switch (cache) {
+      case "lru":
+        queryCache = new LRUQueryCache(numFilters, maxRamBytesUsed, context -> true, Float.POSITIVE_INFINITY);
+        break;
+      case "sharded":
+        // maxSize is split across shards, but every shard sees all filters
+        queryCache = new ShardedLRUQueryCache(numFilters * numShards, maxRamBytesUsed, context -> true, Float.POSITIVE_INFINITY, numShards);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown cache: " + cache);
+    }
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    filters = new Query[numFilters];
+    for (int i = 0; i < numFilters; ++i) {
+      int lower = random.nextInt(MAX_VALUE);
+      int upper = lower + random.nextInt(MAX_VALUE - lower);
+      filters[i] = new ConstantScoreQuery(IntPoint.newRangeQuery(FIELD, lower, upper));
+      // populate the cache
+      count(filters[i]);
+    }
+    policy = new UsageTrackingQueryCachingPolicy();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  private int count(Query query) throws IOException {
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    return collector.getTotalHits();
+  }
+
+  /** Runs a random filter, which should be served from the cache on every segment. */
+  @Benchmark
+  public int cachedFilter() throws IOException {
+    return count(filters[ThreadLocalRandom.current().nextInt(numFilters)]);
+  }
+
+  /** Records usage of a random filter and checks whether it should be cached, like a cache miss would. */
+  @Benchmark
+  public boolean cachingPolicy() throws IOException {
+    Query filter = ((ConstantScoreQuery) filters[ThreadLocalRandom.current().nextInt(numFilters)]).getQuery();
+    policy.onUse(filter);
+    return policy.shouldCache(filter);
+  }
+}
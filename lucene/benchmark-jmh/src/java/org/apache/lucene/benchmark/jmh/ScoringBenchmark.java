@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures top-k retrieval of term conjunctions and disjunctions, which run through
+ * {@code BlockMaxConjunctionScorer} and {@code WANDScorer} respectively when total hit counts
+ * are not required.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+  private static final String FIELD = "body";
+  // terms and the probability that a document contains them
+  private static final String[] TERMS = {"high", "medium", "low"};
+  private static final double[] PROBABILITIES = {0.3, 0.05, 0.005};
+
+  @Param({"1000000"})
+  public int numDocs;
+
+  /** Number of top hits to collect. */
+  @Param({"10", "100"})
+  public int topN;
+
+  /**
+   * Number of hits to count accurately: {@code topN} lets scorers skip non-competitive blocks,
+   * {@link Integer#MAX_VALUE} forces exhaustive evaluation.
+   */
+  @Param({"topN", "all"})
+  public String totalHits;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private IndexSearcher searcher;
+  private Query highMedium, mediumLow, disjunction;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random random = new Random(0xBEEF);
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < numDocs; ++i) {
+        text.setLength(0);
+        for (int t = 0; t < TERMS.length; ++t) {
+          if (random.nextDouble() < PROBABILITIES[t]) {
+            // skewed frequencies and doc lengths give varying scores and impacts
+            int freq = 1 + random.nextInt(1 + random.nextInt(20));
+            for (int j = 0; j < freq; ++j) {
+              text.append(TERMS[t]).append(' ');
+            }
+          }
+        }
+        int filler = random.nextInt(50);
+        for (int j = 0; j < filler; ++j) {
+          text.append("filler ");
+        }
+        Document doc = new Document();
+        doc.add(new TextField(FIELD, text.toString(), Field.Store.NO));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(null);
+
+    highMedium = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term(FIELD, "high")), Occur.MUST)
+        .add(new TermQuery(new Term(FIELD, "medium")), Occur.MUST)
+        .build();
+    mediumLow = new BooleanQuery.Builder()
+        .add(new TermQuery(new Term(FIELD, "medium")), Occur.MUST)
+        .add(new TermQuery(new Term(FIELD, "low")), Occur.MUST)
+        .build();
+    BooleanQuery.Builder builder = new BooleanQuery.Builder();
+    for (String term : TERMS) {
+      builder.add(new TermQuery(new Term(FIELD, term)), Occur.SHOULD);
+    }
+    disjunction = builder.build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  private long search(Query query) throws IOException {
+    int threshold = "all".equals(totalHits) ? Integer.MAX_VALUE : topN;
+    TopScoreDocCollector collector = TopScoreDocCollector.create(topN, threshold);
+    searcher.search(query, collector);
+    return collector.topDocs().totalHits.value;
+  }
+
+  @Benchmark
+  public long conjunctionHighMedium() throws IOException {
+    return search(highMedium);
+  }
+
+  @Benchmark
+  public long conjunctionMediumLow() throws IOException {
+    return search(mediumLow);
+  }
+
+  @Benchmark
+  public long disjunction() throws IOException {
+    return search(disjunction);
+  }
+}
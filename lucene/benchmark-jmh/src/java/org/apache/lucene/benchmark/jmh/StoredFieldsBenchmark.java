@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.benchmark.jmh;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.codecs.lucene87.Lucene87Codec;
+import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures retrieval of stored documents, which is dominated by block decompression in
+ * {@code CompressingStoredFieldsReader}: a top-N style fetch of random documents, and a
+ * sequential scan as done by merges and exports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoredFieldsBenchmark {
+
+  private static final String[] WORDS = {
+      "id", "name", "title", "price", "category", "color", "size", "brand", "description", "tags",
+      "red", "green", "blue", "small", "medium", "large", "shoes", "shirt", "lucene", "search"
+  };
+
+  @Param({"100000"})
+  public int numDocs;
+
+  @Param({"BEST_SPEED", "BEST_COMPRESSION"})
+  public Lucene87StoredFieldsFormat.Mode mode;
+
+  /** Number of random documents fetched per invocation of {@link #fetchRandom()}. */
+  @Param({"10", "100"})
+  public int topN;
+
+  private Directory dir;
+  private DirectoryReader reader;
+  private LeafReader leaf;
+  private int[] docIDs;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = new ByteBuffersDirectory();
+    Random random = new Random(0x570);
+    IndexWriterConfig config = new IndexWriterConfig()
+        .setCodec(new Lucene87Codec(mode))
+        .setRAMBufferSizeMB(256);
+    try (IndexWriter w = new IndexWriter(dir, config)) {
+      StringBuilder json = new StringBuilder();
+      for (int i = 0; i < numDocs; ++i) {
+        // small JSON-like documents with a lot of redundancy across documents
+        json.setLength(0);
+        json.append('{');
+        int numFields = 3 + random.nextInt(8);
+        for (int j = 0; j < numFields; ++j) {
+          json.append('"').append(WORDS[random.nextInt(WORDS.length)]).append("\":\"")
+              .append(WORDS[random.nextInt(WORDS.length)]).append(' ')
+              .append(random.nextInt(10000)).append("\",");
+        }
+        json.append('}');
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        doc.add(new StoredField("source", json.toString()));
+        w.addDocument(doc);
+      }
+      w.forceMerge(1);
+    }
+    reader = DirectoryReader.open(dir);
+    leaf = reader.leaves().get(0).reader();
+    docIDs = new int[topN];
+    for (int i = 0; i < topN; ++i) {
+      docIDs[i] = random.nextInt(numDocs);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    reader.close();
+    dir.close();
+  }
+
+  @Benchmark
+  public long fetchRandom() throws IOException {
+    long sum = 0;
+    for (int docID : docIDs) {
+      sum += leaf.document(docID).getFields().size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long scanAll() throws IOException {
+    long sum = 0;
+    for (int docID = 0; docID < numDocs; ++docID) {
+      sum += leaf.document(docID).getFields().size();
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JMH micro-benchmarks for Lucene core hot paths.
+ * <p>
+ * Each benchmark builds a small, deterministic index (or data set) in its setup phase and then
+ * measures a single low-level operation: postings decoding, block-max scoring, doc values iteration,
+ * BKD leaf visiting, stored fields decompression, {@link org.apache.lucene.util.FixedBitSet} operations
+ * and {@link org.apache.lucene.util.compress.LZ4} compression.
+ * <p>
+ * Run all benchmarks with <code>gradlew -p lucene/benchmark-jmh jmh</code>; results are written in
+ * JMH's JSON format to <code>build/jmh/results.json</code> so that they can be tracked across releases.
+ * Pass <code>-PjmhArgs="&lt;regexp&gt; &lt;jmh options&gt;"</code> to select benchmarks or override
+ * parameters.
+ */
+package org.apache.lucene.benchmark.jmh;
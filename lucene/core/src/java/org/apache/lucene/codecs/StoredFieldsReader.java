@@ -39,6 +39,14 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Optional hint that the stored fields for document <code>docID</code> will
+   * be visited soon.
+   * <p>
+   * The default implementation is a no-op. */
+  public void prefetch(int docID) throws IOException {
+  }
+
   @Override
   public abstract StoredFieldsReader clone();
   
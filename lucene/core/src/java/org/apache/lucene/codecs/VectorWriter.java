@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.index.DocIDMerger;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.Bits;
+
+/** Abstract API to write vector values.
+ *
+ * @lucene.experimental
+ */
+public abstract class VectorWriter implements Closeable {
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected VectorWriter() {
+  }
+
+  /** Write all values contained in the provided iterator, which must be positioned before its first document. */
+  public abstract void writeField(FieldInfo fieldInfo, VectorValues values) throws IOException;
+
+  /** Called once at the end before close */
+  public abstract void finish() throws IOException;
+
+  /** Default merge implementation to merge incoming vector readers by visiting all their vectors and
+   *  adding them to this writer */
+  public void merge(MergeState mergeState) throws IOException {
+    // check each incoming reader
+    for (VectorReader reader : mergeState.vectorReaders) {
+      if (reader != null) {
+        reader.checkIntegrity();
+      }
+    }
+    // merge field at a time
+    for (FieldInfo fieldInfo : mergeState.mergeFieldInfos) {
+      if (fieldInfo.getVectorDimension() > 0) {
+        mergeOneField(mergeState, fieldInfo);
+      }
+    }
+    finish();
+  }
+
+  /** Default naive merge implementation for one field: it writes the concatenation of the
+   *  live vectors of the incoming segments, in merged doc ID order. */
+  protected void mergeOneField(MergeState mergeState, FieldInfo mergeFieldInfo) throws IOException {
+    writeField(mergeFieldInfo, mergeVectorValues(mergeState, mergeFieldInfo));
+  }
+
+  /** Returns a view over the live vectors of the given field across all incoming segments, in merged doc ID order. */
+  protected static VectorValues mergeVectorValues(MergeState mergeState, FieldInfo mergeFieldInfo) throws IOException {
+    List<VectorValuesSub> subs = new ArrayList<>();
+    int size = 0;
+    for (int i = 0; i < mergeState.vectorReaders.length; i++) {
+      VectorReader vectorReader = mergeState.vectorReaders[i];
+      if (vectorReader == null) {
+        continue;
+      }
+      FieldInfo readerFieldInfo = mergeState.fieldInfos[i].fieldInfo(mergeFieldInfo.name);
+      if (readerFieldInfo == null || readerFieldInfo.getVectorDimension() == 0) {
+        // This segment never saw this field, or did not index vectors for it
+        continue;
+      }
+      if (readerFieldInfo.getVectorDimension() != mergeFieldInfo.getVectorDimension()
+          || readerFieldInfo.getVectorSimilarityFunction() != mergeFieldInfo.getVectorSimilarityFunction()) {
+        throw new IllegalArgumentException("cannot merge field \"" + mergeFieldInfo.name + "\" with vector dimension="
+            + readerFieldInfo.getVectorDimension() + ", similarity function=" + readerFieldInfo.getVectorSimilarityFunction()
+            + " into vector dimension=" + mergeFieldInfo.getVectorDimension() + ", similarity function=" + mergeFieldInfo.getVectorSimilarityFunction());
+      }
+      VectorValues values = vectorReader.getVectorValues(mergeFieldInfo.name);
+      if (values == null) {
+        continue;
+      }
+      size += liveCount(vectorReader, mergeFieldInfo.name, values, mergeState.liveDocs[i]);
+      subs.add(new VectorValuesSub(mergeState.docMaps[i], values));
+    }
+    return new MergedVectorValues(subs, size, mergeFieldInfo, DocIDMerger.of(subs, mergeState.needsIndexSort));
+  }
+
+  private static int liveCount(VectorReader reader, String field, VectorValues values, Bits liveDocs) throws IOException {
+    if (liveDocs == null) {
+      return values.size();
+    }
+    int count = 0;
+    // use a separate iterator since the one from the merged view must remain unpositioned
+    VectorValues counter = reader.getVectorValues(field);
+    for (int doc = counter.nextDoc(); doc != VectorValues.NO_MORE_DOCS; doc = counter.nextDoc()) {
+      if (liveDocs.get(doc)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Tracks state of one sub-reader that we are merging */
+  private static class VectorValuesSub extends DocIDMerger.Sub {
+
+    final VectorValues values;
+
+    VectorValuesSub(MergeState.DocMap docMap, VectorValues values) {
+      super(docMap);
+      this.values = values;
+      assert values.docID() == -1;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      return values.nextDoc();
+    }
+  }
+
+  private static class MergedVectorValues extends VectorValues {
+
+    private final List<VectorValuesSub> subs;
+    private final DocIDMerger<VectorValuesSub> docIdMerger;
+    private final int size;
+    private final int dimension;
+    private final SimilarityFunction similarityFunction;
+
+    private int docId = -1;
+    private VectorValuesSub current;
+
+    MergedVectorValues(List<VectorValuesSub> subs, int size, FieldInfo fieldInfo, DocIDMerger<VectorValuesSub> docIdMerger) {
+      this.subs = subs;
+      this.size = size;
+      this.dimension = fieldInfo.getVectorDimension();
+      this.similarityFunction = fieldInfo.getVectorSimilarityFunction();
+      this.docIdMerger = docIdMerger;
+    }
+
+    @Override
+    public int docID() {
+      return docId;
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      current = docIdMerger.next();
+      if (current == null) {
+        docId = NO_MORE_DOCS;
+      } else {
+        docId = current.mappedDocID;
+      }
+      return docId;
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public float[] vectorValue() throws IOException {
+      return current.values.vectorValue();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int dimension() {
+      return dimension;
+    }
+
+    @Override
+    public SimilarityFunction similarityFunction() {
+      return similarityFunction;
+    }
+
+    @Override
+    public String toString() {
+      return "MergedVectorValues(" + subs.size() + " subs)";
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.lucene.codecs.CodecUtil;
@@ -34,6 +35,7 @@ import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.ByteBufferIndexInput;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.Accountable;
@@ -75,6 +77,42 @@ import org.apache.lucene.util.fst.Outputs;
 
 public final class BlockTreeTermsReader extends FieldsProducer {
 
+  /**
+   * An enum that allows to control if term index FSTs are loaded into memory or read off-heap
+   */
+  public enum FSTLoadMode {
+    /**
+     * Always read FSTs from disk.
+     * NOTE: If this option is used the FST will be read off-heap even if buffered directory implementations
+     * are used.
+     */
+    OFF_HEAP,
+    /**
+     * Never read FSTs from disk ie. all fields FSTs are loaded into memory
+     */
+    ON_HEAP,
+    /**
+     * Automatically make the decision if FSTs are read from disk depending if the segment read from an MMAPDirectory
+     */
+    AUTO
+  }
+
+  /**
+   * Reader attribute key that sets the default {@link FSTLoadMode} for all fields of a segment.
+   * Defaults to {@link FSTLoadMode#OFF_HEAP} if not set.
+   * @see org.apache.lucene.index.DirectoryReader#open(org.apache.lucene.store.Directory, Map)
+   * @see org.apache.lucene.index.IndexWriterConfig#setReaderAttributes(Map)
+   */
+  public static final String FST_MODE_KEY = BlockTreeTermsReader.class.getSimpleName() + ".fstMode";
+
+  /**
+   * Returns the reader attribute key that sets the {@link FSTLoadMode} of the given field,
+   * overriding {@link #FST_MODE_KEY} for this field only.
+   */
+  public static String fstModeKey(String field) {
+    return FST_MODE_KEY + "." + field;
+  }
+
   static final Outputs<BytesRef> FST_OUTPUTS = ByteSequenceOutputs.getSingleton();
   
   static final BytesRef NO_OUTPUT = FST_OUTPUTS.getNoOutput();
@@ -213,9 +251,10 @@ public final class BlockTreeTermsReader extends FieldsProducer {
               throw new CorruptIndexException("invalid sumTotalTermFreq: " + sumTotalTermFreq + " sumDocFreq: " + sumDocFreq, termsMetaIn);
             }
             final long indexStartFP = indexMetaIn.readVLong();
+            final boolean fstOffHeap = isFSTOffHeap(getFSTLoadMode(state.readerAttributes, fieldInfo.name), indexIn);
             FieldReader previous = fieldMap.put(fieldInfo.name,
                 new FieldReader(this, fieldInfo, numTerms, rootCode, sumTotalTermFreq, sumDocFreq, docCount,
-                    indexStartFP, indexMetaIn, indexIn, minTerm, maxTerm));
+                    indexStartFP, indexMetaIn, indexIn, minTerm, maxTerm, fstOffHeap));
             if (previous != null) {
               throw new CorruptIndexException("duplicate field: " + fieldInfo.name, termsMetaIn);
             }
@@ -255,6 +294,36 @@ public final class BlockTreeTermsReader extends FieldsProducer {
     }
   }
 
+  /** Resolves the {@link FSTLoadMode} of {@code field}, per-field settings take precedence over the default one. */
+  static FSTLoadMode getFSTLoadMode(Map<String, String> attributes, String field) {
+    String value = attributes.get(fstModeKey(field));
+    if (value == null) {
+      value = attributes.get(FST_MODE_KEY);
+    }
+    if (value == null) {
+      return FSTLoadMode.OFF_HEAP;
+    }
+    try {
+      return FSTLoadMode.valueOf(value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid " + FST_MODE_KEY + " for field \"" + field + "\": " + value, e);
+    }
+  }
+
+  private static boolean isFSTOffHeap(FSTLoadMode mode, IndexInput indexIn) {
+    switch (mode) {
+      case ON_HEAP:
+        return false;
+      case OFF_HEAP:
+        return true;
+      case AUTO:
+        // only memory-mapped inputs make off-heap reads cheap
+        return indexIn instanceof ByteBufferIndexInput;
+      default:
+        throw new AssertionError("unknown mode: " + mode);
+    }
+  }
+
   private static BytesRef readBytesRef(IndexInput in) throws IOException {
     int numBytes = in.readVInt();
     if (numBytes < 0) {
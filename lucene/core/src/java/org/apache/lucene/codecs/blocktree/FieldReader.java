@@ -59,10 +59,12 @@ public final class FieldReader extends Terms implements Accountable {
   final BlockTreeTermsReader parent;
 
   final FST<BytesRef> index;
+  private final OffHeapFSTStore offHeapStore;
+  private final boolean isFSTOffHeap;
   //private boolean DEBUG;
 
   FieldReader(BlockTreeTermsReader parent, FieldInfo fieldInfo, long numTerms, BytesRef rootCode, long sumTotalTermFreq, long sumDocFreq, int docCount,
-              long indexStartFP, IndexInput metaIn, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm) throws IOException {
+              long indexStartFP, IndexInput metaIn, IndexInput indexIn, BytesRef minTerm, BytesRef maxTerm, boolean isFSTOffHeap) throws IOException {
     assert numTerms > 0;
     this.fieldInfo = fieldInfo;
     //DEBUG = BlockTreeTermsReader.DEBUG && fieldInfo.name.equals("id");
@@ -78,13 +80,16 @@ public final class FieldReader extends Terms implements Accountable {
     //   System.out.println("BTTR: seg=" + segment + " field=" + fieldInfo.name + " rootBlockCode=" + rootCode + " divisor=" + indexDivisor);
     // }
     rootBlockFP = (new ByteArrayDataInput(rootCode.bytes, rootCode.offset, rootCode.length)).readVLong() >>> BlockTreeTermsReader.OUTPUT_FLAGS_NUM_BITS;
-    // Initialize FST always off-heap.
+    this.isFSTOffHeap = isFSTOffHeap;
     final IndexInput clone = indexIn.clone();
     clone.seek(indexStartFP);
-    if (metaIn == indexIn) { // Only true before Lucene 8.6
-      index = new FST<>(clone, clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
+    final IndexInput indexMetaIn = metaIn == indexIn ? clone : metaIn; // metaIn == indexIn only before Lucene 8.6
+    if (isFSTOffHeap) {
+      offHeapStore = new OffHeapFSTStore();
+      index = new FST<>(indexMetaIn, clone, ByteSequenceOutputs.getSingleton(), offHeapStore);
     } else {
-      index = new FST<>(metaIn, clone, ByteSequenceOutputs.getSingleton(), new OffHeapFSTStore());
+      offHeapStore = null;
+      index = new FST<>(indexMetaIn, clone, ByteSequenceOutputs.getSingleton());
     }
     /*
       if (false) {
@@ -180,6 +185,20 @@ public final class FieldReader extends Terms implements Accountable {
     return new IntersectTermsEnum(this, compiled.automaton, compiled.runAutomaton, compiled.commonSuffixRef, startTerm);
   }
     
+  /** Returns true iff the terms index FST of this field is read off-heap. */
+  public boolean isFSTOffHeap() {
+    return isFSTOffHeap;
+  }
+
+  /**
+   * Returns the number of bytes of the terms index FST of this field that are read from the
+   * index files rather than held on-heap, or 0 if the FST is loaded on-heap.
+   * @see #ramBytesUsed()
+   */
+  public long offHeapBytesUsed() {
+    return isFSTOffHeap ? offHeapStore.size() : 0L;
+  }
+
   @Override
   public long ramBytesUsed() {
     return BASE_RAM_BYTES_USED + ((index!=null)? index.ramBytesUsed() : 0);
@@ -36,7 +36,7 @@ import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.STRING;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.TYPE_BITS;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.TYPE_MASK;
-import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_CURRENT;
+import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_DICTIONARY;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_META;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_OFFHEAP_INDEX;
 import static org.apache.lucene.codecs.compressing.CompressingStoredFieldsWriter.VERSION_START;
@@ -90,8 +90,11 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final int numDocs;
   private final boolean merging;
   private final BlockState state;
+  private BlockState cacheState; // used to fill caches of decompressed blocks, lazily created
   private final long numChunks; // number of compressed blocks written
   private final long numDirtyChunks; // number of incomplete compressed blocks written
+  private final long dictionaryPointer; // start pointer of the shared dictionary, or -1 if there is none
+  private long prefetchedPointer = -1; // start pointer of the last block that got prefetched
   private boolean closed;
 
   // used by clone
@@ -108,8 +111,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     this.numDocs = reader.numDocs;
     this.numChunks = reader.numChunks;
     this.numDirtyChunks = reader.numDirtyChunks;
+    this.dictionaryPointer = reader.dictionaryPointer;
     this.merging = merging;
-    this.state = new BlockState();
+    this.state = new BlockState(merging);
     this.closed = false;
   }
 
@@ -127,7 +131,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     try {
       // Open the data file
       fieldsStream = d.openInput(fieldsStreamFN, context);
-      version = CodecUtil.checkIndexHeader(fieldsStream, formatName, VERSION_START, VERSION_CURRENT, si.getId(), segmentSuffix);
+      version = CodecUtil.checkIndexHeader(fieldsStream, formatName, VERSION_START, VERSION_DICTIONARY, si.getId(), segmentSuffix);
       assert CodecUtil.indexHeaderLength(formatName, segmentSuffix) == fieldsStream.getFilePointer();
 
       if (version >= VERSION_OFFHEAP_INDEX) {
@@ -145,7 +149,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
       decompressor = compressionMode.newDecompressor();
       this.merging = false;
-      this.state = new BlockState();
+      this.state = new BlockState(false);
 
       // NOTE: data file is too costly to verify checksum against all the bytes on open,
       // but for now we at least verify proper structure of the checksum footer: which looks
@@ -164,7 +168,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
           try {
             assert formatName.endsWith("Data");
             final String codecNameIdx = formatName.substring(0, formatName.length() - "Data".length()) + "Index";
-            final int version2 = CodecUtil.checkIndexHeader(indexStream, codecNameIdx, VERSION_START, VERSION_CURRENT, si.getId(), segmentSuffix);
+            final int version2 = CodecUtil.checkIndexHeader(indexStream, codecNameIdx, VERSION_START, VERSION_DICTIONARY, si.getId(), segmentSuffix);
             if (version != version2) {
               throw new CorruptIndexException("Version mismatch between stored fields index and data: " + version2 + " != " + version, indexStream);
             }
@@ -198,6 +202,20 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
         throw new CorruptIndexException("invalid chunk counts: dirty=" + numDirtyChunks + ", total=" + numChunks, fieldsStream);
       }
 
+      if (version >= VERSION_DICTIONARY) {
+        dictionaryPointer = metaIn.readLong();
+      } else {
+        dictionaryPointer = -1;
+      }
+      if (dictionaryPointer != -1) {
+        if (dictionaryPointer < CodecUtil.indexHeaderLength(formatName, segmentSuffix) || dictionaryPointer >= maxPointer) {
+          throw new CorruptIndexException("invalid dictionary pointer: " + dictionaryPointer + ", maxPointer=" + maxPointer, fieldsStream);
+        }
+        // the dictionary is loaded once and then shared by all clones of the decompressor
+        fieldsStream.seek(dictionaryPointer);
+        decompressor.readDictionary(fieldsStream);
+      }
+
       if (metaIn != null) {
         CodecUtil.checkFooter(metaIn, null);
         metaIn.close();
@@ -394,6 +412,9 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
    */
   private class BlockState {
 
+    // whether to decompress the whole block when resetting
+    private final boolean eager;
+
     private int docBase, chunkDocs;
 
     // whether the block has been sliced, this happens for large documents
@@ -408,6 +429,10 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     private final BytesRef spare = new BytesRef();
     private final BytesRef bytes = new BytesRef();
 
+    BlockState(boolean eager) {
+      this.eager = eager;
+    }
+
     boolean contains(int docID) {
       return docID >= docBase && docID < docBase + chunkDocs;
     }
@@ -499,7 +524,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
 
       startPointer = fieldsStream.getFilePointer();
 
-      if (merging) {
+      if (eager) {
         final int totalLength = offsets[chunkDocs];
         // decompress eagerly
         if (sliced) {
@@ -540,7 +565,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       if (length == 0) {
         // empty
         documentInput = new ByteArrayDataInput();
-      } else if (merging) {
+      } else if (eager) {
         // already decompressed
         documentInput = new ByteArrayDataInput(bytes.bytes, bytes.offset + offset, length);
       } else if (sliced) {
@@ -593,6 +618,18 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
       return new SerializedDocument(documentInput, length, numStoredFields);
     }
 
+    /**
+     * Copy the state of this block into a {@link StoredFieldsBlockCache.Block}
+     * that doesn't share anything with this instance.
+     */
+    StoredFieldsBlockCache.Block toCachedBlock() {
+      assert eager;
+      return new StoredFieldsBlockCache.Block(docBase, chunkDocs,
+          ArrayUtil.copyOfSubArray(offsets, 0, chunkDocs + 1),
+          ArrayUtil.copyOfSubArray(numStoredFields, 0, chunkDocs),
+          ArrayUtil.copyOfSubArray(bytes.bytes, bytes.offset, bytes.offset + offsets[chunkDocs]));
+    }
+
   }
 
   SerializedDocument document(int docID) throws IOException {
@@ -607,9 +644,53 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   @Override
   public void visitDocument(int docID, StoredFieldVisitor visitor)
       throws IOException {
+    visitDocument(document(docID), visitor);
+  }
 
-    final SerializedDocument doc = document(docID);
+  @Override
+  public void prefetch(int docID) throws IOException {
+    if (state.contains(docID)) {
+      return;
+    }
+    final long startPointer = indexReader.getStartPointer(docID);
+    if (startPointer != prefetchedPointer) {
+      // consecutive hits often share a block, only ask for it once
+      prefetchedPointer = startPointer;
+      fieldsStream.prefetch(startPointer, Math.min(chunkSize, maxPointer - startPointer));
+    }
+  }
 
+  /**
+   * Same as {@link #visitDocument(int, StoredFieldVisitor)}, but first look up
+   * the decompressed block that contains <code>docID</code> in the given cache,
+   * and add it to the cache after decompressing it if it is missing. The cache
+   * must only contain blocks of the segment that this reader belongs to.
+   */
+  public void visitDocument(int docID, StoredFieldVisitor visitor, StoredFieldsBlockCache cache)
+      throws IOException {
+    final long startPointer = indexReader.getStartPointer(docID);
+    StoredFieldsBlockCache.Block block = cache.get(startPointer);
+    if (block == null) {
+      if (cacheState == null) {
+        cacheState = new BlockState(true);
+      }
+      fieldsStream.seek(startPointer);
+      cacheState.reset(docID);
+      block = cacheState.toCachedBlock();
+      cache.put(startPointer, block);
+    } else if (block.contains(docID) == false) {
+      throw new IllegalStateException("Cached block " + block + " doesn't contain doc " + docID
+          + ", was the cache populated by a reader of another segment?");
+    }
+    final int index = docID - block.docBase;
+    final int offset = block.offsets[index];
+    final int length = block.offsets[index + 1] - offset;
+    final DataInput documentInput = new ByteArrayDataInput(block.bytes, offset, length);
+    visitDocument(new SerializedDocument(documentInput, length, block.numStoredFields[index]), visitor);
+  }
+
+  private void visitDocument(SerializedDocument doc, StoredFieldVisitor visitor)
+      throws IOException {
     for (int fieldIDX = 0; fieldIDX < doc.numStoredFields; fieldIDX++) {
       final long infoAndBits = doc.in.readVLong();
       final int fieldNumber = (int) (infoAndBits >>> TYPE_BITS);
@@ -661,6 +742,10 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   long getMaxPointer() {
     return maxPointer;
   }
+
+  long getDictionaryPointer() {
+    return dictionaryPointer;
+  }
   
   IndexInput getFieldsStream() {
     return fieldsStream;
@@ -78,6 +78,10 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   /** Version where all metadata were moved to the meta file. */
   static final int VERSION_META = 3;
   static final int VERSION_CURRENT = VERSION_META;
+  /** Version where compressors may store a shared dictionary in the data file.
+   *  Only used by {@link CompressionMode}s that {@link CompressionMode#hasDictionary() have a dictionary},
+   *  other modes keep writing {@link #VERSION_CURRENT}. */
+  static final int VERSION_DICTIONARY = 4;
   static final int META_VERSION_START = 0;
 
   private final String segment;
@@ -86,6 +90,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
 
   private Compressor compressor;
   private final CompressionMode compressionMode;
+  private final int version;
   private final int chunkSize;
   private final int maxDocsPerChunk;
 
@@ -97,6 +102,10 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   
   private long numChunks; // number of compressed blocks written
   private long numDirtyChunks; // number of incomplete compressed blocks written
+  private boolean dictionaryWritten; // whether the compressor has been given the chance to write a dictionary
+  private long dictionaryPointer = -1; // start pointer of the shared dictionary, or -1 if there is none
+  private int[] sampleChunkEnds = new int[4]; // ends of the chunks that are buffered until the dictionary is written
+  private int numSampleChunks;
 
   /** Sole constructor. */
   CompressingStoredFieldsWriter(Directory directory, SegmentInfo si, String segmentSuffix, IOContext context,
@@ -105,6 +114,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     this.segment = si.name;
     this.compressionMode = compressionMode;
     this.compressor = compressionMode.newCompressor();
+    this.version = compressionMode.hasDictionary() ? VERSION_DICTIONARY : VERSION_CURRENT;
     this.chunkSize = chunkSize;
     this.maxDocsPerChunk = maxDocsPerChunk;
     this.docBase = 0;
@@ -116,11 +126,11 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     boolean success = false;
     try {
       metaStream = directory.createOutput(IndexFileNames.segmentFileName(segment, segmentSuffix, META_EXTENSION), context);
-      CodecUtil.writeIndexHeader(metaStream, INDEX_CODEC_NAME + "Meta", VERSION_CURRENT, si.getId(), segmentSuffix);
+      CodecUtil.writeIndexHeader(metaStream, INDEX_CODEC_NAME + "Meta", version, si.getId(), segmentSuffix);
       assert CodecUtil.indexHeaderLength(INDEX_CODEC_NAME + "Meta", segmentSuffix) == metaStream.getFilePointer();
 
       fieldsStream = directory.createOutput(IndexFileNames.segmentFileName(segment, segmentSuffix, FIELDS_EXTENSION), context);
-      CodecUtil.writeIndexHeader(fieldsStream, formatName, VERSION_CURRENT, si.getId(), segmentSuffix);
+      CodecUtil.writeIndexHeader(fieldsStream, formatName, version, si.getId(), segmentSuffix);
       assert CodecUtil.indexHeaderLength(formatName, segmentSuffix) == fieldsStream.getFilePointer();
 
       indexWriter = new FieldsIndexWriter(directory, segment, segmentSuffix, INDEX_EXTENSION, INDEX_CODEC_NAME, si.getId(), blockShift, context);
@@ -166,7 +176,13 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     endOffsets[numBufferedDocs] = Math.toIntExact(bufferedDocs.size());
     ++numBufferedDocs;
     if (triggerFlush()) {
-      flush();
+      if (needsMoreSample()) {
+        // keep the chunk in memory so that the dictionary is built out of several chunks
+        sampleChunkEnds = ArrayUtil.grow(sampleChunkEnds, numSampleChunks + 1);
+        sampleChunkEnds[numSampleChunks++] = numBufferedDocs;
+      } else {
+        flush(false);
+      }
     }
   }
 
@@ -216,45 +232,116 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   }
 
   private boolean triggerFlush() {
-    return bufferedDocs.size() >= chunkSize || // chunks of at least chunkSize bytes
-        numBufferedDocs >= maxDocsPerChunk;
+    // only the docs of the last chunk count if previous ones are buffered as a sample
+    final int chunkStartDoc = numSampleChunks == 0 ? 0 : sampleChunkEnds[numSampleChunks - 1];
+    final long chunkStartOffset = chunkStartDoc == 0 ? 0 : endOffsets[chunkStartDoc - 1];
+    return bufferedDocs.size() - chunkStartOffset >= chunkSize || // chunks of at least chunkSize bytes
+        numBufferedDocs - chunkStartDoc >= maxDocsPerChunk;
   }
 
-  private void flush() throws IOException {
-    indexWriter.writeIndex(numBufferedDocs, fieldsStream.getFilePointer());
+  private boolean needsMoreSample() {
+    return version >= VERSION_DICTIONARY && dictionaryWritten == false &&
+        bufferedDocs.size() < compressor.getDictionarySampleLength();
+  }
 
+  /**
+   * Write buffered documents. If the dictionary has not been written yet, it
+   * is built out of all buffered chunks, which are then written one by one.
+   * {@code force} is true if the last chunk is incomplete.
+   */
+  private void flush(boolean force) throws IOException {
     // transform end offsets into lengths
     final int[] lengths = endOffsets;
     for (int i = numBufferedDocs - 1; i > 0; --i) {
       lengths[i] = endOffsets[i] - endOffsets[i - 1];
       assert lengths[i] >= 0;
     }
-    final boolean sliced = bufferedDocs.size() >= 2 * chunkSize;
-    writeHeader(docBase, numBufferedDocs, numStoredFields, lengths, sliced);
+    byte [] content = bufferedDocs.toArrayCopy();
+    bufferedDocs.reset();
+
+    int chunkStartDoc = 0;
+    int chunkStartOffset = 0;
+    if (version >= VERSION_DICTIONARY && dictionaryWritten == false) {
+      writeDictionary(content);
+      for (int i = 0; i < numSampleChunks; ++i) {
+        chunkStartOffset = writeChunk(content, chunkStartOffset, chunkStartDoc, sampleChunkEnds[i]);
+        chunkStartDoc = sampleChunkEnds[i];
+      }
+      numSampleChunks = 0;
+    }
+    assert numSampleChunks == 0;
+    if (chunkStartDoc < numBufferedDocs) {
+      chunkStartOffset = writeChunk(content, chunkStartOffset, chunkStartDoc, numBufferedDocs);
+      if (force) {
+        numDirtyChunks++; // incomplete: we had to force this flush
+      }
+    }
+    assert chunkStartOffset == content.length;
+
+    // reset
+    numBufferedDocs = 0;
+  }
+
+  /**
+   * Write buffered documents {@code [fromDoc, toDoc)}, whose content starts at
+   * {@code content[offset]}, as a chunk and return the offset of the end of
+   * their content. {@link #endOffsets} must already hold lengths.
+   */
+  private int writeChunk(byte[] content, int offset, int fromDoc, int toDoc) throws IOException {
+    final int numDocs = toDoc - fromDoc;
+    int[] numStoredFields = this.numStoredFields;
+    int[] lengths = this.endOffsets;
+    if (fromDoc > 0) {
+      numStoredFields = ArrayUtil.copyOfSubArray(numStoredFields, fromDoc, toDoc);
+      lengths = ArrayUtil.copyOfSubArray(lengths, fromDoc, toDoc);
+    }
+    int length = 0;
+    for (int i = 0; i < numDocs; ++i) {
+      length += lengths[i];
+    }
+
+    indexWriter.writeIndex(numDocs, fieldsStream.getFilePointer());
+    final boolean sliced = length >= 2 * chunkSize;
+    writeHeader(docBase, numDocs, numStoredFields, lengths, sliced);
 
     // compress stored fields to fieldsStream.
     //
     // TODO: do we need to slice it since we already have the slices in the buffer? Perhaps
     // we should use max-block-bits restriction on the buffer itself, then we won't have to check it here.
-    byte [] content = bufferedDocs.toArrayCopy();
-    bufferedDocs.reset();
-
+    final int end = offset + length;
     if (sliced) {
       // big chunk, slice it
-      for (int compressed = 0; compressed < content.length; compressed += chunkSize) {
-        compressor.compress(content, compressed, Math.min(chunkSize, content.length - compressed), fieldsStream);
+      for (int compressed = offset; compressed < end; compressed += chunkSize) {
+        compressor.compress(content, compressed, Math.min(chunkSize, end - compressed), fieldsStream);
       }
     } else {
-      compressor.compress(content, 0, content.length, fieldsStream);
+      compressor.compress(content, offset, length, fieldsStream);
     }
 
-    // reset
-    docBase += numBufferedDocs;
-    numBufferedDocs = 0;
-    bufferedDocs.reset();
+    docBase += numDocs;
     numChunks++;
+    return end;
   }
   
+  /**
+   * Give the compressor a chance to build a dictionary out of the first chunks
+   * and to store it before the first chunk. Chunks are buffered until they are
+   * at least {@link Compressor#getDictionarySampleLength()} bytes or until a
+   * flush is forced, which means that merges train dictionaries on merged
+   * content too. Note that the sample is only the beginning of the segment,
+   * so segments whose content drifts over time get a dictionary that fits
+   * their first documents best.
+   */
+  private void writeDictionary(byte[] sample) throws IOException {
+    assert dictionaryWritten == false;
+    final long startPointer = fieldsStream.getFilePointer();
+    compressor.writeDictionary(sample, 0, sample.length, fieldsStream);
+    if (fieldsStream.getFilePointer() != startPointer) {
+      dictionaryPointer = startPointer;
+    }
+    dictionaryWritten = true;
+  }
+
   @Override
   public void writeField(FieldInfo info, IndexableField field)
       throws IOException {
@@ -468,8 +555,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
   @Override
   public void finish(FieldInfos fis, int numDocs) throws IOException {
     if (numBufferedDocs > 0) {
-      flush();
-      numDirtyChunks++; // incomplete: we had to force this flush
+      flush(true);
     } else {
       assert bufferedDocs.size() == 0;
     }
@@ -479,6 +565,11 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
     indexWriter.finish(numDocs, fieldsStream.getFilePointer(), metaStream);
     metaStream.writeVLong(numChunks);
     metaStream.writeVLong(numDirtyChunks);
+    if (version >= VERSION_DICTIONARY) {
+      metaStream.writeLong(dictionaryPointer);
+    } else {
+      assert dictionaryPointer == -1;
+    }
     CodecUtil.writeFooter(metaStream);
     CodecUtil.writeFooter(fieldsStream);
     assert bufferedDocs.size() == 0;
@@ -554,7 +645,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
       final Bits liveDocs = mergeState.liveDocs[readerIndex];
 
       // if its some other format, or an older version of this format, or safety switch:
-      if (matchingFieldsReader == null || matchingFieldsReader.getVersion() != VERSION_CURRENT || BULK_MERGE_ENABLED == false) {
+      if (matchingFieldsReader == null || matchingFieldsReader.getVersion() != version || BULK_MERGE_ENABLED == false) {
         // naive merge...
         StoredFieldsReader storedFieldsReader = mergeState.storedFieldsReaders[readerIndex];
         if (storedFieldsReader != null) {
@@ -573,18 +664,18 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
                  matchingFieldsReader.getChunkSize() == chunkSize && 
                  matchingFieldsReader.getPackedIntsVersion() == PackedInts.VERSION_CURRENT &&
                  liveDocs == null &&
+                 matchingFieldsReader.getDictionaryPointer() == -1 &&
                  !tooDirty(matchingFieldsReader)) { 
         // optimized merge, raw byte copy
         // its not worth fine-graining this if there are deletions.
         
         // if the format is older, its always handled by the naive merge case above
-        assert matchingFieldsReader.getVersion() == VERSION_CURRENT;        
+        assert matchingFieldsReader.getVersion() == version;        
         matchingFieldsReader.checkIntegrity();
         
         // flush any pending chunks
         if (numBufferedDocs > 0) {
-          flush();
-          numDirtyChunks++; // incomplete: we had to force this flush
+          flush(true);
         }
         
         // iterate over each chunk. we use the stored fields index to find chunk boundaries,
@@ -639,7 +730,7 @@ public final class CompressingStoredFieldsWriter extends StoredFieldsWriter {
         // even on simple docs (1 stored field), it seems to help by about 20%
         
         // if the format is older, its always handled by the naive merge case above
-        assert matchingFieldsReader.getVersion() == VERSION_CURRENT;
+        assert matchingFieldsReader.getVersion() == version;
         matchingFieldsReader.checkIntegrity();
 
         for (int docID = 0; docID < maxDoc; docID++) {
@@ -127,6 +127,17 @@ public abstract class CompressionMode {
    */
   public abstract Decompressor newDecompressor();
 
+  /**
+   * Whether {@link Compressor}s of this mode may write a dictionary with
+   * {@link Compressor#writeDictionary}. Formats only call it, and only record
+   * the location of the dictionary, for modes that return <code>true</code>,
+   * so the on-disk format of other modes is unaffected. The default
+   * implementation returns <code>false</code>.
+   */
+  public boolean hasDictionary() {
+    return false;
+  }
+
   private static final Decompressor LZ4_DECOMPRESSOR = new Decompressor() {
 
     @Override
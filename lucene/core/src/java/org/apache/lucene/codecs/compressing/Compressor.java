@@ -37,4 +37,26 @@ public abstract class Compressor implements Closeable {
    */
   public abstract void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException;
 
+  /**
+   * Optionally build a dictionary out of <code>sample[off:off+len]</code>,
+   * write it to <code>out</code> and use it for all subsequent calls to
+   * {@link #compress}. This is called at most once, before the first call to
+   * {@link #compress}, by formats that can store a dictionary that is shared by
+   * all compressed blocks, and only if the {@link CompressionMode}
+   * {@link CompressionMode#hasDictionary() has a dictionary}. It is then read back by
+   * {@link Decompressor#readDictionary}. The default implementation writes
+   * nothing and doesn't use a dictionary.
+   */
+  public void writeDictionary(byte[] sample, int off, int len, DataOutput out) throws IOException {}
+
+  /**
+   * Return how many bytes of content {@link #writeDictionary} would like to
+   * be given as a sample. Formats may buffer up to this many bytes, across
+   * several blocks, before building the dictionary. The default
+   * implementation returns 0.
+   */
+  public int getDictionarySampleLength() {
+    return 0;
+  }
+
 }
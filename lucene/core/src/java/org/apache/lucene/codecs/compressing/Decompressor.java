@@ -46,6 +46,14 @@ public abstract class Decompressor implements Cloneable {
    */
   public abstract void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException;
 
+  /**
+   * Read a dictionary that has been written by
+   * {@link Compressor#writeDictionary} and use it for all subsequent calls to
+   * {@link #decompress}. Clones of this instance must share the dictionary.
+   * The default implementation does nothing.
+   */
+  public void readDictionary(DataInput in) throws IOException {}
+
   @Override
   public abstract Decompressor clone();
 
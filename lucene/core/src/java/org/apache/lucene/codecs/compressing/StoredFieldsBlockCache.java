@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A cache of decompressed blocks of documents, which can be passed to
+ * {@link CompressingStoredFieldsReader#visitDocument(int, StoredFieldVisitor, StoredFieldsBlockCache)}
+ * in order to avoid decompressing the same block of documents over and over
+ * again. Blocks are identified by their start pointer in the data file, so a
+ * cache instance must only be used with readers of a single segment. Since
+ * stored fields never change for a given segment, cached blocks remain valid
+ * for as long as the segment is in use, including across reopens.
+ * <p>
+ * Implementations must be thread-safe if they are shared across threads.
+ * @lucene.experimental
+ */
+public interface StoredFieldsBlockCache {
+
+  /** Return the block that starts at the given pointer, or {@code null} if it is not cached. */
+  Block get(long startPointer);
+
+  /** Add a block to the cache. */
+  void put(long startPointer, Block block);
+
+  /**
+   * A fully decompressed block of documents. Instances are immutable and may
+   * be shared across threads.
+   */
+  final class Block implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Block.class);
+
+    final int docBase;
+    final int chunkDocs;
+    // offsets[i] is the start of document docBase+i in bytes, offsets[chunkDocs] is the total length
+    final int[] offsets;
+    final int[] numStoredFields;
+    final byte[] bytes;
+
+    Block(int docBase, int chunkDocs, int[] offsets, int[] numStoredFields, byte[] bytes) {
+      assert offsets.length == chunkDocs + 1;
+      assert numStoredFields.length == chunkDocs;
+      assert bytes.length == offsets[chunkDocs];
+      this.docBase = docBase;
+      this.chunkDocs = chunkDocs;
+      this.offsets = offsets;
+      this.numStoredFields = numStoredFields;
+      this.bytes = bytes;
+    }
+
+    /** Whether this block contains the given doc ID. */
+    public boolean contains(int docID) {
+      return docID >= docBase && docID < docBase + chunkDocs;
+    }
+
+    /** Return the number of documents in this block. */
+    public int size() {
+      return chunkDocs;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return BASE_RAM_BYTES_USED
+          + RamUsageEstimator.sizeOf(offsets)
+          + RamUsageEstimator.sizeOf(numStoredFields)
+          + RamUsageEstimator.sizeOf(bytes);
+    }
+
+    @Override
+    public String toString() {
+      return "Block(docBase=" + docBase + ",docs=" + chunkDocs + ",bytes=" + bytes.length + ")";
+    }
+  }
+
+}
@@ -33,6 +33,8 @@ final class ForUtil {
   static final int BLOCK_SIZE = 128;
   private static final int BLOCK_SIZE_LOG2 = 7;
 
+  private static final PostingDecodingUtil DECODING_UTIL = PostingDecodingUtil.getInstance();
+
   private static long expandMask32(long mask32) {
     return mask32 | (mask32 << 32);
   }
@@ -58,27 +60,11 @@ final class ForUtil {
   }
 
   private static void expand8(long[] arr) {
-    for (int i = 0; i < 16; ++i) {
-      long l = arr[i];
-      arr[i] = (l >>> 56) & 0xFFL;
-      arr[16+i] = (l >>> 48) & 0xFFL;
-      arr[32+i] = (l >>> 40) & 0xFFL;
-      arr[48+i] = (l >>> 32) & 0xFFL;
-      arr[64+i] = (l >>> 24) & 0xFFL;
-      arr[80+i] = (l >>> 16) & 0xFFL;
-      arr[96+i] = (l >>> 8) & 0xFFL;
-      arr[112+i] = l & 0xFFL;
-    }
+    DECODING_UTIL.expand8(arr);
   }
 
   private static void expand8To32(long[] arr) {
-    for (int i = 0; i < 16; ++i) {
-      long l = arr[i];
-      arr[i] = (l >>> 24) & 0x000000FF000000FFL;
-      arr[16+i] = (l >>> 16) & 0x000000FF000000FFL;
-      arr[32+i] = (l >>> 8) & 0x000000FF000000FFL;
-      arr[48+i] = l & 0x000000FF000000FFL;
-    }
+    DECODING_UTIL.expand8To32(arr);
   }
 
   private static void collapse8(long[] arr) {
@@ -88,21 +74,11 @@ final class ForUtil {
   }
 
   private static void expand16(long[] arr) {
-    for (int i = 0; i < 32; ++i) {
-      long l = arr[i];
-      arr[i] = (l >>> 48) & 0xFFFFL;
-      arr[32+i] = (l >>> 32) & 0xFFFFL;
-      arr[64+i] = (l >>> 16) & 0xFFFFL;
-      arr[96+i] = l & 0xFFFFL;
-    }
+    DECODING_UTIL.expand16(arr);
   }
 
   private static void expand16To32(long[] arr) {
-    for (int i = 0; i < 32; ++i) {
-      long l = arr[i];
-      arr[i] = (l >>> 16) & 0x0000FFFF0000FFFFL;
-      arr[32+i] = l & 0x0000FFFF0000FFFFL;
-    }
+    DECODING_UTIL.expand16To32(arr);
   }
 
   private static void collapse16(long[] arr) {
@@ -112,11 +88,7 @@ final class ForUtil {
   }
 
   private static void expand32(long[] arr) {
-    for (int i = 0; i < 64; ++i) {
-      long l = arr[i];
-      arr[i] = l >>> 32;
-      arr[64 + i] = l & 0xFFFFFFFFL;
-    }
+    DECODING_UTIL.expand32(arr);
   }
 
   private static void collapse32(long[] arr) {
@@ -331,14 +303,11 @@ final class ForUtil {
   }
 
   /**
-   * The pattern that this shiftLongs method applies is recognized by the C2
-   * compiler, which generates SIMD instructions for it in order to shift
-   * multiple longs at once.
+   * Delegates to {@link PostingDecodingUtil#shiftLongs}, which may use the
+   * Vector API to shift multiple longs at once.
    */
   private static void shiftLongs(long[] a, int count, long[] b, int bi, int shift, long mask) {
-    for (int i = 0; i < count; ++i) {
-      b[bi+i] = (a[i] >>> shift) & mask;
-    }
+    DECODING_UTIL.shiftLongs(a, count, b, bi, shift, mask);
   }
 
   private static final long MASK8_1 = mask8(1);
@@ -358,6 +358,11 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
           docIn = startDocIn.clone();
         }
         docIn.seek(docTermStartFP);
+        if (skipOffset != -1) {
+          // the skip data is only read on the first advance() past the first block,
+          // give the directory a chance to load it in the meantime
+          docIn.prefetch(docTermStartFP + skipOffset, 1);
+        }
       }
 
       doc = -1;
@@ -671,6 +676,11 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
           docIn = startDocIn.clone();
         }
         docIn.seek(docTermStartFP);
+        if (skipOffset != -1) {
+          // the skip data is only read on the first advance() past the first block,
+          // give the directory a chance to load it in the meantime
+          docIn.prefetch(docTermStartFP + skipOffset, 1);
+        }
       }
       posPendingFP = posTermStartFP;
       payPendingFP = payTermStartFP;
@@ -1047,6 +1057,8 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
 
       docFreq = termState.docFreq;
       docIn.seek(termState.docStartFP);
+      // load the first block while skip data gets read below
+      docIn.prefetch(termState.docStartFP, 1);
 
       doc = -1;
       accum = 0;
@@ -1261,6 +1273,8 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
       payTermStartFP = termState.payStartFP;
       totalTermFreq = termState.totalTermFreq;
       docIn.seek(docTermStartFP);
+      // load the first block while skip data gets read below
+      docIn.prefetch(docTermStartFP, 1);
       posPendingFP = posTermStartFP;
       posPendingCount = 0;
       if (termState.totalTermFreq < BLOCK_SIZE) {
@@ -1610,6 +1624,8 @@ public final class Lucene84PostingsReader extends PostingsReaderBase {
       payTermStartFP = termState.payStartFP;
       totalTermFreq = termState.totalTermFreq;
       docIn.seek(docTermStartFP);
+      // load the first block while skip data gets read below
+      docIn.prefetch(docTermStartFP, 1);
       posPendingFP = posTermStartFP;
       payPendingFP = payTermStartFP;
       posPendingCount = 0;
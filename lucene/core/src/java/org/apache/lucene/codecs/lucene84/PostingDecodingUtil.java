@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene84;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Low-level routines that {@link ForUtil} relies on in order to decode blocks
+ * of postings. The default implementation is plain Java code whose loops get
+ * auto-vectorized by the C2 compiler.
+ * <p>
+ * On JDK 16 and above, an implementation based on the incubating
+ * {@code jdk.incubator.vector} API is used instead when it is available, which
+ * requires running the JVM with {@code --add-modules jdk.incubator.vector}.
+ * This can be disabled by setting the {@value #USE_VECTOR_API_SYSPROP} system
+ * property to {@code false}.
+ */
+class PostingDecodingUtil {
+
+  static final String USE_VECTOR_API_SYSPROP = "org.apache.lucene.codecs.lucene84.useVectorAPI";
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTORIZED_IMPL = "org.apache.lucene.codecs.lucene84.VectorizedPostingDecodingUtil";
+
+  /** The scalar implementation. */
+  static final PostingDecodingUtil DEFAULT = new PostingDecodingUtil();
+
+  private static final PostingDecodingUtil INSTANCE = lookup();
+
+  /** Return the implementation to use on this JVM. */
+  static PostingDecodingUtil getInstance() {
+    return INSTANCE;
+  }
+
+  private static PostingDecodingUtil lookup() {
+    boolean useVectorAPI = true;
+    try {
+      useVectorAPI = Boolean.parseBoolean(System.getProperty(USE_VECTOR_API_SYSPROP, "true"));
+    } catch (SecurityException ignored) {}
+    if (useVectorAPI == false
+        || Runtime.version().feature() < 16
+        || ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent() == false) {
+      return DEFAULT;
+    }
+    try {
+      // the vectorized implementation is compiled separately against JDK 16+ and may be
+      // missing, or refuse to load if the hardware does not have useful vector support
+      final Class<?> clazz = Class.forName(VECTORIZED_IMPL);
+      return (PostingDecodingUtil) MethodHandles.lookup()
+          .findConstructor(clazz, MethodType.methodType(void.class))
+          .invoke();
+    } catch (ClassNotFoundException | LinkageError | UnsupportedOperationException e) {
+      return DEFAULT;
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new AssertionError(t);
+    }
+  }
+
+  /** Sole constructor, only called by the scalar implementation and by sub-classes. */
+  PostingDecodingUtil() {}
+
+  /**
+   * Shift the first {@code count} longs of {@code a} right by {@code shift}
+   * bits, apply {@code mask} and write the result to {@code b}, starting at
+   * index {@code bi}.
+   * <p>
+   * The pattern that this method applies is recognized by the C2
+   * compiler, which generates SIMD instructions for it in order to shift
+   * multiple longs at once.
+   */
+  void shiftLongs(long[] a, int count, long[] b, int bi, int shift, long mask) {
+    for (int i = 0; i < count; ++i) {
+      b[bi+i] = (a[i] >>> shift) & mask;
+    }
+  }
+
+  /** Expand 16 longs that each pack 8 bytes into 128 longs. */
+  void expand8(long[] arr) {
+    for (int i = 0; i < 16; ++i) {
+      long l = arr[i];
+      arr[i] = (l >>> 56) & 0xFFL;
+      arr[16+i] = (l >>> 48) & 0xFFL;
+      arr[32+i] = (l >>> 40) & 0xFFL;
+      arr[48+i] = (l >>> 32) & 0xFFL;
+      arr[64+i] = (l >>> 24) & 0xFFL;
+      arr[80+i] = (l >>> 16) & 0xFFL;
+      arr[96+i] = (l >>> 8) & 0xFFL;
+      arr[112+i] = l & 0xFFL;
+    }
+  }
+
+  /** Expand 16 longs that each pack 8 bytes into 64 longs that each pack 2 ints. */
+  void expand8To32(long[] arr) {
+    for (int i = 0; i < 16; ++i) {
+      long l = arr[i];
+      arr[i] = (l >>> 24) & 0x000000FF000000FFL;
+      arr[16+i] = (l >>> 16) & 0x000000FF000000FFL;
+      arr[32+i] = (l >>> 8) & 0x000000FF000000FFL;
+      arr[48+i] = l & 0x000000FF000000FFL;
+    }
+  }
+
+  /** Expand 32 longs that each pack 4 shorts into 128 longs. */
+  void expand16(long[] arr) {
+    for (int i = 0; i < 32; ++i) {
+      long l = arr[i];
+      arr[i] = (l >>> 48) & 0xFFFFL;
+      arr[32+i] = (l >>> 32) & 0xFFFFL;
+      arr[64+i] = (l >>> 16) & 0xFFFFL;
+      arr[96+i] = l & 0xFFFFL;
+    }
+  }
+
+  /** Expand 32 longs that each pack 4 shorts into 64 longs that each pack 2 ints. */
+  void expand16To32(long[] arr) {
+    for (int i = 0; i < 32; ++i) {
+      long l = arr[i];
+      arr[i] = (l >>> 16) & 0x0000FFFF0000FFFFL;
+      arr[32+i] = l & 0x0000FFFF0000FFFFL;
+    }
+  }
+
+  /** Expand 64 longs that each pack 2 ints into 128 longs. */
+  void expand32(long[] arr) {
+    for (int i = 0; i < 64; ++i) {
+      long l = arr[i];
+      arr[i] = l >>> 32;
+      arr[64 + i] = l & 0xFFFFFFFFL;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+}
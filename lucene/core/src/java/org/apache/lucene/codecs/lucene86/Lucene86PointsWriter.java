@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.MutablePointValues;
@@ -50,6 +51,9 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
   final double maxMBSortInHeap;
   private boolean finished;
 
+  /** Executor to build the trees of merged fields on concurrently, or null */
+  private Executor mergeExecutor;
+
   /** Full constructor */
   public Lucene86PointsWriter(SegmentWriteState writeState, int maxPointsInLeafNode, double maxMBSortInHeap) throws IOException {
     assert writeState.fieldInfos.hasPointValues();
@@ -114,7 +118,8 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
                                           fieldInfo.getPointNumBytes(),
                                           maxPointsInLeafNode,
                                           maxMBSortInHeap,
-                                          values.size())) {
+                                          values.size(),
+                                          mergeExecutor)) {
 
       if (values instanceof MutablePointValues) {
         Runnable finalizer = writer.writeField(metaOut, indexOut, dataOut, fieldInfo.name, (MutablePointValues) values);
@@ -152,6 +157,7 @@ public class Lucene86PointsWriter extends PointsWriter implements Closeable {
 
   @Override
   public void merge(MergeState mergeState) throws IOException {
+    mergeExecutor = mergeState.intraMergeExecutor;
     /**
      * If indexSort is activated and some of the leaves are not sorted the next test will catch that and the non-optimized merge will run.
      * If the readers are all sorted then it's safe to perform a bulk merge of the points.
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.util.hnsw.HnswGraphBuilder;
+
+/**
+ * Lucene 8.7 vector format, which encodes dense numeric vectors along with a Hierarchical
+ * Navigable Small World graph per field for fast approximate nearest neighbor search.
+ * See <a href="https://arxiv.org/abs/1603.09320">this paper</a> for details.
+ *
+ * <p>Data is stored across three files
+ * <ul>
+ *   <li>A .vem file that records metadata about the fields, such as their dimension, similarity
+ *       function and the mapping from vector ordinals to doc IDs, along with the nodes of the upper
+ *       levels of the graphs.
+ *   <li>A .vec file that stores vectors as little-endian floats, in ordinal order.
+ *   <li>A .vex file that stores the adjacency lists of the graphs, in fixed-size blocks so that
+ *       the neighbors of a node may be looked up without any index.
+ * </ul>
+ *
+ * @lucene.experimental
+ */
+public final class Lucene87HnswVectorFormat extends VectorFormat {
+
+  static final String META_CODEC_NAME = "Lucene87HnswVectorFormatMeta";
+  static final String VECTOR_DATA_CODEC_NAME = "Lucene87HnswVectorFormatData";
+  static final String VECTOR_INDEX_CODEC_NAME = "Lucene87HnswVectorFormatIndex";
+
+  /**
+   * Filename extension for the meta per field
+   */
+  public static final String META_EXTENSION = "vem";
+
+  /**
+   * Filename extension for the vectors
+   */
+  public static final String VECTOR_DATA_EXTENSION = "vec";
+
+  /**
+   * Filename extension for the graphs
+   */
+  public static final String VECTOR_INDEX_EXTENSION = "vex";
+
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
+
+  private final int maxConn;
+  private final int beamWidth;
+
+  /** Uses the default values for {@code maxConn} ({@value HnswGraphBuilder#DEFAULT_MAX_CONN}) and
+   *  {@code beamWidth} ({@value HnswGraphBuilder#DEFAULT_BEAM_WIDTH}) */
+  public Lucene87HnswVectorFormat() {
+    this(HnswGraphBuilder.DEFAULT_MAX_CONN, HnswGraphBuilder.DEFAULT_BEAM_WIDTH);
+  }
+
+  /**
+   * Full constructor.
+   * @param maxConn the maximum number of connections of a node on upper levels of the graph,
+   *                level 0 allowing twice as many. Higher values give better recall at the
+   *                expense of larger graphs and slower indexing.
+   * @param beamWidth the number of candidates that are explored when inserting a node in the
+   *                  graph. Higher values give better graphs at the expense of slower indexing.
+   */
+  public Lucene87HnswVectorFormat(int maxConn, int beamWidth) {
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive, got " + maxConn);
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive, got " + beamWidth);
+    }
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+  }
+
+  @Override
+  public VectorWriter fieldsWriter(SegmentWriteState state) throws IOException {
+    return new Lucene87HnswVectorWriter(state, maxConn, beamWidth);
+  }
+
+  @Override
+  public VectorReader fieldsReader(SegmentReadState state) throws IOException {
+    return new Lucene87HnswVectorReader(state);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(maxConn=" + maxConn + ", beamWidth=" + beamWidth + ")";
+  }
+}
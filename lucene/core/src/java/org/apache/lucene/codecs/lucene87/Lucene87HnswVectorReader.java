@@ -0,0 +1,442 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.NeighborQueue;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Reads vectors and their HNSW graphs previously written with {@link Lucene87HnswVectorWriter}.
+ * Vectors and graphs are accessed off-heap, only the mapping from ordinals to doc IDs and the nodes
+ * of the upper levels of the graphs are held in memory.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene87HnswVectorReader extends VectorReader {
+
+  private final FieldInfos fieldInfos;
+  private final Map<String, FieldEntry> fields = new HashMap<>();
+  private final IndexInput vectorData;
+  private final IndexInput vectorIndex;
+
+  Lucene87HnswVectorReader(SegmentReadState state) throws IOException {
+    this.fieldInfos = state.fieldInfos;
+
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+        Lucene87HnswVectorFormat.META_EXTENSION);
+    int versionMeta = -1;
+    try (ChecksumIndexInput meta = state.directory.openChecksumInput(metaFileName, state.context)) {
+      Throwable priorE = null;
+      try {
+        versionMeta = CodecUtil.checkIndexHeader(meta,
+            Lucene87HnswVectorFormat.META_CODEC_NAME,
+            Lucene87HnswVectorFormat.VERSION_START,
+            Lucene87HnswVectorFormat.VERSION_CURRENT,
+            state.segmentInfo.getId(),
+            state.segmentSuffix);
+        readFields(meta, state.fieldInfos);
+      } catch (Throwable exception) {
+        priorE = exception;
+      } finally {
+        CodecUtil.checkFooter(meta, priorE);
+      }
+    }
+
+    boolean success = false;
+    try {
+      vectorData = openDataInput(state, versionMeta, Lucene87HnswVectorFormat.VECTOR_DATA_EXTENSION,
+          Lucene87HnswVectorFormat.VECTOR_DATA_CODEC_NAME);
+      vectorIndex = openDataInput(state, versionMeta, Lucene87HnswVectorFormat.VECTOR_INDEX_EXTENSION,
+          Lucene87HnswVectorFormat.VECTOR_INDEX_CODEC_NAME);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(this);
+      }
+    }
+  }
+
+  private static IndexInput openDataInput(SegmentReadState state, int versionMeta, String fileExtension, String codecName) throws IOException {
+    String fileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, fileExtension);
+    IndexInput in = state.directory.openInput(fileName, state.context);
+    boolean success = false;
+    try {
+      int versionData = CodecUtil.checkIndexHeader(in,
+          codecName,
+          Lucene87HnswVectorFormat.VERSION_START,
+          Lucene87HnswVectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(),
+          state.segmentSuffix);
+      if (versionMeta != versionData) {
+        throw new CorruptIndexException("Format versions mismatch: meta=" + versionMeta + ", " + codecName + "=" + versionData, in);
+      }
+      CodecUtil.retrieveChecksum(in);
+      success = true;
+      return in;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(in);
+      }
+    }
+  }
+
+  private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+    for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+      FieldInfo info = infos.fieldInfo(fieldNumber);
+      if (info == null) {
+        throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+      }
+      int similarityFunctionId = meta.readInt();
+      if (similarityFunctionId < 0 || similarityFunctionId >= VectorValues.SimilarityFunction.values().length) {
+        throw new CorruptIndexException("Invalid similarity function id: " + similarityFunctionId, meta);
+      }
+      FieldEntry fieldEntry = new FieldEntry(meta, VectorValues.SimilarityFunction.values()[similarityFunctionId]);
+      if (fieldEntry.dimension != info.getVectorDimension()) {
+        throw new CorruptIndexException("Inconsistent vector dimension for field=\"" + info.name + "\"; "
+            + fieldEntry.dimension + " != " + info.getVectorDimension(), meta);
+      }
+      if (fieldEntry.similarityFunction != info.getVectorSimilarityFunction()) {
+        throw new CorruptIndexException("Inconsistent vector similarity function for field=\"" + info.name + "\"; "
+            + fieldEntry.similarityFunction + " != " + info.getVectorSimilarityFunction(), meta);
+      }
+      long expectedVectorDataLength = (long) fieldEntry.dimension * Float.BYTES * fieldEntry.size();
+      if (fieldEntry.vectorDataLength != expectedVectorDataLength) {
+        throw new CorruptIndexException("Vector data length " + fieldEntry.vectorDataLength
+            + " not matching size=" + fieldEntry.size() + " * dim=" + fieldEntry.dimension + " * 4 = " + expectedVectorDataLength, meta);
+      }
+      fields.put(info.name, fieldEntry);
+    }
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long totalBytes = RamUsageEstimator.shallowSizeOfInstance(Lucene87HnswVectorReader.class);
+    totalBytes += RamUsageEstimator.sizeOfMap(fields, RamUsageEstimator.shallowSizeOfInstance(FieldEntry.class));
+    for (FieldEntry entry : fields.values()) {
+      totalBytes += RamUsageEstimator.sizeOf(entry.ordToDoc);
+      for (int[] nodes : entry.nodesByLevel) {
+        if (nodes != null) {
+          totalBytes += RamUsageEstimator.sizeOf(nodes);
+        }
+      }
+    }
+    return totalBytes;
+  }
+
+  @Override
+  public void checkIntegrity() throws IOException {
+    CodecUtil.checksumEntireFile(vectorData);
+    CodecUtil.checksumEntireFile(vectorIndex);
+  }
+
+  @Override
+  public VectorValues getVectorValues(String field) throws IOException {
+    FieldInfo info = fieldInfos.fieldInfo(field);
+    if (info == null) {
+      return null;
+    }
+    if (info.getVectorDimension() == 0) {
+      throw new IllegalArgumentException("field=\"" + field + "\" was not indexed with vectors");
+    }
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null) {
+      return null;
+    }
+    return new OffHeapVectorValues(fieldEntry, vectorDataSlice(fieldEntry));
+  }
+
+  /**
+   * Return the graph of the given field, or null if the field has no graph in this segment,
+   * either because it has no vectors or because it has no similarity function.
+   *
+   * @lucene.internal
+   */
+  public HnswGraph getGraph(String field) throws IOException {
+    FieldEntry fieldEntry = fields.get(field);
+    if (fieldEntry == null || fieldEntry.numLevels == 0) {
+      return null;
+    }
+    return openGraph(fieldEntry);
+  }
+
+  private HnswGraph openGraph(FieldEntry fieldEntry) throws IOException {
+    return new OffHeapHnswGraph(fieldEntry, vectorIndex.slice("graph-data", fieldEntry.graphOffset, fieldEntry.graphLength));
+  }
+
+  private IndexInput vectorDataSlice(FieldEntry fieldEntry) throws IOException {
+    return vectorData.slice("vector-data", fieldEntry.vectorDataOffset, fieldEntry.vectorDataLength);
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(vectorData, vectorIndex);
+  }
+
+  private static class FieldEntry {
+
+    final int dimension;
+    final VectorValues.SimilarityFunction similarityFunction;
+    final long vectorDataOffset;
+    final long vectorDataLength;
+    final long graphOffset;
+    final long graphLength;
+    final int[] ordToDoc;
+    final int maxConn;
+    final int numLevels;
+    final int entryNode;
+    // sorted nodes of each level, null for level 0 which holds all nodes
+    final int[][] nodesByLevel;
+
+    FieldEntry(IndexInput input, VectorValues.SimilarityFunction similarityFunction) throws IOException {
+      this.similarityFunction = similarityFunction;
+      vectorDataOffset = input.readVLong();
+      vectorDataLength = input.readVLong();
+      graphOffset = input.readVLong();
+      graphLength = input.readVLong();
+      dimension = input.readInt();
+      int size = input.readInt();
+      ordToDoc = new int[size];
+      int lastDocID = 0;
+      for (int i = 0; i < size; i++) {
+        int docID = lastDocID + input.readVInt();
+        ordToDoc[i] = docID;
+        lastDocID = docID;
+      }
+      maxConn = input.readInt();
+      numLevels = input.readInt();
+      nodesByLevel = new int[numLevels][];
+      if (numLevels > 0) {
+        entryNode = input.readInt();
+        for (int level = 1; level < numLevels; level++) {
+          int[] nodes = new int[input.readVInt()];
+          int lastNode = 0;
+          for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = lastNode + input.readVInt();
+            lastNode = nodes[i];
+          }
+          nodesByLevel[level] = nodes;
+        }
+      } else {
+        entryNode = -1;
+      }
+    }
+
+    int size() {
+      return ordToDoc.length;
+    }
+  }
+
+  /** Read the vectors of a field from the index, and search them through the graph if any */
+  private final class OffHeapVectorValues extends VectorValues {
+
+    private final FieldEntry fieldEntry;
+    private final OffHeapVectors vectors;
+
+    private int ord = -1;
+    private int doc = -1;
+
+    OffHeapVectorValues(FieldEntry fieldEntry, IndexInput dataIn) {
+      this.fieldEntry = fieldEntry;
+      this.vectors = new OffHeapVectors(fieldEntry.dimension, fieldEntry.size(), dataIn);
+    }
+
+    @Override
+    public int dimension() {
+      return fieldEntry.dimension;
+    }
+
+    @Override
+    public int size() {
+      return fieldEntry.size();
+    }
+
+    @Override
+    public SimilarityFunction similarityFunction() {
+      return fieldEntry.similarityFunction;
+    }
+
+    @Override
+    public float[] vectorValue() throws IOException {
+      return vectors.vectorValue(ord);
+    }
+
+    @Override
+    public int docID() {
+      return doc;
+    }
+
+    @Override
+    public int nextDoc() {
+      if (++ord >= size()) {
+        doc = NO_MORE_DOCS;
+      } else {
+        doc = fieldEntry.ordToDoc[ord];
+      }
+      return doc;
+    }
+
+    @Override
+    public int advance(int target) {
+      assert docID() < target;
+      ord = Arrays.binarySearch(fieldEntry.ordToDoc, ord + 1, fieldEntry.ordToDoc.length, target);
+      if (ord < 0) {
+        ord = -(ord + 1);
+      }
+      assert ord <= fieldEntry.ordToDoc.length;
+      if (ord == fieldEntry.ordToDoc.length) {
+        doc = NO_MORE_DOCS;
+      } else {
+        doc = fieldEntry.ordToDoc[ord];
+      }
+      return doc;
+    }
+
+    @Override
+    public TopDocs search(float[] target, int k, int fanout, Bits acceptDocs) throws IOException {
+      if (fieldEntry.numLevels == 0) {
+        if (fieldEntry.similarityFunction == SimilarityFunction.NONE) {
+          throw new IllegalStateException("vectors without a similarity function cannot be searched");
+        }
+        // no vectors in this segment
+        return new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+      }
+      if (target.length != fieldEntry.dimension) {
+        throw new IllegalArgumentException("vector query dimension: " + target.length + " differs from field dimension: " + fieldEntry.dimension);
+      }
+      if (k <= 0) {
+        throw new IllegalArgumentException("k must be > 0, got " + k);
+      }
+      // use independent inputs so that searching does not move this iterator
+      OffHeapVectors searchVectors = vectors.copy();
+      HnswGraph graph = openGraph(fieldEntry);
+      Bits acceptOrds = acceptDocs == null ? null : new Bits() {
+        @Override
+        public boolean get(int index) {
+          return acceptDocs.get(fieldEntry.ordToDoc[index]);
+        }
+
+        @Override
+        public int length() {
+          return fieldEntry.size();
+        }
+      };
+      NeighborQueue results = HnswGraph.search(target, k + Math.max(0, fanout), searchVectors,
+          fieldEntry.similarityFunction, graph, acceptOrds);
+      while (results.size() > k) {
+        results.pop();
+      }
+      ScoreDoc[] scoreDocs = new ScoreDoc[results.size()];
+      for (int i = scoreDocs.length - 1; i >= 0; i--) {
+        int node = results.pop();
+        float score = fieldEntry.similarityFunction.score(target, searchVectors.vectorValue(node));
+        scoreDocs[i] = new ScoreDoc(fieldEntry.ordToDoc[node], score);
+      }
+      return new TopDocs(new TotalHits(results.visitedCount(), TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO), scoreDocs);
+    }
+  }
+
+  /** Read the nodes and neighbors of a graph from the index */
+  private static final class OffHeapHnswGraph extends HnswGraph {
+
+    private final FieldEntry fieldEntry;
+    private final IndexInput graphData;
+    private final long[] levelOffsets;
+
+    private int arcCount;
+    private int arcUpTo;
+
+    OffHeapHnswGraph(FieldEntry fieldEntry, IndexInput graphData) {
+      this.fieldEntry = fieldEntry;
+      this.graphData = graphData;
+      this.levelOffsets = new long[fieldEntry.numLevels];
+      long offset = 0;
+      for (int level = 0; level < fieldEntry.numLevels; level++) {
+        levelOffsets[level] = offset;
+        int numNodes = level == 0 ? fieldEntry.size() : fieldEntry.nodesByLevel[level].length;
+        offset += (long) numNodes * blockSize(level);
+      }
+    }
+
+    private long blockSize(int level) {
+      int maxConnOnLevel = level == 0 ? fieldEntry.maxConn * 2 : fieldEntry.maxConn;
+      return (1L + maxConnOnLevel) * Integer.BYTES;
+    }
+
+    @Override
+    public int size() {
+      return fieldEntry.size();
+    }
+
+    @Override
+    public int numLevels() {
+      return fieldEntry.numLevels;
+    }
+
+    @Override
+    public int entryNode() {
+      return fieldEntry.entryNode;
+    }
+
+    @Override
+    public void seek(int level, int target) throws IOException {
+      int index = level == 0 ? target : Arrays.binarySearch(fieldEntry.nodesByLevel[level], target);
+      assert index >= 0 : "node " + target + " is not on level " + level;
+      graphData.seek(levelOffsets[level] + index * blockSize(level));
+      arcCount = graphData.readInt();
+      arcUpTo = 0;
+    }
+
+    @Override
+    public int nextNeighbor() throws IOException {
+      if (arcUpTo >= arcCount) {
+        return NO_MORE_DOCS;
+      }
+      ++arcUpTo;
+      return graphData.readInt();
+    }
+
+    @Override
+    public int[] getNodesOnLevel(int level) {
+      assert level > 0;
+      return fieldEntry.nodesByLevel[level];
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.VectorReader;
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.hnsw.HnswGraph;
+import org.apache.lucene.util.hnsw.HnswGraphBuilder;
+
+/**
+ * Writes vector values and their HNSW graphs. Vectors are first written to a temporary file, which
+ * gives random access to them while the graph is built, and then copied to the data file.
+ *
+ * @lucene.experimental
+ */
+public final class Lucene87HnswVectorWriter extends VectorWriter {
+
+  private final SegmentWriteState segmentWriteState;
+  private final IndexOutput meta, vectorData, vectorIndex;
+  private final int maxConn;
+  private final int beamWidth;
+
+  private boolean finished;
+
+  Lucene87HnswVectorWriter(SegmentWriteState state, int maxConn, int beamWidth) throws IOException {
+    assert state.fieldInfos.hasVectorValues();
+    this.segmentWriteState = state;
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+
+    String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+        Lucene87HnswVectorFormat.META_EXTENSION);
+    String vectorDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+        Lucene87HnswVectorFormat.VECTOR_DATA_EXTENSION);
+    String indexDataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+        Lucene87HnswVectorFormat.VECTOR_INDEX_EXTENSION);
+
+    boolean success = false;
+    try {
+      meta = state.directory.createOutput(metaFileName, state.context);
+      vectorData = state.directory.createOutput(vectorDataFileName, state.context);
+      vectorIndex = state.directory.createOutput(indexDataFileName, state.context);
+
+      CodecUtil.writeIndexHeader(meta,
+          Lucene87HnswVectorFormat.META_CODEC_NAME,
+          Lucene87HnswVectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorData,
+          Lucene87HnswVectorFormat.VECTOR_DATA_CODEC_NAME,
+          Lucene87HnswVectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      CodecUtil.writeIndexHeader(vectorIndex,
+          Lucene87HnswVectorFormat.VECTOR_INDEX_CODEC_NAME,
+          Lucene87HnswVectorFormat.VERSION_CURRENT,
+          state.segmentInfo.getId(), state.segmentSuffix);
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(this);
+      }
+    }
+  }
+
+  @Override
+  public void writeField(FieldInfo fieldInfo, VectorValues vectors) throws IOException {
+    writeField(fieldInfo, vectors, null, 0);
+  }
+
+  /**
+   * Merges vectors, seeding the graph of each field with the graph of the largest incoming segment
+   * that has no deletions, so that its nodes don't need to be inserted again. This is only possible
+   * when the index is not sorted, since the vectors of each incoming segment then form a contiguous
+   * range of the merged ordinals.
+   */
+  @Override
+  protected void mergeOneField(MergeState mergeState, FieldInfo fieldInfo) throws IOException {
+    VectorValues merged = mergeVectorValues(mergeState, fieldInfo);
+    HnswGraph seedGraph = null;
+    int seedOrdOffset = 0;
+    if (mergeState.needsIndexSort == false && fieldInfo.getVectorSimilarityFunction() != VectorValues.SimilarityFunction.NONE) {
+      int ordOffset = 0;
+      int seedSize = 0;
+      for (int i = 0; i < mergeState.vectorReaders.length; i++) {
+        VectorReader reader = mergeState.vectorReaders[i];
+        FieldInfo readerFieldInfo = mergeState.fieldInfos[i].fieldInfo(fieldInfo.name);
+        if (reader == null || readerFieldInfo == null || readerFieldInfo.getVectorDimension() == 0) {
+          continue;
+        }
+        VectorValues values = reader.getVectorValues(fieldInfo.name);
+        if (values == null) {
+          continue;
+        }
+        Bits liveDocs = mergeState.liveDocs[i];
+        if (liveDocs == null && values.size() > seedSize && reader instanceof Lucene87HnswVectorReader) {
+          HnswGraph graph = ((Lucene87HnswVectorReader) reader).getGraph(fieldInfo.name);
+          if (graph != null) {
+            seedGraph = graph;
+            seedOrdOffset = ordOffset;
+            seedSize = values.size();
+          }
+        }
+        ordOffset += liveCount(values, liveDocs);
+      }
+    }
+    writeField(fieldInfo, merged, seedGraph, seedOrdOffset);
+  }
+
+  private static int liveCount(VectorValues values, Bits liveDocs) throws IOException {
+    if (liveDocs == null) {
+      return values.size();
+    }
+    int count = 0;
+    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+      if (liveDocs.get(doc)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private void writeField(FieldInfo fieldInfo, VectorValues vectors, HnswGraph seedGraph, int seedOrdOffset) throws IOException {
+    int dimension = fieldInfo.getVectorDimension();
+    VectorValues.SimilarityFunction similarityFunction = fieldInfo.getVectorSimilarityFunction();
+    long vectorDataOffset = vectorData.getFilePointer();
+
+    int[] docIds = new int[8];
+    int size = 0;
+    IndexOutput tempVectorData = segmentWriteState.directory.createTempOutput(vectorData.getName(), "temp", segmentWriteState.context);
+    boolean success = false;
+    try {
+      ByteBuffer scratch = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      for (int doc = vectors.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = vectors.nextDoc()) {
+        float[] vector = vectors.vectorValue();
+        if (vector.length != dimension) {
+          throw new IllegalArgumentException("vector of field \"" + fieldInfo.name + "\" has dimension " + vector.length
+              + " but the field dimension is " + dimension);
+        }
+        OffHeapVectors.writeVector(vector, scratch, tempVectorData);
+        docIds = ArrayUtil.grow(docIds, size + 1);
+        docIds[size++] = doc;
+      }
+      tempVectorData.close();
+      success = true;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(tempVectorData);
+        IOUtils.deleteFilesIgnoringExceptions(segmentWriteState.directory, tempVectorData.getName());
+      }
+    }
+
+    success = false;
+    try (IndexInput tempVectorDataIn = segmentWriteState.directory.openInput(tempVectorData.getName(), segmentWriteState.context)) {
+      vectorData.copyBytes(tempVectorDataIn, tempVectorDataIn.length());
+      long vectorDataLength = vectorData.getFilePointer() - vectorDataOffset;
+
+      long graphOffset = vectorIndex.getFilePointer();
+      HnswGraph graph = null;
+      if (similarityFunction != VectorValues.SimilarityFunction.NONE && size > 0) {
+        OffHeapVectors offHeapVectors = new OffHeapVectors(dimension, size, tempVectorDataIn);
+        HnswGraphBuilder builder = new HnswGraphBuilder(offHeapVectors, similarityFunction, maxConn, beamWidth,
+            HnswGraphBuilder.DEFAULT_RAND_SEED);
+        if (seedGraph != null) {
+          builder.initializeFromGraph(seedGraph, seedOrdOffset);
+        }
+        graph = builder.build();
+        writeGraph(graph);
+      }
+      long graphLength = vectorIndex.getFilePointer() - graphOffset;
+
+      writeMeta(fieldInfo, vectorDataOffset, vectorDataLength, graphOffset, graphLength, Arrays.copyOf(docIds, size), graph);
+      success = true;
+    } finally {
+      if (success) {
+        segmentWriteState.directory.deleteFile(tempVectorData.getName());
+      } else {
+        IOUtils.deleteFilesIgnoringExceptions(segmentWriteState.directory, tempVectorData.getName());
+      }
+    }
+  }
+
+  // Each node of a level is written as a fixed-size block holding its number of neighbors followed
+  // by its neighbors, padded up to the maximum number of connections of the level
+  private void writeGraph(HnswGraph graph) throws IOException {
+    int[] neighbors = new int[maxConn * 2];
+    for (int level = 0; level < graph.numLevels(); level++) {
+      int maxConnOnLevel = level == 0 ? maxConn * 2 : maxConn;
+      int[] nodes = level == 0 ? null : graph.getNodesOnLevel(level);
+      int numNodes = level == 0 ? graph.size() : nodes.length;
+      for (int i = 0; i < numNodes; i++) {
+        graph.seek(level, level == 0 ? i : nodes[i]);
+        int numNeighbors = 0;
+        for (int friend = graph.nextNeighbor(); friend != DocIdSetIterator.NO_MORE_DOCS; friend = graph.nextNeighbor()) {
+          assert numNeighbors < maxConnOnLevel;
+          neighbors[numNeighbors++] = friend;
+        }
+        vectorIndex.writeInt(numNeighbors);
+        for (int j = 0; j < maxConnOnLevel; j++) {
+          vectorIndex.writeInt(j < numNeighbors ? neighbors[j] : -1);
+        }
+      }
+    }
+  }
+
+  private void writeMeta(FieldInfo field, long vectorDataOffset, long vectorDataLength, long graphOffset, long graphLength,
+                         int[] docIds, HnswGraph graph) throws IOException {
+    meta.writeInt(field.number);
+    meta.writeInt(field.getVectorSimilarityFunction().ordinal());
+    meta.writeVLong(vectorDataOffset);
+    meta.writeVLong(vectorDataLength);
+    meta.writeVLong(graphOffset);
+    meta.writeVLong(graphLength);
+    meta.writeInt(field.getVectorDimension());
+    meta.writeInt(docIds.length);
+    int lastDocId = 0;
+    for (int docId : docIds) {
+      // doc IDs are strictly increasing
+      meta.writeVInt(docId - lastDocId);
+      lastDocId = docId;
+    }
+    meta.writeInt(maxConn);
+    if (graph == null) {
+      meta.writeInt(0);
+    } else {
+      meta.writeInt(graph.numLevels());
+      meta.writeInt(graph.entryNode());
+      for (int level = 1; level < graph.numLevels(); level++) {
+        int[] nodes = graph.getNodesOnLevel(level);
+        meta.writeVInt(nodes.length);
+        int lastNode = 0;
+        for (int node : nodes) {
+          meta.writeVInt(node - lastNode);
+          lastNode = node;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (finished) {
+      throw new IllegalStateException("already finished");
+    }
+    finished = true;
+
+    if (meta != null) {
+      // write end of fields marker
+      meta.writeInt(-1);
+      CodecUtil.writeFooter(meta);
+    }
+    if (vectorData != null) {
+      CodecUtil.writeFooter(vectorData);
+      CodecUtil.writeFooter(vectorIndex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.close(meta, vectorData, vectorIndex);
+  }
+}
@@ -33,12 +33,14 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.SegmentInfo;
 import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
 import org.apache.lucene.util.packed.DirectMonotonicWriter;
 
 /**
@@ -56,12 +58,19 @@ import org.apache.lucene.util.packed.DirectMonotonicWriter;
  * compression, you can choose ({@link Mode#BEST_COMPRESSION BEST_COMPRESSION}),
  * which uses the <a href="http://en.wikipedia.org/wiki/DEFLATE">DEFLATE</a>
  * algorithm with 48kB blocks and shared dictionaries for a better ratio at the
- * expense of slower performance. These two options can be configured like this:
+ * expense of slower performance. Collections of many small and similar documents,
+ * such as JSON records, may prefer ({@link Mode#SHARED_DICTIONARY SHARED_DICTIONARY}),
+ * which trains a dictionary once per segment and then compresses small
+ * sub-blocks of documents with LZ4 against this dictionary, so that retrieving
+ * a single document only requires decompressing the sub-block that contains it.
+ * These options can be configured like this:
  * <pre class="prettyprint">
  *   // the default: for high performance
  *   indexWriterConfig.setCodec(new Lucene87Codec(Mode.BEST_SPEED));
  *   // instead for higher performance (but slower):
  *   // indexWriterConfig.setCodec(new Lucene87Codec(Mode.BEST_COMPRESSION));
+ *   // or for many small documents that look alike:
+ *   // indexWriterConfig.setCodec(new Lucene87Codec(Mode.SHARED_DICTIONARY));
  * </pre>
  * <p><b>File formats</b>
  * <p>Stored fields are represented by three files:
@@ -87,6 +96,12 @@ import org.apache.lucene.util.packed.DirectMonotonicWriter;
  * enough data has been decompressed.</li>
  * <li>In case documents are incompressible, the overhead of the compression format
  * is less than 0.5%.</li>
+ * <li>With {@link Mode#SHARED_DICTIONARY SHARED_DICTIONARY}, a dictionary
+ * that is trained on the first blocks of the segment is written once before
+ * the first block, and its location is recorded in the meta file. Only the
+ * first blocks (about 128KB) are used as a training sample, so the dictionary
+ * compresses best the segments whose documents look like their first ones.
+ * Other modes do not record a dictionary location.</li>
  * </ul>
  * </li>
  * <li><a id="field_index"></a>
@@ -113,7 +128,13 @@ public class Lucene87StoredFieldsFormat extends StoredFieldsFormat {
     /** Trade compression ratio for retrieval speed. */
     BEST_SPEED,
     /** Trade retrieval speed for compression ratio. */
-    BEST_COMPRESSION
+    BEST_COMPRESSION,
+    /**
+     * Trade indexing speed for a better compression ratio than
+     * {@link #BEST_SPEED} on small documents that look alike, while keeping
+     * retrieval of individual documents fast.
+     */
+    SHARED_DICTIONARY
   }
   
   /** Attribute key for compression mode. */
@@ -157,6 +178,8 @@ public class Lucene87StoredFieldsFormat extends StoredFieldsFormat {
         return new CompressingStoredFieldsFormat("Lucene87StoredFieldsFastData", CompressionMode.FAST, 16*1024, 128, 10);
       case BEST_COMPRESSION:
         return new CompressingStoredFieldsFormat("Lucene87StoredFieldsHighData", BEST_COMPRESSION_MODE, BEST_COMPRESSION_BLOCK_LENGTH, 512, 10);
+      case SHARED_DICTIONARY:
+        return new CompressingStoredFieldsFormat("Lucene87StoredFieldsDictData", SHARED_DICTIONARY_MODE, SHARED_DICTIONARY_BLOCK_LENGTH, 256, 10);
       default: throw new AssertionError();
     }
   }
@@ -181,6 +204,22 @@ public class Lucene87StoredFieldsFormat extends StoredFieldsFormat {
   /** Compression mode for {@link Mode#BEST_COMPRESSION} */
   public static final DeflateWithPresetDict BEST_COMPRESSION_MODE = new DeflateWithPresetDict(BEST_COMPRESSION_DICT_LENGTH, BEST_COMPRESSION_SUB_BLOCK_LENGTH);
 
+  // 16kB of dictionary leaves most of the 64kB window of LZ4 for the content
+  // of a sub block while being large enough to capture the field names and
+  // recurring values of small structured documents.
+  private static final int SHARED_DICTIONARY_DICT_LENGTH = 16 * 1024;
+  // Sub blocks are the unit of decompression when retrieving a single
+  // document, so they are kept small. They don't need to be large for a good
+  // compression ratio since they can find most strings in the dictionary.
+  private static final int SHARED_DICTIONARY_SUB_BLOCK_LENGTH = 4 * 1024;
+  // Blocks are kept as small as with BEST_SPEED: larger blocks barely improve
+  // the compression ratio since sub blocks are compressed independently, but
+  // they make the metadata that needs to be decoded for every document larger.
+  private static final int SHARED_DICTIONARY_BLOCK_LENGTH = 4 * SHARED_DICTIONARY_SUB_BLOCK_LENGTH;
+
+  /** Compression mode for {@link Mode#SHARED_DICTIONARY} */
+  public static final LZ4WithSharedDict SHARED_DICTIONARY_MODE = new LZ4WithSharedDict(SHARED_DICTIONARY_DICT_LENGTH, SHARED_DICTIONARY_SUB_BLOCK_LENGTH);
+
   /**
    * A compression mode that trades speed for compression ratio. Although
    * compression and decompression might be slow, this compression mode should
@@ -375,4 +414,276 @@ public class Lucene87StoredFieldsFormat extends StoredFieldsFormat {
     }
   }
 
+  /**
+   * A compression mode that compresses small sub blocks independently of each
+   * other with LZ4 against a dictionary that is shared by all blocks of a
+   * segment. The dictionary is built out of the first blocks of the segment,
+   * which are buffered until they are {@code 8} times as large as the dictionary,
+   * by picking the pieces of content that contain the most frequent sequences
+   * of bytes, and written only once. Sub blocks that do not overlap with the
+   * requested range are skipped on decompression, so retrieving a single small
+   * document only decompresses a few kilobytes.
+   */
+  public static class LZ4WithSharedDict extends CompressionMode {
+
+    private final int dictLength, subBlockLength;
+
+    /** Sole constructor. */
+    public LZ4WithSharedDict(int dictLength, int subBlockLength) {
+      if (dictLength < 0 || dictLength > MAX_SHARED_DICT_LENGTH) {
+        throw new IllegalArgumentException("dictLength must be in [0, " + MAX_SHARED_DICT_LENGTH + "], got " + dictLength);
+      }
+      if (subBlockLength <= 0) {
+        throw new IllegalArgumentException("subBlockLength must be > 0, got " + subBlockLength);
+      }
+      this.dictLength = dictLength;
+      this.subBlockLength = subBlockLength;
+    }
+
+    @Override
+    public Compressor newCompressor() {
+      return new LZ4WithSharedDictCompressor(dictLength, subBlockLength);
+    }
+
+    @Override
+    public Decompressor newDecompressor() {
+      return new LZ4WithSharedDictDecompressor();
+    }
+
+    @Override
+    public boolean hasDictionary() {
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "SHARED_DICTIONARY";
+    }
+
+  }
+
+  // dictionaries must leave room for the content of sub blocks in the 64kB window of LZ4
+  private static final int MAX_SHARED_DICT_LENGTH = 32 * 1024;
+
+  // length of the sequences of bytes whose frequencies are counted to train dictionaries
+  private static final int TRAINING_GRAM_LENGTH = 6;
+  // length of the pieces of content that are copied to the dictionary, long
+  // pieces preserve more context than short ones, which LZ4 benefits from
+  private static final int TRAINING_SEGMENT_LENGTH = 256;
+  private static final int TRAINING_HASH_LOG = 16;
+  // dictionaries are trained on samples that are this many times larger, so
+  // that the trainer has enough content to pick the most frequent pieces from
+  private static final int TRAINING_SAMPLE_FACTOR = 8;
+
+  /**
+   * Build a dictionary of at most {@code dictLength} bytes out of
+   * {@code sample[off:off+len]}. This is a simplified version of the COVER
+   * algorithm: the sample is split into as many epochs as there are segments
+   * in the dictionary, and the segment of each epoch whose sequences of bytes
+   * are the most frequent across the whole sample is added to the dictionary.
+   * Sequences that are already in the dictionary don't count anymore, so that
+   * the dictionary doesn't contain duplicates.
+   */
+  static byte[] trainDictionary(byte[] sample, int off, int len, int dictLength) {
+    if (len <= 2 * dictLength || dictLength < TRAINING_SEGMENT_LENGTH) {
+      // not enough content to choose from, use the end of the sample as-is,
+      // which compresses about as well as a trained dictionary on small samples
+      final int length = Math.min(len, dictLength);
+      return ArrayUtil.copyOfSubArray(sample, off + len - length, off + len);
+    }
+
+    final int numGrams = len - TRAINING_GRAM_LENGTH + 1;
+    final int[] hashes = new int[numGrams];
+    final int[] freqs = new int[1 << TRAINING_HASH_LOG];
+    for (int i = 0; i < numGrams; ++i) {
+      long v = 0;
+      for (int j = 0; j < TRAINING_GRAM_LENGTH; ++j) {
+        v = (v << 8) | (sample[off + i + j] & 0xFFL);
+      }
+      final int h = (int) ((v * 0x9E3779B97F4A7C15L) >>> (64 - TRAINING_HASH_LOG));
+      hashes[i] = h;
+      freqs[h]++;
+    }
+
+    final int gramsPerSegment = TRAINING_SEGMENT_LENGTH - TRAINING_GRAM_LENGTH + 1;
+    final int numSegments = dictLength / TRAINING_SEGMENT_LENGTH;
+    final int epochLength = len / numSegments;
+    assert epochLength >= TRAINING_SEGMENT_LENGTH;
+    final byte[] dict = new byte[numSegments * TRAINING_SEGMENT_LENGTH];
+    int dictSize = 0;
+    for (int epoch = 0; epoch < numSegments; ++epoch) {
+      final int epochStart = epoch * epochLength;
+      final int lastSegmentStart = Math.min(epochStart + epochLength, len) - TRAINING_SEGMENT_LENGTH;
+      // sliding window over the sums of frequencies of the grams of each segment
+      long score = 0;
+      for (int i = epochStart; i < epochStart + gramsPerSegment; ++i) {
+        score += score(freqs[hashes[i]]);
+      }
+      long bestScore = score;
+      int bestStart = epochStart;
+      for (int start = epochStart + 1; start <= lastSegmentStart; ++start) {
+        score += score(freqs[hashes[start + gramsPerSegment - 1]]) - score(freqs[hashes[start - 1]]);
+        if (score > bestScore) {
+          bestScore = score;
+          bestStart = start;
+        }
+      }
+      if (bestScore == 0) {
+        // nothing in this epoch that occurs more than once and isn't already in the dictionary
+        continue;
+      }
+      for (int i = bestStart; i < bestStart + gramsPerSegment; ++i) {
+        freqs[hashes[i]] = 0;
+      }
+      System.arraycopy(sample, off + bestStart, dict, dictSize, TRAINING_SEGMENT_LENGTH);
+      dictSize += TRAINING_SEGMENT_LENGTH;
+    }
+    return ArrayUtil.copyOfSubArray(dict, 0, dictSize);
+  }
+
+  private static int score(int freq) {
+    // sequences that occur only once are useless to a dictionary
+    return freq > 1 ? freq : 0;
+  }
+
+  private static final class LZ4WithSharedDictDecompressor extends Decompressor {
+
+    // the shared dictionary, never modified
+    private byte[] dict;
+    // the dictionary followed by the content of the sub block being decompressed
+    private byte[] buffer;
+
+    LZ4WithSharedDictDecompressor() {
+      this(BytesRef.EMPTY_BYTES);
+    }
+
+    private LZ4WithSharedDictDecompressor(byte[] dict) {
+      this.dict = dict;
+      this.buffer = BytesRef.EMPTY_BYTES;
+    }
+
+    @Override
+    public void readDictionary(DataInput in) throws IOException {
+      final int dictLength = in.readVInt();
+      if (dictLength > MAX_SHARED_DICT_LENGTH) {
+        throw new CorruptIndexException("Invalid dictionary length: " + dictLength, in);
+      }
+      final byte[] dict = new byte[dictLength];
+      in.readBytes(dict, 0, dictLength);
+      this.dict = dict;
+      this.buffer = BytesRef.EMPTY_BYTES;
+    }
+
+    private void decompressSubBlock(DataInput in, int length) throws IOException {
+      in.readVInt(); // compressed length, only needed to skip the sub block
+      final int end = LZ4.decompress(in, length, buffer, dict.length);
+      if (end != dict.length + length) {
+        throw new CorruptIndexException("Expected " + length + " decompressed bytes, got " + (end - dict.length), in);
+      }
+    }
+
+    @Override
+    public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+      assert offset + length <= originalLength;
+      if (length == 0) {
+        bytes.length = 0;
+        return;
+      }
+      final int subBlockLength = in.readVInt();
+      if (subBlockLength <= 0) {
+        throw new CorruptIndexException("Invalid sub block length: " + subBlockLength, in);
+      }
+      if (buffer.length < dict.length + subBlockLength) {
+        buffer = ArrayUtil.growExact(buffer, dict.length + subBlockLength);
+        System.arraycopy(dict, 0, buffer, 0, dict.length);
+      }
+      bytes.bytes = ArrayUtil.grow(bytes.bytes, length);
+      bytes.offset = bytes.length = 0;
+
+      // Skip sub blocks that end before the range we need
+      int offsetInBlock = 0;
+      while (offsetInBlock + subBlockLength <= offset) {
+        final int compressedLength = in.readVInt();
+        in.skipBytes(compressedLength);
+        offsetInBlock += subBlockLength;
+      }
+
+      // Read sub blocks that intersect with the range we need
+      final int end = offset + length;
+      while (offsetInBlock < end) {
+        final int subBlockEnd = Math.min(offsetInBlock + subBlockLength, originalLength);
+        decompressSubBlock(in, subBlockEnd - offsetInBlock);
+        final int from = Math.max(offset, offsetInBlock);
+        final int to = Math.min(end, subBlockEnd);
+        System.arraycopy(buffer, dict.length + from - offsetInBlock, bytes.bytes, bytes.length, to - from);
+        bytes.length += to - from;
+        offsetInBlock = subBlockEnd;
+      }
+
+      assert bytes.length == length;
+      assert bytes.isValid();
+    }
+
+    @Override
+    public Decompressor clone() {
+      // the dictionary is immutable and can be shared
+      return new LZ4WithSharedDictDecompressor(dict);
+    }
+
+  }
+
+  private static final class LZ4WithSharedDictCompressor extends Compressor {
+
+    final int dictLength;
+    final int subBlockLength;
+    final LZ4.HighCompressionHashTable hashTable;
+    final ByteBuffersDataOutput compressed;
+    // the dictionary followed by the content of the sub block being compressed
+    byte[] buffer;
+    int dictSize;
+
+    LZ4WithSharedDictCompressor(int dictLength, int subBlockLength) {
+      this.dictLength = dictLength;
+      this.subBlockLength = subBlockLength;
+      this.hashTable = new LZ4.HighCompressionHashTable();
+      this.compressed = ByteBuffersDataOutput.newResettableInstance();
+      this.buffer = new byte[subBlockLength];
+      this.dictSize = 0;
+    }
+
+    @Override
+    public void writeDictionary(byte[] sample, int off, int len, DataOutput out) throws IOException {
+      final byte[] dict = trainDictionary(sample, off, len, dictLength);
+      out.writeVInt(dict.length);
+      out.writeBytes(dict, dict.length);
+      buffer = new byte[dict.length + subBlockLength];
+      System.arraycopy(dict, 0, buffer, 0, dict.length);
+      dictSize = dict.length;
+    }
+
+    @Override
+    public int getDictionarySampleLength() {
+      return TRAINING_SAMPLE_FACTOR * dictLength;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+      out.writeVInt(subBlockLength);
+      final int end = off + len;
+      for (int start = off; start < end; start += subBlockLength) {
+        final int l = Math.min(subBlockLength, end - start);
+        System.arraycopy(bytes, start, buffer, dictSize, l);
+        compressed.reset();
+        LZ4.compressWithDictionary(buffer, 0, dictSize, l, compressed, hashTable);
+        out.writeVInt(Math.toIntExact(compressed.size()));
+        compressed.copyTo(out);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      // no-op
+    }
+  }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.IndexInput;
+
+/**
+ * Random access to vectors that are stored as little-endian floats in ordinal order.
+ */
+final class OffHeapVectors implements VectorValues.RandomAccess {
+
+  private final int dimension;
+  private final int size;
+  private final IndexInput dataIn;
+  private final ByteBuffer byteBuffer;
+  private final FloatBuffer floatBuffer;
+  private final float[] value;
+  private int lastOrd = -1;
+
+  OffHeapVectors(int dimension, int size, IndexInput dataIn) {
+    this.dimension = dimension;
+    this.size = size;
+    this.dataIn = dataIn;
+    this.byteBuffer = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    this.floatBuffer = byteBuffer.asFloatBuffer();
+    this.value = new float[dimension];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public float[] vectorValue(int targetOrd) throws IOException {
+    if (targetOrd != lastOrd) {
+      dataIn.seek((long) targetOrd * byteBuffer.capacity());
+      dataIn.readBytes(byteBuffer.array(), 0, byteBuffer.capacity());
+      floatBuffer.rewind();
+      floatBuffer.get(value);
+      lastOrd = targetOrd;
+    }
+    return value;
+  }
+
+  @Override
+  public OffHeapVectors copy() {
+    return new OffHeapVectors(dimension, size, dataIn.clone());
+  }
+
+  /** Write a vector to the given output, in the format that this class reads. */
+  static void writeVector(float[] vector, ByteBuffer scratch, DataOutput out) throws IOException {
+    scratch.clear();
+    scratch.asFloatBuffer().put(vector);
+    out.writeBytes(scratch.array(), 0, vector.length * Float.BYTES);
+  }
+}
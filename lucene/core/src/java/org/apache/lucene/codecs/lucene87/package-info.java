@@ -133,7 +133,7 @@
  *    what files it uses, and information about how the segment is sorted
  * </li>
  * <li>
- * {@link org.apache.lucene.codecs.lucene60.Lucene60FieldInfosFormat Field names}.
+ * {@link org.apache.lucene.codecs.lucene87.Lucene87FieldInfosFormat Field names}.
  *    This contains the set of field names used in the index.
  * </li>
  * <li>
@@ -245,7 +245,7 @@
  * systems that frequently run out of file handles.</td>
  * </tr>
  * <tr>
- * <td>{@link org.apache.lucene.codecs.lucene60.Lucene60FieldInfosFormat Fields}</td>
+ * <td>{@link org.apache.lucene.codecs.lucene87.Lucene87FieldInfosFormat Fields}</td>
  * <td>.fnm</td>
  * <td>Stores information about the fields</td>
  * </tr>
@@ -22,6 +22,10 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
@@ -34,6 +38,7 @@ import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.ThreadInterruptedException;
 
 /** A {@link MergeScheduler} that runs each merge using a
@@ -122,6 +127,12 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  /** Number of threads that work on a single merge, including the merge thread */
+  private int intraMergeThreads = 1;
+
+  /** Shared by all merges to merge parts of segments, created on demand */
+  private ThreadPoolExecutor intraMergeExecutor;
+
   /** Sole constructor, with all settings set to default
    *  values. */
   public ConcurrentMergeScheduler() {
@@ -235,6 +246,59 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     }
   }
 
+  /**
+   * Expert: sets the number of threads that may work on a single merge, including the merge thread
+   * itself (default: {@code 1}).  With more than one thread, the stored fields, doc values, points,
+   * vector values and term vectors of a merge are merged concurrently with its postings, on a pool of
+   * {@code intraMergeThreads - 1} threads that is shared by all merges.  The pool also builds the
+   * subtrees of multi-dimensional points fields concurrently.  The merge IO throttle
+   * applies to the writes of all threads of a merge together.
+   */
+  public synchronized void setIntraMergeThreads(int intraMergeThreads) {
+    if (intraMergeThreads < 1) {
+      throw new IllegalArgumentException("intraMergeThreads should be at least 1");
+    }
+    if (intraMergeThreads != this.intraMergeThreads) {
+      this.intraMergeThreads = intraMergeThreads;
+      if (intraMergeExecutor != null) {
+        // running parts still complete, new merges get a new pool
+        intraMergeExecutor.shutdown();
+        intraMergeExecutor = null;
+      }
+    }
+  }
+
+  /** Returns the number of threads that may work on a single merge.
+   *
+   * @see #setIntraMergeThreads(int) */
+  public synchronized int getIntraMergeThreads() {
+    return intraMergeThreads;
+  }
+
+  @Override
+  public synchronized Executor getIntraMergeExecutor(OneMerge merge) {
+    if (intraMergeThreads <= 1) {
+      return null;
+    }
+    if (intraMergeExecutor == null) {
+      intraMergeExecutor = new ThreadPoolExecutor(intraMergeThreads - 1, intraMergeThreads - 1,
+          1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("Lucene Merge Part"));
+      intraMergeExecutor.allowCoreThreadTimeOut(true);
+    }
+    final ThreadPoolExecutor executor = intraMergeExecutor;
+    final MergePolicy.OneMergeProgress progress = merge.getMergeProgress();
+    return task -> executor.execute(() -> {
+      // lets the part write through the rate limiter of the merge
+      Thread thread = Thread.currentThread();
+      progress.addHelperThread(thread);
+      try {
+        task.run();
+      } finally {
+        progress.removeHelperThread(thread);
+      }
+    });
+  }
+
   /** Returns {@code maxThreadCount}.
    *
    * @see #setMaxMergesAndThreads(int, int) */
@@ -282,9 +346,9 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         assert context.context == IOContext.Context.MERGE: "got context=" + context.context;
         
         // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
-        assert mergeThread == Thread.currentThread() : "Not the same merge thread, current="
-          + Thread.currentThread() + ", expected=" + mergeThread;
+        // always be called from that context, or from a thread that merges a part of it. Verify this.
+        assert mergeThread == Thread.currentThread() || merge.getMergeProgress().isMergeThread(Thread.currentThread())
+          : "Not the same merge thread, current=" + Thread.currentThread() + ", expected=" + mergeThread;
 
         return new RateLimitedIndexOutput(rateLimiter, in.createOutput(name, context));
       }
@@ -442,6 +506,28 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
   @Override
   public void close() {
     sync();
+    final ThreadPoolExecutor executor;
+    synchronized (this) {
+      executor = intraMergeExecutor;
+      intraMergeExecutor = null;
+    }
+    if (executor != null) {
+      executor.shutdown();
+      boolean interrupted = false;
+      while (true) {
+        try {
+          if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            break;
+          }
+        } catch (InterruptedException ie) {
+          // like sync(), keep waiting and restore the interrupt status afterwards
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
   /** Wait for any running merge threads to finish. This call is not interruptible as used by {@link #close()}. */
@@ -726,7 +812,8 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     StringBuilder sb = new StringBuilder(getClass().getSimpleName() + ": ");
     sb.append("maxThreadCount=").append(maxThreadCount).append(", ");    
     sb.append("maxMergeCount=").append(maxMergeCount).append(", ");    
-    sb.append("ioThrottle=").append(doAutoIOThrottle);
+    sb.append("ioThrottle=").append(doAutoIOThrottle).append(", ");
+    sb.append("intraMergeThreads=").append(intraMergeThreads);
     return sb.toString();
   }
 
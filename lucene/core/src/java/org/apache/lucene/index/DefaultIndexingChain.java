@@ -35,7 +35,10 @@ import org.apache.lucene.codecs.NormsFormat;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsFormat;
 import org.apache.lucene.codecs.PointsWriter;
+import org.apache.lucene.codecs.VectorFormat;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.VectorField;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
@@ -208,6 +211,12 @@ final class DefaultIndexingChain extends DocConsumer {
     if (infoStream.isEnabled("IW")) {
       infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write points");
     }
+
+    t0 = System.nanoTime();
+    writeVectors(state, sortMap);
+    if (infoStream.isEnabled("IW")) {
+      infoStream.message("IW", ((System.nanoTime()-t0)/1000000) + " msec to write vectors");
+    }
     
     // it's possible all docs hit non-aborting exceptions...
     t0 = System.nanoTime();
@@ -300,6 +309,46 @@ final class DefaultIndexingChain extends DocConsumer {
     }
   }
 
+  /** Writes all buffered vectors. */
+  private void writeVectors(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
+    VectorWriter vectorWriter = null;
+    boolean success = false;
+    try {
+      for (int i = 0; i < fieldHash.length; i++) {
+        PerField perField = fieldHash[i];
+        while (perField != null) {
+          if (perField.vectorValuesWriter != null) {
+            if (perField.fieldInfo.getVectorDimension() == 0) {
+              // BUG
+              throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has no vectors but wrote them");
+            }
+            if (vectorWriter == null) {
+              // lazy init
+              vectorWriter = state.segmentInfo.getCodec().vectorFormat().fieldsWriter(state);
+            }
+
+            perField.vectorValuesWriter.flush(sortMap, vectorWriter);
+            perField.vectorValuesWriter = null;
+          } else if (perField.fieldInfo.getVectorDimension() != 0) {
+            // BUG
+            throw new AssertionError("segment=" + state.segmentInfo + ": field=\"" + perField.fieldInfo.name + "\" has vectors but did not write them");
+          }
+          perField = perField.next;
+        }
+      }
+      if (vectorWriter != null) {
+        vectorWriter.finish();
+      }
+      success = true;
+    } finally {
+      if (success) {
+        IOUtils.close(vectorWriter);
+      } else {
+        IOUtils.closeWhileHandlingException(vectorWriter);
+      }
+    }
+  }
+
   /** Writes all buffered doc values (called from {@link #flush}). */
   private void writeDocValues(SegmentWriteState state, Sorter.DocMap sortMap) throws IOException {
     int maxDoc = state.segmentInfo.maxDoc();
@@ -493,6 +542,10 @@ final class DefaultIndexingChain extends DocConsumer {
     if (fieldType.indexOptions() == null) {
       throw new NullPointerException("IndexOptions must not be null (field: \"" + field.name() + "\")");
     }
+    if (fieldType.vectorDimension() != 0 && docWriter.getSegmentInfo().getCodec().vectorFormat() == VectorFormat.EMPTY) {
+      throw new IllegalArgumentException("cannot index vectors with codec " + docWriter.getSegmentInfo().getCodec().getName()
+                                         + ", which does not support them (field=\"" + fieldName + "\")");
+    }
 
     // Invert indexed fields:
     if (fieldType.indexOptions() != IndexOptions.NONE) {
@@ -543,6 +596,12 @@ final class DefaultIndexingChain extends DocConsumer {
       }
       indexPoint(docID, fp, field);
     }
+    if (fieldType.vectorDimension() != 0) {
+      if (fp == null) {
+        fp = getOrAddField(fieldName, fieldType, false);
+      }
+      indexVector(docID, fp, field);
+    }
     
     return fieldCount;
   }
@@ -587,6 +646,27 @@ final class DefaultIndexingChain extends DocConsumer {
     fp.pointValuesWriter.addPackedValue(docID, field.binaryValue());
   }
 
+  /** Called from processDocument to index one field's vector value */
+  private void indexVector(int docID, PerField fp, IndexableField field) {
+    if (field instanceof VectorField == false) {
+      throw new IllegalArgumentException("field=\"" + fp.fieldInfo.name + "\" has a vector dimension but is not a VectorField");
+    }
+    int dimension = field.fieldType().vectorDimension();
+    VectorValues.SimilarityFunction similarityFunction = field.fieldType().vectorSimilarityFunction();
+
+    // Record dimensions and similarity function for this field; this setter will throw IllegalArgExc if
+    // the dimensions or similarity function were already set to something different:
+    if (fp.fieldInfo.getVectorDimension() == 0) {
+      fieldInfos.globalFieldNumbers.setVectorDimensionsAndSimilarityFunction(fp.fieldInfo.number, fp.fieldInfo.name, dimension, similarityFunction);
+    }
+    fp.fieldInfo.setVectorDimensionAndSimilarityFunction(dimension, similarityFunction);
+
+    if (fp.vectorValuesWriter == null) {
+      fp.vectorValuesWriter = new VectorValuesWriter(fp.fieldInfo, docWriter.bytesUsed);
+    }
+    fp.vectorValuesWriter.addValue(docID, ((VectorField) field).vectorValue());
+  }
+
   private void validateIndexSortDVType(Sort indexSort, String fieldToValidate, DocValuesType dvType) throws IOException {
     for (SortField sortField : indexSort.getSort()) {
       IndexSorter sorter = sortField.getIndexSorter();
@@ -791,6 +871,9 @@ final class DefaultIndexingChain extends DocConsumer {
     // Non-null if this field ever had points in this segment:
     PointValuesWriter pointValuesWriter;
 
+    // Non-null if this field ever had vector values in this segment:
+    VectorValuesWriter vectorValuesWriter;
+
     /** We use this to know when a PerField is seen for the
      *  first time in the current document. */
     long fieldGen = -1;
@@ -23,6 +23,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.search.SearcherManager; // javadocs
 import org.apache.lucene.store.Directory;
@@ -60,7 +61,23 @@ public abstract class DirectoryReader extends BaseCompositeReader<LeafReader> {
    * @throws IOException if there is a low-level IO error
    */
   public static DirectoryReader open(final Directory directory) throws IOException {
-    return StandardDirectoryReader.open(directory, null);
+    return StandardDirectoryReader.open(directory, null, Collections.emptyMap());
+  }
+
+  /** Expert: returns an IndexReader reading the index in the given
+   *  Directory, passing the given reader attributes to the codec.
+   *  Reader attributes are read-time options, for instance
+   *  {@link org.apache.lucene.codecs.blocktree.BlockTreeTermsReader#FST_MODE_KEY},
+   *  and are also used by readers that are later reopened from the returned reader.
+   * @param directory the index directory
+   * @param readerAttributes the reader attributes passed to the {@link org.apache.lucene.codecs.Codec} layer of the
+   *                         directory reader. This attribute map is forwarded to all leaf readers as well as to the readers
+   *                         that are opened subsequently via the different flavors of {@link DirectoryReader#openIfChanged(DirectoryReader)}
+   * @throws IOException if there is a low-level IO error
+   * @lucene.experimental
+   */
+  public static DirectoryReader open(final Directory directory, final Map<String, String> readerAttributes) throws IOException {
+    return StandardDirectoryReader.open(directory, null, readerAttributes);
   }
   
   /**
@@ -109,7 +126,19 @@ public abstract class DirectoryReader extends BaseCompositeReader<LeafReader> {
    * @throws IOException if there is a low-level IO error
    */
   public static DirectoryReader open(final IndexCommit commit) throws IOException {
-   return StandardDirectoryReader.open(commit.getDirectory(), commit);
+   return StandardDirectoryReader.open(commit.getDirectory(), commit, Collections.emptyMap());
+  }
+
+  /** Expert: returns an IndexReader reading the index in the given
+   *  {@link IndexCommit}, passing the given reader attributes to the codec.
+   * @param commit the commit point to open
+   * @param readerAttributes the reader attributes passed to the {@link org.apache.lucene.codecs.Codec} layer of the
+   *                         directory reader, see {@link #open(Directory, Map)}
+   * @throws IOException if there is a low-level IO error
+   * @lucene.experimental
+   */
+  public static DirectoryReader open(final IndexCommit commit, Map<String, String> readerAttributes) throws IOException {
+    return StandardDirectoryReader.open(commit.getDirectory(), commit, readerAttributes);
   }
 
   /**
@@ -54,6 +54,11 @@ public final class FieldInfo {
   private int pointIndexDimensionCount;
   private int pointNumBytes;
 
+  /** If positive, this field indexed vectors of this dimension
+   *  (see {@link org.apache.lucene.codecs.VectorFormat}). */
+  private int vectorDimension;
+  private VectorValues.SimilarityFunction vectorSimilarityFunction = VectorValues.SimilarityFunction.NONE;
+
   // whether this field is used as the soft-deletes field
   private final boolean softDeletesField;
 
@@ -137,6 +142,14 @@ public final class FieldInfo {
       throw new IllegalStateException("field '" + name + "' cannot have a docvalues update generation without having docvalues");
     }
 
+    if (vectorDimension < 0) {
+      throw new IllegalStateException("vectorDimension must be >= 0; got " + vectorDimension);
+    }
+
+    if (vectorDimension == 0 && vectorSimilarityFunction != VectorValues.SimilarityFunction.NONE) {
+      throw new IllegalStateException("vector similarity function must be NONE when dimension = 0; got " + vectorSimilarityFunction);
+    }
+
     return true;
   }
 
@@ -232,6 +245,41 @@ public final class FieldInfo {
     return pointNumBytes;
   }
 
+  /** Record that this field is indexed with vectors, with the
+   *  specified dimension and similarity function. */
+  public void setVectorDimensionAndSimilarityFunction(int dimension, VectorValues.SimilarityFunction similarityFunction) {
+    if (dimension <= 0) {
+      throw new IllegalArgumentException("vector dimension must be > 0; got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (dimension > VectorValues.MAX_DIMENSIONS) {
+      throw new IllegalArgumentException("vector dimension must be <= VectorValues.MAX_DIMENSIONS (= " + VectorValues.MAX_DIMENSIONS + "); got " + dimension + " for field=\"" + name + "\"");
+    }
+    if (similarityFunction == null) {
+      throw new NullPointerException("vector similarity function must not be null (field: \"" + name + "\")");
+    }
+    if (vectorDimension != 0 && vectorDimension != dimension) {
+      throw new IllegalArgumentException("cannot change vector dimension from " + vectorDimension + " to " + dimension + " for field=\"" + name + "\"");
+    }
+    if (vectorDimension != 0 && vectorSimilarityFunction != similarityFunction) {
+      throw new IllegalArgumentException("cannot change vector similarity function from " + vectorSimilarityFunction + " to " + similarityFunction + " for field=\"" + name + "\"");
+    }
+
+    vectorDimension = dimension;
+    vectorSimilarityFunction = similarityFunction;
+
+    this.checkConsistency();
+  }
+
+  /** Returns the number of dimensions of the vector value, or 0 if this field has no vectors */
+  public int getVectorDimension() {
+    return vectorDimension;
+  }
+
+  /** Returns {@link VectorValues.SimilarityFunction} for the field */
+  public VectorValues.SimilarityFunction getVectorSimilarityFunction() {
+    return vectorSimilarityFunction;
+  }
+
   /** Record that this field is indexed with docvalues, with the specified type */
   public void setDocValuesType(DocValuesType type) {
     if (type == null) {
@@ -341,7 +389,9 @@ public final class FieldInfo {
    * Get a codec attribute value, or null if it does not exist
    */
   public String getAttribute(String key) {
-    return attributes.get(key);
+    synchronized (attributes) {
+      return attributes.get(key);
+    }
   }
   
   /**
@@ -356,7 +406,10 @@ public final class FieldInfo {
    * the documents, the behaviour after merge is undefined.
    */
   public String putAttribute(String key, String value) {
-    return attributes.put(key, value);
+    // synchronized since the codecs of different index parts may set attributes concurrently during merges
+    synchronized (attributes) {
+      return attributes.put(key, value);
+    }
   }
   
   /**
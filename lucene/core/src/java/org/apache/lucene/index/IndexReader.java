@@ -324,6 +324,16 @@ public abstract class IndexReader implements Closeable {
    *  #document(int)}.  If you want to load a subset, use
    *  {@link DocumentStoredFieldVisitor}.  */
   public abstract void document(int docID, StoredFieldVisitor visitor) throws IOException;
+
+  /** Expert: hints that the stored fields of the given document
+   *  will be loaded soon, so that the underlying storage can start
+   *  reading them in the background. This is useful to overlap I/O
+   *  when loading a batch of documents, such as the top hits of a
+   *  query: call this method on all of them before loading the
+   *  first one.
+   *  <p>The default implementation is a no-op. */
+  public void prefetchDocument(int docID) throws IOException {
+  }
   
   /**
    * Returns the stored fields of the <code>n</code><sup>th</sup>
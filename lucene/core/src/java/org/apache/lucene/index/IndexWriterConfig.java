@@ -19,6 +19,10 @@ package org.apache.lucene.index;
 
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
@@ -531,4 +535,15 @@ public final class IndexWriterConfig extends LiveIndexWriterConfig {
     this.softDeletesField = softDeletesField;
     return this;
   }
+
+  /**
+   * Sets the reader attributes used for all readers pulled from the IndexWriter. Reader attributes allow configuration
+   * of low-level aspects like ram utilization on a per-reader basis, for instance
+   * {@link org.apache.lucene.codecs.blocktree.BlockTreeTermsReader#FST_MODE_KEY}.
+   * Note: This method make a shallow copy of the provided map.
+   */
+  public IndexWriterConfig setReaderAttributes(Map<String, String> readerAttributes) {
+    this.readerAttributes = Collections.unmodifiableMap(new HashMap<>(Objects.requireNonNull(readerAttributes)));
+    return this;
+  }
 }
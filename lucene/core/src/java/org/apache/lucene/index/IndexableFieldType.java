@@ -114,6 +114,20 @@ public interface IndexableFieldType {
    */
   public int pointNumBytes();
 
+  /**
+   * The number of dimensions of the field's vector value, or 0 if the field does not index vectors.
+   */
+  public default int vectorDimension() {
+    return 0;
+  }
+
+  /**
+   * The {@link VectorValues.SimilarityFunction} of the field's vector value, if any.
+   */
+  public default VectorValues.SimilarityFunction vectorSimilarityFunction() {
+    return VectorValues.SimilarityFunction.NONE;
+  }
+
   /**
    * Attributes for the field type.
    *
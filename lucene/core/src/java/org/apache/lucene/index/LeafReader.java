@@ -231,6 +231,12 @@ public abstract class LeafReader extends IndexReader {
    *  are no point fields. */
   public abstract PointValues getPointValues(String field) throws IOException;
 
+  /** Returns {@link VectorValues} for this field, or
+   *  null if no {@link VectorValues} were indexed for this field.
+   *  The returned instance should only be used by a single thread.
+   *  @lucene.experimental */
+  public abstract VectorValues getVectorValues(String field) throws IOException;
+
   /**
    * Checks consistency of this reader.
    * <p>
@@ -26,6 +26,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -104,11 +105,14 @@ public abstract class MergePolicy {
 
     /**
      * This field is for sanity-check purposes only. Only the same thread that invoked
-     * {@link OneMerge#mergeInit()} is permitted to be calling 
-     * {@link #pauseNanos}. This is always verified at runtime. 
+     * {@link OneMerge#mergeInit()}, or a thread that merges a part of the segment on its
+     * behalf, is permitted to be calling {@link #pauseNanos}. This is always verified at runtime.
      */
     private Thread owner;
 
+    /** Threads that currently merge a part of the segment for the owner thread. */
+    private final Set<Thread> helperThreads = ConcurrentHashMap.newKeySet();
+
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
       // Place all the pause reasons in there immediately so that we can simply update values.
@@ -149,7 +153,7 @@ public abstract class MergePolicy {
      *      condition 
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition) throws InterruptedException {
-      if (Thread.currentThread() != owner) {
+      if (isMergeThread(Thread.currentThread()) == false) {
         throw new RuntimeException("Only the merge owner thread can call pauseNanos(). This thread: "
             + Thread.currentThread().getName() + ", owner thread: "
             + owner);
@@ -193,6 +197,20 @@ public abstract class MergePolicy {
       assert this.owner == null;
       this.owner = owner;
     }
+
+    /** Lets the given thread work on this merge, until it is removed again. */
+    final void addHelperThread(Thread helper) {
+      helperThreads.add(helper);
+    }
+
+    final void removeHelperThread(Thread helper) {
+      helperThreads.remove(helper);
+    }
+
+    /** Returns true if the given thread is the owner of this merge or currently helps it. */
+    final boolean isMergeThread(Thread thread) {
+      return thread == owner || helperThreads.contains(thread);
+    }
   }
 
   /** OneMerge provides the information necessary to perform
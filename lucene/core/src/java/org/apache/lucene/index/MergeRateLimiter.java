@@ -90,7 +90,8 @@ public class MergeRateLimiter extends RateLimiter {
     // is changed while we were pausing:
     long paused = 0;
     long delta;
-    while ((delta = maybePause(bytes, System.nanoTime())) >= 0) {
+    final Reservation reservation = new Reservation(bytes);
+    while ((delta = maybePause(reservation, System.nanoTime())) >= 0) {
       // Keep waiting.
       paused += delta;
     }
@@ -108,33 +109,78 @@ public class MergeRateLimiter extends RateLimiter {
     return mergeProgress.getPauseTimes().get(PauseReason.PAUSED);
   } 
 
+  /** The time that the bytes of a single {@link #pause} call have been charged for. */
+  private static final class Reservation {
+    final long bytes;
+    boolean reserved; // whether the bytes have been charged yet
+    double rate; // the rate that the bytes have been charged at
+    long startNS, targetNS; // the time range that the bytes have been charged for
+
+    Reservation(long bytes) {
+      this.bytes = bytes;
+    }
+  }
+
   /** 
    * Returns the number of nanoseconds spent in a paused state or <code>-1</code>
    * if no pause was applied. If the thread needs pausing, this method delegates 
    * to the linked {@link OneMergeProgress}. 
    */
-  private long maybePause(long bytes, long curNS) throws MergePolicy.MergeAbortedException {
+  private long maybePause(Reservation reservation, long curNS) throws MergePolicy.MergeAbortedException {
     // Now is a good time to abort the merge:
     if (mergeProgress.isAborted()) {
       throw new MergePolicy.MergeAbortedException("Merge aborted.");
     }
 
     double rate = mbPerSec; // read from volatile rate once.
-    double secondsToPause = (bytes/1024./1024.) / rate;
 
-    // Time we should sleep until; this is purely instantaneous
-    // rate (just adds seconds onto the last time we had paused to);
-    // maybe we should also offer decayed recent history one?
-    long targetNS = lastNS + (long) (1000000000 * secondsToPause);
-
-    long curPauseNS = targetNS - curNS;
+    long curPauseNS;
+    if (rate == 0.0) {
+      // The merge is stopped, wait until the rate changes:
+      curPauseNS = MAX_PAUSE_NS;
+    } else {
+      long pauseNS = (long) (1000000000 * ((reservation.bytes/1024./1024.) / rate));
+      // Synchronized since the parts of a merge may be written by several threads that share this limiter
+      synchronized (this) {
+        if (reservation.reserved == false) {
+          // Time we should sleep until; this is purely instantaneous
+          // rate (just adds seconds onto the last time we had paused to);
+          // maybe we should also offer decayed recent history one?
+          long targetNS = lastNS + pauseNS;
+
+          // We don't bother with thread pausing if the pause is smaller than 2 msec.
+          if (targetNS - curNS <= MIN_PAUSE_NS) {
+            // Set to curNS, not targetNS, to enforce the instant rate, not
+            // the "averaged over all history" rate. Don't go back in time if
+            // another thread already reserved the time until lastNS though:
+            if (lastNS - curNS < 0) {
+              lastNS = curNS;
+            }
+            return -1;
+          }
+
+          // Charge our bytes now, so that other threads of this merge pause
+          // after us instead of at the same time:
+          reservation.reserved = true;
+          reservation.rate = rate;
+          reservation.startNS = lastNS;
+          reservation.targetNS = targetNS;
+          lastNS = targetNS;
+        } else if (reservation.rate != rate) {
+          // The rate changed while we were pausing: charge our bytes at the
+          // new rate, which also moves the pauses of the threads after us.
+          long targetNS = reservation.startNS + pauseNS;
+          lastNS += targetNS - reservation.targetNS;
+          reservation.rate = rate;
+          reservation.targetNS = targetNS;
+        }
+        curPauseNS = reservation.targetNS - curNS;
+      }
 
-    // We don't bother with thread pausing if the pause is smaller than 2 msec.
-    if (curPauseNS <= MIN_PAUSE_NS) {
-      // Set to curNS, not targetNS, to enforce the instant rate, not
-      // the "averaged over all history" rate:
-      lastNS = curNS;
-      return -1;
+      // We don't bother with thread pausing if the pause is smaller than 2 msec.
+      if (curPauseNS <= MIN_PAUSE_NS) {
+        return -1;
+      }
     }
 
     // Defensive: don't sleep for too long; the loop above will call us again if
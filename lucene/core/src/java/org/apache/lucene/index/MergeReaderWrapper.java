@@ -194,6 +194,11 @@ class MergeReaderWrapper extends LeafReader {
     return in.getPointValues(fieldName);
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    return in.getVectorValues(fieldName);
+  }
+
   @Override
   public int numDocs() {
     return in.numDocs();
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.Directory;
@@ -52,6 +53,18 @@ public abstract class MergeScheduler implements Closeable {
     return in;
   }
 
+  /**
+   * Returns the {@link Executor} that the independent parts of the given merge, such as stored fields,
+   * doc values and points, are merged on while the merge thread merges the postings, or {@code null}
+   * to merge all parts one after the other on the merge thread.  Parts that the executor did not start
+   * by the time the merge thread is done with the postings are merged by the merge thread itself.
+   * Outputs created by the tasks go through the directory returned by {@link #wrapForMerge}.
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    // Sequential by default.
+    return null;
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
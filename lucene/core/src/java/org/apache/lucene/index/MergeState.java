@@ -21,11 +21,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
+import org.apache.lucene.codecs.VectorReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
 import org.apache.lucene.search.Sort;
@@ -77,6 +79,9 @@ public class MergeState {
   /** Point readers to merge */
   public final PointsReader[] pointsReaders;
 
+  /** Vector readers to merge */
+  public final VectorReader[] vectorReaders;
+
   /** Max docs per reader */
   public final int[] maxDocs;
 
@@ -86,10 +91,38 @@ public class MergeState {
   /** Indicates if the index needs to be sorted **/
   public boolean needsIndexSort;
 
+  /** Executor that codecs may run parts of merging a field on concurrently, or null if the merge runs on one thread. */
+  public final Executor intraMergeExecutor;
+
+  /**
+   * Copies the given state for merging a part of the segment concurrently with other parts, since
+   * codecs may temporarily restrict the field infos and fields producers of the state to some fields.
+   */
+  MergeState(MergeState other) {
+    this.docMaps = other.docMaps;
+    this.leafDocMaps = other.leafDocMaps;
+    this.segmentInfo = other.segmentInfo;
+    this.mergeFieldInfos = other.mergeFieldInfos;
+    this.storedFieldsReaders = other.storedFieldsReaders;
+    this.termVectorsReaders = other.termVectorsReaders;
+    this.normsProducers = other.normsProducers;
+    this.docValuesProducers = other.docValuesProducers;
+    this.fieldInfos = other.fieldInfos.clone();
+    this.liveDocs = other.liveDocs;
+    this.fieldsProducers = other.fieldsProducers.clone();
+    this.pointsReaders = other.pointsReaders;
+    this.vectorReaders = other.vectorReaders;
+    this.maxDocs = other.maxDocs;
+    this.infoStream = other.infoStream;
+    this.needsIndexSort = other.needsIndexSort;
+    this.intraMergeExecutor = other.intraMergeExecutor;
+  }
+
   /** Sole constructor. */
-  MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream) throws IOException {
+  MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream, Executor intraMergeExecutor) throws IOException {
 
     this.infoStream = infoStream;
+    this.intraMergeExecutor = intraMergeExecutor;
 
     final Sort indexSort = segmentInfo.getIndexSort();
     int numReaders = originalReaders.size();
@@ -103,6 +136,7 @@ public class MergeState {
     termVectorsReaders = new TermVectorsReader[numReaders];
     docValuesProducers = new DocValuesProducer[numReaders];
     pointsReaders = new PointsReader[numReaders];
+    vectorReaders = new VectorReader[numReaders];
     fieldInfos = new FieldInfos[numReaders];
     liveDocs = new Bits[numReaders];
 
@@ -139,6 +173,11 @@ public class MergeState {
       if (pointsReaders[i] != null) {
         pointsReaders[i] = pointsReaders[i].getMergeInstance();
       }
+
+      vectorReaders[i] = reader.getVectorReader();
+      if (vectorReaders[i] != null) {
+        vectorReaders[i] = vectorReaders[i].getMergeInstance();
+      }
       numDocs += reader.numDocs();
     }
 
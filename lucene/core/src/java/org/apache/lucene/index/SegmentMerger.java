@@ -18,7 +18,13 @@ package org.apache.lucene.index;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
@@ -28,8 +34,10 @@ import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsWriter;
 import org.apache.lucene.codecs.StoredFieldsWriter;
 import org.apache.lucene.codecs.TermVectorsWriter;
+import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.Version;
 
@@ -50,13 +58,26 @@ final class SegmentMerger {
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
 
+  // merges the parts of the segment concurrently if not null
+  private final Executor intraMergeExecutor;
+
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
                 FieldInfos.FieldNumbers fieldNumbers, IOContext context) throws IOException {
+    this(readers, segmentInfo, infoStream, dir, fieldNumbers, context, null);
+  }
+
+  /**
+   * Creates a merger that merges the stored fields, doc values, points, vector values and term vectors
+   * of the segment on the given executor while the calling thread merges the norms and postings.
+   */
+  SegmentMerger(List<CodecReader> readers, SegmentInfo segmentInfo, InfoStream infoStream, Directory dir,
+                FieldInfos.FieldNumbers fieldNumbers, IOContext context, Executor intraMergeExecutor) throws IOException {
+    this.intraMergeExecutor = intraMergeExecutor;
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException("IOContext.context should be MERGE; got: " + context.context);
     }
-    mergeState = new MergeState(readers, segmentInfo, infoStream);
+    mergeState = new MergeState(readers, segmentInfo, infoStream, intraMergeExecutor);
     directory = dir;
     this.codec = segmentInfo.getCodec();
     this.context = context;
@@ -98,111 +119,169 @@ final class SegmentMerger {
       throw new IllegalStateException("Merge would result in 0 document segment");
     }
     mergeFieldInfos();
-    long t0 = 0;
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    int numMerged = mergeFields();
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge stored fields [" + numMerged + " docs]");
-    }
-    assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
 
     final SegmentWriteState segmentWriteState = new SegmentWriteState(mergeState.infoStream, directory, mergeState.segmentInfo,
                                                                       mergeState.mergeFieldInfos, null, context);
     final SegmentReadState segmentReadState = new SegmentReadState(directory, mergeState.segmentInfo, mergeState.mergeFieldInfos,
         IOContext.READ, segmentWriteState.segmentSuffix);
 
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
-      }
-      mergeNorms(segmentWriteState);
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge norms [" + numMerged + " docs]");
+    // postings read the merged norms, so these two are merged one after the other
+    final MergePart normsAndPostings = () -> {
+      final MergeState partState = partState();
+      if (mergeState.mergeFieldInfos.hasNorms()) {
+        timed("merge norms", () -> mergeNorms(segmentWriteState, partState));
       }
-    }
+      timed("merge postings", () -> {
+        try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
+            ? codec.normsFormat().normsProducer(segmentReadState)
+            : null) {
+          NormsProducer normsMergeInstance = null;
+          if (norms != null) {
+            // Use the merge instance in order to reuse the same IndexInput for all terms
+            normsMergeInstance = norms.getMergeInstance();
+          }
+          mergeTerms(segmentWriteState, partState, normsMergeInstance);
+        }
+      });
+    };
 
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    final List<MergePart> parts = new ArrayList<>();
+    parts.add(() -> timed("merge stored fields", () -> {
+      int numMerged = mergeFields(partState());
+      assert numMerged == mergeState.segmentInfo.maxDoc(): "numMerged=" + numMerged + " vs mergeState.segmentInfo.maxDoc()=" + mergeState.segmentInfo.maxDoc();
+    }));
+    parts.add(normsAndPostings);
+    if (mergeState.mergeFieldInfos.hasDocValues()) {
+      parts.add(() -> timed("merge doc values", () -> mergeDocValues(segmentWriteState, partState())));
     }
-    try (NormsProducer norms = mergeState.mergeFieldInfos.hasNorms()
-        ? codec.normsFormat().normsProducer(segmentReadState)
-        : null) {
-      NormsProducer normsMergeInstance = null;
-      if (norms != null) {
-        // Use the merge instance in order to reuse the same IndexInput for all terms
-        normsMergeInstance = norms.getMergeInstance();
-      }
-      mergeTerms(segmentWriteState, normsMergeInstance);
+    if (mergeState.mergeFieldInfos.hasPointValues()) {
+      parts.add(() -> timed("merge points", () -> mergePoints(segmentWriteState, partState())));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge postings [" + numMerged + " docs]");
+    if (mergeState.mergeFieldInfos.hasVectorValues()) {
+      parts.add(() -> timed("merge vector values", () -> mergeVectorValues(segmentWriteState, partState())));
     }
-
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
-    }
-    if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeDocValues(segmentWriteState);
+    if (mergeState.mergeFieldInfos.hasVectors()) {
+      parts.add(() -> timed("merge vectors", () -> {
+        int numMerged = mergeVectors(partState());
+        assert numMerged == mergeState.segmentInfo.maxDoc();
+      }));
     }
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge doc values [" + numMerged + " docs]");
+
+    if (intraMergeExecutor == null) {
+      for (MergePart part : parts) {
+        part.merge();
+      }
+    } else {
+      mergeConcurrently(parts, normsAndPostings);
     }
 
+    // write the merged infos
+    timed("write field infos", () ->
+        codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context));
+
+    return mergeState;
+  }
+
+  /** Returns the merge state to merge a part with, which is a copy if parts are merged concurrently */
+  private MergeState partState() {
+    return intraMergeExecutor == null ? mergeState : new MergeState(mergeState);
+  }
+
+  /** A part of the merged segment that is written independently of the other parts */
+  @FunctionalInterface
+  private interface MergePart {
+    void merge() throws IOException;
+  }
+
+  private void timed(String what, MergePart part) throws IOException {
+    long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
       t0 = System.nanoTime();
     }
-    if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergePoints(segmentWriteState);
-    }
+    part.merge();
     if (mergeState.infoStream.isEnabled("SM")) {
       long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge points [" + numMerged + " docs]");
+      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to " + what + " [" + mergeState.segmentInfo.maxDoc() + " docs]");
     }
+  }
 
-    if (mergeState.mergeFieldInfos.hasVectors()) {
-      if (mergeState.infoStream.isEnabled("SM")) {
-        t0 = System.nanoTime();
+  /**
+   * Hands all parts but the given one to the executor, merges that one on the calling thread, and then
+   * waits for the other parts, merging those that the executor didn't start yet itself.
+   */
+  private void mergeConcurrently(List<MergePart> parts, MergePart onMergeThread) throws IOException {
+    final AtomicBoolean failed = new AtomicBoolean();
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    Throwable failure = null;
+    try {
+      for (MergePart part : parts) {
+        if (part == onMergeThread) {
+          continue;
+        }
+        FutureTask<Void> task = new FutureTask<>(() -> {
+          // don't start parts anymore once another part failed
+          if (failed.get() == false) {
+            part.merge();
+          }
+          return null;
+        });
+        tasks.add(task);
+        try {
+          intraMergeExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+          // the task is run on this thread below
+        }
       }
-      numMerged = mergeVectors();
-      if (mergeState.infoStream.isEnabled("SM")) {
-        long t1 = System.nanoTime();
-        mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to merge vectors [" + numMerged + " docs]");
+      onMergeThread.merge();
+    } catch (Throwable t) {
+      failed.set(true);
+      failure = t;
+    }
+
+    // all parts must be done before returning, even if one failed, since they write the segment's files
+    boolean interrupted = false;
+    for (FutureTask<Void> task : tasks) {
+      task.run(); // a no-op if the executor started the task already
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (ExecutionException e) {
+          failed.set(true);
+          failure = IOUtils.useOrSuppress(failure, e.getCause());
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
       }
-      assert numMerged == mergeState.segmentInfo.maxDoc();
     }
-    
-    // write the merged infos
-    if (mergeState.infoStream.isEnabled("SM")) {
-      t0 = System.nanoTime();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
     }
-    codec.fieldInfosFormat().write(directory, mergeState.segmentInfo, "", mergeState.mergeFieldInfos, context);
-    if (mergeState.infoStream.isEnabled("SM")) {
-      long t1 = System.nanoTime();
-      mergeState.infoStream.message("SM", ((t1-t0)/1000000) + " msec to write field infos [" + numMerged + " docs]");
+    if (failure != null) {
+      throw IOUtils.rethrowAlways(failure);
     }
-
-    return mergeState;
   }
 
-  private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeDocValues(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (DocValuesConsumer consumer = codec.docValuesFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
   }
 
-  private void mergePoints(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergePoints(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (PointsWriter writer = codec.pointsFormat().fieldsWriter(segmentWriteState)) {
       writer.merge(mergeState);
     }
   }
 
-  private void mergeNorms(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeVectorValues(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
+    try (VectorWriter writer = codec.vectorFormat().fieldsWriter(segmentWriteState)) {
+      writer.merge(mergeState);
+    }
+  }
+
+  private void mergeNorms(SegmentWriteState segmentWriteState, MergeState mergeState) throws IOException {
     try (NormsConsumer consumer = codec.normsFormat().normsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
@@ -223,7 +302,7 @@ final class SegmentMerger {
    * @throws CorruptIndexException if the index is corrupt
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeFields() throws IOException {
+  private int mergeFields(MergeState mergeState) throws IOException {
     try (StoredFieldsWriter fieldsWriter = codec.storedFieldsFormat().fieldsWriter(directory, mergeState.segmentInfo, context)) {
       return fieldsWriter.merge(mergeState);
     }
@@ -233,13 +312,13 @@ final class SegmentMerger {
    * Merge the TermVectors from each of the segments into the new one.
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeVectors() throws IOException {
+  private int mergeVectors(MergeState mergeState) throws IOException {
     try (TermVectorsWriter termVectorsWriter = codec.termVectorsFormat().vectorsWriter(directory, mergeState.segmentInfo, context)) {
       return termVectorsWriter.merge(mergeState);
     }
   }
 
-  private void mergeTerms(SegmentWriteState segmentWriteState, NormsProducer norms) throws IOException {
+  private void mergeTerms(SegmentWriteState segmentWriteState, MergeState mergeState, NormsProducer norms) throws IOException {
     try (FieldsConsumer consumer = codec.postingsFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState, norms);
     }
@@ -16,6 +16,9 @@
  */
 package org.apache.lucene.index;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.apache.lucene.codecs.PostingsFormat; // javadocs
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat; // javadocs
 import org.apache.lucene.store.Directory;
@@ -48,10 +51,23 @@ public class SegmentReadState {
    *  {@link IndexFileNames#segmentFileName(String,String,String)}). */
   public final String segmentSuffix;
 
+  /**
+   * The reader attributes used to open this segment. These are read-time options,
+   * such as how to load the terms index, that formats may use to configure their
+   * readers. They are never written to the index.
+   */
+  public final Map<String, String> readerAttributes;
+
   /** Create a {@code SegmentReadState}. */
   public SegmentReadState(Directory dir, SegmentInfo info,
                           FieldInfos fieldInfos, IOContext context) {
-    this(dir, info, fieldInfos, context, "");
+    this(dir, info, fieldInfos, context, Collections.emptyMap());
+  }
+
+  /** Create a {@code SegmentReadState}. */
+  public SegmentReadState(Directory dir, SegmentInfo info,
+                          FieldInfos fieldInfos, IOContext context, Map<String, String> readerAttributes) {
+    this(dir, info, fieldInfos, context, "", readerAttributes);
   }
   
   /** Create a {@code SegmentReadState}. */
@@ -60,11 +76,22 @@ public class SegmentReadState {
                           FieldInfos fieldInfos,
                           IOContext context,
                           String segmentSuffix) {
+    this(dir, info, fieldInfos, context, segmentSuffix, Collections.emptyMap());
+  }
+
+  /** Create a {@code SegmentReadState}. */
+  public SegmentReadState(Directory dir,
+                          SegmentInfo info,
+                          FieldInfos fieldInfos,
+                          IOContext context,
+                          String segmentSuffix,
+                          Map<String, String> readerAttributes) {
     this.directory = dir;
     this.segmentInfo = info;
     this.fieldInfos = fieldInfos;
     this.context = context;
     this.segmentSuffix = segmentSuffix;
+    this.readerAttributes = Collections.unmodifiableMap(readerAttributes);
   }
 
   /** Create a {@code SegmentReadState}. */
@@ -75,5 +102,6 @@ public class SegmentReadState {
     this.fieldInfos = other.fieldInfos;
     this.context = other.context;
     this.segmentSuffix = newSegmentSuffix;
+    this.readerAttributes = other.readerAttributes;
   }
 }
@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -28,6 +29,7 @@ import org.apache.lucene.codecs.FieldInfosFormat;
 import org.apache.lucene.codecs.FieldsProducer;
 import org.apache.lucene.codecs.NormsProducer;
 import org.apache.lucene.codecs.PointsReader;
+import org.apache.lucene.codecs.VectorReader;
 import org.apache.lucene.codecs.StoredFieldsReader;
 import org.apache.lucene.codecs.TermVectorsReader;
 import org.apache.lucene.store.Directory;
@@ -73,6 +75,16 @@ public final class SegmentReader extends CodecReader {
    * @throws IOException if there is a low-level IO error
    */
   SegmentReader(SegmentCommitInfo si, int createdVersionMajor, IOContext context) throws IOException {
+    this(si, createdVersionMajor, context, Collections.emptyMap());
+  }
+
+  /**
+   * Constructs a new SegmentReader with a new core, passing the given reader attributes
+   * to the codec.
+   * @throws CorruptIndexException if the index is corrupt
+   * @throws IOException if there is a low-level IO error
+   */
+  SegmentReader(SegmentCommitInfo si, int createdVersionMajor, IOContext context, Map<String, String> readerAttributes) throws IOException {
     this.si = si.clone();
     this.originalSi = si;
     this.metaData = new LeafMetaData(createdVersionMajor, si.info.getMinVersion(), si.info.getIndexSort());
@@ -80,7 +92,7 @@ public final class SegmentReader extends CodecReader {
     // We pull liveDocs/DV updates from disk:
     this.isNRT = false;
     
-    core = new SegmentCoreReaders(si.info.dir, si, context);
+    core = new SegmentCoreReaders(si.info.dir, si, context, readerAttributes);
     segDocValues = new SegmentDocValues();
     
     boolean success = false;
@@ -247,6 +259,12 @@ public final class SegmentReader extends CodecReader {
     return core.pointsReader;
   }
 
+  @Override
+  public VectorReader getVectorReader() {
+    ensureOpen();
+    return core.vectorReader;
+  }
+
   @Override
   public NormsProducer getNormsReader() {
     ensureOpen();
@@ -1099,6 +1099,16 @@ class SortingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public VectorValues getVectorValues(String fieldName) throws IOException {
+    final VectorValues inVectorValues = in.getVectorValues(fieldName);
+    if (inVectorValues == null) {
+      return null;
+    } else {
+      return new VectorValuesWriter.SortingVectorValues(inVectorValues, docMap);
+    }
+  }
+
   private final Map<String,CachedNumericDVs> cachedNorms = new HashMap<>();
 
   @Override
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.PriorityQueue;
+
+/**
+ * Access to per-document dense vector values. Each document has at most one vector, and all vectors
+ * of a field have the same {@link #dimension() dimension}.
+ *
+ * @lucene.experimental
+ */
+public abstract class VectorValues extends DocIdSetIterator {
+
+  /** The maximum number of dimensions of a vector field. */
+  public static final int MAX_DIMENSIONS = 1024;
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected VectorValues() {}
+
+  /** Return the dimension of the vectors */
+  public abstract int dimension();
+
+  /** Return the number of documents that have a vector for this field. */
+  public abstract int size();
+
+  /** Return the similarity function that is used to compare vectors of this field. */
+  public abstract SimilarityFunction similarityFunction();
+
+  /**
+   * Return the vector value for the current document ID.
+   * It is illegal to call this method when the iterator is not positioned: before advancing,
+   * or after failing to advance. The returned array may be shared across calls, re-used, and
+   * modified as the iterator advances.
+   * @return the vector value
+   */
+  public abstract float[] vectorValue() throws IOException;
+
+  @Override
+  public long cost() {
+    return size();
+  }
+
+  /**
+   * Return the {@code k} nearest neighbor documents of {@code target} among the documents
+   * accepted by {@code acceptDocs} (or among all documents if {@code acceptDocs} is null).
+   * Implementations that maintain a search structure, such as a graph, may return approximate
+   * results and explore at least {@code fanout} candidates per query; the default implementation
+   * computes exact results by exhaustively scanning the vectors with this iterator, so that it
+   * should not be used for anything else afterwards.
+   * <p>
+   * Returned hits are sorted by descending score, where scores are computed with
+   * {@link SimilarityFunction#score(float[], float[])}.
+   *
+   * @param target the vector-valued query
+   * @param k      the number of docs to return
+   * @param fanout the number of candidates to explore in addition to {@code k}, ignored by exact searches
+   * @param acceptDocs documents that are allowed to match, or null if all documents may match
+   */
+  public TopDocs search(float[] target, int k, int fanout, Bits acceptDocs) throws IOException {
+    if (target.length != dimension()) {
+      throw new IllegalArgumentException("vector query dimension: " + target.length + " differs from field dimension: " + dimension());
+    }
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be > 0, got " + k);
+    }
+    SimilarityFunction similarityFunction = similarityFunction();
+    PriorityQueue<ScoreDoc> queue = new PriorityQueue<>(k) {
+      @Override
+      protected boolean lessThan(ScoreDoc a, ScoreDoc b) {
+        if (a.score == b.score) {
+          return a.doc > b.doc;
+        }
+        return a.score < b.score;
+      }
+    };
+    int visited = 0;
+    for (int doc = nextDoc(); doc != NO_MORE_DOCS; doc = nextDoc()) {
+      if (acceptDocs != null && acceptDocs.get(doc) == false) {
+        continue;
+      }
+      visited++;
+      float score = similarityFunction.score(target, vectorValue());
+      if (queue.size() < k) {
+        queue.add(new ScoreDoc(doc, score));
+      } else if (score > queue.top().score) {
+        ScoreDoc top = queue.top();
+        top.doc = doc;
+        top.score = score;
+        queue.updateTop();
+      }
+    }
+    ScoreDoc[] scoreDocs = new ScoreDoc[queue.size()];
+    for (int i = scoreDocs.length - 1; i >= 0; --i) {
+      scoreDocs[i] = queue.pop();
+    }
+    return new TopDocs(new TotalHits(visited, TotalHits.Relation.EQUAL_TO), scoreDocs);
+  }
+
+  /**
+   * Vector similarity functions. The {@link #compare(float[], float[]) raw comparison} is not
+   * necessarily a non-negative number; {@link #score(float[], float[])} maps it to a
+   * non-negative score that is higher for more similar vectors.
+   */
+  public enum SimilarityFunction {
+
+    /** No similarity function: vectors are stored but may not be searched. */
+    NONE(false),
+
+    /** Euclidean distance: smaller distances mean more similar vectors. */
+    EUCLIDEAN(true) {
+      @Override
+      public float compare(float[] v1, float[] v2) {
+        return squareDistance(v1, v2);
+      }
+
+      @Override
+      public float score(float[] v1, float[] v2) {
+        return 1 / (1 + squareDistance(v1, v2));
+      }
+    },
+
+    /**
+     * Dot product: higher products mean more similar vectors. Vectors should be normalized to unit
+     * length, in which case this is equivalent to cosine similarity.
+     */
+    DOT_PRODUCT(false) {
+      @Override
+      public float compare(float[] v1, float[] v2) {
+        return dotProduct(v1, v2);
+      }
+
+      @Override
+      public float score(float[] v1, float[] v2) {
+        return Math.max((1 + dotProduct(v1, v2)) / 2, 0);
+      }
+    };
+
+    /** If true, the raw comparison is a distance and smaller values mean more similar vectors. */
+    public final boolean reversed;
+
+    SimilarityFunction(boolean reversed) {
+      this.reversed = reversed;
+    }
+
+    /**
+     * Compare two vectors using this similarity function.
+     * @throws UnsupportedOperationException if this function is {@link #NONE}
+     */
+    public float compare(float[] v1, float[] v2) {
+      throw new UnsupportedOperationException("vectors without a similarity function cannot be compared");
+    }
+
+    /**
+     * Return a non-negative score for two vectors, higher scores meaning more similar vectors.
+     * @throws UnsupportedOperationException if this function is {@link #NONE}
+     */
+    public float score(float[] v1, float[] v2) {
+      throw new UnsupportedOperationException("vectors without a similarity function cannot be scored");
+    }
+  }
+
+  /** Return the dot product of two vectors of the same dimension. */
+  public static float dotProduct(float[] a, float[] b) {
+    assert a.length == b.length;
+    float res = 0f;
+    for (int i = 0; i < a.length; i++) {
+      res += a[i] * b[i];
+    }
+    return res;
+  }
+
+  /** Return the square of the euclidean distance between two vectors of the same dimension. */
+  public static float squareDistance(float[] a, float[] b) {
+    assert a.length == b.length;
+    float squareSum = 0f;
+    for (int i = 0; i < a.length; i++) {
+      float diff = a[i] - b[i];
+      squareSum += diff * diff;
+    }
+    return squareSum;
+  }
+
+  /**
+   * Random access to the vectors of a field, by ordinal. Ordinals are dense, in [0, size()), and
+   * assigned in increasing doc ID order.
+   */
+  public interface RandomAccess {
+
+    /** Return the number of vectors. */
+    int size();
+
+    /** Return the dimension of the vectors. */
+    int dimension();
+
+    /**
+     * Return the vector value of the given ordinal. The returned array may be shared across calls
+     * and re-used.
+     */
+    float[] vectorValue(int targetOrd) throws IOException;
+
+    /**
+     * Return an independent instance over the same vectors, which makes it possible to hold the
+     * vectors of two ordinals at the same time.
+     */
+    RandomAccess copy() throws IOException;
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.codecs.VectorWriter;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Counter;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/** Buffers up pending vector value(s) per doc, then flushes when segment flushes. */
+class VectorValuesWriter {
+
+  private final FieldInfo fieldInfo;
+  private final Counter iwBytesUsed;
+  private final List<float[]> vectors = new ArrayList<>();
+  private final DocsWithFieldSet docsWithField;
+
+  private int lastDocID = -1;
+
+  private long bytesUsed;
+
+  VectorValuesWriter(FieldInfo fieldInfo, Counter iwBytesUsed) {
+    this.fieldInfo = fieldInfo;
+    this.iwBytesUsed = iwBytesUsed;
+    this.docsWithField = new DocsWithFieldSet();
+    this.bytesUsed = docsWithField.ramBytesUsed();
+    if (iwBytesUsed != null) {
+      iwBytesUsed.addAndGet(bytesUsed);
+    }
+  }
+
+  /**
+   * Adds a value for the given document. Only a single value may be added.
+   * @param docID the value is added to this document
+   * @param vectorValue the value to add
+   * @throws IllegalArgumentException if a value has already been added to the given document
+   */
+  public void addValue(int docID, float[] vectorValue) {
+    if (docID == lastDocID) {
+      throw new IllegalArgumentException("VectorValuesField \"" + fieldInfo.name + "\" appears more than once in this document (only one value is allowed per field)");
+    }
+    if (vectorValue.length != fieldInfo.getVectorDimension()) {
+      throw new IllegalArgumentException("Attempt to index a vector of dimension " + vectorValue.length +
+          " but \"" + fieldInfo.name + "\" has dimension " + fieldInfo.getVectorDimension());
+    }
+    assert docID > lastDocID;
+    docsWithField.add(docID);
+    vectors.add(ArrayUtil.copyOfSubArray(vectorValue, 0, vectorValue.length));
+    updateBytesUsed();
+    lastDocID = docID;
+  }
+
+  private void updateBytesUsed() {
+    final long newBytesUsed = docsWithField.ramBytesUsed()
+        + vectors.size() * (RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER)
+        + vectors.size() * vectors.get(0).length * Float.BYTES;
+    if (iwBytesUsed != null) {
+      iwBytesUsed.addAndGet(newBytesUsed - bytesUsed);
+    }
+    bytesUsed = newBytesUsed;
+  }
+
+  /**
+   * Flush this field's values to storage, sorting the values in accordance with sortMap
+   * @param sortMap specifies the order of documents being flushed, or null if they are to be flushed in docid order
+   * @param vectorWriter the Codec's vector writer that handles the actual encoding and I/O
+   * @throws IOException if there is an error writing the field and its values
+   */
+  public void flush(Sorter.DocMap sortMap, VectorWriter vectorWriter) throws IOException {
+    VectorValues vectorValues = new BufferedVectorValues(docsWithField.iterator(), vectors, fieldInfo);
+    if (sortMap != null) {
+      vectorWriter.writeField(fieldInfo, new SortingVectorValues(vectorValues, sortMap));
+    } else {
+      vectorWriter.writeField(fieldInfo, vectorValues);
+    }
+  }
+
+  /** Loads vectors in memory and iterates over them in the order of their new doc IDs. */
+  static class SortingVectorValues extends VectorValues {
+
+    private final VectorValues delegate;
+    private final float[][] sortedVectors;
+    private final int[] sortedDocs;
+    private int ord = -1;
+
+    SortingVectorValues(VectorValues delegate, Sorter.DocMap sortMap) throws IOException {
+      this.delegate = delegate;
+      int size = delegate.size();
+      long[] newDocAndOrd = new long[size];
+      float[][] vectors = new float[size][];
+      int i = 0;
+      for (int doc = delegate.nextDoc(); doc != NO_MORE_DOCS; doc = delegate.nextDoc()) {
+        newDocAndOrd[i] = ((long) sortMap.oldToNew(doc) << 32) | i;
+        vectors[i] = delegate.vectorValue();
+        i++;
+      }
+      assert i == size;
+      Arrays.sort(newDocAndOrd);
+      sortedVectors = new float[size][];
+      sortedDocs = new int[size];
+      for (i = 0; i < size; i++) {
+        sortedDocs[i] = (int) (newDocAndOrd[i] >>> 32);
+        sortedVectors[i] = vectors[(int) newDocAndOrd[i]];
+      }
+    }
+
+    @Override
+    public int docID() {
+      if (ord == -1) {
+        return -1;
+      }
+      return ord < sortedDocs.length ? sortedDocs[ord] : NO_MORE_DOCS;
+    }
+
+    @Override
+    public int nextDoc() {
+      ++ord;
+      return docID();
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return sortedVectors[ord];
+    }
+
+    @Override
+    public int dimension() {
+      return delegate.dimension();
+    }
+
+    @Override
+    public int size() {
+      return sortedDocs.length;
+    }
+
+    @Override
+    public SimilarityFunction similarityFunction() {
+      return delegate.similarityFunction();
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class BufferedVectorValues extends VectorValues {
+
+    final DocIdSetIterator docsWithField;
+    final List<float[]> vectors;
+    final FieldInfo fieldInfo;
+
+    private int ord = -1;
+
+    BufferedVectorValues(DocIdSetIterator docsWithField, List<float[]> vectors, FieldInfo fieldInfo) {
+      this.docsWithField = docsWithField;
+      this.vectors = vectors;
+      this.fieldInfo = fieldInfo;
+    }
+
+    @Override
+    public int dimension() {
+      return fieldInfo.getVectorDimension();
+    }
+
+    @Override
+    public int size() {
+      return vectors.size();
+    }
+
+    @Override
+    public SimilarityFunction similarityFunction() {
+      return fieldInfo.getVectorSimilarityFunction();
+    }
+
+    @Override
+    public float[] vectorValue() {
+      return vectors.get(ord);
+    }
+
+    @Override
+    public int docID() {
+      return docsWithField.docID();
+    }
+
+    @Override
+    public int nextDoc() throws IOException {
+      int docID = docsWithField.nextDoc();
+      if (docID != NO_MORE_DOCS) {
+        ++ord;
+      }
+      return docID;
+    }
+
+    @Override
+    public int advance(int target) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -306,7 +306,9 @@ public class IndexSearcher {
   /**
    * Expert: Creates an array of leaf slices each holding a subset of the given leaves.
    * Each {@link LeafSlice} is executed in a single thread. By default, segments with more than
-   * MAX_DOCS_PER_SLICE will get their own thread
+   * MAX_DOCS_PER_SLICE will get their own thread. Override this method and call
+   * {@link #slices(List, int, int, boolean)} in order to also split large segments into
+   * several slices, e.g. for force-merged indices.
    */
   protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
     return slices(leaves, MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
@@ -317,6 +319,25 @@ public class IndexSearcher {
    */
   public static LeafSlice[] slices (List<LeafReaderContext> leaves, int maxDocsPerSlice,
                                     int maxSegmentsPerSlice) {
+    return slices(leaves, maxDocsPerSlice, maxSegmentsPerSlice, false);
+  }
+
+  /**
+   * Static method to segregate LeafReaderContexts amongst multiple slices.
+   * If {@code allowSegmentPartitions} is true, segments that have more than
+   * {@code maxDocsPerSlice} documents are split into ranges of doc IDs of
+   * roughly equal size, each of them being searched in its own slice, so that
+   * a large segment can be searched by several threads concurrently.
+   * <p>
+   * <b>NOTE</b>: when segments are partitioned, the same segment may be
+   * passed to several collectors of a {@link CollectorManager} which then
+   * each see a subset of its matching documents, and {@link BulkScorer}s
+   * must support scoring ranges of doc IDs.
+   * @see LeafReaderContextPartition
+   * @lucene.experimental
+   */
+  public static LeafSlice[] slices(List<LeafReaderContext> leaves, int maxDocsPerSlice,
+                                   int maxSegmentsPerSlice, boolean allowSegmentPartitions) {
     // Make a copy so we can sort:
     List<LeafReaderContext> sortedLeaves = new ArrayList<>(leaves);
 
@@ -324,24 +345,35 @@ public class IndexSearcher {
     Collections.sort(sortedLeaves,
         Collections.reverseOrder(Comparator.comparingInt(l -> l.reader().maxDoc())));
 
-    final List<List<LeafReaderContext>> groupedLeaves = new ArrayList<>();
+    final List<List<LeafReaderContextPartition>> groupedLeaves = new ArrayList<>();
     long docSum = 0;
-    List<LeafReaderContext> group = null;
+    List<LeafReaderContextPartition> group = null;
     for (LeafReaderContext ctx : sortedLeaves) {
-      if (ctx.reader().maxDoc() > maxDocsPerSlice) {
+      final int maxDoc = ctx.reader().maxDoc();
+      if (maxDoc > maxDocsPerSlice) {
         assert group == null;
-        groupedLeaves.add(Collections.singletonList(ctx));
+        if (allowSegmentPartitions) {
+          // split into partitions of roughly equal size that each get their own slice
+          final int numPartitions = (int) (((long) maxDoc + maxDocsPerSlice - 1) / maxDocsPerSlice);
+          final int partitionSize = (int) (((long) maxDoc + numPartitions - 1) / numPartitions);
+          for (int minDocId = 0; minDocId < maxDoc; minDocId += partitionSize) {
+            final int maxDocId = Math.min(maxDoc, minDocId + partitionSize);
+            groupedLeaves.add(Collections.singletonList(LeafReaderContextPartition.createFromAndTo(ctx, minDocId, maxDocId)));
+          }
+        } else {
+          groupedLeaves.add(Collections.singletonList(LeafReaderContextPartition.createForEntireSegment(ctx)));
+        }
       } else {
         if (group == null) {
           group = new ArrayList<>();
-          group.add(ctx);
+          group.add(LeafReaderContextPartition.createForEntireSegment(ctx));
 
           groupedLeaves.add(group);
         } else {
-          group.add(ctx);
+          group.add(LeafReaderContextPartition.createForEntireSegment(ctx));
         }
 
-        docSum += ctx.reader().maxDoc();
+        docSum += maxDoc;
         if (group.size() >= maxSegmentsPerSlice || docSum > maxDocsPerSlice) {
           group = null;
           docSum = 0;
@@ -351,8 +383,8 @@ public class IndexSearcher {
 
     LeafSlice[] slices = new LeafSlice[groupedLeaves.size()];
     int upto = 0;
-    for (List<LeafReaderContext> currentLeaf : groupedLeaves) {
-      slices[upto] = new LeafSlice(currentLeaf);
+    for (List<LeafReaderContextPartition> currentLeaf : groupedLeaves) {
+      slices[upto] = new LeafSlice(currentLeaf.toArray(new LeafReaderContextPartition[0]));
       ++upto;
     }
 
@@ -676,10 +708,10 @@ public class IndexSearcher {
       final Weight weight = createWeight(query, scoreMode, 1);
       final List<FutureTask<C>> listTasks = new ArrayList<>();
       for (int i = 0; i < leafSlices.length; ++i) {
-        final LeafReaderContext[] leaves = leafSlices[i].leaves;
+        final LeafSlice slice = leafSlices[i];
         final C collector = collectors.get(i);
         FutureTask<C> task = new FutureTask<>(() -> {
-          search(Arrays.asList(leaves), weight, collector);
+          search(slice.partitions, weight, collector);
           return collector;
         });
 
@@ -747,6 +779,67 @@ public class IndexSearcher {
     }
   }
 
+  /**
+   * Lower-level search API.
+   * <p>
+   * Like {@link #search(List, Weight, Collector)} but only collects the
+   * documents whose ID is within the range of each of the given partitions.
+   * The given collector may see the same leaf several times if there are
+   * several partitions of the same leaf.
+   * <p>
+   * If all partitions cover entire leaves, this delegates to
+   * {@link #search(List, Weight, Collector)} so that sub-classes which only
+   * override the latter still see every leaf that is searched. Sub-classes
+   * that override {@link #search(List, Weight, Collector)} should override
+   * this method too in order to also intercept partial partitions.
+   *
+   * @param partitions
+   *          the partitions of the searchers leaves to execute the searches on
+   * @param weight
+   *          to match documents
+   * @param collector
+   *          to receive hits
+   * @lucene.experimental
+   */
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector)
+      throws IOException {
+    boolean entireLeaves = true;
+    for (LeafReaderContextPartition partition : partitions) {
+      if (partition.isEntireSegment() == false) {
+        entireLeaves = false;
+        break;
+      }
+    }
+    if (entireLeaves) {
+      final List<LeafReaderContext> leaves = new ArrayList<>(partitions.length);
+      for (LeafReaderContextPartition partition : partitions) {
+        leaves.add(partition.ctx);
+      }
+      search(leaves, weight, collector);
+      return;
+    }
+    for (LeafReaderContextPartition partition : partitions) {
+      final LeafReaderContext ctx = partition.ctx;
+      final LeafCollector leafCollector;
+      try {
+        leafCollector = collector.getLeafCollector(ctx);
+      } catch (CollectionTerminatedException e) {
+        // there is no doc of interest in this reader context
+        // continue with the following partition
+        continue;
+      }
+      BulkScorer scorer = weight.bulkScorer(ctx);
+      if (scorer != null) {
+        try {
+          scorer.score(leafCollector, ctx.reader().getLiveDocs(), partition.minDocId, partition.maxDocId);
+        } catch (CollectionTerminatedException e) {
+          // collection was terminated prematurely
+          // continue with the following partition
+        }
+      }
+    }
+  }
+
   /** Expert: called to re-write queries into primitive queries.
    * @throws TooManyClauses If a query would exceed
    *         {@link IndexSearcher#getMaxClauseCount()} clauses.
@@ -874,10 +967,89 @@ public class IndexSearcher {
      *
      *  @lucene.experimental */
     public final LeafReaderContext[] leaves;
-    
+
+    /** The partitions of leaves that make up this slice, ordered by doc ID.
+     *  There is at most one partition per leaf.
+     *
+     *  @lucene.experimental */
+    public final LeafReaderContextPartition[] partitions;
+
     public LeafSlice(List<LeafReaderContext> leavesList) {
       Collections.sort(leavesList, Comparator.comparingInt(l -> l.docBase));
       this.leaves = leavesList.toArray(new LeafReaderContext[0]);
+      this.partitions = new LeafReaderContextPartition[leaves.length];
+      for (int i = 0; i < leaves.length; ++i) {
+        partitions[i] = LeafReaderContextPartition.createForEntireSegment(leaves[i]);
+      }
+    }
+
+    /** Create a slice out of partitions of leaves, which must not contain two
+     *  partitions of the same leaf.
+     *
+     *  @lucene.experimental */
+    public LeafSlice(LeafReaderContextPartition... partitions) {
+      this.partitions = partitions.clone();
+      Arrays.sort(this.partitions, Comparator.comparingInt(p -> p.ctx.docBase));
+      this.leaves = new LeafReaderContext[this.partitions.length];
+      for (int i = 0; i < this.partitions.length; ++i) {
+        leaves[i] = this.partitions[i].ctx;
+        if (i > 0 && leaves[i] == leaves[i - 1]) {
+          throw new IllegalArgumentException("A slice may not contain several partitions of the same leaf: " + leaves[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * A range of doc IDs of a {@link LeafReaderContext} that is searched as a unit
+   * of work of a {@link LeafSlice}. This allows a single large segment to be
+   * searched by several threads concurrently.
+   *
+   * @lucene.experimental
+   */
+  public static final class LeafReaderContextPartition {
+
+    /** The leaf that this partition is part of. */
+    public final LeafReaderContext ctx;
+    /** The first doc ID of this partition, inclusive. */
+    public final int minDocId;
+    /** The last doc ID of this partition, exclusive. */
+    public final int maxDocId;
+
+    private LeafReaderContextPartition(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (minDocId < 0 || minDocId >= maxDocId) {
+        throw new IllegalArgumentException("Illegal doc ID range [" + minDocId + ", " + maxDocId + ")");
+      }
+      this.ctx = ctx;
+      this.minDocId = minDocId;
+      this.maxDocId = maxDocId;
+    }
+
+    /** Create a partition that covers all documents of the given leaf. */
+    public static LeafReaderContextPartition createForEntireSegment(LeafReaderContext ctx) {
+      return new LeafReaderContextPartition(ctx, 0, DocIdSetIterator.NO_MORE_DOCS);
+    }
+
+    /** Create a partition that covers documents of the given leaf whose ID is
+     *  greater than or equal to {@code minDocId} and less than {@code maxDocId}. */
+    public static LeafReaderContextPartition createFromAndTo(LeafReaderContext ctx, int minDocId, int maxDocId) {
+      if (maxDocId > ctx.reader().maxDoc()) {
+        throw new IllegalArgumentException("maxDocId=" + maxDocId + " is greater than maxDoc=" + ctx.reader().maxDoc());
+      }
+      if (minDocId == 0 && maxDocId == ctx.reader().maxDoc()) {
+        return createForEntireSegment(ctx);
+      }
+      return new LeafReaderContextPartition(ctx, minDocId, maxDocId);
+    }
+
+    /** Whether this partition covers all documents of its leaf. */
+    public boolean isEntireSegment() {
+      return minDocId == 0 && maxDocId == DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public String toString() {
+      return "LeafReaderContextPartition(ctx=" + ctx + ", minDocId=" + minDocId + ", maxDocId=" + maxDocId + ")";
     }
   }
 
@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+/**
+ * Uses {@link VectorValues#search(float[], int, int, Bits)} to find the {@code k} documents whose
+ * {@link VectorField vectors} are the most similar to a target vector. Searches are approximate
+ * when the codec maintains a search structure such as a graph, in which case the {@code fanout}
+ * controls the trade-off between recall and speed.
+ *
+ * <p>The query is resolved when it is rewritten: the nearest neighbors of each segment are
+ * computed and merged into a query that matches the top {@code k} documents of the whole index,
+ * with their similarity as a score. An optional filter restricts which documents may be returned,
+ * so that nearest neighbors are found among the documents that match the filter rather than by
+ * post-filtering, which could return fewer than {@code k} hits. The rewritten query may then be
+ * combined with other queries, e.g. as a clause of a {@link BooleanQuery}.
+ *
+ * @lucene.experimental
+ */
+public class KnnVectorQuery extends Query {
+
+  private final String field;
+  private final float[] target;
+  private final int k;
+  private final int fanout;
+  private final Query filter;
+
+  /**
+   * Find the {@code k} nearest documents to the target vector according to the vectors in the given field.
+   * @param field a field that has been indexed as a {@link VectorField}.
+   * @param target the target of the search
+   * @param k the number of documents to find
+   * @throws IllegalArgumentException if {@code k} is less than 1
+   */
+  public KnnVectorQuery(String field, float[] target, int k) {
+    this(field, target, k, 0, null);
+  }
+
+  /**
+   * Find the {@code k} nearest documents to the target vector according to the vectors in the
+   * given field, among the documents that match the given filter.
+   * @param field a field that has been indexed as a {@link VectorField}.
+   * @param target the target of the search
+   * @param k the number of documents to find
+   * @param filter a filter applied before the vector search, or null to search all documents
+   * @throws IllegalArgumentException if {@code k} is less than 1
+   */
+  public KnnVectorQuery(String field, float[] target, int k, Query filter) {
+    this(field, target, k, 0, filter);
+  }
+
+  /**
+   * Find the {@code k} nearest documents to the target vector according to the vectors in the
+   * given field, among the documents that match the given filter.
+   * @param field a field that has been indexed as a {@link VectorField}.
+   * @param target the target of the search
+   * @param k the number of documents to find
+   * @param fanout the number of candidates to explore in addition to {@code k}: higher values
+   *               improve recall of approximate searches at the expense of speed
+   * @param filter a filter applied before the vector search, or null to search all documents
+   * @throws IllegalArgumentException if {@code k} is less than 1 or {@code fanout} is negative
+   */
+  public KnnVectorQuery(String field, float[] target, int k, int fanout, Query filter) {
+    this.field = Objects.requireNonNull(field, "field must not be null");
+    this.target = Objects.requireNonNull(target, "target must not be null");
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be at least 1, got: " + k);
+    }
+    if (fanout < 0) {
+      throw new IllegalArgumentException("fanout must be non-negative, got: " + fanout);
+    }
+    this.k = k;
+    this.fanout = fanout;
+    this.filter = filter;
+  }
+
+  @Override
+  public Query rewrite(IndexReader reader) throws IOException {
+    Weight filterWeight = null;
+    if (filter != null) {
+      IndexSearcher searcher = new IndexSearcher(reader);
+      Query rewrittenFilter = searcher.rewrite(filter);
+      filterWeight = searcher.createWeight(rewrittenFilter, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    }
+
+    TopDocs[] perLeafResults = new TopDocs[reader.leaves().size()];
+    for (LeafReaderContext ctx : reader.leaves()) {
+      perLeafResults[ctx.ord] = searchLeaf(ctx, filterWeight);
+    }
+    // Merge sort the results
+    TopDocs topK = TopDocs.merge(k, perLeafResults);
+    if (topK.scoreDocs.length == 0) {
+      return new MatchNoDocsQuery();
+    }
+    return createRewrittenQuery(reader, topK);
+  }
+
+  private TopDocs searchLeaf(LeafReaderContext ctx, Weight filterWeight) throws IOException {
+    TopDocs empty = new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+    FieldInfo fi = ctx.reader().getFieldInfos().fieldInfo(field);
+    if (fi == null || fi.getVectorDimension() == 0) {
+      // The field does not exist or does not index vectors
+      return empty;
+    }
+    if (fi.getVectorDimension() != target.length) {
+      throw new IllegalArgumentException("vector query dimension: " + target.length
+          + " differs from field dimension: " + fi.getVectorDimension());
+    }
+    VectorValues vectorValues = ctx.reader().getVectorValues(field);
+    if (vectorValues == null) {
+      return empty;
+    }
+
+    Bits liveDocs = ctx.reader().getLiveDocs();
+    Bits acceptDocs = liveDocs;
+    if (filterWeight != null) {
+      Scorer scorer = filterWeight.scorer(ctx);
+      if (scorer == null) {
+        return empty;
+      }
+      FixedBitSet filterDocs = new FixedBitSet(ctx.reader().maxDoc());
+      DocIdSetIterator iterator = scorer.iterator();
+      for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+        if (liveDocs == null || liveDocs.get(doc)) {
+          filterDocs.set(doc);
+        }
+      }
+      acceptDocs = filterDocs;
+    }
+
+    TopDocs results = vectorValues.search(target, k, fanout, acceptDocs);
+    if (ctx.docBase > 0) {
+      for (ScoreDoc scoreDoc : results.scoreDocs) {
+        scoreDoc.doc += ctx.docBase;
+      }
+    }
+    return results;
+  }
+
+  private Query createRewrittenQuery(IndexReader reader, TopDocs topK) {
+    int len = topK.scoreDocs.length;
+    Arrays.sort(topK.scoreDocs, (a, b) -> a.doc - b.doc);
+    int[] docs = new int[len];
+    float[] scores = new float[len];
+    for (int i = 0; i < len; i++) {
+      docs[i] = topK.scoreDocs[i].doc;
+      scores[i] = topK.scoreDocs[i].score;
+    }
+    int[] segmentStarts = findSegmentStarts(reader, docs);
+    return new DocAndScoreQuery(k, docs, scores, segmentStarts, reader.getContext().id());
+  }
+
+  private static int[] findSegmentStarts(IndexReader reader, int[] docs) {
+    int[] starts = new int[reader.leaves().size() + 1];
+    starts[starts.length - 1] = docs.length;
+    if (starts.length == 2) {
+      return starts;
+    }
+    int resultIndex = 0;
+    for (int i = 1; i < starts.length - 1; i++) {
+      int upper = reader.leaves().get(i).docBase;
+      resultIndex = Arrays.binarySearch(docs, resultIndex, docs.length, upper);
+      if (resultIndex < 0) {
+        resultIndex = -1 - resultIndex;
+      }
+      starts[i] = resultIndex;
+    }
+    return starts;
+  }
+
+  @Override
+  public String toString(String field) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<vector:").append(this.field).append('[').append(target[0]).append(",...][").append(k).append(']');
+    if (filter != null) {
+      sb.append(" filter=").append(filter.toString(field));
+    }
+    sb.append('>');
+    return sb.toString();
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    if (visitor.acceptField(field)) {
+      visitor.visitLeaf(this);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (sameClassAs(obj) == false) {
+      return false;
+    }
+    KnnVectorQuery other = (KnnVectorQuery) obj;
+    return field.equals(other.field)
+        && Arrays.equals(target, other.target)
+        && k == other.k
+        && fanout == other.fanout
+        && Objects.equals(filter, other.filter);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(classHash(), field, Arrays.hashCode(target), k, fanout, filter);
+  }
+
+  /** Caches the results of a KnnVectorQuery computed against a specific reader. */
+  static class DocAndScoreQuery extends Query {
+
+    private final int k;
+    private final int[] docs;
+    private final float[] scores;
+    private final int[] segmentStarts;
+    private final Object contextIdentity;
+
+    /**
+     * @param k the number of documents requested
+     * @param docs the global docids of documents that match, in ascending order
+     * @param scores the scores of the matching documents
+     * @param segmentStarts the indexes in docs and scores corresponding to the first matching
+     *                      document in each segment. If a segment has no matching documents, it
+     *                      should be assigned the index of the next segment that does. There
+     *                      should be a final entry that is always docs.length.
+     * @param contextIdentity an object identifying the reader context that was used to build this query
+     */
+    DocAndScoreQuery(int k, int[] docs, float[] scores, int[] segmentStarts, Object contextIdentity) {
+      this.k = k;
+      this.docs = docs;
+      this.scores = scores;
+      this.segmentStarts = segmentStarts;
+      this.contextIdentity = contextIdentity;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+      if (searcher.getIndexReader().getContext().id() != contextIdentity) {
+        throw new IllegalStateException("This DocAndScoreQuery was created by a different reader");
+      }
+      return new Weight(this) {
+        @Override
+        public Explanation explain(LeafReaderContext context, int doc) {
+          int found = Arrays.binarySearch(docs, doc + context.docBase);
+          if (found < 0) {
+            return Explanation.noMatch("not in top " + k);
+          }
+          return Explanation.match(scores[found] * boost, "within top " + k);
+        }
+
+        @Override
+        public Scorer scorer(LeafReaderContext context) {
+          if (segmentStarts[context.ord] == segmentStarts[context.ord + 1]) {
+            return null;
+          }
+          return new Scorer(this) {
+            final int lower = segmentStarts[context.ord];
+            final int upper = segmentStarts[context.ord + 1];
+            int upTo = -1;
+
+            @Override
+            public DocIdSetIterator iterator() {
+              return new DocIdSetIterator() {
+                @Override
+                public int docID() {
+                  return docIdNoShadow();
+                }
+
+                @Override
+                public int nextDoc() {
+                  if (upTo == -1) {
+                    upTo = lower;
+                  } else {
+                    ++upTo;
+                  }
+                  return docIdNoShadow();
+                }
+
+                @Override
+                public int advance(int target) throws IOException {
+                  return slowAdvance(target);
+                }
+
+                @Override
+                public long cost() {
+                  return upper - lower;
+                }
+              };
+            }
+
+            @Override
+            public float getMaxScore(int docId) {
+              float maxScore = 0;
+              for (int idx = Math.max(0, upTo); idx < upper && docs[idx] - context.docBase <= docId; idx++) {
+                maxScore = Math.max(maxScore, scores[idx]);
+              }
+              return maxScore * boost;
+            }
+
+            @Override
+            public float score() {
+              return scores[upTo] * boost;
+            }
+
+            @Override
+            public int docID() {
+              return docIdNoShadow();
+            }
+
+            private int docIdNoShadow() {
+              if (upTo == -1) {
+                return -1;
+              }
+              if (upTo >= upper) {
+                return DocIdSetIterator.NO_MORE_DOCS;
+              }
+              return docs[upTo] - context.docBase;
+            }
+          };
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+          return true;
+        }
+      };
+    }
+
+    @Override
+    public String toString(String field) {
+      return "DocAndScore[" + k + "]";
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+      visitor.visitLeaf(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (sameClassAs(obj) == false) {
+        return false;
+      }
+      return contextIdentity == ((DocAndScoreQuery) obj).contextIdentity
+          && Arrays.equals(docs, ((DocAndScoreQuery) obj).docs)
+          && Arrays.equals(scores, ((DocAndScoreQuery) obj).scores);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(classHash(), contextIdentity, Arrays.hashCode(docs), Arrays.hashCode(scores));
+    }
+  }
+}
@@ -102,6 +102,9 @@ public class LRUQueryCache implements QueryCache, Accountable {
   private final Map<IndexReader.CacheKey, LeafCache> cache;
   private final ReentrantLock lock;
   private final float skipCacheFactor;
+  // the number of caches that the segments of an index are spread across, more than 1
+  // if this cache is a shard of a ShardedLRUQueryCache, set before this cache is published
+  int numShards = 1;
 
   // these variables are volatile so that we do not need to sync reads
   // but increments need to be performed under the lock
@@ -677,7 +680,12 @@ public class LRUQueryCache implements QueryCache, Accountable {
       return in.matches(context, doc);
     }
 
-    private boolean cacheEntryHasReasonableWorstCaseSize(int maxDoc) {
+    private boolean cacheEntryHasReasonableWorstCaseSize(LeafReaderContext context) {
+      // When this cache is a shard, it only holds entries for its share of the
+      // segments, but it must still have room for this segment
+      final int maxDoc = Math.max(
+          ReaderUtil.getTopLevelContext(context).reader().maxDoc() / numShards,
+          context.reader().maxDoc());
       // The worst-case (dense) is a bit set which needs one bit per document
       final long worstCaseRamUsage = maxDoc / 8;
       final long totalRamAvailable = maxRamBytesUsed;
@@ -700,7 +708,7 @@ public class LRUQueryCache implements QueryCache, Accountable {
 
     /** Check whether this segment is eligible for caching, regardless of the query. */
     private boolean shouldCache(LeafReaderContext context) throws IOException {
-      return cacheEntryHasReasonableWorstCaseSize(ReaderUtil.getTopLevelContext(context).reader().maxDoc())
+      return cacheEntryHasReasonableWorstCaseSize(context)
           && leavesToCache.test(context);
     }
 
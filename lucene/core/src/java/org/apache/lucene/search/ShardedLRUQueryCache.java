@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Accountables;
+
+/**
+ * A {@link QueryCache} that spreads cache entries over several independent
+ * {@link LRUQueryCache} shards in order to reduce lock contention when many
+ * threads look up cached queries concurrently.
+ *
+ * Entries are sharded by segment: all entries of a given segment core are
+ * held by the same shard, which is picked from the identity of the core
+ * cache key. Lookups and insertions on segments that belong to different
+ * shards never contend with each other, and evictions only need to visit the
+ * segments of a single shard.
+ *
+ * <code>maxSize</code> and <code>maxRamBytesUsed</code> are split evenly
+ * across shards. RAM accounting is the same as in {@link LRUQueryCache} and
+ * {@link #ramBytesUsed()} is the sum over all shards. The counterparts are
+ * that the least-recently-used ordering is only maintained per shard, and
+ * that a query that is cached on segments of several shards counts once
+ * against the <code>maxSize</code> of each of them. The worst-case size check
+ * that decides whether a segment may be cached at all is computed against
+ * the shard's share of the RAM budget, taking into account that a shard only
+ * holds entries for its share of the segments: a segment is only cached if
+ * its shard has room for several dense bit sets of that segment.
+ *
+ * Like {@link LRUQueryCache}, this cache exposes global statistics, which are
+ * the sums of the statistics of all shards. Finer-grained statistics can be
+ * obtained by overriding {@link #newShard} in order to return
+ * {@link LRUQueryCache} instances that override its callbacks.
+ *
+ * @see LRUQueryCache
+ * @lucene.experimental
+ */
+public class ShardedLRUQueryCache implements QueryCache, Accountable {
+
+  private final LRUQueryCache[] shards;
+
+  /**
+   * Expert: Create a new instance that will cache at most <code>maxSize</code>
+   * queries with at most <code>maxRamBytesUsed</code> bytes of memory in total,
+   * both split evenly across <code>numShards</code> shards, only on leaves that
+   * satisfy {@code leavesToCache}.
+   *
+   * @see LRUQueryCache#LRUQueryCache(int, long, Predicate, float)
+   */
+  public ShardedLRUQueryCache(int maxSize, long maxRamBytesUsed,
+                              Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor, int numShards) {
+    if (numShards < 1) {
+      throw new IllegalArgumentException("numShards must be at least 1, got " + numShards);
+    }
+    shards = new LRUQueryCache[numShards];
+    // round up so that every shard may cache something
+    final int maxShardSize = (int) (((long) maxSize + numShards - 1) / numShards);
+    final long maxShardRamBytesUsed = maxRamBytesUsed / numShards;
+    for (int i = 0; i < numShards; ++i) {
+      shards[i] = newShard(maxShardSize, maxShardRamBytesUsed, leavesToCache, skipCacheFactor);
+      shards[i].numShards = numShards;
+    }
+  }
+
+  /**
+   * Create a new instance with <code>numShards</code> shards that will cache at
+   * most <code>maxSize</code> queries with at most
+   * <code>maxRamBytesUsed</code> bytes of memory in total. Leaves are selected
+   * for caching the same way as {@link LRUQueryCache#LRUQueryCache(int, long)}.
+   */
+  public ShardedLRUQueryCache(int maxSize, long maxRamBytesUsed, int numShards) {
+    this(maxSize, maxRamBytesUsed, new LRUQueryCache.MinSegmentSizePredicate(10000, .03f), 250, numShards);
+  }
+
+  /**
+   * Expert: create the cache for a single shard, with its share of
+   * <code>maxSize</code> and <code>maxRamBytesUsed</code>. The default
+   * implementation returns a plain {@link LRUQueryCache}.
+   */
+  protected LRUQueryCache newShard(int maxSize, long maxRamBytesUsed,
+                                   Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor) {
+    return new LRUQueryCache(maxSize, maxRamBytesUsed, leavesToCache, skipCacheFactor);
+  }
+
+  /** Return the number of shards of this cache. */
+  public final int getNumShards() {
+    return shards.length;
+  }
+
+  // pkg-private for testing
+  LRUQueryCache shard(int index) {
+    return shards[index];
+  }
+
+  // pkg-private for testing
+  int shardIndex(Object coreKey) {
+    // mix the bits of the identity hash code since some JVMs produce
+    // hash codes with little entropy in the low bits
+    int h = coreKey.hashCode();
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    return (h & 0x7FFFFFFF) % shards.length;
+  }
+
+  /**
+   * Remove all cache entries for the given core cache key.
+   */
+  public void clearCoreCacheKey(Object coreKey) {
+    shards[shardIndex(coreKey)].clearCoreCacheKey(coreKey);
+  }
+
+  /**
+   * Remove all cache entries for the given query.
+   */
+  public void clearQuery(Query query) {
+    for (LRUQueryCache shard : shards) {
+      shard.clearQuery(query);
+    }
+  }
+
+  /**
+   * Clear the content of this cache.
+   */
+  public void clear() {
+    for (LRUQueryCache shard : shards) {
+      shard.clear();
+    }
+  }
+
+  // pkg-private for testing
+  void assertConsistent() {
+    for (LRUQueryCache shard : shards) {
+      shard.assertConsistent();
+    }
+  }
+
+  @Override
+  public Weight doCache(Weight weight, QueryCachingPolicy policy) {
+    while (weight instanceof ShardedCachingWeight) {
+      weight = ((ShardedCachingWeight) weight).in;
+    }
+
+    return new ShardedCachingWeight(weight, policy);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    long ramBytesUsed = 0;
+    for (LRUQueryCache shard : shards) {
+      ramBytesUsed += shard.ramBytesUsed();
+    }
+    return ramBytesUsed;
+  }
+
+  @Override
+  public Collection<Accountable> getChildResources() {
+    List<Accountable> resources = new ArrayList<>();
+    for (int i = 0; i < shards.length; ++i) {
+      resources.add(Accountables.namedAccountable("shard " + i, shards[i]));
+    }
+    return Collections.unmodifiableList(resources);
+  }
+
+  /**
+   * Return the total number of times that a {@link Query} has been looked up
+   * in this {@link QueryCache}, summed over all shards.
+   * @see LRUQueryCache#getTotalCount()
+   */
+  public final long getTotalCount() {
+    return getHitCount() + getMissCount();
+  }
+
+  /**
+   * Return the number of cache hits, summed over all shards.
+   * @see LRUQueryCache#getHitCount()
+   */
+  public final long getHitCount() {
+    long hitCount = 0;
+    for (LRUQueryCache shard : shards) {
+      hitCount += shard.getHitCount();
+    }
+    return hitCount;
+  }
+
+  /**
+   * Return the number of cache misses, summed over all shards.
+   * @see LRUQueryCache#getMissCount()
+   */
+  public final long getMissCount() {
+    long missCount = 0;
+    for (LRUQueryCache shard : shards) {
+      missCount += shard.getMissCount();
+    }
+    return missCount;
+  }
+
+  /**
+   * Return the total number of {@link DocIdSet}s which are currently stored
+   * in the cache, summed over all shards.
+   * @see LRUQueryCache#getCacheSize()
+   */
+  public final long getCacheSize() {
+    long cacheSize = 0;
+    for (LRUQueryCache shard : shards) {
+      cacheSize += shard.getCacheSize();
+    }
+    return cacheSize;
+  }
+
+  /**
+   * Return the total number of cache entries that have been generated and put
+   * in the cache, summed over all shards.
+   * @see LRUQueryCache#getCacheCount()
+   */
+  public final long getCacheCount() {
+    long cacheCount = 0;
+    for (LRUQueryCache shard : shards) {
+      cacheCount += shard.getCacheCount();
+    }
+    return cacheCount;
+  }
+
+  /**
+   * Return the number of cache entries that have been removed from the cache,
+   * summed over all shards.
+   * @see LRUQueryCache#getEvictionCount()
+   */
+  public final long getEvictionCount() {
+    return getCacheCount() - getCacheSize();
+  }
+
+  /**
+   * Makes sure that the wrapped policy is notified only once per weight even
+   * though every shard wraps the weight with its own caching weight.
+   */
+  private static class UseOncePolicy implements QueryCachingPolicy {
+
+    private final QueryCachingPolicy in;
+    private final AtomicBoolean used;
+
+    UseOncePolicy(QueryCachingPolicy in) {
+      this.in = in;
+      used = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void onUse(Query query) {
+      if (used.compareAndSet(false, true)) {
+        in.onUse(query);
+      }
+    }
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return in.shouldCache(query);
+    }
+  }
+
+  private class ShardedCachingWeight extends Weight {
+
+    private final Weight in;
+    private final Weight[] shardWeights;
+
+    ShardedCachingWeight(Weight in, QueryCachingPolicy policy) {
+      super(in.getQuery());
+      this.in = in;
+      final QueryCachingPolicy useOncePolicy = new UseOncePolicy(policy);
+      shardWeights = new Weight[shards.length];
+      for (int i = 0; i < shards.length; ++i) {
+        shardWeights[i] = shards[i].doCache(in, useOncePolicy);
+      }
+    }
+
+    private Weight shardWeight(LeafReaderContext context) {
+      final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+      if (cacheHelper == null) {
+        return shardWeights[0];
+      }
+      return shardWeights[shardIndex(cacheHelper.getKey())];
+    }
+
+    @Override
+    public Matches matches(LeafReaderContext context, int doc) throws IOException {
+      return in.matches(context, doc);
+    }
+
+    @Override
+    public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+      return shardWeight(context).explain(context, doc);
+    }
+
+    @Override
+    public Scorer scorer(LeafReaderContext context) throws IOException {
+      return shardWeight(context).scorer(context);
+    }
+
+    @Override
+    public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+      return shardWeight(context).scorerSupplier(context);
+    }
+
+    @Override
+    public BulkScorer bulkScorer(LeafReaderContext context) throws IOException {
+      return shardWeight(context).bulkScorer(context);
+    }
+
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+      return in.isCacheable(ctx);
+    }
+  }
+}
@@ -19,12 +19,16 @@ package org.apache.lucene.search;
 
 import java.io.IOException;
 
-import org.apache.lucene.util.FrequencyTrackingRingBuffer;
+import org.apache.lucene.util.ConcurrentFrequencyTrackingRingBuffer;
 
 /**
  * A {@link QueryCachingPolicy} that tracks usage statistics of recently-used
  * filters in order to decide on which filters are worth caching.
  *
+ * This class is thread-safe and does not take any lock: usage is recorded
+ * into a {@link ConcurrentFrequencyTrackingRingBuffer} so that many queries
+ * may be run concurrently without contending on the policy.
+ *
  * @lucene.experimental
  */
 public class UsageTrackingQueryCachingPolicy implements QueryCachingPolicy {
@@ -93,7 +97,7 @@ public class UsageTrackingQueryCachingPolicy implements QueryCachingPolicy {
     return false;
   }
 
-  private final FrequencyTrackingRingBuffer recentlyUsedFilters;
+  private final ConcurrentFrequencyTrackingRingBuffer recentlyUsedFilters;
 
   /**
    * Expert: Create a new instance with a configurable history size. Beware of
@@ -106,7 +110,7 @@ public class UsageTrackingQueryCachingPolicy implements QueryCachingPolicy {
    * @param historySize               the number of recently used filters to track
    */
   public UsageTrackingQueryCachingPolicy(int historySize) {
-    this.recentlyUsedFilters = new FrequencyTrackingRingBuffer(historySize, SENTINEL);
+    this.recentlyUsedFilters = new ConcurrentFrequencyTrackingRingBuffer(historySize, SENTINEL);
   }
 
   /** Create a new instance with an history size of 256. This should be a good
@@ -150,29 +154,20 @@ public class UsageTrackingQueryCachingPolicy implements QueryCachingPolicy {
       return;
     }
 
-    // call hashCode outside of sync block
-    // in case it's somewhat expensive:
     int hashCode = query.hashCode();
 
     // we only track hash codes to avoid holding references to possible
     // large queries; this may cause rare false positives, but at worse
     // this just means we cache a query that was not in fact used enough:
-    synchronized (this) {
-      recentlyUsedFilters.add(hashCode);
-    }
+    recentlyUsedFilters.add(hashCode);
   }
 
   int frequency(Query query) {
     assert query instanceof BoostQuery == false;
     assert query instanceof ConstantScoreQuery == false;
 
-    // call hashCode outside of sync block
-    // in case it's somewhat expensive:
     int hashCode = query.hashCode();
-
-    synchronized (this) {
-      return recentlyUsedFilters.frequency(hashCode);
-    }
+    return recentlyUsedFilters.frequency(hashCode);
   }
 
   @Override
@@ -102,6 +102,17 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
    */
   public abstract IndexInput slice(String sliceDescription, long offset, long length) throws IOException;
 
+  /**
+   * Optional hint that the given range of bytes, relative to the start of this input, will
+   * likely be read soon. Implementations may use it to start loading the range in the background
+   * so that the I/O overlaps with other work; this method never blocks on the read itself and
+   * does not move the file pointer.
+   * <p>
+   * The default implementation is a no-op.
+   */
+  public void prefetch(long offset, long length) throws IOException {
+  }
+
   /** Subclasses call this to get the String for resourceDescription of a slice of this {@code IndexInput}. */
   protected String getFullSliceDescription(String sliceDescription) {
     if (sliceDescription == null) {
@@ -150,6 +161,11 @@ public abstract class IndexInput extends DataInput implements Cloneable,Closeabl
           return slice.readLong();
         }
 
+        @Override
+        public void prefetch(long offset, long length) throws IOException {
+          slice.prefetch(offset, length);
+        }
+
         @Override
         public String toString() {
           return "RandomAccessInput(" + IndexInput.this.toString() + ")";
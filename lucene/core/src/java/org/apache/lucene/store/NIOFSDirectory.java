@@ -23,7 +23,9 @@ import java.nio.channels.ClosedChannelException; // javadoc @link
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future; // javadoc
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.lucene.util.IOUtils;
 
@@ -51,9 +53,17 @@ import org.apache.lucene.util.IOUtils;
  * {@link Future#cancel(boolean)} you should use the legacy {@code RAFDirectory}
  * from the Lucene {@code misc} module in favor of {@link NIOFSDirectory}.
  * </p>
+ * <p>
+ * If a prefetch executor is set with {@link #setPrefetchExecutor(Executor)}, calls to
+ * {@link IndexInput#prefetch(long, long)} read the requested range on that executor,
+ * which loads it into the operating system's page cache ahead of the actual read.
+ * Without one, prefetch hints are ignored.
+ * </p>
  */
 public class NIOFSDirectory extends FSDirectory {
 
+  private volatile Executor prefetchExecutor;
+
   /** Create a new NIOFSDirectory for the named location.
    *  The directory is created at the named location if it does not yet exist.
    * 
@@ -75,6 +85,25 @@ public class NIOFSDirectory extends FSDirectory {
     this(path, FSLockFactory.getDefault());
   }
 
+  /**
+   * Sets the executor that reads ranges passed to {@link IndexInput#prefetch(long, long)}
+   * in the background, or {@code null} (the default) to ignore prefetch hints. Only inputs
+   * opened after this call use the new executor. Tasks that the executor rejects are dropped.
+   * <p>
+   * The executor is not owned by this directory and is not shut down when it is closed.
+   */
+  public void setPrefetchExecutor(Executor prefetchExecutor) {
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  /**
+   * Returns the executor used to read prefetched ranges, or {@code null} if prefetch hints are ignored.
+   * @see #setPrefetchExecutor(Executor)
+   */
+  public Executor getPrefetchExecutor() {
+    return prefetchExecutor;
+  }
+
   @Override
   public IndexInput openInput(String name, IOContext context) throws IOException {
     ensureOpen();
@@ -83,7 +112,7 @@ public class NIOFSDirectory extends FSDirectory {
     FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
     boolean success = false;
     try {
-      final NIOFSIndexInput indexInput = new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context);
+      final NIOFSIndexInput indexInput = new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context, prefetchExecutor);
       success = true;
       return indexInput;
     } finally {
@@ -101,6 +130,11 @@ public class NIOFSDirectory extends FSDirectory {
      * The maximum chunk size for reads of 16384 bytes.
      */
     private static final int CHUNK_SIZE = 16384;
+
+    /**
+     * The maximum number of bytes read by a single prefetch.
+     */
+    private static final int MAX_PREFETCH_SIZE = 1 << 20;
     
     /** the file channel we will read from */
     protected final FileChannel channel;
@@ -110,20 +144,32 @@ public class NIOFSDirectory extends FSDirectory {
     protected final long off;
     /** end offset (start+length) */
     protected final long end;
+    /** executor for background reads of prefetched ranges, or null */
+    private final Executor prefetchExecutor;
 
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context) throws IOException {
+      this(resourceDesc, fc, context, null);
+    }
+
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context, Executor prefetchExecutor) throws IOException {
       super(resourceDesc, context);
       this.channel = fc; 
       this.off = 0L;
       this.end = fc.size();
+      this.prefetchExecutor = prefetchExecutor;
     }
     
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize) {
+      this(resourceDesc, fc, off, length, bufferSize, null);
+    }
+
+    public NIOFSIndexInput(String resourceDesc, FileChannel fc, long off, long length, int bufferSize, Executor prefetchExecutor) {
       super(resourceDesc, bufferSize);
       this.channel = fc;
       this.off = off;
       this.end = off + length;
       this.isClone = true;
+      this.prefetchExecutor = prefetchExecutor;
     }
     
     @Override
@@ -145,7 +191,43 @@ public class NIOFSDirectory extends FSDirectory {
       if (offset < 0 || length < 0 || offset + length > this.length()) {
         throw new IllegalArgumentException("slice() " + sliceDescription + " out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
       }
-      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize());
+      return new NIOFSIndexInput(getFullSliceDescription(sliceDescription), channel, off + offset, length, getBufferSize(), prefetchExecutor);
+    }
+
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset + length > this.length()) {
+        throw new IllegalArgumentException("prefetch() out of bounds: offset=" + offset + ",length=" + length + ",fileLength="  + this.length() + ": "  + this);
+      }
+      if (prefetchExecutor == null || length == 0) {
+        return;
+      }
+      final long pos = off + offset;
+      final int prefetchLength = (int) Math.min(length, MAX_PREFETCH_SIZE);
+      try {
+        prefetchExecutor.execute(() -> readAhead(pos, prefetchLength));
+      } catch (RejectedExecutionException e) {
+        // prefetching is only a hint: skip it if the executor is saturated or shut down
+      }
+    }
+
+    /** Reads the given range into a throwaway buffer, so that it is cached by the OS for the real read. */
+    private void readAhead(long pos, int length) {
+      final ByteBuffer buffer = ByteBuffer.allocate(Math.min(CHUNK_SIZE, length));
+      try {
+        while (length > 0) {
+          buffer.clear();
+          buffer.limit(Math.min(buffer.capacity(), length));
+          final int i = channel.read(buffer, pos);
+          if (i <= 0) {
+            break;
+          }
+          pos += i;
+          length -= i;
+        }
+      } catch (IOException e) {
+        // the input may have been closed in the meantime: the actual read will report any real problem
+      }
     }
 
     @Override
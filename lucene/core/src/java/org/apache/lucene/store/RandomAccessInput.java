@@ -46,4 +46,11 @@ public interface RandomAccessInput {
    * @see DataInput#readLong
    */
   public long readLong(long pos) throws IOException;
+  /**
+   * Optional hint that the given range of bytes will likely be read soon.
+   * The default implementation is a no-op.
+   * @see IndexInput#prefetch
+   */
+  public default void prefetch(long offset, long length) throws IOException {
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe variant of {@link FrequencyTrackingRingBuffer} that does not
+ * need external synchronization. Additions only perform an atomic increment
+ * and a volatile write, so that many threads can record items concurrently
+ * without contending on a lock. The counterpart is that {@link #frequency}
+ * runs in linear time with the size of the buffer, which is cheap for the
+ * small buffers that this class is designed for (a few hundreds of entries).
+ *
+ * Frequencies are exact when there are no concurrent additions. Otherwise
+ * they reflect a state of the buffer that may be off by the number of
+ * in-flight additions.
+ *
+ * This data-structure requires 4 bytes per entry.
+ *
+ * @lucene.internal
+ */
+public final class ConcurrentFrequencyTrackingRingBuffer implements Accountable {
+
+  private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(ConcurrentFrequencyTrackingRingBuffer.class)
+      + RamUsageEstimator.shallowSizeOfInstance(AtomicIntegerArray.class)
+      + RamUsageEstimator.shallowSizeOfInstance(AtomicLong.class);
+
+  private final int maxSize;
+  private final AtomicIntegerArray buffer;
+  private final AtomicLong position;
+
+  /** Create a new ring buffer that will contain at most <code>maxSize</code> items.
+   *  This buffer will initially contain <code>maxSize</code> times the
+   *  <code>sentinel</code> value. */
+  public ConcurrentFrequencyTrackingRingBuffer(int maxSize, int sentinel) {
+    if (maxSize < 2) {
+      throw new IllegalArgumentException("maxSize must be at least 2");
+    }
+    this.maxSize = maxSize;
+    buffer = new AtomicIntegerArray(maxSize);
+    for (int i = 0; i < maxSize; ++i) {
+      buffer.set(i, sentinel);
+    }
+    position = new AtomicLong();
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    return BASE_RAM_BYTES_USED
+        + RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) Integer.BYTES * maxSize);
+  }
+
+  /**
+   * Add a new item to this ring buffer, potentially removing the oldest
+   * entry from this buffer if it is already full.
+   */
+  public void add(int i) {
+    final int slot = (int) (position.getAndIncrement() % maxSize);
+    buffer.set(slot, i);
+  }
+
+  /**
+   * Returns the frequency of the provided key in the ring buffer.
+   */
+  public int frequency(int key) {
+    int frequency = 0;
+    for (int i = 0; i < maxSize; ++i) {
+      if (buffer.get(i) == key) {
+        frequency++;
+      }
+    }
+    return frequency;
+  }
+
+  // pkg-private for testing
+  Map<Integer, Integer> asFrequencyMap() {
+    final Map<Integer, Integer> map = new HashMap<>();
+    for (int i = 0; i < maxSize; ++i) {
+      map.merge(buffer.get(i), 1, Integer::sum);
+    }
+    return map;
+  }
+
+}
@@ -50,7 +50,7 @@ public final class BKDRadixSelector {
   // data dimensions plus docID size
   private final int packedBytesDocIDLength;
   //flag to when we are moving to sort on heap
-  private final int maxPointsSortInHeap;
+  final int maxPointsSortInHeap;
   //reusable buffer
   private final byte[] offlineBuffer;
   //holder for partition points
@@ -34,6 +34,9 @@ import org.apache.lucene.util.MathUtil;
 
 public final class BKDReader extends PointValues {
 
+  /** Maximum number of leaves that {@link #addAll} asks the data input to prefetch at once. */
+  static final int MAX_LEAVES_TO_PREFETCH = 64;
+
   // Packed array of byte[] holding all split values in the full binary tree:
   final int leafNodeOffset;
   final int numDataDims;
@@ -375,11 +378,12 @@ public final class BKDReader extends PointValues {
   }
 
   /** Fast path: this is called when the query box fully encompasses all cells under this node. */
-  private void addAll(IntersectState state, boolean grown) throws IOException {
+  private void addAll(IntersectState state, boolean grown, boolean prefetched) throws IOException {
     //System.out.println("R: addAll nodeID=" + nodeID);
 
+    final int numLeaves = state.index.getNumLeaves();
     if (grown == false) {
-      final long maxPointCount = (long) maxPointsInLeafNode * state.index.getNumLeaves();
+      final long maxPointCount = (long) maxPointsInLeafNode * numLeaves;
       if (maxPointCount <= Integer.MAX_VALUE) { // could be >MAX_VALUE if there are more than 2B points in total
         state.visitor.grow((int) maxPointCount);
         grown = true;
@@ -394,16 +398,55 @@ public final class BKDReader extends PointValues {
       }
       // TODO: we can assert that the first value here in fact matches what the index claimed?
     } else {
+      if (prefetched == false && numLeaves <= MAX_LEAVES_TO_PREFETCH) {
+        // all leaves below this node are going to be visited, and they are stored contiguously:
+        // let the data input load them while we decode the first ones
+        prefetchLeaves(state);
+        prefetched = true;
+      }
+
       state.index.pushLeft();
-      addAll(state, grown);
+      addAll(state, grown, prefetched);
       state.index.pop();
 
       state.index.pushRight();
-      addAll(state, grown);
+      addAll(state, grown, prefetched);
       state.index.pop();
     }
   }
 
+  /** Hints the data input that all leaf blocks below the current node are about to be read. */
+  private void prefetchLeaves(IntersectState state) throws IOException {
+    final int numLeaves = state.index.getNumLeaves();
+    // leaf blocks are written in the order of the tree, so the left-most leaf has the minimum
+    // file pointer and the right-most leaf the maximum: only these two paths need to be read.
+    // Walk a clone, since addAll still needs to visit this node.
+    final IndexTree index = state.index.clone();
+    int depth = 0;
+    while (index.isLeafNode() == false) {
+      index.pushLeft();
+      depth++;
+    }
+    final long minLeafBlockFP = index.getLeafBlockFP();
+    for (; depth > 0; --depth) {
+      index.pop();
+    }
+    while (index.isLeafNode() == false) {
+      index.pushRight();
+    }
+    final long maxLeafBlockFP = index.getLeafBlockFP();
+    assert maxLeafBlockFP >= minLeafBlockFP;
+
+    long length = maxLeafBlockFP - minLeafBlockFP;
+    if (numLeaves > 1) {
+      // we don't know where the last block ends, assume it has the average size
+      length += length / (numLeaves - 1);
+    } else {
+      length = 1;
+    }
+    state.in.prefetch(minLeafBlockFP, Math.min(length, state.in.length() - minLeafBlockFP));
+  }
+
   /** Create a new {@link IntersectState} */
   public IntersectState getIntersectState(IntersectVisitor visitor) {
     IndexTree index = new IndexTree();
@@ -638,7 +681,7 @@ public final class BKDReader extends PointValues {
       // This cell is fully outside of the query shape: stop recursing
     } else if (r == Relation.CELL_INSIDE_QUERY) {
       // This cell is fully inside of the query shape: recursively add all points in this cell without filtering
-      addAll(state, false);
+      addAll(state, false, false);
       // The cell crosses the shape boundary, or the cell fully contains the query, so we fall through and do full filtering:
     } else if (state.index.isLeafNode()) {
       
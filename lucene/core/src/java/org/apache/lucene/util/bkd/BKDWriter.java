@@ -22,10 +22,16 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.IntFunction;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.codecs.MutablePointValues;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.MergeState;
 import org.apache.lucene.index.PointValues.IntersectVisitor;
 import org.apache.lucene.index.PointValues.Relation;
@@ -104,6 +110,9 @@ public class BKDWriter implements Closeable {
   /** Number of splits before we compute the exact bounding box of an inner node. */
   private static final int SPLITS_BEFORE_EXACT_BOUNDS = 4;
 
+  /** Minimum number of leaves of a subtree to build it concurrently with its sibling. */
+  private static final int MIN_LEAVES_TO_FORK = 64;
+
   /** How many dimensions we are storing at the leaf (data) nodes */
   protected final int numDataDims;
 
@@ -152,8 +161,21 @@ public class BKDWriter implements Closeable {
 
   private final int maxDoc;
 
+  /** Builds subtrees concurrently in {@link #finish} if not null */
+  private final Executor executor;
+
   public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, int numDataDims, int numIndexDims, int bytesPerDim,
                       int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount) throws IOException {
+    this(maxDoc, tempDir, tempFileNamePrefix, numDataDims, numIndexDims, bytesPerDim, maxPointsInLeafNode, maxMBSortInHeap, totalPointCount, null);
+  }
+
+  /**
+   * Creates a writer that builds the left and right subtrees of large enough inner nodes concurrently on the
+   * given executor in {@link #finish}. Concurrent subtrees share the {@code maxMBSortInHeap} budget, and
+   * subtrees that the executor did not start by the time their sibling is done are built on the calling thread.
+   */
+  public BKDWriter(int maxDoc, Directory tempDir, String tempFileNamePrefix, int numDataDims, int numIndexDims, int bytesPerDim,
+                   int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount, Executor executor) throws IOException {
     verifyParams(numDataDims, numIndexDims, maxPointsInLeafNode, maxMBSortInHeap, totalPointCount);
     // We use tracking dir to deal with removing files on exception, so each place that
     // creates temp files doesn't need crazy try/finally/sucess logic:
@@ -189,6 +211,33 @@ public class BKDWriter implements Closeable {
     }
 
     this.maxMBSortInHeap = maxMBSortInHeap;
+    this.executor = executor;
+  }
+
+  /** Creates a writer that shares the configuration and temporary files of the given one, but has its own
+   *  scratch space, so that both can build disjoint subtrees concurrently. */
+  private BKDWriter(BKDWriter other) {
+    this.tempDir = other.tempDir;
+    this.tempFileNamePrefix = other.tempFileNamePrefix;
+    this.maxPointsInLeafNode = other.maxPointsInLeafNode;
+    this.numDataDims = other.numDataDims;
+    this.numIndexDims = other.numIndexDims;
+    this.bytesPerDim = other.bytesPerDim;
+    this.totalPointCount = other.totalPointCount;
+    this.maxDoc = other.maxDoc;
+    this.docsSeen = other.docsSeen;
+    this.packedBytesLength = other.packedBytesLength;
+    this.packedIndexBytesLength = other.packedIndexBytesLength;
+    this.scratchDiff = new byte[bytesPerDim];
+    this.scratch1 = new byte[packedBytesLength];
+    this.scratch2 = new byte[packedBytesLength];
+    this.commonPrefixLengths = new int[numDataDims];
+    this.minPackedValue = other.minPackedValue;
+    this.maxPackedValue = other.maxPackedValue;
+    this.bytesPerDoc = other.bytesPerDoc;
+    this.maxPointsSortInHeap = other.maxPointsSortInHeap;
+    this.maxMBSortInHeap = other.maxMBSortInHeap;
+    this.executor = other.executor;
   }
 
   public static void verifyParams(int numDims, int numIndexDims, int maxPointsInLeafNode, double maxMBSortInHeap, long totalPointCount) {
@@ -1685,17 +1734,137 @@ public class BKDWriter implements Closeable {
       System.arraycopy(splitValue, 0, maxSplitPackedValue, splitDim * bytesPerDim, bytesPerDim);
 
       parentSplits[splitDim]++;
+      if (executor != null && numLeaves - numLeftLeafNodes >= MIN_LEAVES_TO_FORK
+          && radixSelector.maxPointsSortInHeap / 2 >= maxPointsInLeafNode) {
+        buildConcurrently(leavesOffset, numLeftLeafNodes, numLeaves - numLeftLeafNodes, slices,
+            out, radixSelector, minPackedValue, maxSplitPackedValue, minSplitPackedValue, maxPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+      } else {
+        // Recurse on left tree:
+        build(leavesOffset, numLeftLeafNodes, slices[0],
+            out, radixSelector, minPackedValue, maxSplitPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+
+        // Recurse on right tree:
+        build(rightOffset, numLeaves - numLeftLeafNodes, slices[1],
+            out, radixSelector, minSplitPackedValue, maxPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+      }
+
+      parentSplits[splitDim]--;
+    }
+  }
+
+  /** Builds the left tree on this thread while the executor builds the right tree into a temporary file, which
+   *  is then appended to the output. Each tree gets half of the heap budget of the given selector while both
+   *  are built concurrently. If the executor did not start the right tree by the time the left tree is done,
+   *  it is built on this thread directly into the output instead. */
+  private void buildConcurrently(int leavesOffset, int numLeftLeafNodes, int numRightLeafNodes,
+                                 BKDRadixSelector.PathSlice[] slices,
+                                 IndexOutput out,
+                                 BKDRadixSelector radixSelector,
+                                 byte[] minPackedValue, byte[] maxSplitPackedValue,
+                                 byte[] minSplitPackedValue, byte[] maxPackedValue,
+                                 int[] parentSplits,
+                                 byte[] splitPackedValues,
+                                 byte[] splitDimensionValues,
+                                 long[] leafBlockFPs,
+                                 int[] spareDocIds) throws IOException {
+    final int rightOffset = leavesOffset + numLeftLeafNodes;
+    final int maxPointsSortInHeap = radixSelector.maxPointsSortInHeap / 2;
+
+    BKDRadixSelector.PathSlice right = slices[1];
+    if (right.writer == slices[0].writer) {
+      // both trees reorder their own range of the same points on heap
+      right = new BKDRadixSelector.PathSlice(new HeapPointWriter((HeapPointWriter) right.writer), right.start, right.count);
+    }
+    final BKDRadixSelector.PathSlice rightSlice = right;
+    final BKDWriter rightWriter = new BKDWriter(this);
+    final BKDRadixSelector rightSelector = new BKDRadixSelector(numDataDims, numIndexDims, bytesPerDim, maxPointsSortInHeap, tempDir, tempFileNamePrefix);
+    final byte[] rightMaxPackedValue = maxPackedValue.clone();
+    final int[] rightParentSplits = parentSplits.clone();
+    final AtomicBoolean started = new AtomicBoolean();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final long[] rightChecksum = new long[1];
+    FutureTask<String> task = new FutureTask<>(() -> {
+      if (started.compareAndSet(false, true) == false || failed.get()) {
+        return null;
+      }
+      try (IndexOutput rightOut = tempDir.createTempOutput(tempFileNamePrefix, "bkd_subtree", IOContext.DEFAULT)) {
+        rightWriter.build(rightOffset, numRightLeafNodes, rightSlice,
+            rightOut, rightSelector, minSplitPackedValue, rightMaxPackedValue,
+            rightParentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, new int[maxPointsInLeafNode]);
+        rightChecksum[0] = rightOut.getChecksum();
+        return rightOut.getName();
+      }
+    });
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // the right tree is built on this thread below
+    }
+
+    Throwable failure = null;
+    try {
       // Recurse on left tree:
       build(leavesOffset, numLeftLeafNodes, slices[0],
-          out, radixSelector, minPackedValue, maxSplitPackedValue,
+          out, new BKDRadixSelector(numDataDims, numIndexDims, bytesPerDim, maxPointsSortInHeap, tempDir, tempFileNamePrefix),
+          minPackedValue, maxSplitPackedValue,
           parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+    } catch (Throwable t) {
+      failed.set(true);
+      failure = t;
+    }
 
-      // Recurse on right tree:
-      build(rightOffset, numLeaves - numLeftLeafNodes, slices[1],
-          out, radixSelector, minSplitPackedValue, maxPackedValue,
-          parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+    if (started.compareAndSet(false, true)) {
+      if (failure == null) {
+        // Recurse on right tree, the left tree is done so it gets the whole heap budget:
+        build(rightOffset, numRightLeafNodes, rightSlice,
+            out, radixSelector, minSplitPackedValue, maxPackedValue,
+            parentSplits, splitPackedValues, splitDimensionValues, leafBlockFPs, spareDocIds);
+      }
+    } else {
+      // the right tree must be done before returning, even if the left one failed, since it writes temporary files
+      String rightFile = null;
+      boolean interrupted = false;
+      while (true) {
+        try {
+          rightFile = task.get();
+          break;
+        } catch (ExecutionException e) {
+          failure = IOUtils.useOrSuppress(failure, e.getCause());
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      if (failure == null) {
+        appendSubtree(rightFile, rightChecksum[0], out, rightOffset, numRightLeafNodes, leafBlockFPs);
+      }
+    }
+    if (failure != null) {
+      throw IOUtils.rethrowAlways(failure);
+    }
+  }
 
-      parentSplits[splitDim]--;
+  /** Appends the leaves of a subtree that were written to the given temporary file to the output, and moves their
+   *  file pointers accordingly. */
+  private void appendSubtree(String tempFileName, long expectedChecksum, IndexOutput out,
+                             int leavesOffset, int numLeaves, long[] leafBlockFPs) throws IOException {
+    final long startFP = out.getFilePointer();
+    try (ChecksumIndexInput in = tempDir.openChecksumInput(tempFileName, IOContext.READONCE)) {
+      out.copyBytes(in, in.length());
+      if (in.getChecksum() != expectedChecksum) {
+        throw new CorruptIndexException("checksum failed (hardware problem?) : expected=" + Long.toHexString(expectedChecksum) +
+            " actual=" + Long.toHexString(in.getChecksum()), in);
+      }
+    }
+    tempDir.deleteFile(tempFileName);
+    for (int i = leavesOffset; i < leavesOffset + numLeaves; i++) {
+      leafBlockFPs[i] += startFP;
     }
   }
 
@@ -51,6 +51,20 @@ public final class HeapPointWriter implements PointWriter {
     }
   }
 
+  /** Creates a writer over the points of the given closed writer with its own scratch space, so that
+   *  disjoint ranges of the points can be reordered concurrently. */
+  HeapPointWriter(HeapPointWriter other) {
+    assert other.closed : "point writer is still open";
+    this.packedBytesDocIDLength = other.packedBytesDocIDLength;
+    this.packedBytesLength = other.packedBytesLength;
+    this.block = other.block;
+    this.size = other.size;
+    this.scratch = new byte[packedBytesDocIDLength];
+    this.nextWrite = other.nextWrite;
+    this.closed = true;
+    this.pointValue = size > 0 ? new HeapPointReader.HeapPointValue(block, packedBytesLength) : null;
+  }
+
   /** Returns a reference, in <code>result</code>, to the byte[] slice holding this value */
   public PointValue getPackedValueSlice(int index) {
     assert index < nextWrite : "nextWrite=" + (nextWrite) + " vs index=" + index;
@@ -78,13 +78,27 @@ public final class LZ4 {
 
   /**
    * Decompress at least <code>decompressedLen</code> bytes into
-   * <code>dest[dOff:]</code>. Please note that <code>dest</code> must be large
+   * <code>dest[0:]</code>. Please note that <code>dest</code> must be large
    * enough to be able to hold <b>all</b> decompressed data (meaning that you
    * need to know the total decompressed length).
    */
   public static int decompress(DataInput compressed, int decompressedLen, byte[] dest) throws IOException {
-    int dOff = 0;
+    return decompress(compressed, decompressedLen, dest, 0);
+  }
+
+  /**
+   * Decompress at least <code>decompressedLen</code> bytes into
+   * <code>dest[dOff:]</code> and return the offset of the end of the
+   * decompressed data. Bytes in <code>dest[0:dOff]</code> are used as a
+   * dictionary, which is how content that has been compressed with
+   * {@link #compressWithDictionary} is restored. Please note that
+   * <code>dest</code> must be large enough to be able to hold <b>all</b>
+   * decompressed data (meaning that you need to know the total decompressed
+   * length).
+   */
+  public static int decompress(DataInput compressed, int decompressedLen, byte[] dest, int dOff) throws IOException {
     final int destEnd = dest.length;
+    final int decompressedEnd = dOff + decompressedLen;
 
     do {
       // literals
@@ -103,7 +117,7 @@ public final class LZ4 {
         dOff += literalLen;
       }
 
-      if (dOff >= decompressedLen) {
+      if (dOff >= decompressedEnd) {
         break;
       }
 
@@ -133,7 +147,7 @@ public final class LZ4 {
         System.arraycopy(dest, dOff - matchDec, dest, dOff, fastLen);
         dOff += matchLen;
       }
-    } while (dOff < decompressedLen);
+    } while (dOff < decompressedEnd);
 
     return dOff;
   }
@@ -190,6 +204,12 @@ public final class LZ4 {
     /** Reset this hash table in order to compress the given content. */
     abstract void reset(byte[] b, int off, int len);
 
+    /**
+     * Record occurrences of the first {@code dictLen} bytes of the content
+     * that was passed to {@link #reset}, which are used as a dictionary.
+     */
+    abstract void initDictionary(int dictLen);
+
     /**
      * Advance the cursor to {@off} and return an index that stored the same
      * 4 bytes as {@code b[o:o+4)}. This may only be called on strictly
@@ -243,6 +263,14 @@ public final class LZ4 {
       }
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      for (int off = lastOff + 1; off < base + dictLen; ++off) {
+        hashTable.set(hash(readInt(bytes, off), hashLog), off - base);
+      }
+      lastOff = Math.max(lastOff, base + dictLen - 1);
+    }
+
     @Override
     int get(int off) {
       assert off > lastOff;
@@ -327,9 +355,17 @@ public final class LZ4 {
       this.end = off + len;
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      assert next == base;
+      for (; next < base + dictLen; next++) {
+        addHash(next);
+      }
+    }
+
     @Override
     int get(int off) {
-      assert off > next;
+      assert off >= next;
       assert off < end;
 
       for (; next < off; next++) {
@@ -394,18 +430,44 @@ public final class LZ4 {
    * but can safely be reused.
    */
   public static void compress(byte[] bytes, int off, int len, DataOutput out, HashTable ht) throws IOException {
-    Objects.checkFromIndexSize(off, len, bytes.length);
+    compressWithDictionary(bytes, off, 0, len, out, ht);
+  }
 
-    final int base = off;
-    final int end = off + len;
+  /**
+   * Compress <code>bytes[dictOff+dictLen:dictOff+dictLen+len]</code> into
+   * <code>out</code> using at most 16KB of memory.
+   * <code>bytes[dictOff:dictOff+dictLen]</code> will be used as a dictionary.
+   * <code>dictLen</code> must not be greater than 64kB, the maximum window size.
+   * The compressed data can be restored with
+   * {@link #decompress(DataInput, int, byte[], int)} by putting the dictionary
+   * in front of the destination buffer.
+   * <code>ht</code> shouldn't be shared across threads but can safely be reused.
+   */
+  public static void compressWithDictionary(byte[] bytes, int dictOff, int dictLen, int len, DataOutput out, HashTable ht) throws IOException {
+    Objects.checkFromIndexSize(dictOff, dictLen, bytes.length);
+    Objects.checkFromIndexSize(dictOff + dictLen, len, bytes.length);
+    if (dictLen > MAX_DISTANCE) {
+      throw new IllegalArgumentException("dictLen must not be greater than 64kB, but got " + dictLen);
+    }
 
-    int anchor = off++;
+    final int base = dictOff;
+    final int end = dictOff + dictLen + len;
+
+    int off = dictOff + dictLen;
+    int anchor = off;
+    if (dictLen == 0) {
+      // the first byte can't be a match without a dictionary
+      ++off;
+    }
 
     if (len > LAST_LITERALS + MIN_MATCH) {
 
       final int limit = end - LAST_LITERALS;
       final int matchLimit = limit - MIN_MATCH;
-      ht.reset(bytes, base, len);
+      ht.reset(bytes, base, dictLen + len);
+      if (dictLen > 0) {
+        ht.initDictionary(dictLen);
+      }
 
       main:
       while (off <= limit) {
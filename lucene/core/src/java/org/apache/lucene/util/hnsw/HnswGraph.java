@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.SparseFixedBitSet;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Hierarchical Navigable Small World graph. Nodes are identified by their vector ordinal, in
+ * {@code [0, size())}. All nodes are present on level 0, and each level above it holds an
+ * exponentially decreasing subset of the nodes of the level below. Searches start from the
+ * {@link #entryNode() entry node} on the top level, greedily descend to level 0, and then run a
+ * best-first search on level 0.
+ *
+ * <p>Similarity between vectors is computed with {@link #similarity}, which is higher for more
+ * similar vectors regardless of whether the {@link VectorValues.SimilarityFunction} is a distance.
+ *
+ * @lucene.experimental
+ */
+public abstract class HnswGraph {
+
+  /** Sole constructor. (For invocation by subclass
+   *  constructors, typically implicit.) */
+  protected HnswGraph() {}
+
+  /** Return the number of nodes of the graph, which is also the number of nodes on level 0. */
+  public abstract int size();
+
+  /** Return the number of levels of the graph. */
+  public abstract int numLevels();
+
+  /** Return the node from which searches start on the top level, or -1 if the graph is empty. */
+  public abstract int entryNode();
+
+  /**
+   * Position the graph on the given node of the given level, so that its neighbors may be iterated
+   * with {@link #nextNeighbor()}.
+   */
+  public abstract void seek(int level, int target) throws IOException;
+
+  /**
+   * Return the next neighbor of the node the graph is positioned on, or
+   * {@link org.apache.lucene.search.DocIdSetIterator#NO_MORE_DOCS} once all neighbors have been
+   * returned.
+   */
+  public abstract int nextNeighbor() throws IOException;
+
+  /**
+   * Return the sorted nodes of the given level, which must be greater than 0 since level 0 holds
+   * all nodes.
+   */
+  public abstract int[] getNodesOnLevel(int level);
+
+  /**
+   * Return the similarity of two vectors according to the given function, mapped so that higher
+   * values mean more similar vectors.
+   */
+  public static float similarity(VectorValues.SimilarityFunction similarityFunction, float[] v1, float[] v2) {
+    float raw = similarityFunction.compare(v1, v2);
+    return similarityFunction.reversed ? -raw : raw;
+  }
+
+  /**
+   * Search the graph for the nodes whose vectors are the most similar to the given query.
+   *
+   * @param query the query vector
+   * @param topK the number of nodes to collect, which is also the width of the beam of candidates
+   *             that are explored on level 0
+   * @param vectors the vectors of the graph's nodes
+   * @param similarityFunction the function to compare vectors
+   * @param graph the graph to search
+   * @param acceptOrds nodes that may be returned, or null if all nodes are acceptable. Nodes that
+   *                   are not accepted are still used to navigate the graph.
+   * @return a min-heap of the {@code topK} most similar nodes, with scores computed by
+   *         {@link #similarity}
+   */
+  public static NeighborQueue search(float[] query, int topK, VectorValues.RandomAccess vectors,
+                                     VectorValues.SimilarityFunction similarityFunction, HnswGraph graph,
+                                     Bits acceptOrds) throws IOException {
+    int entryNode = graph.entryNode();
+    if (entryNode == -1) {
+      return new NeighborQueue(1, false);
+    }
+    int[] eps = new int[] {entryNode};
+    int visitedCount = 0;
+    for (int level = graph.numLevels() - 1; level >= 1; level--) {
+      NeighborQueue closest = searchLevel(query, 1, level, eps, vectors, similarityFunction, graph, null);
+      eps[0] = closest.topNode();
+      visitedCount += closest.visitedCount();
+    }
+    NeighborQueue results = searchLevel(query, topK, 0, eps, vectors, similarityFunction, graph, acceptOrds);
+    results.setVisitedCount(results.visitedCount() + visitedCount);
+    return results;
+  }
+
+  /**
+   * Best-first search of the nodes that are the most similar to the query on one level of the graph.
+   *
+   * @param query the query vector
+   * @param topK the number of nodes to collect
+   * @param level the level to search
+   * @param eps the entry points of the search on this level
+   * @param vectors the vectors of the graph's nodes
+   * @param similarityFunction the function to compare vectors
+   * @param graph the graph to search
+   * @param acceptOrds nodes that may be returned, or null if all nodes are acceptable
+   * @return a min-heap of the {@code topK} most similar accepted nodes
+   */
+  static NeighborQueue searchLevel(float[] query, int topK, int level, int[] eps,
+                                   VectorValues.RandomAccess vectors,
+                                   VectorValues.SimilarityFunction similarityFunction,
+                                   HnswGraph graph, Bits acceptOrds) throws IOException {
+    NeighborQueue results = new NeighborQueue(topK, false);
+    NeighborQueue candidates = new NeighborQueue(topK, true);
+    BitSet visited = new SparseFixedBitSet(graph.size());
+    int visitedCount = 0;
+    for (int ep : eps) {
+      if (visited.get(ep) == false) {
+        visited.set(ep);
+        float score = similarity(similarityFunction, query, vectors.vectorValue(ep));
+        visitedCount++;
+        candidates.add(ep, score);
+        if (acceptOrds == null || acceptOrds.get(ep)) {
+          results.insertWithOverflow(ep, score, topK);
+        }
+      }
+    }
+    while (candidates.size() > 0) {
+      // stop when the best remaining candidate is worse than the worst collected result
+      if (results.size() >= topK && candidates.topScore() < results.topScore()) {
+        break;
+      }
+      int candidate = candidates.pop();
+      graph.seek(level, candidate);
+      for (int friend = graph.nextNeighbor(); friend != NO_MORE_DOCS; friend = graph.nextNeighbor()) {
+        if (visited.get(friend)) {
+          continue;
+        }
+        visited.set(friend);
+        float score = similarity(similarityFunction, query, vectors.vectorValue(friend));
+        visitedCount++;
+        if (results.size() < topK || score > results.topScore()) {
+          candidates.add(friend, score);
+          if (acceptOrds == null || acceptOrds.get(friend)) {
+            results.insertWithOverflow(friend, score, topK);
+          }
+        }
+      }
+    }
+    results.setVisitedCount(visitedCount);
+    return results;
+  }
+}
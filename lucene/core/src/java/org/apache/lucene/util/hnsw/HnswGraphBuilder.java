@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.lucene.index.VectorValues;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Builder for an {@link OnHeapHnswGraph}. Nodes are inserted one at a time: each node is assigned
+ * a random top level following an exponentially decaying distribution, and is connected on every
+ * level up to its top level to a diverse subset of its nearest neighbors, which are found by
+ * searching the graph built so far.
+ *
+ * <p>The builder may be {@link #initializeFromGraph seeded} with an existing graph whose vectors
+ * are a contiguous range of the vectors to index, which spares re-inserting these nodes, e.g. when
+ * merging segments.
+ *
+ * @lucene.experimental
+ */
+public final class HnswGraphBuilder {
+
+  /** Default maximum number of connections per node on upper levels, level 0 allowing twice as many. */
+  public static final int DEFAULT_MAX_CONN = 16;
+
+  /** Default number of candidates that are explored when inserting a node. */
+  public static final int DEFAULT_BEAM_WIDTH = 100;
+
+  /** Default seed of the random generator that assigns levels to nodes. */
+  public static final long DEFAULT_RAND_SEED = 42;
+
+  private final VectorValues.RandomAccess vectors;
+  private final VectorValues.RandomAccess buildVectors;
+  private final VectorValues.SimilarityFunction similarityFunction;
+  private final int maxConn;
+  private final int beamWidth;
+  private final double ml;
+  private final Random random;
+  private final OnHeapHnswGraph graph;
+
+  /**
+   * Create a builder for a graph over the given vectors.
+   * @param vectors the vectors to index, whose ordinals become the nodes of the graph
+   * @param similarityFunction the function to compare vectors
+   * @param maxConn the maximum number of connections of a node on upper levels, level 0 allowing twice as many
+   * @param beamWidth the number of candidates that are explored when inserting a node
+   * @param seed the seed of the random generator that assigns levels to nodes
+   */
+  public HnswGraphBuilder(VectorValues.RandomAccess vectors, VectorValues.SimilarityFunction similarityFunction,
+                          int maxConn, int beamWidth, long seed) throws IOException {
+    if (similarityFunction == VectorValues.SimilarityFunction.NONE) {
+      throw new IllegalArgumentException("a similarity function is required to build a graph");
+    }
+    if (maxConn <= 0) {
+      throw new IllegalArgumentException("maxConn must be positive, got " + maxConn);
+    }
+    if (beamWidth <= 0) {
+      throw new IllegalArgumentException("beamWidth must be positive, got " + beamWidth);
+    }
+    this.vectors = vectors;
+    this.buildVectors = vectors.copy();
+    this.similarityFunction = similarityFunction;
+    this.maxConn = maxConn;
+    this.beamWidth = beamWidth;
+    this.ml = maxConn == 1 ? 1 : 1 / Math.log(maxConn);
+    this.random = new Random(seed);
+    this.graph = new OnHeapHnswGraph(vectors.size(), maxConn);
+  }
+
+  /**
+   * Copy the nodes and connections of an existing graph into the graph being built, node
+   * {@code n} of the source graph becoming node {@code n + ordOffset}. This must be called before
+   * any other node is inserted.
+   */
+  public void initializeFromGraph(HnswGraph source, int ordOffset) throws IOException {
+    if (graph.numNodes() != 0) {
+      throw new IllegalStateException("the graph must be empty in order to be initialized");
+    }
+    if (ordOffset < 0 || ordOffset + source.size() > graph.size()) {
+      throw new IllegalArgumentException("source graph of size " + source.size() + " at offset " + ordOffset
+          + " does not fit in a graph of size " + graph.size());
+    }
+    if (source.entryNode() == -1) {
+      return;
+    }
+    for (int node = 0; node < source.size(); node++) {
+      graph.addNode(0, node + ordOffset);
+    }
+    for (int level = 1; level < source.numLevels(); level++) {
+      for (int node : source.getNodesOnLevel(level)) {
+        graph.addNode(level, node + ordOffset);
+      }
+    }
+    for (int level = 0; level < source.numLevels(); level++) {
+      int[] nodes = level == 0 ? null : source.getNodesOnLevel(level);
+      int numNodes = level == 0 ? source.size() : nodes.length;
+      for (int i = 0; i < numNodes; i++) {
+        int node = level == 0 ? i : nodes[i];
+        float[] value = buildVectors.vectorValue(node + ordOffset);
+        NeighborArray neighbors = graph.getNeighbors(level, node + ordOffset);
+        source.seek(level, node);
+        for (int friend = source.nextNeighbor(); friend != NO_MORE_DOCS; friend = source.nextNeighbor()) {
+          float score = HnswGraph.similarity(similarityFunction, value, vectors.vectorValue(friend + ordOffset));
+          neighbors.insertSorted(friend + ordOffset, score);
+        }
+        while (neighbors.size() > graph.maxConn(level)) {
+          neighbors.removeLast();
+        }
+      }
+    }
+    graph.setEntryNode(source.entryNode() + ordOffset);
+  }
+
+  /** Insert all nodes that are not in the graph yet and return the graph. */
+  public OnHeapHnswGraph build() throws IOException {
+    for (int node = 0; node < graph.size(); node++) {
+      if (graph.containsNode(node) == false) {
+        addGraphNode(node);
+      }
+    }
+    return graph;
+  }
+
+  private void addGraphNode(int node) throws IOException {
+    // the vector must survive searches, which reuse the array returned by vectors
+    float[] value = buildVectors.vectorValue(node).clone();
+    int nodeLevel = (int) (-Math.log(1 - random.nextDouble()) * ml);
+    int entryNode = graph.entryNode();
+    int maxLevel = graph.numLevels() - 1;
+    for (int level = 0; level <= nodeLevel; level++) {
+      graph.addNode(level, node);
+    }
+    if (entryNode == -1) {
+      graph.setEntryNode(node);
+      return;
+    }
+    int[] eps = new int[] {entryNode};
+    for (int level = maxLevel; level > nodeLevel; level--) {
+      NeighborQueue closest = HnswGraph.searchLevel(value, 1, level, eps, vectors, similarityFunction, graph, null);
+      eps[0] = closest.topNode();
+    }
+    for (int level = Math.min(nodeLevel, maxLevel); level >= 0; level--) {
+      NeighborQueue candidates = HnswGraph.searchLevel(value, beamWidth, level, eps, vectors, similarityFunction, graph, null);
+      eps = candidates.nodes();
+      addDiverseNeighbors(level, node, candidates);
+    }
+    if (nodeLevel > maxLevel) {
+      graph.setEntryNode(node);
+    }
+  }
+
+  /*
+   * Connects the node to the candidates that are closer to it than to any neighbor that was
+   * selected before them, from the most similar candidate to the least similar one. This keeps
+   * the graph navigable across clusters of vectors. Reverse links are then added to the selected
+   * neighbors, which drop their least similar neighbor on overflow.
+   */
+  private void addDiverseNeighbors(int level, int node, NeighborQueue candidates) throws IOException {
+    int maxConnOnLevel = graph.maxConn(level);
+    int numCandidates = candidates.size();
+    int[] candidateNodes = new int[numCandidates];
+    float[] candidateScores = new float[numCandidates];
+    for (int i = numCandidates - 1; i >= 0; i--) {
+      candidateScores[i] = candidates.topScore();
+      candidateNodes[i] = candidates.pop();
+    }
+    NeighborArray neighbors = graph.getNeighbors(level, node);
+    for (int i = 0; i < numCandidates && neighbors.size() < maxConnOnLevel; i++) {
+      if (candidateNodes[i] != node && isDiverse(candidateNodes[i], candidateScores[i], neighbors)) {
+        neighbors.insertSorted(candidateNodes[i], candidateScores[i]);
+      }
+    }
+    for (int i = 0; i < neighbors.size(); i++) {
+      NeighborArray friendNeighbors = graph.getNeighbors(level, neighbors.node(i));
+      friendNeighbors.insertSorted(node, neighbors.score(i));
+      if (friendNeighbors.size() > maxConnOnLevel) {
+        friendNeighbors.removeLast();
+      }
+    }
+  }
+
+  private boolean isDiverse(int candidate, float score, NeighborArray neighbors) throws IOException {
+    float[] candidateValue = buildVectors.vectorValue(candidate);
+    for (int i = 0; i < neighbors.size(); i++) {
+      float neighborSimilarity = HnswGraph.similarity(similarityFunction, candidateValue, vectors.vectorValue(neighbors.node(i)));
+      if (neighborSimilarity >= score) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * The neighbors of a graph node along with their scores, sorted by decreasing score, that is from
+ * the most similar neighbor to the least similar one.
+ *
+ * @lucene.internal
+ */
+public class NeighborArray {
+
+  private int size;
+  private int[] nodes;
+  private float[] scores;
+
+  /** Create a new array with the given initial capacity. */
+  public NeighborArray(int initialCapacity) {
+    nodes = new int[initialCapacity];
+    scores = new float[initialCapacity];
+  }
+
+  /** Insert a neighbor, keeping neighbors sorted by decreasing score. */
+  public void insertSorted(int node, float score) {
+    if (size == nodes.length) {
+      nodes = ArrayUtil.grow(nodes);
+      scores = ArrayUtil.growExact(scores, nodes.length);
+    }
+    int insertionPoint = size;
+    while (insertionPoint > 0 && scores[insertionPoint - 1] < score) {
+      insertionPoint--;
+    }
+    System.arraycopy(nodes, insertionPoint, nodes, insertionPoint + 1, size - insertionPoint);
+    System.arraycopy(scores, insertionPoint, scores, insertionPoint + 1, size - insertionPoint);
+    nodes[insertionPoint] = node;
+    scores[insertionPoint] = score;
+    ++size;
+  }
+
+  /** Remove the least similar neighbor. */
+  public void removeLast() {
+    assert size > 0;
+    size--;
+  }
+
+  /** Return the number of neighbors. */
+  public int size() {
+    return size;
+  }
+
+  /** Return the neighbor at the given index. */
+  public int node(int i) {
+    assert i < size;
+    return nodes[i];
+  }
+
+  /** Return the score of the neighbor at the given index. */
+  public float score(int i) {
+    assert i < size;
+    return scores[i];
+  }
+
+  /** Direct access to the internal array of neighbors. Only the first {@link #size()} entries are valid. */
+  public int[] nodes() {
+    return nodes;
+  }
+
+  @Override
+  public String toString() {
+    return "NeighborArray[" + size + "]";
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * A priority queue of graph nodes and their scores. Nodes and scores are packed together in a
+ * {@code long} so that the heap does not need to allocate any object. Depending on how it is
+ * created, the head of the queue is either the node with the lowest score (which makes it easy to
+ * maintain the top-N most similar nodes seen so far) or the node with the highest score (which is
+ * useful to explore candidates from the most promising one).
+ *
+ * @lucene.internal
+ */
+public class NeighborQueue {
+
+  private final boolean maxHeap;
+  private long[] heap;
+  private int size;
+
+  // Number of nodes that were scored while filling this queue
+  private int visitedCount;
+
+  /**
+   * Create a new queue.
+   * @param initialSize the initial capacity of the queue, which grows as needed
+   * @param maxHeap if true, the head of the queue is the node with the highest score, otherwise it
+   *                is the node with the lowest score
+   */
+  public NeighborQueue(int initialSize, boolean maxHeap) {
+    this.heap = new long[Math.max(1, initialSize)];
+    this.maxHeap = maxHeap;
+  }
+
+  /** Return the number of nodes in the queue. */
+  public int size() {
+    return size;
+  }
+
+  /** Add a new node to the queue. */
+  public void add(int node, float score) {
+    if (size == heap.length) {
+      heap = ArrayUtil.grow(heap, size + 1);
+    }
+    heap[size] = encode(node, score);
+    upHeap(size++);
+  }
+
+  /**
+   * Add a node to the queue if it has less than {@code maxSize} nodes or if the node is more
+   * competitive than the head, which is then evicted. This only makes sense on a min-heap.
+   * @return true if the node was added
+   */
+  public boolean insertWithOverflow(int node, float score, int maxSize) {
+    assert maxHeap == false;
+    if (size < maxSize) {
+      add(node, score);
+      return true;
+    }
+    long encoded = encode(node, score);
+    if (encoded > heap[0]) {
+      heap[0] = encoded;
+      downHeap(0);
+      return true;
+    }
+    return false;
+  }
+
+  /** Remove the head of the queue and return its node. */
+  public int pop() {
+    assert size > 0;
+    int node = decodeNode(heap[0]);
+    heap[0] = heap[--size];
+    if (size > 0) {
+      downHeap(0);
+    }
+    return node;
+  }
+
+  /** Return the node at the head of the queue. */
+  public int topNode() {
+    assert size > 0;
+    return decodeNode(heap[0]);
+  }
+
+  /** Return the score of the node at the head of the queue. */
+  public float topScore() {
+    assert size > 0;
+    return decodeScore(heap[0]);
+  }
+
+  /** Return the nodes of this queue, in no particular order. */
+  public int[] nodes() {
+    int[] nodes = new int[size];
+    for (int i = 0; i < size; i++) {
+      nodes[i] = decodeNode(heap[i]);
+    }
+    return nodes;
+  }
+
+  /** Remove all nodes from this queue. */
+  public void clear() {
+    size = 0;
+    visitedCount = 0;
+  }
+
+  /** Return the number of nodes that were scored while filling this queue. */
+  public int visitedCount() {
+    return visitedCount;
+  }
+
+  /** Set the number of nodes that were scored while filling this queue. */
+  public void setVisitedCount(int visitedCount) {
+    this.visitedCount = visitedCount;
+  }
+
+  // Scores go in the high bits so that encoded values sort by score, and ties are broken in
+  // favor of lower node IDs
+  private static long encode(int node, float score) {
+    return (((long) NumericUtils.floatToSortableInt(score)) << 32) | (0xFFFFFFFFL & ~node);
+  }
+
+  private static int decodeNode(long encoded) {
+    return ~((int) encoded);
+  }
+
+  private static float decodeScore(long encoded) {
+    return NumericUtils.sortableIntToFloat((int) (encoded >> 32));
+  }
+
+  // returns a positive number if a should be closer to the head of the queue than b
+  private int compare(long a, long b) {
+    return maxHeap ? Long.compare(a, b) : Long.compare(b, a);
+  }
+
+  private void upHeap(int i) {
+    long value = heap[i];
+    int parent = (i - 1) >>> 1;
+    while (i > 0 && compare(value, heap[parent]) > 0) {
+      heap[i] = heap[parent];
+      i = parent;
+      parent = (i - 1) >>> 1;
+    }
+    heap[i] = value;
+  }
+
+  private void downHeap(int i) {
+    long value = heap[i];
+    int child = 2 * i + 1;
+    while (child < size) {
+      if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+      if (compare(heap[child], value) <= 0) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+      child = 2 * i + 1;
+    }
+    heap[i] = value;
+  }
+
+  @Override
+  public String toString() {
+    return "NeighborQueue[maxHeap=" + maxHeap + ", size=" + size + "]";
+  }
+}
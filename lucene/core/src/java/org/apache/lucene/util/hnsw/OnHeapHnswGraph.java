@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * An {@link HnswGraph} whose adjacency lists are held in memory, as it is being built by
+ * {@link HnswGraphBuilder}. Level 0 is indexed densely by node, upper levels, which hold few
+ * nodes, are sparse.
+ *
+ * @lucene.internal
+ */
+public final class OnHeapHnswGraph extends HnswGraph {
+
+  private final int maxConn;
+  private final NeighborArray[] level0;
+  private final List<Map<Integer, NeighborArray>> upperLevels = new ArrayList<>();
+  private int entryNode = -1;
+  private int numNodes;
+
+  // iteration state
+  private NeighborArray current;
+  private int upto;
+
+  OnHeapHnswGraph(int size, int maxConn) {
+    this.level0 = new NeighborArray[size];
+    this.maxConn = maxConn;
+  }
+
+  /** Add a node to the given level. The node must be added to all levels below first. */
+  void addNode(int level, int node) {
+    if (level == 0) {
+      assert level0[node] == null;
+      level0[node] = new NeighborArray(maxConn * 2 + 1);
+      numNodes++;
+    } else {
+      assert level0[node] != null;
+      while (upperLevels.size() < level) {
+        upperLevels.add(new HashMap<>());
+      }
+      upperLevels.get(level - 1).put(node, new NeighborArray(maxConn + 1));
+    }
+  }
+
+  /** Return whether the given node has been added to the graph. */
+  boolean containsNode(int node) {
+    return level0[node] != null;
+  }
+
+  /** Return the number of nodes that have been added to the graph so far. */
+  int numNodes() {
+    return numNodes;
+  }
+
+  /** Return the neighbors of the given node on the given level. */
+  NeighborArray getNeighbors(int level, int node) {
+    if (level == 0) {
+      return level0[node];
+    }
+    return upperLevels.get(level - 1).get(node);
+  }
+
+  void setEntryNode(int entryNode) {
+    this.entryNode = entryNode;
+  }
+
+  /** Return the maximum number of connections of a node on the given level. */
+  int maxConn(int level) {
+    return level == 0 ? maxConn * 2 : maxConn;
+  }
+
+  @Override
+  public int size() {
+    return level0.length;
+  }
+
+  @Override
+  public int numLevels() {
+    return upperLevels.size() + 1;
+  }
+
+  @Override
+  public int entryNode() {
+    return entryNode;
+  }
+
+  @Override
+  public void seek(int level, int target) {
+    current = getNeighbors(level, target);
+    upto = -1;
+  }
+
+  @Override
+  public int nextNeighbor() {
+    if (++upto < current.size()) {
+      return current.node(upto);
+    }
+    return NO_MORE_DOCS;
+  }
+
+  @Override
+  public int[] getNodesOnLevel(int level) {
+    assert level > 0;
+    int[] nodes = new int[upperLevels.get(level - 1).size()];
+    int i = 0;
+    for (int node : upperLevels.get(level - 1).keySet()) {
+      nodes[i++] = node;
+    }
+    Arrays.sort(nodes);
+    return nodes;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene84;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PostingDecodingUtil} that uses the incubating Vector API in order to
+ * shift and mask several longs at once, independently of the ability of the
+ * JIT to auto-vectorize the scalar loops.
+ * <p>
+ * This class is compiled against JDK 16+ and only loaded when the
+ * {@code jdk.incubator.vector} module is available.
+ */
+final class VectorizedPostingDecodingUtil extends PostingDecodingUtil {
+
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+  private static final int LANES = SPECIES.length();
+
+  VectorizedPostingDecodingUtil() {
+    // with fewer than 4 lanes (no AVX2, or vectors disabled on the JVM) the
+    // scalar loops are at least as fast, and the expand methods below need
+    // the number of lanes to divide 16
+    if (LANES < 4 || 16 % LANES != 0) {
+      throw new UnsupportedOperationException("Unsupported preferred vector species: " + SPECIES);
+    }
+  }
+
+  @Override
+  void shiftLongs(long[] a, int count, long[] b, int bi, int shift, long mask) {
+    int i = 0;
+    for (final int bound = SPECIES.loopBound(count); i < bound; i += LANES) {
+      LongVector.fromArray(SPECIES, a, i)
+          .lanewise(VectorOperators.LSHR, shift)
+          .and(mask)
+          .intoArray(b, bi + i);
+    }
+    for (; i < count; ++i) {
+      b[bi+i] = (a[i] >>> shift) & mask;
+    }
+  }
+
+  @Override
+  void expand8(long[] arr) {
+    for (int i = 0; i < 16; i += LANES) {
+      LongVector l = LongVector.fromArray(SPECIES, arr, i);
+      l.lanewise(VectorOperators.LSHR, 56).intoArray(arr, i);
+      l.lanewise(VectorOperators.LSHR, 48).and(0xFFL).intoArray(arr, 16 + i);
+      l.lanewise(VectorOperators.LSHR, 40).and(0xFFL).intoArray(arr, 32 + i);
+      l.lanewise(VectorOperators.LSHR, 32).and(0xFFL).intoArray(arr, 48 + i);
+      l.lanewise(VectorOperators.LSHR, 24).and(0xFFL).intoArray(arr, 64 + i);
+      l.lanewise(VectorOperators.LSHR, 16).and(0xFFL).intoArray(arr, 80 + i);
+      l.lanewise(VectorOperators.LSHR, 8).and(0xFFL).intoArray(arr, 96 + i);
+      l.and(0xFFL).intoArray(arr, 112 + i);
+    }
+  }
+
+  @Override
+  void expand8To32(long[] arr) {
+    for (int i = 0; i < 16; i += LANES) {
+      LongVector l = LongVector.fromArray(SPECIES, arr, i);
+      l.lanewise(VectorOperators.LSHR, 24).and(0x000000FF000000FFL).intoArray(arr, i);
+      l.lanewise(VectorOperators.LSHR, 16).and(0x000000FF000000FFL).intoArray(arr, 16 + i);
+      l.lanewise(VectorOperators.LSHR, 8).and(0x000000FF000000FFL).intoArray(arr, 32 + i);
+      l.and(0x000000FF000000FFL).intoArray(arr, 48 + i);
+    }
+  }
+
+  @Override
+  void expand16(long[] arr) {
+    for (int i = 0; i < 32; i += LANES) {
+      LongVector l = LongVector.fromArray(SPECIES, arr, i);
+      l.lanewise(VectorOperators.LSHR, 48).intoArray(arr, i);
+      l.lanewise(VectorOperators.LSHR, 32).and(0xFFFFL).intoArray(arr, 32 + i);
+      l.lanewise(VectorOperators.LSHR, 16).and(0xFFFFL).intoArray(arr, 64 + i);
+      l.and(0xFFFFL).intoArray(arr, 96 + i);
+    }
+  }
+
+  @Override
+  void expand16To32(long[] arr) {
+    for (int i = 0; i < 32; i += LANES) {
+      LongVector l = LongVector.fromArray(SPECIES, arr, i);
+      l.lanewise(VectorOperators.LSHR, 16).and(0x0000FFFF0000FFFFL).intoArray(arr, i);
+      l.and(0x0000FFFF0000FFFFL).intoArray(arr, 32 + i);
+    }
+  }
+
+  @Override
+  void expand32(long[] arr) {
+    for (int i = 0; i < 64; i += LANES) {
+      LongVector l = LongVector.fromArray(SPECIES, arr, i);
+      l.lanewise(VectorOperators.LSHR, 32).intoArray(arr, i);
+      l.and(0xFFFFFFFFL).intoArray(arr, 64 + i);
+    }
+  }
+}
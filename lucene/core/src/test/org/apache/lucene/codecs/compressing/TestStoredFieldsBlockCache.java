@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestStoredFieldsBlockCache extends LuceneTestCase {
+
+  private static class MapBlockCache implements StoredFieldsBlockCache {
+    final Map<Long, Block> blocks = new HashMap<>();
+    int puts;
+
+    @Override
+    public Block get(long startPointer) {
+      return blocks.get(startPointer);
+    }
+
+    @Override
+    public void put(long startPointer, Block block) {
+      puts++;
+      blocks.put(startPointer, block);
+    }
+  }
+
+  private static Document visit(CompressingStoredFieldsReader reader, int docID, StoredFieldsBlockCache cache) throws IOException {
+    DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor();
+    reader.visitDocument(docID, visitor, cache);
+    return visitor.getDocument();
+  }
+
+  public void testVisitWithCache() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(TestUtil.getDefaultCodec());
+    IndexWriter w = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      if (random().nextInt(10) != 0) { // some documents have no stored fields
+        doc.add(new StoredField("id", i));
+        doc.add(new StoredField("text", TestUtil.randomSimpleString(random(), 0, 100)));
+        doc.add(new StoredField("bytes", new byte[random().nextInt(10)]));
+      }
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    DirectoryReader reader = DirectoryReader.open(w);
+    w.close();
+
+    for (LeafReaderContext context : reader.leaves()) {
+      StoredFieldsReader fieldsReader = ((CodecReader) context.reader()).getFieldsReader();
+      assumeTrue("Needs a compressing stored fields reader", fieldsReader instanceof CompressingStoredFieldsReader);
+      CompressingStoredFieldsReader compressingReader = (CompressingStoredFieldsReader) fieldsReader;
+      MapBlockCache cache = new MapBlockCache();
+      for (int docID = 0; docID < context.reader().maxDoc(); docID++) {
+        Document expected = context.reader().document(docID);
+        Document actual = visit(compressingReader, docID, cache);
+        assertEquals(expected.toString(), actual.toString());
+      }
+      final int numBlocks = cache.puts;
+      assertTrue(numBlocks > 0);
+      assertTrue(numBlocks < context.reader().maxDoc());
+      assertEquals(numBlocks, cache.blocks.size());
+      int cachedDocs = 0;
+      for (StoredFieldsBlockCache.Block block : cache.blocks.values()) {
+        cachedDocs += block.size();
+        assertTrue(block.ramBytesUsed() > 0);
+      }
+      assertEquals(context.reader().maxDoc(), cachedDocs);
+
+      // everything is cached now, in any order
+      for (int i = 0; i < 100; i++) {
+        final int docID = random().nextInt(context.reader().maxDoc());
+        assertEquals(context.reader().document(docID).toString(), visit(compressingReader, docID, cache).toString());
+      }
+      assertEquals(numBlocks, cache.puts);
+
+      // blocks can be shared with other instances of the same segment
+      CompressingStoredFieldsReader clone = (CompressingStoredFieldsReader) compressingReader.clone();
+      final int docID = random().nextInt(context.reader().maxDoc());
+      assertEquals(context.reader().document(docID).toString(), visit(clone, docID, cache).toString());
+      assertEquals(numBlocks, cache.puts);
+    }
+    reader.close();
+    dir.close();
+  }
+}
@@ -19,11 +19,15 @@ package org.apache.lucene.codecs.lucene84;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.CompetitiveImpactAccumulator;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.blocktree.Stats;
 import org.apache.lucene.codecs.lucene84.Lucene84ScoreSkipReader.MutableImpactList;
@@ -34,6 +38,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
@@ -73,6 +78,69 @@ public class TestLucene84PostingsFormat extends BasePostingsFormatTestCase {
     d.close();
   }
 
+  public void testFSTLoadMode() throws Exception {
+    Directory d = newDirectory();
+    IndexWriter w = new IndexWriter(d, newIndexWriterConfig().setCodec(codec));
+    for (int i = 0; i < 100; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.NO));
+      doc.add(newStringField("body", "term" + (i % 7), Field.Store.NO));
+      w.addDocument(doc);
+    }
+    w.commit();
+    w.close();
+
+    // default is off-heap
+    try (DirectoryReader r = DirectoryReader.open(d)) {
+      for (LeafReaderContext ctx : r.leaves()) {
+        assertTrue(((FieldReader) ctx.reader().terms("id")).isFSTOffHeap());
+        assertTrue(((FieldReader) ctx.reader().terms("body")).isFSTOffHeap());
+      }
+    }
+
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put(BlockTreeTermsReader.FST_MODE_KEY, FSTLoadMode.ON_HEAP.name());
+    attributes.put(BlockTreeTermsReader.fstModeKey("id"), FSTLoadMode.OFF_HEAP.name());
+    try (DirectoryReader r = DirectoryReader.open(d, attributes)) {
+      for (LeafReaderContext ctx : r.leaves()) {
+        FieldReader id = (FieldReader) ctx.reader().terms("id");
+        assertTrue(id.isFSTOffHeap());
+        assertTrue(id.offHeapBytesUsed() > 0);
+        FieldReader body = (FieldReader) ctx.reader().terms("body");
+        assertFalse(body.isFSTOffHeap());
+        assertEquals(0, body.offHeapBytesUsed());
+      }
+
+      // attributes are carried over to reopened readers
+      w = new IndexWriter(d, newIndexWriterConfig().setCodec(codec));
+      Document doc = new Document();
+      doc.add(newStringField("body", "term0", Field.Store.NO));
+      w.addDocument(doc);
+      w.commit();
+      w.close();
+      try (DirectoryReader r2 = DirectoryReader.openIfChanged(r)) {
+        assertNotNull(r2);
+        for (LeafReaderContext ctx : r2.leaves()) {
+          assertFalse(((FieldReader) ctx.reader().terms("body")).isFSTOffHeap());
+        }
+      }
+    }
+
+    // NRT readers use the attributes of the writer config
+    w = new IndexWriter(d, newIndexWriterConfig().setCodec(codec)
+        .setReaderAttributes(Collections.singletonMap(BlockTreeTermsReader.FST_MODE_KEY, "on_heap")));
+    try (DirectoryReader r = DirectoryReader.open(w)) {
+      for (LeafReaderContext ctx : r.leaves()) {
+        assertFalse(((FieldReader) ctx.reader().terms("id")).isFSTOffHeap());
+      }
+    }
+    w.close();
+
+    expectThrows(IllegalArgumentException.class, () ->
+        DirectoryReader.open(d, Collections.singletonMap(BlockTreeTermsReader.fstModeKey("id"), "bogus")));
+    d.close();
+  }
+
   private void shouldFail(int minItemsInBlock, int maxItemsInBlock) {
     expectThrows(IllegalArgumentException.class, () -> {
       new Lucene84PostingsFormat(minItemsInBlock, maxItemsInBlock);
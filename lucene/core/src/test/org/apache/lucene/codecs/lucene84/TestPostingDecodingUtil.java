@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene84;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestPostingDecodingUtil extends LuceneTestCase {
+
+  private static final PostingDecodingUtil DEFAULT = PostingDecodingUtil.DEFAULT;
+  // either the Vector API based impl or the default one if it is not available on this JVM
+  private static final PostingDecodingUtil INSTANCE = PostingDecodingUtil.getInstance();
+
+  private static long[] randomLongs(int length) {
+    long[] longs = new long[length];
+    for (int i = 0; i < length; ++i) {
+      longs[i] = random().nextLong();
+    }
+    return longs;
+  }
+
+  public void testShiftLongs() {
+    for (int iter = 0; iter < 100; ++iter) {
+      final int count = TestUtil.nextInt(random(), 1, ForUtil.BLOCK_SIZE / 2);
+      final int bi = random().nextInt(ForUtil.BLOCK_SIZE - count + 1);
+      final int shift = random().nextInt(64);
+      final long mask = random().nextLong();
+      final long[] a = randomLongs(ForUtil.BLOCK_SIZE / 2);
+      final long[] expected = randomLongs(ForUtil.BLOCK_SIZE);
+      final long[] actual = expected.clone();
+      DEFAULT.shiftLongs(a, count, expected, bi, shift, mask);
+      INSTANCE.shiftLongs(a, count, actual, bi, shift, mask);
+      assertArrayEquals(expected, actual);
+    }
+  }
+
+  public void testExpand() {
+    for (int iter = 0; iter < 100; ++iter) {
+      final long[] source = randomLongs(ForUtil.BLOCK_SIZE);
+
+      long[] expected = source.clone();
+      long[] actual = source.clone();
+      DEFAULT.expand8(expected);
+      INSTANCE.expand8(actual);
+      assertArrayEquals(expected, actual);
+
+      expected = source.clone();
+      actual = source.clone();
+      DEFAULT.expand8To32(expected);
+      INSTANCE.expand8To32(actual);
+      assertArrayEquals(expected, actual);
+
+      expected = source.clone();
+      actual = source.clone();
+      DEFAULT.expand16(expected);
+      INSTANCE.expand16(actual);
+      assertArrayEquals(expected, actual);
+
+      expected = source.clone();
+      actual = source.clone();
+      DEFAULT.expand16To32(expected);
+      INSTANCE.expand16To32(actual);
+      assertArrayEquals(expected, actual);
+
+      expected = source.clone();
+      actual = source.clone();
+      DEFAULT.expand32(expected);
+      INSTANCE.expand32(actual);
+      assertArrayEquals(expected, actual);
+    }
+  }
+}
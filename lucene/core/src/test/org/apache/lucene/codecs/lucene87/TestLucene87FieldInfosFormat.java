@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.index.BaseFieldInfoFormatTestCase;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.TestUtil;
+
+/**
+ * Tests Lucene87FieldInfosFormat
+ */
+public class TestLucene87FieldInfosFormat extends BaseFieldInfoFormatTestCase {
+
+  @Override
+  protected Codec getCodec() {
+    return TestUtil.getDefaultCodec();
+  }
+
+  /** Test that the vector dimension and similarity function survive a round-trip */
+  public void testVectorField() throws Exception {
+    Directory dir = newDirectory();
+    Codec codec = getCodec();
+    SegmentInfo segmentInfo = newSegmentInfo(dir, "_123");
+    FieldInfos.Builder builder = new FieldInfos.Builder(new FieldInfos.FieldNumbers(null));
+    FieldInfo fi = builder.getOrAdd("vector");
+    VectorValues.SimilarityFunction similarityFunction =
+        VectorValues.SimilarityFunction.values()[random().nextInt(VectorValues.SimilarityFunction.values().length)];
+    int dimension = 1 + random().nextInt(VectorValues.MAX_DIMENSIONS);
+    fi.setVectorDimensionAndSimilarityFunction(dimension, similarityFunction);
+    builder.getOrAdd("other");
+    FieldInfos infos = builder.finish();
+    codec.fieldInfosFormat().write(dir, segmentInfo, "", infos, IOContext.DEFAULT);
+    FieldInfos infos2 = codec.fieldInfosFormat().read(dir, segmentInfo, "", IOContext.DEFAULT);
+    assertTrue(infos2.hasVectorValues());
+    assertEquals(dimension, infos2.fieldInfo("vector").getVectorDimension());
+    assertEquals(similarityFunction, infos2.fieldInfo("vector").getVectorSimilarityFunction());
+    assertEquals(0, infos2.fieldInfo("other").getVectorDimension());
+    dir.close();
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.lucene87;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.compressing.CompressingStoredFieldsFormat;
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat.Mode;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.BaseStoredFieldsFormatTestCase;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.TestUtil;
+
+public class TestLucene87StoredFieldsFormatSharedDictionary extends BaseStoredFieldsFormatTestCase {
+  @Override
+  protected Codec getCodec() {
+    return new Lucene87Codec(Mode.SHARED_DICTIONARY);
+  }
+
+  private static String randomJson(int id) {
+    return "{\"id\":" + id
+        + ",\"name\":\"" + TestUtil.randomSimpleString(random(), 5, 10)
+        + "\",\"category\":\"" + (random().nextBoolean() ? "books" : "music")
+        + "\",\"price\":" + random().nextInt(1000) + "}";
+  }
+
+  public void testSmallSimilarDocuments() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig();
+    iwc.setCodec(getCodec());
+    IndexWriter iw = new IndexWriter(dir, iwc);
+    final int numDocs = atLeast(2000);
+    final String[] expected = new String[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      expected[i] = randomJson(i);
+      Document doc = new Document();
+      doc.add(new StoredField("id", i));
+      doc.add(new StoredField("json", expected[i]));
+      iw.addDocument(doc);
+      if (random().nextInt(500) == 0) {
+        iw.commit();
+      }
+    }
+    if (random().nextBoolean()) {
+      iw.forceMerge(1);
+    }
+    iw.commit();
+    iw.close();
+
+    DirectoryReader ir = DirectoryReader.open(dir);
+    assertEquals(numDocs, ir.numDocs());
+    for (int i = 0; i < 100; i++) {
+      final int docID = random().nextInt(numDocs);
+      Document doc = ir.document(docID);
+      final int id = doc.getField("id").numericValue().intValue();
+      assertEquals(expected[id], doc.get("json"));
+    }
+    ir.close();
+    dir.close();
+  }
+
+  public void testTrainDictionary() throws Exception {
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    for (int i = 0; i < 2000; i++) {
+      out.writeString(randomJson(i));
+    }
+    final byte[] sample = out.toArrayCopy();
+
+    // small samples are used as-is
+    final byte[] small = Lucene87StoredFieldsFormat.trainDictionary(sample, 0, 1000, 4096);
+    assertEquals(1000, small.length);
+
+    final byte[] dict = Lucene87StoredFieldsFormat.trainDictionary(sample, 0, sample.length, 4096);
+    assertTrue(dict.length > 0);
+    assertTrue(dict.length <= 4096);
+    // field names occur in every document, they must be in the dictionary
+    final String dictString = new String(dict, StandardCharsets.ISO_8859_1);
+    assertTrue(dictString.contains("\"category\":\""));
+    assertTrue(dictString.contains("\"price\":"));
+  }
+
+  public void testWriterTrainsDictionaryOnSeveralChunks() throws Exception {
+    final List<byte[]> samples = new ArrayList<>();
+    final List<String> dicts = new ArrayList<>();
+    final CompressionMode mode = Lucene87StoredFieldsFormat.SHARED_DICTIONARY_MODE;
+    // records what the writer passes to the compressor
+    final CompressionMode recordingMode = new CompressionMode() {
+      @Override
+      public Compressor newCompressor() {
+        final Compressor in = mode.newCompressor();
+        return new Compressor() {
+          @Override
+          public void writeDictionary(byte[] sample, int off, int len, DataOutput out) throws IOException {
+            samples.add(ArrayUtil.copyOfSubArray(sample, off, off + len));
+            ByteBuffersDataOutput dictOut = new ByteBuffersDataOutput();
+            in.writeDictionary(sample, off, len, dictOut);
+            dicts.add(new String(dictOut.toArrayCopy(), StandardCharsets.ISO_8859_1));
+            dictOut.copyTo(out);
+          }
+
+          @Override
+          public int getDictionarySampleLength() {
+            return in.getDictionarySampleLength();
+          }
+
+          @Override
+          public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+            in.compress(bytes, off, len, out);
+          }
+
+          @Override
+          public void close() throws IOException {
+            in.close();
+          }
+        };
+      }
+
+      @Override
+      public Decompressor newDecompressor() {
+        return mode.newDecompressor();
+      }
+
+      @Override
+      public boolean hasDictionary() {
+        return true;
+      }
+    };
+    // same block length and number of docs per block as SHARED_DICTIONARY
+    final StoredFieldsFormat format = new CompressingStoredFieldsFormat("RecordingStoredFieldsData", recordingMode, 16 * 1024, 256, 10);
+    final Codec codec = new FilterCodec(getCodec().getName(), getCodec()) {
+      @Override
+      public StoredFieldsFormat storedFieldsFormat() {
+        return format;
+      }
+    };
+
+    // the format name is unknown to SPI, so the index is never opened
+    try (Directory dir = new ByteBuffersDirectory()) {
+      IndexWriterConfig iwc = new IndexWriterConfig(null)
+          .setCodec(codec)
+          .setMergePolicy(NoMergePolicy.INSTANCE)
+          .setMaxBufferedDocs(IndexWriterConfig.DISABLE_AUTO_FLUSH)
+          .setRAMBufferSizeMB(64);
+      try (IndexWriter iw = new IndexWriter(dir, iwc)) {
+        // unique content in the first chunk and at the end of the sample,
+        // similar documents in between
+        for (int i = 0; i < 200; i++) {
+          Document doc = new Document();
+          doc.add(new StoredField("body", TestUtil.randomSimpleString(random(), 100, 100)));
+          iw.addDocument(doc);
+        }
+        for (int i = 0; i < 1000; i++) {
+          Document doc = new Document();
+          doc.add(new StoredField("body", randomJson(i)));
+          iw.addDocument(doc);
+        }
+        for (int i = 0; i < 1500; i++) {
+          Document doc = new Document();
+          doc.add(new StoredField("body", TestUtil.randomSimpleString(random(), 100, 100)));
+          iw.addDocument(doc);
+        }
+      }
+    }
+
+    assertEquals(1, samples.size());
+    final byte[] sample = samples.get(0);
+    // several chunks are used as a sample
+    assertTrue(sample.length >= mode.newCompressor().getDictionarySampleLength());
+    assertTrue(sample.length > 2 * 16 * 1024);
+    // neither the first chunk nor the end of the sample contain the similar
+    // documents, they can only be in the dictionary if it has been trained
+    final String dict = dicts.get(0);
+    assertTrue(dict.contains("\"category\":\""));
+    assertTrue(dict.contains("\"price\":"));
+  }
+
+  public void testInvalidOptions() {
+    expectThrows(IllegalArgumentException.class, () -> {
+      new Lucene87StoredFieldsFormat.LZ4WithSharedDict(-1, 1024);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      new Lucene87StoredFieldsFormat.LZ4WithSharedDict(1 << 20, 1024);
+    });
+
+    expectThrows(IllegalArgumentException.class, () -> {
+      new Lucene87StoredFieldsFormat.LZ4WithSharedDict(1024, 0);
+    });
+  }
+}
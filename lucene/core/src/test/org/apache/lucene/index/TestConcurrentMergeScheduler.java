@@ -19,6 +19,7 @@ package org.apache.lucene.index;
 
 import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,6 +28,9 @@ import com.carrotsearch.randomizedtesting.generators.RandomStrings;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
@@ -382,6 +386,60 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
     d.close();
   }
 
+  public void testIntraMergeThreads() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    AtomicInteger submittedParts = new AtomicInteger();
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler() {
+      @Override
+      public Executor getIntraMergeExecutor(MergePolicy.OneMerge merge) {
+        Executor executor = super.getIntraMergeExecutor(merge);
+        return task -> {
+          submittedParts.incrementAndGet();
+          executor.execute(task);
+        };
+      }
+    };
+    cms.setIntraMergeThreads(TestUtil.nextInt(random(), 2, 4));
+    // throttle forced merges, so that the parts merged by the pool are rate limited too
+    cms.setForceMergeMBPerSec(100);
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 20, 100));
+    iwc.setMergePolicy(newLogMergePolicy(random().nextBoolean()));
+    FieldType vectorsType = new FieldType(TextField.TYPE_STORED);
+    vectorsType.setStoreTermVectors(true);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+      doc.add(new Field("body", RandomStrings.randomAsciiLettersOfLength(random(), 20) + " common", vectorsType));
+      doc.add(new NumericDocValuesField("dv", i));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+    assertTrue(submittedParts.get() > 0);
+
+    // the directory is checked on close, but make sure that all parts made it into the merged segment
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertEquals(1, reader.leaves().size());
+    assertEquals(numDocs, reader.numDocs());
+    LeafReader leaf = reader.leaves().get(0).reader();
+    assertEquals(numDocs, leaf.docFreq(new Term("body", "common")));
+    assertEquals(numDocs, leaf.getPointValues("point").size());
+    NumericDocValues dv = leaf.getNumericDocValues("dv");
+    for (int i = 0; i < numDocs; i++) {
+      assertEquals(i, dv.advance(i));
+      assertEquals(leaf.document(i).get("id"), Long.toString(dv.longValue()));
+    }
+    assertNotNull(leaf.getTermVectors(0).terms("body"));
+    assertNotNull(leaf.getNormValues("body"));
+    reader.close();
+    dir.close();
+  }
+
   public void testInvalidMaxMergeCountAndThreads() throws Exception {
     ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
     expectThrows(IllegalArgumentException.class, () -> {
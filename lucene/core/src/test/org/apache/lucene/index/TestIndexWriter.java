@@ -74,6 +74,7 @@ import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.document.VectorField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.mockfile.ExtrasFS;
 import org.apache.lucene.mockfile.FilterPath;
@@ -4240,4 +4241,27 @@ public class TestIndexWriter extends LuceneTestCase {
     }
     IOUtils.close(w, dir);
   }
+
+  public void testVectorsRejectedByCodecWithoutVectorFormat() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setCodec(new SimpleTextCodec());
+    try (IndexWriter w = new IndexWriter(dir, iwc)) {
+      Document doc = new Document();
+      doc.add(new StringField("id", "1", Field.Store.NO));
+      doc.add(new VectorField("vector", new float[] {1, 2, 3}));
+      IllegalArgumentException expected = expectThrows(IllegalArgumentException.class, () -> w.addDocument(doc));
+      assertTrue(expected.getMessage(), expected.getMessage().contains("cannot index vectors"));
+
+      // the writer is not aborted and keeps accepting documents without vectors
+      Document doc2 = new Document();
+      doc2.add(new StringField("id", "2", Field.Store.NO));
+      w.addDocument(doc2);
+      w.commit();
+      try (DirectoryReader reader = DirectoryReader.open(w)) {
+        assertEquals(1, reader.numDocs());
+      }
+    }
+    dir.close();
+  }
 }
@@ -17,9 +17,13 @@
 package org.apache.lucene.index;
 
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.lucene.document.Document;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 public class TestMergeRateLimiter extends LuceneTestCase {
   public void testInitDefaults() throws Exception {
@@ -33,4 +37,50 @@ public class TestMergeRateLimiter extends LuceneTestCase {
     assertTrue(rateLimiter.getMinPauseCheckBytes() > 0);
     dir.close();
   }
+
+  public void testConcurrentWritersShareTheRate() throws Exception {
+    MergePolicy.OneMergeProgress progress = new MergePolicy.OneMergeProgress();
+    MergeRateLimiter rateLimiter = new MergeRateLimiter(progress);
+    final double mbPerSec = 50;
+    rateLimiter.setMBPerSec(mbPerSec);
+    final long bytesPerPause = rateLimiter.getMinPauseCheckBytes();
+    final int numPauses = 5;
+
+    Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 4)];
+    CountDownLatch start = new CountDownLatch(1);
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+          for (int j = 0; j < numPauses; j++) {
+            rateLimiter.pause(bytesPerPause);
+          }
+        } catch (Exception e) {
+          throw new AssertionError(e);
+        }
+      });
+      if (i == 0) {
+        progress.setMergeThread(threads[i]);
+      } else {
+        progress.addHelperThread(threads[i]);
+      }
+      threads[i].start();
+    }
+
+    long startNS = System.nanoTime();
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsedNS = System.nanoTime() - startNS;
+
+    long totalBytes = rateLimiter.getTotalBytesWritten();
+    assertEquals(threads.length * numPauses * bytesPerPause, totalBytes);
+    // the first call is free, and each call may be up to 2 msec early
+    long minElapsedNS = (long) ((totalBytes - bytesPerPause) / 1024. / 1024. / mbPerSec * TimeUnit.SECONDS.toNanos(1))
+        - threads.length * numPauses * TimeUnit.MILLISECONDS.toNanos(2);
+    assertTrue("wrote " + totalBytes + " bytes in " + TimeUnit.NANOSECONDS.toMillis(elapsedNS) + " msec, "
+        + "expected at least " + TimeUnit.NANOSECONDS.toMillis(minElapsedNS) + " msec at " + mbPerSec + " MB/sec",
+        elapsedNS >= minElapsedNS);
+  }
 }
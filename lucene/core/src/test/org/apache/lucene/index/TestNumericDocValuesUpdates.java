@@ -41,6 +41,8 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Sort;
@@ -110,6 +112,50 @@ public class TestNumericDocValuesUpdates extends LuceneTestCase {
     IOUtils.close(reader, writer, dir);
   }
 
+  public void testUpdatePreservesVectors() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    conf.setCodec(TestUtil.getDefaultCodec());
+    IndexWriter writer = new IndexWriter(dir, conf);
+
+    int numDocs = atLeast(10);
+    float[][] vectors = new float[numDocs][];
+    for (int i = 0; i < numDocs; i++) {
+      vectors[i] = new float[] { i, random().nextFloat(), random().nextFloat() };
+      Document doc = new Document();
+      doc.add(new StringField("id", "doc-" + i, Store.NO));
+      doc.add(new NumericDocValuesField("val", i));
+      doc.add(new VectorField("vector", vectors[i], VectorValues.SimilarityFunction.EUCLIDEAN));
+      writer.addDocument(doc);
+    }
+    writer.commit();
+
+    // updates are written to a new field infos generation, which must still describe the vectors
+    writer.updateNumericDocValue(new Term("id", "doc-0"), "val", 42L);
+    writer.commit();
+
+    DirectoryReader reader = DirectoryReader.open(dir);
+    assertEquals(1, reader.leaves().size());
+    LeafReader leaf = reader.leaves().get(0).reader();
+    FieldInfo fi = leaf.getFieldInfos().fieldInfo("vector");
+    assertEquals(3, fi.getVectorDimension());
+    assertEquals(VectorValues.SimilarityFunction.EUCLIDEAN, fi.getVectorSimilarityFunction());
+
+    NumericDocValues values = leaf.getNumericDocValues("val");
+    VectorValues vectorValues = leaf.getVectorValues("vector");
+    assertNotNull(vectorValues);
+    assertEquals(numDocs, vectorValues.size());
+    for (int doc = vectorValues.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = vectorValues.nextDoc()) {
+      float[] vector = vectorValues.vectorValue();
+      int i = (int) vector[0];
+      assertArrayEquals(vectors[i], vector, 0f);
+      assertEquals(doc, values.advance(doc));
+      assertEquals(i == 0 ? 42L : i, values.longValue());
+    }
+
+    IOUtils.close(reader, writer, dir);
+  }
+
   public void testBiasedMixOfRandomUpdates() throws Exception {
     // 3 types of operations: add, updated, updateDV.
     // rather then randomizing equally, we'll pick (random) cutoffs so each test run is biased,
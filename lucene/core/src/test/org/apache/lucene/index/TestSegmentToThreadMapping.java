@@ -106,6 +106,11 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
         return null;
       }
 
+      @Override
+      public VectorValues getVectorValues(String field) {
+        return null;
+      }
+
       @Override
       protected void doClose() {
       }
@@ -251,6 +256,68 @@ public class TestSegmentToThreadMapping extends LuceneTestCase {
     IOUtils.close(r, dir);
   }
 
+  public void testPartitionedSegments() {
+    LeafReader largeSegmentReader = dummyIndexReader(1_000_000);
+    LeafReader firstMediumSegmentReader = dummyIndexReader(100_000);
+    LeafReader secondMediumSegmentReader = dummyIndexReader(100_000);
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+
+    leafReaderContexts.add(new LeafReaderContext(largeSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(firstMediumSegmentReader));
+    leafReaderContexts.add(new LeafReaderContext(secondMediumSegmentReader));
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, true);
+
+    assertEquals(5, resultSlices.length);
+    int expectedMinDocId = 0;
+    for (int i = 0; i < 4; ++i) {
+      assertEquals(1, resultSlices[i].partitions.length);
+      IndexSearcher.LeafReaderContextPartition partition = resultSlices[i].partitions[0];
+      assertSame(largeSegmentReader, partition.ctx.reader());
+      assertFalse(partition.isEntireSegment());
+      assertEquals(expectedMinDocId, partition.minDocId);
+      assertEquals(250_000, partition.maxDocId - partition.minDocId);
+      expectedMinDocId = partition.maxDocId;
+    }
+    assertEquals(1_000_000, expectedMinDocId);
+    assertEquals(2, resultSlices[4].leaves.length);
+    for (IndexSearcher.LeafReaderContextPartition partition : resultSlices[4].partitions) {
+      assertTrue(partition.isEntireSegment());
+    }
+
+    // without partitioning, the large segment goes to a single slice
+    resultSlices = IndexSearcher.slices(leafReaderContexts, 250_000, 5, false);
+    assertEquals(2, resultSlices.length);
+    assertTrue(resultSlices[0].partitions[0].isEntireSegment());
+  }
+
+  public void testUnevenPartitions() {
+    List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
+    leafReaderContexts.add(new LeafReaderContext(dummyIndexReader(1_000)));
+
+    IndexSearcher.LeafSlice[] resultSlices = IndexSearcher.slices(leafReaderContexts, 300, 5, true);
+
+    assertEquals(4, resultSlices.length);
+    int expectedMinDocId = 0;
+    for (IndexSearcher.LeafSlice slice : resultSlices) {
+      IndexSearcher.LeafReaderContextPartition partition = slice.partitions[0];
+      assertEquals(expectedMinDocId, partition.minDocId);
+      assertEquals(250, partition.maxDocId - partition.minDocId);
+      expectedMinDocId = partition.maxDocId;
+    }
+    assertEquals(1_000, expectedMinDocId);
+  }
+
+  public void testSliceRejectsSeveralPartitionsOfTheSameLeaf() {
+    LeafReaderContext ctx = new LeafReaderContext(dummyIndexReader(1_000));
+    expectThrows(IllegalArgumentException.class, () -> new IndexSearcher.LeafSlice(
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 0, 500),
+        IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 500, 1_000)));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 500, 1_001));
+    expectThrows(IllegalArgumentException.class, () -> IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 500, 500));
+    assertTrue(IndexSearcher.LeafReaderContextPartition.createFromAndTo(ctx, 0, 1_000).isEntireSegment());
+  }
+
   public void testRandom() {
     List<LeafReaderContext> leafReaderContexts = new ArrayList<>();
     int max = 500_000;
@@ -255,6 +255,64 @@ public class TestIndexSearcher extends LuceneTestCase {
     IOUtils.close(r, dir);
   }
 
+  public void testIntraSegmentConcurrency() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("field", Integer.toString(i % 10), Field.Store.NO));
+      doc.add(new SortedDocValuesField("sort", new BytesRef(Integer.toString(random().nextInt(100)))));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    IndexReader r = w.getReader();
+    w.close();
+    assertEquals(1, r.leaves().size());
+
+    ExecutorService service = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                                   new LinkedBlockingQueue<Runnable>(),
+                                   new NamedThreadFactory("TestIndexSearcher"));
+    final int maxDocsPerSlice = TestUtil.nextInt(random(), 10, numDocs / 2);
+    IndexSearcher s = new IndexSearcher(r, service) {
+      @Override
+      protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+        return slices(leaves, maxDocsPerSlice, 5, true);
+      }
+    };
+    s.setQueryCache(null);
+    IndexSearcher reference = new IndexSearcher(r);
+    reference.setQueryCache(null);
+
+    IndexSearcher.LeafSlice[] slices = s.getSlices();
+    assertTrue(slices.length > 1);
+    int expectedMinDocId = 0;
+    for (IndexSearcher.LeafSlice slice : slices) {
+      assertEquals(1, slice.partitions.length);
+      assertEquals(expectedMinDocId, slice.partitions[0].minDocId);
+      expectedMinDocId = slice.partitions[0].maxDocId;
+    }
+    assertEquals(numDocs, expectedMinDocId);
+
+    Query[] queries = new Query[] {
+        new MatchAllDocsQuery(),
+        new TermQuery(new Term("field", "3")),
+        new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("field", "1")), Occur.SHOULD)
+            .add(new TermQuery(new Term("field", "2")), Occur.SHOULD)
+            .build()
+    };
+    Sort sort = new Sort(new SortField("sort", SortField.Type.STRING));
+    for (Query query : queries) {
+      assertEquals(reference.count(query), s.count(query));
+      CheckHits.checkEqual(query, reference.search(query, 50).scoreDocs, s.search(query, 50).scoreDocs);
+      CheckHits.checkEqual(query, reference.search(query, 50, sort).scoreDocs, s.search(query, 50, sort).scoreDocs);
+    }
+
+    service.shutdown();
+    IOUtils.close(r, dir);
+  }
+
   public void testOneSegmentExecutesOnTheCallerThread() throws IOException {
     List<LeafReaderContext> leaves = reader.leaves();
     AtomicInteger numExecutions = new AtomicInteger(0);
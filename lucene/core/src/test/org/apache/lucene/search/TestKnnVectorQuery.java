@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.VectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestKnnVectorQuery extends LuceneTestCase {
+
+  public void testEquals() {
+    KnnVectorQuery q1 = new KnnVectorQuery("f1", new float[] {0, 1}, 10);
+    assertEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 10));
+    assertEquals(q1.hashCode(), new KnnVectorQuery("f1", new float[] {0, 1}, 10).hashCode());
+    assertNotEquals(q1, new KnnVectorQuery("f2", new float[] {0, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {1, 1}, 10));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 2));
+    assertNotEquals(q1, new KnnVectorQuery("f1", new float[] {0, 1}, 10, new TermQuery(new Term("f", "v"))));
+  }
+
+  public void testIllegalArguments() {
+    expectThrows(IllegalArgumentException.class, () -> new KnnVectorQuery("f", new float[] {0, 1}, 0));
+    expectThrows(IllegalArgumentException.class, () -> new KnnVectorQuery("f", new float[] {0, 1}, 1, -1, null));
+  }
+
+  public void testDimensionMismatch() throws IOException {
+    try (Directory d = newDirectory()) {
+      indexRandomVectors(d, 10, 3, VectorValues.SimilarityFunction.EUCLIDEAN, new float[10][]);
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        expectThrows(IllegalArgumentException.class, () -> searcher.search(new KnnVectorQuery("field", new float[] {0, 1}, 5), 5));
+      }
+    }
+  }
+
+  public void testMissingField() throws IOException {
+    try (Directory d = newDirectory()) {
+      indexRandomVectors(d, 10, 3, VectorValues.SimilarityFunction.EUCLIDEAN, new float[10][]);
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        assertEquals(0, searcher.count(new KnnVectorQuery("other", new float[] {0, 1, 2}, 5)));
+      }
+    }
+  }
+
+  public void testFindsNearestNeighbors() throws IOException {
+    int numDocs = atLeast(300);
+    int dimension = TestUtil.nextInt(random(), 2, 10);
+    float[][] vectors = new float[numDocs][];
+    try (Directory d = newDirectory()) {
+      indexRandomVectors(d, numDocs, dimension, VectorValues.SimilarityFunction.EUCLIDEAN, vectors);
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        // searching for an indexed vector finds its own document first
+        for (int i = 0; i < 10; i++) {
+          int target = random().nextInt(numDocs);
+          TopDocs topDocs = searcher.search(new KnnVectorQuery("field", vectors[target], 5, 50, null), 5);
+          assertEquals(5, topDocs.scoreDocs.length);
+          assertEquals(Integer.toString(target), reader.document(topDocs.scoreDocs[0].doc).get("id"));
+          assertEquals(1f, topDocs.scoreDocs[0].score, 0f);
+        }
+      }
+    }
+  }
+
+  public void testFilter() throws IOException {
+    int numDocs = atLeast(300);
+    float[][] vectors = new float[numDocs][];
+    try (Directory d = newDirectory()) {
+      indexRandomVectors(d, numDocs, 4, VectorValues.SimilarityFunction.DOT_PRODUCT, vectors);
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        Query filter = new TermQuery(new Term("even", "true"));
+        TopDocs topDocs = searcher.search(new KnnVectorQuery("field", vectors[1], 10, filter), 10);
+        assertEquals(10, topDocs.scoreDocs.length);
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+          int id = Integer.parseInt(reader.document(scoreDoc.doc).get("id"));
+          assertEquals(0, id % 2);
+        }
+      }
+    }
+  }
+
+  public void testBooleanCombination() throws IOException {
+    int numDocs = atLeast(100);
+    float[][] vectors = new float[numDocs][];
+    try (Directory d = newDirectory()) {
+      indexRandomVectors(d, numDocs, 4, VectorValues.SimilarityFunction.EUCLIDEAN, vectors);
+      try (IndexReader reader = DirectoryReader.open(d)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        Query knn = new KnnVectorQuery("field", vectors[0], 10);
+        Set<Integer> knnDocs = new HashSet<>();
+        for (ScoreDoc scoreDoc : searcher.search(knn, 10).scoreDocs) {
+          knnDocs.add(scoreDoc.doc);
+        }
+        Query query = new BooleanQuery.Builder()
+            .add(knn, BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term("even", "true")), BooleanClause.Occur.FILTER)
+            .build();
+        for (ScoreDoc scoreDoc : searcher.search(query, 10).scoreDocs) {
+          assertTrue(knnDocs.contains(scoreDoc.doc));
+          assertEquals(0, Integer.parseInt(reader.document(scoreDoc.doc).get("id")) % 2);
+        }
+      }
+    }
+  }
+
+  private void indexRandomVectors(Directory d, int numDocs, int dimension, VectorValues.SimilarityFunction similarityFunction,
+                                  float[][] vectors) throws IOException {
+    IndexWriterConfig iwc = newIndexWriterConfig().setCodec(TestUtil.getDefaultCodec());
+    try (IndexWriter w = new IndexWriter(d, iwc)) {
+      for (int i = 0; i < numDocs; i++) {
+        float[] vector = randomVector(dimension, similarityFunction == VectorValues.SimilarityFunction.DOT_PRODUCT);
+        vectors[i] = vector;
+        Document doc = new Document();
+        doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+        doc.add(new StringField("even", Boolean.toString(i % 2 == 0), Field.Store.NO));
+        doc.add(new VectorField("field", vector, similarityFunction));
+        w.addDocument(doc);
+        if (random().nextInt(50) == 0) {
+          w.commit();
+        }
+      }
+    }
+  }
+
+  private static float[] randomVector(int dimension, boolean normalize) {
+    float[] vector = new float[dimension];
+    double squareSum = 0;
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = random().nextFloat() - 0.5f;
+      squareSum += vector[i] * vector[i];
+    }
+    if (normalize) {
+      float norm = (float) Math.sqrt(squareSum);
+      for (int i = 0; i < dimension; i++) {
+        vector[i] /= norm;
+      }
+    }
+    return vector;
+  }
+}
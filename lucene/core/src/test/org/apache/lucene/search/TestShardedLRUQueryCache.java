@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestShardedLRUQueryCache extends LuceneTestCase {
+
+  private static final String[] COLORS = new String[] {"blue", "red", "yellow", "green"};
+
+  private static final QueryCachingPolicy ALWAYS_CACHE = new QueryCachingPolicy() {
+
+    @Override
+    public void onUse(Query query) {}
+
+    @Override
+    public boolean shouldCache(Query query) throws IOException {
+      return true;
+    }
+
+  };
+
+  private static Directory newIndex(int numSegments) throws IOException {
+    Directory dir = newDirectory();
+    try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+      for (int i = 0; i < numSegments; ++i) {
+        final int numDocs = TestUtil.nextInt(random(), 1, 100);
+        for (int j = 0; j < numDocs; ++j) {
+          Document doc = new Document();
+          doc.add(new StringField("color", COLORS[random().nextInt(COLORS.length)], Store.NO));
+          w.addDocument(doc);
+        }
+        w.commit();
+      }
+    }
+    return dir;
+  }
+
+  private static int count(IndexSearcher searcher, Query query) throws IOException {
+    // IndexSearcher#count has shortcuts for term queries that bypass the cache
+    TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    return collector.getTotalHits();
+  }
+
+  public void testIllegalNumShards() {
+    expectThrows(IllegalArgumentException.class, () -> new ShardedLRUQueryCache(10, 10000, 0));
+  }
+
+  public void testMaxSizeIsSplitAcrossShards() {
+    final List<Integer> shardSizes = new ArrayList<>();
+    final List<Long> shardRamBytesUsed = new ArrayList<>();
+    new ShardedLRUQueryCache(10, 1000, context -> true, Float.POSITIVE_INFINITY, 4) {
+      @Override
+      protected LRUQueryCache newShard(int maxSize, long maxRamBytesUsed,
+                                       Predicate<LeafReaderContext> leavesToCache, float skipCacheFactor) {
+        shardSizes.add(maxSize);
+        shardRamBytesUsed.add(maxRamBytesUsed);
+        return super.newShard(maxSize, maxRamBytesUsed, leavesToCache, skipCacheFactor);
+      }
+    };
+    assertEquals(Arrays.asList(3, 3, 3, 3), shardSizes);
+    assertEquals(Arrays.asList(250L, 250L, 250L, 250L), shardRamBytesUsed);
+  }
+
+  private static Directory newIndex(int numSegments, int docsPerSegment) throws IOException {
+    Directory dir = newDirectory();
+    // not randomized, so that every segment has exactly docsPerSegment docs
+    try (IndexWriter w = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+      for (int i = 0; i < numSegments; ++i) {
+        for (int j = 0; j < docsPerSegment; ++j) {
+          Document doc = new Document();
+          doc.add(new StringField("color", COLORS[j % COLORS.length], Store.NO));
+          w.addDocument(doc);
+        }
+        w.commit();
+      }
+    }
+    return dir;
+  }
+
+  public void testWorstCaseSizeIsCheckedPerShard() throws IOException {
+    final int numShards = 8;
+    // every shard gets 400 bytes, which is not enough for 5 dense bit sets over
+    // the whole index of 800 docs, but is enough for the segments of 100 docs
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(100, 400 * numShards,
+        context -> true, Float.POSITIVE_INFINITY, numShards);
+    try (Directory dir = newIndex(8, 100);
+         DirectoryReader reader = DirectoryReader.open(dir)) {
+      IndexSearcher searcher = new IndexSearcher(reader);
+      searcher.setQueryCache(queryCache);
+      searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+      count(searcher, new TermQuery(new Term("color", "blue")));
+      // entries may be evicted right away because of the RAM used by the query, but they were cached
+      assertEquals(reader.leaves().size(), queryCache.getCacheCount());
+      queryCache.assertConsistent();
+    }
+
+    // a single segment that is too large for its shard is not cached
+    queryCache.clear();
+    try (Directory dir = newIndex(1, 1000);
+         DirectoryReader reader = DirectoryReader.open(dir)) {
+      IndexSearcher searcher = new IndexSearcher(reader);
+      searcher.setQueryCache(queryCache);
+      searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+      final long cacheCount = queryCache.getCacheCount();
+      count(searcher, new TermQuery(new Term("color", "blue")));
+      assertEquals(cacheCount, queryCache.getCacheCount());
+    }
+  }
+
+  public void testEntriesAreShardedBySegment() throws IOException {
+    final int numSegments = TestUtil.nextInt(random(), 2, 20);
+    final int numShards = TestUtil.nextInt(random(), 1, 8);
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(100, 1 << 20, context -> true, Float.POSITIVE_INFINITY, numShards);
+    assertEquals(numShards, queryCache.getNumShards());
+    try (Directory dir = newIndex(numSegments)) {
+      try (DirectoryReader reader = DirectoryReader.open(dir)) {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        searcher.setQueryCache(queryCache);
+        searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+        final Query query = new TermQuery(new Term("color", "blue"));
+        final int expectedCount = count(searcher, query);
+        final int numLeaves = reader.leaves().size();
+        assertEquals(numLeaves, queryCache.getMissCount());
+        assertEquals(0, queryCache.getHitCount());
+        assertEquals(numLeaves, queryCache.getCacheSize());
+        assertEquals(numLeaves, queryCache.getCacheCount());
+
+        assertEquals(expectedCount, count(searcher, query));
+        assertEquals(numLeaves, queryCache.getHitCount());
+        assertEquals(2 * numLeaves, queryCache.getTotalCount());
+
+        int[] expectedShardSizes = new int[numShards];
+        for (LeafReaderContext context : reader.leaves()) {
+          expectedShardSizes[queryCache.shardIndex(context.reader().getCoreCacheHelper().getKey())]++;
+        }
+        long ramBytesUsed = 0;
+        for (int i = 0; i < numShards; ++i) {
+          assertEquals(expectedShardSizes[i], queryCache.shard(i).getCacheSize());
+          ramBytesUsed += queryCache.shard(i).ramBytesUsed();
+        }
+        assertEquals(ramBytesUsed, queryCache.ramBytesUsed());
+        queryCache.assertConsistent();
+
+        queryCache.clearQuery(query);
+        assertEquals(0, queryCache.getCacheSize());
+        assertEquals(numLeaves, queryCache.getEvictionCount());
+        assertEquals(expectedCount, count(searcher, query));
+        assertEquals(numLeaves, queryCache.getCacheSize());
+      }
+      // closing the reader evicts its entries
+      assertEquals(0, queryCache.getCacheSize());
+      queryCache.assertConsistent();
+    }
+  }
+
+  public void testOnUseIsCalledOncePerWeight() throws IOException {
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(100, 1 << 20, context -> true, Float.POSITIVE_INFINITY, 4);
+    final AtomicInteger onUseCount = new AtomicInteger();
+    final QueryCachingPolicy countingPolicy = new QueryCachingPolicy() {
+
+      @Override
+      public void onUse(Query query) {
+        onUseCount.incrementAndGet();
+      }
+
+      @Override
+      public boolean shouldCache(Query query) throws IOException {
+        return false;
+      }
+
+    };
+    try (Directory dir = newIndex(TestUtil.nextInt(random(), 4, 20));
+         DirectoryReader reader = DirectoryReader.open(dir)) {
+      IndexSearcher searcher = new IndexSearcher(reader);
+      searcher.setQueryCache(queryCache);
+      searcher.setQueryCachingPolicy(countingPolicy);
+      count(searcher, new TermQuery(new Term("color", "red")));
+      assertEquals(1, onUseCount.get());
+      assertEquals(0, queryCache.getCacheSize());
+    }
+  }
+
+  public void testConcurrency() throws Throwable {
+    final ShardedLRUQueryCache queryCache = new ShardedLRUQueryCache(1 + random().nextInt(3), 1 << 20,
+        context -> true, Float.POSITIVE_INFINITY, TestUtil.nextInt(random(), 1, 8));
+    try (Directory dir = newIndex(TestUtil.nextInt(random(), 2, 20));
+         DirectoryReader reader = DirectoryReader.open(dir)) {
+      final int[] expectedCounts = new int[COLORS.length];
+      IndexSearcher uncachedSearcher = new IndexSearcher(reader);
+      uncachedSearcher.setQueryCache(null);
+      for (int i = 0; i < COLORS.length; ++i) {
+        expectedCounts[i] = count(uncachedSearcher, new TermQuery(new Term("color", COLORS[i])));
+      }
+
+      final IndexSearcher searcher = new IndexSearcher(reader);
+      searcher.setQueryCache(queryCache);
+      searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+      final CountDownLatch start = new CountDownLatch(1);
+      final int numIters = atLeast(100);
+      Thread[] threads = new Thread[TestUtil.nextInt(random(), 2, 6)];
+      for (int i = 0; i < threads.length; ++i) {
+        threads[i] = new Thread(() -> {
+          try {
+            start.await();
+            for (int j = 0; j < numIters; ++j) {
+              final int color = random().nextInt(COLORS.length);
+              assertEquals(expectedCounts[color], count(searcher, new TermQuery(new Term("color", COLORS[color]))));
+              if (random().nextInt(50) == 0) {
+                queryCache.clear();
+              }
+            }
+          } catch (Throwable t) {
+            error.compareAndSet(null, t);
+          }
+        });
+        threads[i].start();
+      }
+      start.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      if (error.get() != null) {
+        throw error.get();
+      }
+      queryCache.assertConsistent();
+    }
+  }
+
+}
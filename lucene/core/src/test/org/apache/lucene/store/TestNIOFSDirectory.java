@@ -19,12 +19,16 @@ package org.apache.lucene.store;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileAttribute;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.mockfile.FilterFileChannel;
 import org.apache.lucene.mockfile.FilterPath;
@@ -64,4 +68,53 @@ public class TestNIOFSDirectory extends BaseDirectoryTestCase {
       assertEquals("simulated", error.getMessage());
     }
   }
+
+  public void testPrefetchReadsInBackground() throws Exception {
+    Path path = createTempDir().toRealPath();
+    final AtomicLong bytesRead = new AtomicLong();
+    final LeakFS leakFS = new LeakFS(path.getFileSystem()) {
+      @Override
+      public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options,
+                                        FileAttribute<?>... attrs) throws IOException {
+        return new FilterFileChannel(super.newFileChannel(path, options, attrs)) {
+          @Override
+          public int read(ByteBuffer dst, long position) throws IOException {
+            int read = super.read(dst, position);
+            bytesRead.addAndGet(Math.max(read, 0));
+            return read;
+          }
+        };
+      }
+    };
+    FileSystem fs = leakFS.getFileSystem(URI.create("file:///"));
+    Path wrapped = new FilterPath(path, fs);
+    final List<Runnable> tasks = new ArrayList<>();
+    try (NIOFSDirectory dir = new NIOFSDirectory(wrapped)) {
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        out.writeBytes(new byte[100_000], 100_000);
+      }
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        // no executor: hints are ignored
+        in.prefetch(0, 100_000);
+        assertTrue(tasks.isEmpty());
+      }
+
+      dir.setPrefetchExecutor(tasks::add);
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(1, 100_000));
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(-1, 10));
+
+        IndexInput slice = in.slice("slice", 50_000, 50_000);
+        slice.prefetch(10_000, 30_000);
+        assertEquals(1, tasks.size());
+        assertEquals(0, slice.getFilePointer());
+
+        bytesRead.set(0);
+        tasks.get(0).run();
+        assertEquals(30_000, bytesRead.get());
+      }
+      // reading ahead on a closed input is silently ignored
+      tasks.get(0).run();
+    }
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+public class TestConcurrentFrequencyTrackingRingBuffer extends LuceneTestCase {
+
+  private static void assertBuffer(ConcurrentFrequencyTrackingRingBuffer buffer, int maxSize, int sentinel, List<Integer> items) {
+    final List<Integer> recentItems;
+    if (items.size() <= maxSize) {
+      recentItems = new ArrayList<>();
+      for (int i = items.size(); i < maxSize; ++i) {
+        recentItems.add(sentinel);
+      }
+      recentItems.addAll(items);
+    } else {
+      recentItems = items.subList(items.size() - maxSize, items.size());
+    }
+    final Map<Integer, Integer> expectedFrequencies = new HashMap<Integer, Integer>();
+    for (Integer item : recentItems) {
+      expectedFrequencies.merge(item, 1, Integer::sum);
+    }
+    assertEquals(expectedFrequencies, buffer.asFrequencyMap());
+    for (Map.Entry<Integer, Integer> entry : expectedFrequencies.entrySet()) {
+      assertEquals(entry.getValue().intValue(), buffer.frequency(entry.getKey()));
+    }
+  }
+
+  public void test() {
+    final int iterations = atLeast(100);
+    for (int i = 0; i < iterations; ++i) {
+      final int maxSize = 2 + random().nextInt(100);
+      final int numitems = random().nextInt(5000);
+      final int maxitem = 1 + random().nextInt(100);
+      List<Integer> items = new ArrayList<>();
+      final int sentinel = random().nextInt(200);
+      ConcurrentFrequencyTrackingRingBuffer buffer = new ConcurrentFrequencyTrackingRingBuffer(maxSize, sentinel);
+      for (int j = 0; j < numitems; ++j) {
+        final Integer item = random().nextInt(maxitem);
+        items.add(item);
+        buffer.add(item);
+      }
+      assertBuffer(buffer, maxSize, sentinel, items);
+    }
+  }
+
+  public void testConcurrentAdds() throws Exception {
+    final int maxSize = 2 + random().nextInt(100);
+    final int sentinel = -1;
+    final ConcurrentFrequencyTrackingRingBuffer buffer = new ConcurrentFrequencyTrackingRingBuffer(maxSize, sentinel);
+    final int numThreads = TestUtil.nextInt(random(), 2, 8);
+    final int numAdds = atLeast(1000);
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[numThreads];
+    for (int i = 0; i < numThreads; ++i) {
+      final int item = i;
+      threads[i] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          throw new ThreadInterruptedException(e);
+        }
+        for (int j = 0; j < numAdds; ++j) {
+          buffer.add(item);
+        }
+      });
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // every slot has been overwritten, and only with items from the threads
+    int total = 0;
+    for (int i = 0; i < numThreads; ++i) {
+      total += buffer.frequency(i);
+    }
+    assertEquals(maxSize, total);
+    assertEquals(0, buffer.frequency(sentinel));
+  }
+
+}
@@ -24,6 +24,9 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.codecs.MutablePointValues;
 import org.apache.lucene.index.CorruptIndexException;
@@ -43,6 +46,7 @@ import org.apache.lucene.store.MockDirectoryWrapper;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.NumericUtils;
 import org.apache.lucene.util.TestUtil;
 
@@ -953,6 +957,48 @@ public class TestBKD extends LuceneTestCase {
     return x;
   }
 
+  /** Building subtrees concurrently must write the same tree as building them on one thread */
+  public void testConcurrentBuild() throws Exception {
+    int numDocs = atLeast(20000);
+    int numDims = TestUtil.nextInt(random(), 2, 4);
+    int numIndexDims = TestUtil.nextInt(random(), 2, numDims);
+    int maxPointsInLeafNode = TestUtil.nextInt(random(), 20, 60);
+    // little heap, so that the trees spill to disk and share the heap budget as they fork
+    double maxMB = 0.05 + 0.2 * random().nextDouble();
+    int cardinality = TestUtil.nextInt(random(), 10, numDocs);
+    byte[][] values = new byte[numDocs][];
+    for (int docID = 0; docID < numDocs; docID++) {
+      values[docID] = new byte[numDims * Integer.BYTES];
+      for (int dim = 0; dim < numDims; dim++) {
+        NumericUtils.intToSortableBytes(random().nextInt(cardinality), values[docID], dim * Integer.BYTES);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(TestUtil.nextInt(random(), 1, 4), new NamedThreadFactory("TestBKD"));
+    try (Directory dir = getDirectory(numDocs)) {
+      byte[][] files = new byte[2][];
+      for (int i = 0; i < files.length; i++) {
+        BKDWriter w = new BKDWriter(numDocs, dir, "tmp", numDims, numIndexDims, Integer.BYTES, maxPointsInLeafNode, maxMB, numDocs,
+            i == 0 ? null : executor);
+        for (int docID = 0; docID < numDocs; docID++) {
+          w.add(values[docID], docID);
+        }
+        try (IndexOutput out = dir.createOutput("bkd" + i, IOContext.DEFAULT)) {
+          w.finish(out, out, out).run();
+        }
+        w.close();
+        try (IndexInput in = dir.openInput("bkd" + i, IOContext.DEFAULT)) {
+          files[i] = new byte[Math.toIntExact(in.length())];
+          in.readBytes(files[i], 0, files[i].length);
+        }
+      }
+      assertArrayEquals(files[0], files[1]);
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+  }
+
   private Directory getDirectory(int numPoints) {
     Directory dir;
     if (numPoints > 100000) {
@@ -46,6 +46,11 @@ public abstract class LZ4TestCase extends LuceneTestCase {
       assertTrue(in.assertReset());
     }
 
+    @Override
+    void initDictionary(int dictLen) {
+      in.initDictionary(dictLen);
+    }
+
     @Override
     int get(int off) {
       return in.get(off);
@@ -139,6 +144,68 @@ public abstract class LZ4TestCase extends LuceneTestCase {
     assertArrayEquals(ArrayUtil.copyOfSubArray(data, offset, offset+length), ArrayUtil.copyOfSubArray(restored, 0, length));
   }
 
+  private void doTestWithDictionary(byte[] dict, byte[] data, LZ4.HashTable hashTable) throws IOException {
+    final int offset = random().nextInt(10);
+    byte[] copy = new byte[offset + dict.length + data.length + random().nextInt(10)];
+    System.arraycopy(dict, 0, copy, offset, dict.length);
+    System.arraycopy(data, 0, copy, offset + dict.length, data.length);
+
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    LZ4.compressWithDictionary(copy, offset, dict.length, data.length, out, hashTable);
+    byte[] compressed = out.toArrayCopy();
+
+    // Compress once again with the same hash table to test reuse
+    ByteBuffersDataOutput out2 = new ByteBuffersDataOutput();
+    LZ4.compressWithDictionary(copy, offset, dict.length, data.length, out2, hashTable);
+    assertArrayEquals(compressed, out2.toArrayCopy());
+
+    // Now restore with the dictionary in front of the destination and compare bytes
+    byte[] restored = new byte[dict.length + data.length + random().nextInt(10)];
+    System.arraycopy(dict, 0, restored, 0, dict.length);
+    final int end = LZ4.decompress(new ByteArrayDataInput(compressed), data.length, restored, dict.length);
+    assertEquals(dict.length + data.length, end);
+    assertArrayEquals(data, ArrayUtil.copyOfSubArray(restored, dict.length, end));
+  }
+
+  public void testDictionary() throws IOException {
+    final byte[] dict = new byte[TestUtil.nextInt(random(), 1, 1 << 14)];
+    random().nextBytes(dict);
+    // data that is incompressible on its own, but made of pieces of the dictionary
+    final byte[] data = new byte[TestUtil.nextInt(random(), 1, 1 << 14)];
+    for (int i = 0; i < data.length; ) {
+      final int start = random().nextInt(dict.length);
+      final int len = Math.min(Math.min(TestUtil.nextInt(random(), 1, 100), dict.length - start), data.length - i);
+      System.arraycopy(dict, start, data, i, len);
+      i += len;
+    }
+    doTestWithDictionary(dict, data, newHashTable());
+
+    // the dictionary should help
+    if (data.length > 1000) {
+      ByteBuffersDataOutput withDict = new ByteBuffersDataOutput();
+      final byte[] dictAndData = new byte[dict.length + data.length];
+      System.arraycopy(dict, 0, dictAndData, 0, dict.length);
+      System.arraycopy(data, 0, dictAndData, dict.length, data.length);
+      LZ4.compressWithDictionary(dictAndData, 0, dict.length, data.length, withDict, newHashTable());
+      ByteBuffersDataOutput withoutDict = new ByteBuffersDataOutput();
+      LZ4.compress(data, 0, data.length, withoutDict, newHashTable());
+      assertTrue(withDict.size() < withoutDict.size());
+    }
+  }
+
+  public void testEmptyDictionary() throws IOException {
+    final byte[] data = new byte[TestUtil.nextInt(random(), 1, 1 << 10)];
+    random().nextBytes(data);
+    doTestWithDictionary(new byte[0], data, newHashTable());
+  }
+
+  public void testDictionaryWithShortData() throws IOException {
+    final byte[] dict = "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+    for (int len = 0; len < 20; ++len) {
+      doTestWithDictionary(dict, ArrayUtil.copyOfSubArray(dict, 3, 3 + len), newHashTable());
+    }
+  }
+
   public void testEmpty() throws IOException {
     // literals and matchs lengths <= 15
     final byte[] data = "".getBytes(StandardCharsets.UTF_8);
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.hnsw;
+
+
+import java.io.IOException;
+
+import org.apache.lucene.index.VectorValues;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.LuceneTestCase;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+public class TestHnswGraph extends LuceneTestCase {
+
+  public void testNeighborQueue() {
+    NeighborQueue minHeap = new NeighborQueue(2, false);
+    NeighborQueue maxHeap = new NeighborQueue(2, true);
+    float[] scores = new float[] {0.5f, -1f, 3f, 0f, 2f};
+    for (int i = 0; i < scores.length; i++) {
+      minHeap.add(i, scores[i]);
+      maxHeap.add(i, scores[i]);
+    }
+    assertEquals(1, minHeap.topNode());
+    assertEquals(-1f, minHeap.topScore(), 0f);
+    assertEquals(2, maxHeap.topNode());
+    assertEquals(3f, maxHeap.topScore(), 0f);
+    int[] expectedMinOrder = new int[] {1, 3, 0, 4, 2};
+    for (int expected : expectedMinOrder) {
+      assertEquals(expected, minHeap.pop());
+    }
+    assertEquals(0, minHeap.size());
+
+    NeighborQueue bounded = new NeighborQueue(3, false);
+    for (int i = 0; i < scores.length; i++) {
+      bounded.insertWithOverflow(i, scores[i], 3);
+    }
+    assertEquals(3, bounded.size());
+    assertEquals(0, bounded.pop());
+    assertEquals(4, bounded.pop());
+    assertEquals(2, bounded.pop());
+  }
+
+  public void testGraphConnectivity() throws IOException {
+    int size = atLeast(500);
+    RandomVectors vectors = new RandomVectors(size, 8);
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, VectorValues.SimilarityFunction.EUCLIDEAN, 8, 30, random().nextLong());
+    OnHeapHnswGraph graph = builder.build();
+    assertEquals(size, graph.size());
+    // every node is reachable from the entry node on level 0
+    FixedBitSet reached = new FixedBitSet(size);
+    int[] stack = new int[size];
+    int stackSize = 0;
+    stack[stackSize++] = graph.entryNode();
+    reached.set(graph.entryNode());
+    while (stackSize > 0) {
+      graph.seek(0, stack[--stackSize]);
+      for (int friend = graph.nextNeighbor(); friend != NO_MORE_DOCS; friend = graph.nextNeighbor()) {
+        if (reached.get(friend) == false) {
+          reached.set(friend);
+          stack[stackSize++] = friend;
+        }
+      }
+    }
+    assertEquals(size, reached.cardinality());
+  }
+
+  public void testSearchRecall() throws IOException {
+    int size = atLeast(1000);
+    RandomVectors vectors = new RandomVectors(size, 4);
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, VectorValues.SimilarityFunction.EUCLIDEAN, 16, 100, random().nextLong());
+    OnHeapHnswGraph graph = builder.build();
+    int found = 0;
+    int numQueries = 20;
+    for (int i = 0; i < numQueries; i++) {
+      int target = random().nextInt(size);
+      float[] query = vectors.copy().vectorValue(target);
+      NeighborQueue results = HnswGraph.search(query, 10, vectors.copy(), VectorValues.SimilarityFunction.EUCLIDEAN, graph, null);
+      while (results.size() > 1) {
+        results.pop();
+      }
+      if (results.topNode() == target) {
+        found++;
+      }
+    }
+    assertTrue("found " + found + " out of " + numQueries, found >= numQueries * 0.9);
+  }
+
+  public void testSearchAcceptOrds() throws IOException {
+    int size = atLeast(200);
+    RandomVectors vectors = new RandomVectors(size, 4);
+    OnHeapHnswGraph graph = new HnswGraphBuilder(vectors, VectorValues.SimilarityFunction.DOT_PRODUCT, 8, 50, random().nextLong()).build();
+    FixedBitSet acceptOrds = new FixedBitSet(size);
+    for (int i = 0; i < size; i += 3) {
+      acceptOrds.set(i);
+    }
+    NeighborQueue results = HnswGraph.search(vectors.copy().vectorValue(1), 10, vectors.copy(), VectorValues.SimilarityFunction.DOT_PRODUCT, graph, acceptOrds);
+    assertEquals(10, results.size());
+    for (int node : results.nodes()) {
+      assertTrue(acceptOrds.get(node));
+    }
+  }
+
+  public void testInitializeFromGraph() throws IOException {
+    int size = atLeast(200);
+    RandomVectors vectors = new RandomVectors(size, 4);
+    int seedSize = size / 2;
+    int offset = size - seedSize;
+    RandomVectors seedVectors = vectors.slice(offset, seedSize);
+    OnHeapHnswGraph seed = new HnswGraphBuilder(seedVectors, VectorValues.SimilarityFunction.EUCLIDEAN, 8, 30, random().nextLong()).build();
+
+    HnswGraphBuilder builder = new HnswGraphBuilder(vectors, VectorValues.SimilarityFunction.EUCLIDEAN, 8, 30, random().nextLong());
+    builder.initializeFromGraph(seed, offset);
+    OnHeapHnswGraph graph = builder.build();
+    assertEquals(size, graph.size());
+    assertEquals(seed.entryNode() + offset, graph.entryNode());
+    for (int node = 0; node < seedSize; node++) {
+      seed.seek(0, node);
+      for (int friend = seed.nextNeighbor(); friend != NO_MORE_DOCS; friend = seed.nextNeighbor()) {
+        assertTrue(friend + offset < size);
+      }
+    }
+  }
+
+  /** Random vectors held in memory */
+  private static class RandomVectors implements VectorValues.RandomAccess {
+
+    private final float[][] values;
+
+    RandomVectors(int size, int dimension) {
+      this(new float[size][]);
+      for (int i = 0; i < size; i++) {
+        values[i] = new float[dimension];
+        for (int j = 0; j < dimension; j++) {
+          values[i][j] = random().nextFloat();
+        }
+      }
+    }
+
+    private RandomVectors(float[][] values) {
+      this.values = values;
+    }
+
+    RandomVectors slice(int offset, int length) {
+      float[][] slice = new float[length][];
+      System.arraycopy(values, offset, slice, 0, length);
+      return new RandomVectors(slice);
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public int dimension() {
+      return values[0].length;
+    }
+
+    @Override
+    public float[] vectorValue(int targetOrd) {
+      return values[targetOrd];
+    }
+
+    @Override
+    public RandomVectors copy() {
+      return new RandomVectors(values);
+    }
+  }
+}
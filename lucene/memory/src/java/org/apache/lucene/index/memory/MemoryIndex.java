@@ -1240,6 +1240,11 @@ public class MemoryIndex {
       return new MemoryIndexPointValues(info);
     }
 
+    @Override
+    public VectorValues getVectorValues(String fieldName) {
+      return null;
+    }
+
     @Override
     public void checkIntegrity() throws IOException {
       // no-op
@@ -78,6 +78,13 @@ public class AssertingStoredFieldsFormat extends StoredFieldsFormat {
       in.visitDocument(n, visitor);
     }
 
+    @Override
+    public void prefetch(int n) throws IOException {
+      AssertingCodec.assertThread("StoredFieldsReader", creationThread);
+      assert n >= 0 && n < maxDoc;
+      in.prefetch(n);
+    }
+
     @Override
     public StoredFieldsReader clone() {
       assert merging == false : "Merge instances do not support cloning";
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.codecs.compressing;
+
+import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat.LZ4WithSharedDict;
+
+/** CompressionCodec that uses {@link LZ4WithSharedDict}. */
+public class LZ4WithSharedDictCompressingCodec extends CompressingCodec {
+
+  /** Constructor that allows to configure the chunk size. */
+  public LZ4WithSharedDictCompressingCodec(int chunkSize, int maxDocsPerChunk, boolean withSegmentSuffix, int blockSize) {
+    super("LZ4WithSharedDictCompressingStoredFieldsData",
+          withSegmentSuffix ? "LZ4WithSharedDictCompressingStoredFields" : "",
+          new LZ4WithSharedDict(Math.min(chunkSize, 16 * 1024), chunkSize/4+1), chunkSize, maxDocsPerChunk, blockSize);
+  }
+
+  /** No-arg constructor. */
+  public LZ4WithSharedDictCompressingCodec() {
+    this(1<<14, 256, false, 10);
+  }
+
+}
@@ -72,6 +72,14 @@ public class AssertingIndexSearcher extends IndexSearcher {
     super.search(leaves, weight, AssertingCollector.wrap(collector));
   }
 
+  @Override
+  protected void search(LeafReaderContextPartition[] partitions, Weight weight, Collector collector) throws IOException {
+    assert weight instanceof AssertingWeight;
+    // AssertingCollector.wrap is a no-op on an already wrapped collector, so this is
+    // safe if the super implementation delegates to search(List, Weight, Collector)
+    super.search(partitions, weight, AssertingCollector.wrap(collector));
+  }
+
   @Override
   public String toString() {
     return "AssertingIndexSearcher(" + super.toString() + ")";
@@ -610,6 +610,39 @@ public abstract class BaseDirectoryTestCase extends LuceneTestCase {
     }
   }
 
+  /** prefetching is only a hint: it must neither move the file pointer nor change what gets read */
+  public void testPrefetch() throws Exception {
+    try (Directory dir = getDirectory(createTempDir("testPrefetch"))) {
+      final int len = random().nextInt(100_000) + 16;
+      byte[] bytes = new byte[len];
+      random().nextBytes(bytes);
+      try (IndexOutput o = dir.createOutput("out", newIOContext(random()))) {
+        o.writeBytes(bytes, 0, len);
+      }
+      try (IndexInput i = dir.openInput("out", newIOContext(random()))) {
+        final long pos = TestUtil.nextLong(random(), 0, len);
+        i.seek(pos);
+        i.prefetch(0, len);
+        final long offset = TestUtil.nextLong(random(), 0, len);
+        i.prefetch(offset, TestUtil.nextLong(random(), 0, len - offset));
+        assertEquals(pos, i.getFilePointer());
+        i.seek(0);
+        byte[] read = new byte[len];
+        i.readBytes(read, 0, len);
+        assertArrayEquals(bytes, read);
+
+        IndexInput slice = i.slice("slice", 8, len - 8);
+        slice.prefetch(0, len - 8);
+        assertEquals(0, slice.getFilePointer());
+        assertEquals(bytes[8], slice.readByte());
+
+        RandomAccessInput randomAccess = i.randomAccessSlice(0, len);
+        randomAccess.prefetch(len / 2, len - len / 2);
+        assertEquals(bytes[len / 2], randomAccess.readByte(len / 2));
+      }
+    }
+  }
+
   // LUCENE-3382 -- make sure we get exception if the directory really does not exist.
   public void testNoDir() throws Throwable {
     Path tempDir = createTempDir("doesnotexist");
@@ -1950,17 +1950,29 @@ public abstract class LuceneTestCase extends Assert {
        r.getReaderCacheHelper().addClosedListener(cacheKey -> TestUtil.shutdownExecutorService(ex));
       }
       IndexSearcher ret;
+      // sometimes split segments into several partitions so that collectors
+      // and search(...) overrides see partial leaves
+      final boolean allowSegmentPartitions = random.nextBoolean();
+      final int maxDocPerSlice = 1 + random.nextInt(allowSegmentPartitions ? 1000 : 100000);
+      final int maxSegmentsPerSlice = 1 + random.nextInt(20);
       if (wrapWithAssertions) {
-        ret = random.nextBoolean()
-            ? new AssertingIndexSearcher(random, r, ex)
-            : new AssertingIndexSearcher(random, r.getContext(), ex);
+        if (random.nextBoolean()) {
+          ret = new AssertingIndexSearcher(random, r, ex) {
+            @Override
+            protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+              return slices(leaves, maxDocPerSlice, maxSegmentsPerSlice, allowSegmentPartitions);
+            }
+          };
+        } else {
+          ret = random.nextBoolean()
+              ? new AssertingIndexSearcher(random, r, ex)
+              : new AssertingIndexSearcher(random, r.getContext(), ex);
+        }
       } else if (random.nextBoolean()) {
-        int maxDocPerSlice = 1 + random.nextInt(100000);
-        int maxSegmentsPerSlice = 1 + random.nextInt(20);
         ret = new IndexSearcher(r, ex) {
           @Override
           protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
-            return slices(leaves, maxDocPerSlice, maxSegmentsPerSlice);
+            return slices(leaves, maxDocPerSlice, maxSegmentsPerSlice, allowSegmentPartitions);
           }
         };
       } else {
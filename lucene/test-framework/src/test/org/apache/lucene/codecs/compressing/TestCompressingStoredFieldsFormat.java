@@ -21,6 +21,8 @@ import java.util.Random;
 
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.lucene87.Lucene87Codec;
+import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
@@ -315,4 +317,35 @@ public class TestCompressingStoredFieldsFormat extends BaseStoredFieldsFormatTes
     iw.close();
     dir.close();
   }
+
+  /**
+   * Only modes that have a dictionary may write the dictionary pointer and
+   * the format version that introduced it.
+   */
+  public void testVersionDependsOnDictionary() throws IOException {
+    for (Lucene87StoredFieldsFormat.Mode mode : Lucene87StoredFieldsFormat.Mode.values()) {
+      Directory dir = newDirectory();
+      IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
+      iwConf.setCodec(new Lucene87Codec(mode));
+      IndexWriter iw = new IndexWriter(dir, iwConf);
+      for (int i = 0; i < 10; i++) {
+        Document doc = new Document();
+        doc.add(new StoredField("text", "not very long at all " + i));
+        iw.addDocument(doc);
+      }
+      DirectoryReader ir = DirectoryReader.open(iw);
+      CodecReader sr = (CodecReader) getOnlyLeafReader(ir);
+      CompressingStoredFieldsReader reader = (CompressingStoredFieldsReader)sr.getFieldsReader();
+      if (reader.getCompressionMode().hasDictionary()) {
+        assertEquals(CompressingStoredFieldsWriter.VERSION_DICTIONARY, reader.getVersion());
+        assertTrue(reader.getDictionaryPointer() != -1);
+      } else {
+        assertEquals(CompressingStoredFieldsWriter.VERSION_CURRENT, reader.getVersion());
+        assertEquals(-1, reader.getDictionaryPointer());
+      }
+      ir.close();
+      iw.close();
+      dir.close();
+    }
+  }
 }
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 
 import org.apache.lucene.util.Version;
@@ -59,10 +60,12 @@ import org.apache.solr.common.cloud.ZkNodeProps;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.CollectionAdminParams;
 import org.apache.solr.common.params.CollectionParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.IOUtils;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.ObjectReleaseTracker;
 import org.apache.solr.common.util.Pair;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.common.util.Utils;
 import org.apache.solr.core.CloudConfig;
 import org.apache.solr.core.CoreContainer;
@@ -139,6 +142,8 @@ public class Overseer implements SolrCloseable {
   public static final int STATE_UPDATE_DELAY = ZkStateReader.STATE_UPDATE_DELAY;
   public static final int STATE_UPDATE_BATCH_SIZE = Integer.getInteger("solr.OverseerStateUpdateBatchSize", 10000);
   public static final int STATE_UPDATE_MAX_QUEUE = 20000;
+  /** Number of threads that write the state.json of distinct collections concurrently, 1 writes them in sequence. */
+  public static final int STATE_UPDATE_THREADS = Integer.getInteger("solr.OverseerStateUpdateThreads", 1);
 
   public static final int NUM_RESPONSES_TO_STORE = 10000;
   public static final String OVERSEER_ELECT = "/overseer_elect";
@@ -208,6 +213,9 @@ public class Overseer implements SolrCloseable {
       if (log.isInfoEnabled()) {
         log.info("Starting to work on the main queue : {}", LeaderElector.getNodeName(myId));
       }
+      ExecutorService stateWriterExecutor = STATE_UPDATE_THREADS > 1
+          ? ExecutorUtil.newMDCAwareFixedThreadPool(STATE_UPDATE_THREADS, new SolrNamedThreadFactory("OverseerStateWriter"))
+          : null;
       try {
         ZkStateWriter zkStateWriter = null;
         ClusterState clusterState = null;
@@ -231,7 +239,7 @@ public class Overseer implements SolrCloseable {
             try {
               reader.forciblyRefreshAllClusterStateSlow();
               clusterState = reader.getClusterState();
-              zkStateWriter = new ZkStateWriter(reader, stats);
+              zkStateWriter = new ZkStateWriter(reader, stats, stateWriterExecutor);
               refreshClusterState = false;
 
               // if there were any errors while processing
@@ -294,6 +302,9 @@ public class Overseer implements SolrCloseable {
             log.error("Exception in Overseer main queue loop", e);
           }
           try {
+            if (queue != null && !queue.isEmpty()) {
+              recordQueueDepth();
+            }
             Set<String> processedNodes = new HashSet<>();
             while (queue != null && !queue.isEmpty()) {
               for (Pair<String, byte[]> head : queue) {
@@ -336,6 +347,9 @@ public class Overseer implements SolrCloseable {
           }
         }
       } finally {
+        if (stateWriterExecutor != null) {
+          stateWriterExecutor.shutdownNow();
+        }
         if (log.isInfoEnabled()) {
           log.info("Overseer Loop exiting : {}", LeaderElector.getNodeName(myId));
         }
@@ -344,6 +358,13 @@ public class Overseer implements SolrCloseable {
       }
     }
 
+    private void recordQueueDepth() throws KeeperException, InterruptedException {
+      org.apache.zookeeper.data.Stat stat = zkClient.exists("/overseer/queue", null, true);
+      if (stat != null) {
+        stats.update("state_update_queue_depth", stat.getNumChildren());
+      }
+    }
+
     // Return true whenever the exception thrown by ZkStateWriter is correspond
     // to a invalid state or 'bad' message (in this case, we should remove that message from queue)
     private boolean isBadMessage(Exception e) {
@@ -18,9 +18,17 @@
 package org.apache.solr.cloud;
 
 import java.lang.invoke.MethodHandles;
+import java.util.EnumSet;
 
 import org.apache.lucene.index.IndexCommit;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.GenericSolrRequest;
+import org.apache.solr.client.solrj.util.AsyncListener;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.CoreContainer;
@@ -39,6 +47,15 @@ import org.slf4j.LoggerFactory;
 public class ReplicateFromLeader {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  /**
+   * With commit notification, polling is only a fallback for notifications that got lost, so the poll
+   * interval is this many times longer.
+   */
+  static final int COMMIT_NOTIFICATION_POLL_INTERVAL_FACTOR = 10;
+
+  /** System property that overrides the fallback poll interval (HH:mm:ss) of replicas when commit notification is enabled. */
+  public static final String COMMIT_NOTIFICATION_POLL_INTERVAL_PROP = "solr.commitNotification.pollInterval";
+
   private final CoreContainer cc;
   private final String coreName;
 
@@ -65,14 +82,21 @@ public class ReplicateFromLeader {
         }
       }
       SolrConfig.UpdateHandlerInfo uinfo = core.getSolrConfig().getUpdateHandlerInfo();
-      String pollIntervalStr = "00:00:03";
+      int pollIntervalMs = 3000;
       if (System.getProperty("jetty.testMode") != null) {
-        pollIntervalStr = "00:00:01";
+        pollIntervalMs = 1000;
       }
       if (uinfo.autoCommmitMaxTime != -1) {
-        pollIntervalStr = toPollIntervalStr(uinfo.autoCommmitMaxTime/2);
+        pollIntervalMs = uinfo.autoCommmitMaxTime/2;
       } else if (uinfo.autoSoftCommmitMaxTime != -1) {
-        pollIntervalStr = toPollIntervalStr(uinfo.autoSoftCommmitMaxTime/2);
+        pollIntervalMs = uinfo.autoSoftCommmitMaxTime/2;
+      }
+      String pollIntervalStr;
+      if (uinfo.commitNotification) {
+        pollIntervalMs = (int) Math.min(Integer.MAX_VALUE, (long) pollIntervalMs * COMMIT_NOTIFICATION_POLL_INTERVAL_FACTOR);
+        pollIntervalStr = System.getProperty(COMMIT_NOTIFICATION_POLL_INTERVAL_PROP, toPollIntervalStr(pollIntervalMs));
+      } else {
+        pollIntervalStr = toPollIntervalStr(pollIntervalMs);
       }
       log.info("Will start replication from leader with poll interval: {}", pollIntervalStr );
 
@@ -131,6 +155,55 @@ public class ReplicateFromLeader {
     return hour + ":" + min + ":" + sec;
   }
 
+  /**
+   * Fetches the latest index from the leader right away instead of waiting for the next poll
+   * @return false if replication isn't running
+   */
+  public boolean pollNow() {
+    ReplicationHandler replicationHandler = replicationProcess;
+    return replicationHandler != null && replicationHandler.pollNow();
+  }
+
+  /**
+   * If the given core is the leader of its shard, asks the active TLOG and PULL replicas of the shard to
+   * fetch its latest hard commit now. This only saves the replicas' wait for their next poll; they still
+   * copy whole commit points through the {@link IndexFetcher}, so changes that are only soft committed
+   * on the leader don't reach them. The requests are sent asynchronously, and replicas that miss them
+   * still get the commit on their next poll.
+   */
+  public static void notifyReplicas(SolrCore core) {
+    CloudDescriptor cloudDesc = core.getCoreDescriptor().getCloudDescriptor();
+    ZkController zkController = core.getCoreContainer().getZkController();
+    if (cloudDesc == null || zkController == null || !cloudDesc.isLeader()) {
+      return;
+    }
+    ClusterState clusterState = zkController.getClusterState();
+    DocCollection collection = clusterState.getCollectionOrNull(cloudDesc.getCollectionName());
+    Slice slice = collection == null ? null : collection.getSlice(cloudDesc.getShardId());
+    if (slice == null) {
+      return;
+    }
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(ReplicationHandler.COMMAND, ReplicationHandler.CMD_NOTIFY_COMMIT);
+    for (Replica replica : slice.getReplicas(EnumSet.of(Replica.Type.TLOG, Replica.Type.PULL))) {
+      if (replica.getName().equals(cloudDesc.getCoreNodeName()) || !replica.isActive(clusterState.getLiveNodes())) {
+        continue;
+      }
+      GenericSolrRequest request = new GenericSolrRequest(SolrRequest.METHOD.POST, ReplicationHandler.PATH, params);
+      request.setBasePath(replica.getCoreUrl());
+      core.getCoreContainer().getUpdateShardHandler().getUpdateOnlyHttpClient().asyncRequest(request, null, new AsyncListener<NamedList<Object>>() {
+        @Override
+        public void onSuccess(NamedList<Object> response) {
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+          log.warn("Could not notify replica {} of a new commit", replica.getName(), throwable);
+        }
+      });
+    }
+  }
+
   public void stopReplication() {
     if (replicationProcess != null) {
       replicationProcess.shutdown();
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Timer;
 import org.apache.solr.client.solrj.SolrResponse;
 import org.apache.solr.common.cloud.ZkNodeProps;
@@ -37,12 +39,23 @@ public class Stats {
   static final int MAX_STORED_FAILURES = 10;
 
   final Map<String, Stat> stats = new ConcurrentHashMap<>();
+  final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
   private volatile int queueLength;
 
   public Map<String, Stat> getStats() {
     return stats;
   }
 
+  public Map<String, Histogram> getHistograms() {
+    return histograms;
+  }
+
+  /** Records a value, such as a batch size, in the histogram with the given name. */
+  public void update(String name, long value) {
+    String key = name.toLowerCase(Locale.ROOT);
+    histograms.computeIfAbsent(key, k -> new Histogram(new ExponentiallyDecayingReservoir())).update(value);
+  }
+
   public int getSuccessCount(String operation) {
     Stat stat = stats.get(operation.toLowerCase(Locale.ROOT));
     return stat == null ? 0 : stat.success.get();
@@ -119,6 +132,7 @@ public class Stats {
 
   public void clear() {
     stats.clear();
+    histograms.clear();
   }
 
   public static class Stat  {
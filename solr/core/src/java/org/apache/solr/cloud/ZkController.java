@@ -1331,6 +1331,15 @@ public class ZkController implements Closeable {
     }
   }
 
+  /**
+   * Makes the given TLOG or PULL replica fetch the latest index from the leader now
+   * @return false if the core isn't replicating from the leader
+   */
+  public boolean pollReplicationFromLeader(String coreName) {
+    ReplicateFromLeader replicateFromLeader = replicateFromLeaders.get(coreName);
+    return replicateFromLeader != null && replicateFromLeader.pollNow();
+  }
+
   public void stopReplicationFromLeader(String coreName) {
     log.info("{} stopping background replication from leader", coreName);
     ReplicateFromLeader replicateFromLeader = replicateFromLeaders.remove(coreName);
@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
 import org.apache.solr.cloud.OverseerTaskProcessor;
 import org.apache.solr.cloud.Stats;
@@ -115,5 +117,20 @@ public class OverseerStatusCmd implements OverseerCollectionMessageHandler.Cmd {
     results.add("overseer_internal_queue", workQueueStats);
     results.add("collection_queue", collectionQueueStats);
 
+    @SuppressWarnings({"rawtypes"})
+    NamedList histogramStats = new NamedList();
+    for (Map.Entry<String, Histogram> entry : stats.getHistograms().entrySet()) {
+      NamedList<Object> lst = new SimpleOrderedMap<>();
+      Histogram histogram = entry.getValue();
+      Snapshot snapshot = histogram.getSnapshot();
+      lst.add("count", histogram.getCount());
+      lst.add("mean", snapshot.getMean());
+      lst.add("median", snapshot.getMedian());
+      lst.add("99thPc", snapshot.get99thPercentile());
+      lst.add("max", snapshot.getMax());
+      histogramStats.add(entry.getKey(), lst);
+    }
+    results.add("overseer_batches", histogramStats);
+
   }
 }
@@ -20,11 +20,15 @@ import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import com.codahale.metrics.Timer;
 import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.Stats;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.ZkStateReader;
@@ -50,6 +54,8 @@ import static java.util.Collections.singletonMap;
  * throws a {@link org.apache.zookeeper.KeeperException.BadVersionException} then the internal buffered state of the
  * class is suspect and the current instance of the class should be discarded and a new instance should be created
  * and used for any future updates.
+ *
+ * When created with an executor, the state.json of distinct collections are written concurrently on flush.
  */
 public class ZkStateWriter {
   private static final long MAX_FLUSH_INTERVAL = TimeUnit.NANOSECONDS.convert(Overseer.STATE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
@@ -62,6 +68,8 @@ public class ZkStateWriter {
 
   protected final ZkStateReader reader;
   protected final Stats stats;
+  // writes the state of distinct collections concurrently, null to write them one after the other
+  protected final ExecutorService executor;
 
   protected Map<String, DocCollection> updates = new HashMap<>();
   private int numUpdates = 0;
@@ -75,10 +83,18 @@ public class ZkStateWriter {
   protected boolean invalidState = false;
 
   public ZkStateWriter(ZkStateReader zkStateReader, Stats stats) {
+    this(zkStateReader, stats, null);
+  }
+
+  /**
+   * @param executor if not null, used to write the state of distinct collections concurrently when flushing
+   */
+  public ZkStateWriter(ZkStateReader zkStateReader, Stats stats, ExecutorService executor) {
     assert zkStateReader != null;
 
     this.reader = zkStateReader;
     this.stats = stats;
+    this.executor = executor;
     this.clusterState = zkStateReader.getClusterState();
   }
 
@@ -167,31 +183,14 @@ public class ZkStateWriter {
     boolean success = false;
     try {
       if (!updates.isEmpty()) {
-        for (Map.Entry<String, DocCollection> entry : updates.entrySet()) {
-          String name = entry.getKey();
-          String path = ZkStateReader.getCollectionPath(name);
-          DocCollection c = entry.getValue();
-
-          if (c == null) {
-            // let's clean up the state.json of this collection only, the rest should be clean by delete collection cmd
-            log.debug("going to delete state.json {}", path);
-            reader.getZkClient().clean(path);
-          } else {
-            byte[] data = Utils.toJSON(singletonMap(c.getName(), c));
-            if (reader.getZkClient().exists(path, true)) {
-              if (log.isDebugEnabled()) {
-                log.debug("going to update_collection {} version: {}", path, c.getZNodeVersion());
-              }
-              Stat stat = reader.getZkClient().setData(path, data, c.getZNodeVersion(), true);
-              DocCollection newCollection = new DocCollection(name, c.getSlicesMap(), c.getProperties(), c.getRouter(), stat.getVersion());
-              clusterState = clusterState.copyWith(name, newCollection);
-            } else {
-              log.debug("going to create_collection {}", path);
-              reader.getZkClient().create(path, data, CreateMode.PERSISTENT, true);
-              DocCollection newCollection = new DocCollection(name, c.getSlicesMap(), c.getProperties(), c.getRouter(), 0);
-              clusterState = clusterState.copyWith(name, newCollection);
-            }
+        stats.update("update_state_batch_size", numUpdates);
+        stats.update("update_state_batch_collections", updates.size());
+        if (executor == null || updates.size() == 1) {
+          for (Map.Entry<String, DocCollection> entry : updates.entrySet()) {
+            onWritten(entry.getKey(), writeCollection(entry.getKey(), entry.getValue()));
           }
+        } else {
+          writeConcurrently();
         }
 
         updates.clear();
@@ -217,6 +216,71 @@ public class ZkStateWriter {
     return clusterState;
   }
 
+  /**
+   * Writes the state.json of a collection, or deletes it if the collection is null.
+   *
+   * @return the written collection with its new znode version, or null if it was deleted
+   */
+  private DocCollection writeCollection(String name, DocCollection c) throws KeeperException, InterruptedException {
+    String path = ZkStateReader.getCollectionPath(name);
+    if (c == null) {
+      // let's clean up the state.json of this collection only, the rest should be clean by delete collection cmd
+      log.debug("going to delete state.json {}", path);
+      reader.getZkClient().clean(path);
+      return null;
+    }
+    byte[] data = Utils.toJSON(singletonMap(c.getName(), c));
+    if (reader.getZkClient().exists(path, true)) {
+      if (log.isDebugEnabled()) {
+        log.debug("going to update_collection {} version: {}", path, c.getZNodeVersion());
+      }
+      Stat stat = reader.getZkClient().setData(path, data, c.getZNodeVersion(), true);
+      return new DocCollection(name, c.getSlicesMap(), c.getProperties(), c.getRouter(), stat.getVersion());
+    } else {
+      log.debug("going to create_collection {}", path);
+      reader.getZkClient().create(path, data, CreateMode.PERSISTENT, true);
+      return new DocCollection(name, c.getSlicesMap(), c.getProperties(), c.getRouter(), 0);
+    }
+  }
+
+  private void onWritten(String name, DocCollection written) {
+    if (written != null) {
+      clusterState = clusterState.copyWith(name, written);
+    }
+  }
+
+  /**
+   * Writes the pending collections on the executor. Collections that were written successfully are
+   * reflected in the cluster state even if another one failed, then the first failure is rethrown.
+   */
+  private void writeConcurrently() throws KeeperException, InterruptedException {
+    Map<String, Future<DocCollection>> futures = new HashMap<>();
+    for (Map.Entry<String, DocCollection> entry : updates.entrySet()) {
+      String name = entry.getKey();
+      DocCollection c = entry.getValue();
+      futures.put(name, executor.submit(() -> writeCollection(name, c)));
+    }
+    Throwable failure = null;
+    for (Map.Entry<String, Future<DocCollection>> entry : futures.entrySet()) {
+      try {
+        onWritten(entry.getKey(), entry.getValue().get());
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure instanceof KeeperException) {
+      throw (KeeperException) failure;
+    } else if (failure instanceof InterruptedException) {
+      throw (InterruptedException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure != null) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, failure);
+    }
+  }
+
   /**
    * @return the most up-to-date cluster state until the last enqueueUpdate operation
    */
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.LockFactory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.StrUtils;
+import org.apache.solr.metrics.SolrMetricProducer;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.store.blockcache.BlockCache;
+import org.apache.solr.store.blockcache.BlockDirectory;
+import org.apache.solr.store.blockcache.BlockDirectoryCache;
+import org.apache.solr.store.blockcache.BufferStore;
+import org.apache.solr.store.blockcache.Cache;
+import org.apache.solr.store.blockcache.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides {@link NIOFSDirectory} instances that read through the slab based, off-heap {@link BlockCache}
+ * that {@link HdfsDirectoryFactory} uses, so that hot index files stay in memory that Solr controls rather
+ * than in the OS page cache.
+ * <p>
+ * Can set the following parameters:
+ * <ul>
+ *  <li>blockcache.slab.count -- The number of slabs of the cache (default: 1)</li>
+ *  <li>blockcache.blocksperbank -- The number of 8KB blocks per slab (default: 16384, i.e. 128MB slabs)</li>
+ *  <li>blockcache.direct.memory.allocation -- Whether to allocate the slabs off heap (default: true)</li>
+ *  <li>blockcache.global -- Whether all cores share one cache rather than each core having its own (default: true)</li>
+ *  <li>blockcache.include -- Comma separated file extensions to cache, e.g. <code>tip,dvd</code>, or all files if not set</li>
+ *  <li>blockcache.exclude -- Comma separated file extensions to never cache (default: <code>fdt</code>)</li>
+ *  <li>blockcache.cachemerges -- Whether to cache reads by merges (default: false)</li>
+ *  <li>blockcache.cachereadonce -- Whether to cache files that are read once (default: false)</li>
+ * </ul>
+ * Hit ratio, size and evictions of the cache are reported as the <code>blockCache</code> metric of each core.
+ **/
+public class BlockCacheDirectoryFactory extends StandardDirectoryFactory implements SolrMetricProducer {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  public static final String BLOCKCACHE_SLAB_COUNT = "blockcache.slab.count";
+  public static final String NUMBEROFBLOCKSPERBANK = "blockcache.blocksperbank";
+  public static final String BLOCKCACHE_DIRECT_MEMORY_ALLOCATION = "blockcache.direct.memory.allocation";
+  public static final String BLOCKCACHE_GLOBAL = "blockcache.global";
+  public static final String BLOCKCACHE_INCLUDE = "blockcache.include";
+  public static final String BLOCKCACHE_EXCLUDE = "blockcache.exclude";
+  public static final String CACHE_MERGES = "blockcache.cachemerges";
+  public static final String CACHE_READONCE = "blockcache.cachereadonce";
+
+  private static BlockCache globalBlockCache;
+
+  private final static class MetricsHolder {
+    // Won't load until MetricsHolder is referenced
+    public static final Metrics metrics = new Metrics("blockCache", "Provides metrics for the BlockCacheDirectoryFactory BlockCache.");
+  }
+
+  private int numberOfBlocksPerBank;
+  private int bankCount;
+  private boolean directAllocation;
+  private boolean blockCacheGlobal;
+  private Set<String> includedFileTypes;
+  private Set<String> excludedFileTypes;
+  private boolean cacheMerges;
+  private boolean cacheReadOnce;
+
+  private BlockCache blockCache;
+
+  @Override
+  @SuppressWarnings({"rawtypes"})
+  public void init(NamedList args) {
+    super.init(args);
+    SolrParams params = args.toSolrParams();
+    numberOfBlocksPerBank = params.getInt(NUMBEROFBLOCKSPERBANK, 16384);
+    bankCount = params.getInt(BLOCKCACHE_SLAB_COUNT, 1);
+    if (numberOfBlocksPerBank <= 0 || bankCount <= 0) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+          NUMBEROFBLOCKSPERBANK + " and " + BLOCKCACHE_SLAB_COUNT + " must be greater than 0");
+    }
+    directAllocation = params.getBool(BLOCKCACHE_DIRECT_MEMORY_ALLOCATION, true);
+    blockCacheGlobal = params.getBool(BLOCKCACHE_GLOBAL, true);
+    includedFileTypes = getFileTypes(params.get(BLOCKCACHE_INCLUDE, ""));
+    if (includedFileTypes.isEmpty()) {
+      // cache every file type that is not excluded
+      includedFileTypes = null;
+    }
+    excludedFileTypes = getFileTypes(params.get(BLOCKCACHE_EXCLUDE, "fdt"));
+    cacheMerges = params.getBool(CACHE_MERGES, false);
+    cacheReadOnce = params.getBool(CACHE_READONCE, false);
+  }
+
+  private static Set<String> getFileTypes(String extensions) {
+    Set<String> fileTypes = new HashSet<>();
+    for (String ext : StrUtils.splitSmart(extensions, ',')) {
+      ext = ext.trim();
+      if (ext.length() > 0) {
+        fileTypes.add(ext.startsWith(".") ? ext : "." + ext);
+      }
+    }
+    return fileTypes;
+  }
+
+  @Override
+  protected Directory create(String path, LockFactory lockFactory, DirContext dirContext) throws IOException {
+    NIOFSDirectory dir = new NIOFSDirectory(new File(path).toPath(), lockFactory);
+    if (dirContext == DirContext.META_DATA) {
+      return dir;
+    }
+    Cache cache = new BlockDirectoryCache(getBlockCache(), path, MetricsHolder.metrics, blockCacheGlobal);
+    return new BlockDirectory(path, dir, cache, includedFileTypes, excludedFileTypes, true, false, cacheMerges, cacheReadOnce);
+  }
+
+  private synchronized BlockCache getBlockCache() {
+    if (blockCache == null) {
+      if (blockCacheGlobal) {
+        synchronized (BlockCacheDirectoryFactory.class) {
+          if (globalBlockCache == null) {
+            log.info("Creating new global BlockCache");
+            globalBlockCache = createBlockCache();
+          }
+          blockCache = globalBlockCache;
+        }
+      } else {
+        log.info("Creating new single instance BlockCache");
+        blockCache = createBlockCache();
+      }
+    }
+    return blockCache;
+  }
+
+  private BlockCache createBlockCache() {
+    int blockSize = BlockDirectory.BLOCK_SIZE;
+    int slabSize = numberOfBlocksPerBank * blockSize;
+    long totalMemory = (long) bankCount * (long) slabSize;
+    log.info("Block cache of [{}] slabs of [{}] bytes with direct memory allocation set to [{}]",
+        bankCount, slabSize, directAllocation);
+    BufferStore.initNewBuffer(blockSize, 0, MetricsHolder.metrics);
+    try {
+      return new BlockCache(MetricsHolder.metrics, directAllocation, totalMemory, slabSize, blockSize);
+    } catch (OutOfMemoryError e) {
+      throw new RuntimeException(
+          "The max direct memory is likely too low.  Either increase it (by adding -XX:MaxDirectMemorySize=<size>g to your containers startup args)"
+              + " or disable direct allocation using " + BLOCKCACHE_DIRECT_MEMORY_ALLOCATION + "=false in solrconfig.xml. If you are putting the block cache on the heap,"
+              + " your java heap size might not be large enough."
+              + " Failed allocating ~" + totalMemory / 1000000.0 + " MB.",
+          e);
+    }
+  }
+
+  @Override
+  public boolean isAbsolute(String path) {
+    return new File(path).isAbsolute();
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    try {
+      SolrMetricProducer.super.close();
+      MetricsHolder.metrics.close();
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, String scope) {
+    MetricsHolder.metrics.initializeMetrics(parentContext, scope);
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return null;
+  }
+}
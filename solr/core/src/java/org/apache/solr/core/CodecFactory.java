@@ -16,6 +16,9 @@
  */
 package org.apache.solr.core;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.apache.lucene.codecs.Codec;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.util.plugin.NamedListInitializedPlugin;
@@ -29,4 +32,13 @@ public abstract class CodecFactory implements NamedListInitializedPlugin {
   }
   
   public abstract Codec getCodec();
+
+  /**
+   * Returns the attributes to pass to the readers of the index, see
+   * {@link org.apache.lucene.index.DirectoryReader#open(org.apache.lucene.store.Directory, Map)}.
+   * Unlike the codec, which is only used to write new segments, these apply to all segments that are opened.
+   */
+  public Map<String, String> getReaderAttributes() {
+    return Collections.emptyMap();
+  }
 }
@@ -127,6 +127,7 @@ import org.apache.solr.update.SolrCoreState;
 import org.apache.solr.update.UpdateShardHandler;
 import org.apache.solr.util.OrderedExecutor;
 import org.apache.solr.util.RefCounted;
+import org.apache.solr.util.circuitbreaker.RequestMemoryBudget;
 import org.apache.solr.util.stats.MetricUtils;
 import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
@@ -256,6 +257,11 @@ public class CoreContainer {
 
   private ExecutorService coreContainerAsyncTaskExecutor = ExecutorUtil.newMDCAwareCachedThreadPool("Core Container Async Task");
 
+  private final ExecutorService collectorExecutor = newCollectorExecutor();
+
+  // shared by the cores that enable request memory accounting, created by the first of them
+  private RequestMemoryBudget requestMemoryBudget;
+
   private enum CoreInitFailedAction {fromleader, none}
 
   /**
@@ -279,6 +285,37 @@ public class CoreContainer {
     return zkSys.getCoreZkRegisterExecutorService();
   }
 
+  private static ExecutorService newCollectorExecutor() {
+    int threads = Integer.getInteger("solr.collectorThreads", 0);
+    return threads > 0 ? ExecutorUtil.newMDCAwareFixedThreadPool(threads, new SolrNamedThreadFactory("collectorExecutor")) : null;
+  }
+
+  /**
+   * Returns the executor shared by all cores to collect the slices of a search concurrently, or null
+   * if the <code>solr.collectorThreads</code> system property isn't set.
+   */
+  public ExecutorService getCollectorExecutor() {
+    return collectorExecutor;
+  }
+
+  /**
+   * Returns the request memory budget shared by all cores, so that the requests running on the node are limited
+   * together no matter which core serves them. The budget is created with the settings of the first core that
+   * asks for it; cores configuring different settings get the existing budget and a warning is logged.
+   */
+  public synchronized RequestMemoryBudget getRequestMemoryBudget(long budgetBytes, long admissionTimeoutMs) {
+    if (requestMemoryBudget == null) {
+      requestMemoryBudget = new RequestMemoryBudget(budgetBytes, admissionTimeoutMs);
+    } else if (requestMemoryBudget.getBudgetBytes() != budgetBytes
+        || requestMemoryBudget.getAdmissionTimeoutMs() != admissionTimeoutMs) {
+      if (log.isWarnEnabled()) {
+        log.warn("Ignoring request memory budget of {} bytes with admission timeout {} ms, the node already uses a budget of {} bytes with admission timeout {} ms",
+            budgetBytes, admissionTimeoutMs, requestMemoryBudget.getBudgetBytes(), requestMemoryBudget.getAdmissionTimeoutMs());
+      }
+    }
+    return requestMemoryBudget;
+  }
+
   public SolrRequestHandler getRequestHandler(String path) {
     return RequestHandlerBase.getRequestHandler(path, containerHandlers);
   }
@@ -1030,6 +1067,10 @@ public class CoreContainer {
       // Now clear all the cores that are being operated upon.
       solrCores.close();
 
+      if (collectorExecutor != null) {
+        ExecutorUtil.shutdownAndAwaitTermination(collectorExecutor);
+      }
+
       objectCache.clear();
 
       // It's still possible that one of the pending dynamic load operation is waiting, so wake it up if so.
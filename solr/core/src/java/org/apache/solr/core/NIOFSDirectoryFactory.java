@@ -17,27 +17,78 @@
 package org.apache.solr.core;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IndexInput; // javadocs
 import org.apache.lucene.store.LockFactory;
 import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 
 
 /**
  * Factory to instantiate {@link org.apache.lucene.store.NIOFSDirectory}
+ * <p>
+ * Can set the following parameters:
+ * <ul>
+ *  <li>prefetchThreads -- Number of threads that read ranges passed to {@link IndexInput#prefetch(long, long)}
+ *  in the background, see {@link NIOFSDirectory#setPrefetchExecutor}. Defaults to 0, which ignores prefetch hints.</li>
+ * </ul>
  *
  **/
 public class NIOFSDirectoryFactory extends StandardDirectoryFactory {
 
+  /** Maximum number of pending background reads; hints are dropped beyond it. */
+  private static final int MAX_PENDING_PREFETCHES = 1024;
+
+  private ExecutorService prefetchExecutor;
+
+  @Override
+  @SuppressWarnings({"rawtypes"})
+  public void init(NamedList args) {
+    super.init(args);
+    SolrParams params = args.toSolrParams();
+    int prefetchThreads = params.getInt("prefetchThreads", 0);
+    if (prefetchThreads < 0) {
+      throw new IllegalArgumentException("prefetchThreads must not be negative");
+    }
+    if (prefetchThreads > 0) {
+      prefetchExecutor = new ExecutorUtil.MDCAwareThreadPoolExecutor(prefetchThreads, prefetchThreads,
+          0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_PREFETCHES),
+          new SolrNamedThreadFactory("niofsPrefetch"), new ThreadPoolExecutor.DiscardPolicy());
+    }
+  }
+
   @Override
   protected Directory create(String path, LockFactory lockFactory, DirContext dirContext) throws IOException {
     // we pass NoLockFactory, because the real lock factory is set later by injectLockFactory:
-    return new NIOFSDirectory(new File(path).toPath(), lockFactory);
+    NIOFSDirectory dir = new NIOFSDirectory(new File(path).toPath(), lockFactory);
+    if (dirContext != DirContext.META_DATA) {
+      dir.setPrefetchExecutor(prefetchExecutor);
+    }
+    return dir;
   }
   
   @Override
   public boolean isAbsolute(String path) {
     return new File(path).isAbsolute();
   }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      if (prefetchExecutor != null) {
+        ExecutorUtil.shutdownAndAwaitTermination(prefetchExecutor);
+      }
+    }
+  }
   
 }
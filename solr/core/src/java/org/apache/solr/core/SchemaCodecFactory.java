@@ -18,11 +18,16 @@ package org.apache.solr.core;
 
 import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat.Mode;
 import org.apache.lucene.codecs.lucene87.Lucene87Codec;
 import org.apache.solr.common.SolrException;
@@ -41,6 +46,12 @@ import org.slf4j.LoggerFactory;
  * Also, a string argument with name <code>compressionMode</code> can be
  * provided to chose between the different compression options for
  * stored fields
+ * <br>
+ * A string argument with name <code>termsIndexLoadMode</code> sets whether the
+ * terms index of all fields is read off-heap (the default) or loaded on-heap, see
+ * {@link FSTLoadMode}. Field types or fields may override it with their own
+ * <code>termsIndexLoadMode</code> property. Dynamic fields always use the
+ * codec-wide setting.
  * 
  * @lucene.experimental
  */
@@ -52,10 +63,16 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
   public static final String COMPRESSION_MODE = "compressionMode";
   
   public static final Mode SOLR_DEFAULT_COMPRESSION_MODE = Mode.BEST_SPEED;
+
+  /**
+   * Key to use in init arguments to set how the terms index is loaded by default.
+   */
+  public static final String TERMS_INDEX_LOAD_MODE = "termsIndexLoadMode";
   
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   
   private Codec codec;
+  private FSTLoadMode termsIndexLoadMode;
   private volatile SolrCore core;
   
   
@@ -92,6 +109,17 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
       compressionMode = SOLR_DEFAULT_COMPRESSION_MODE;
       log.debug("Using default compressionMode: {}", compressionMode);
     }
+    String termsIndexLoadModeStr = (String)args.get(TERMS_INDEX_LOAD_MODE);
+    if (termsIndexLoadModeStr != null) {
+      try {
+        termsIndexLoadMode = FSTLoadMode.valueOf(termsIndexLoadModeStr.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new SolrException(ErrorCode.SERVER_ERROR,
+            "Invalid termsIndexLoadMode: '" + termsIndexLoadModeStr +
+            "'. Value must be one of " + Arrays.toString(FSTLoadMode.values()));
+      }
+      log.debug("Using termsIndexLoadMode: {}", termsIndexLoadMode);
+    }
     codec = new Lucene87Codec(compressionMode) {
       @Override
       public PostingsFormat getPostingsFormatForField(String field) {
@@ -123,4 +151,20 @@ public class SchemaCodecFactory extends CodecFactory implements SolrCoreAware {
     assert core != null : "inform must be called first";
     return codec;
   }
+
+  @Override
+  public Map<String, String> getReaderAttributes() {
+    assert core != null : "inform must be called first";
+    final Map<String, String> attributes = new HashMap<>();
+    if (termsIndexLoadMode != null) {
+      attributes.put(BlockTreeTermsReader.FST_MODE_KEY, termsIndexLoadMode.name());
+    }
+    for (SchemaField schemaField : core.getLatestSchema().getFields().values()) {
+      final FSTLoadMode mode = schemaField.getTermsIndexLoadMode();
+      if (mode != null) {
+        attributes.put(BlockTreeTermsReader.fstModeKey(schemaField.getName()), mode.name());
+      }
+    }
+    return Collections.unmodifiableMap(attributes);
+  }
 }
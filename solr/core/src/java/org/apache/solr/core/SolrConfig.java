@@ -68,6 +68,8 @@ import org.apache.solr.schema.IndexSchemaFactory;
 import org.apache.solr.search.CacheConfig;
 import org.apache.solr.search.CaffeineCache;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
+import org.apache.solr.search.SegmentStoredFieldsCache;
 import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.ValueSourceParser;
 import org.apache.solr.search.stats.StatsCache;
@@ -228,10 +230,14 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     queryResultWindowSize = Math.max(1, getInt("query/queryResultWindowSize", 1));
     queryResultMaxDocsCached = getInt("query/queryResultMaxDocsCached", Integer.MAX_VALUE);
     enableLazyFieldLoading = getBool("query/enableLazyFieldLoading", false);
+    uninvertPerSegment = getBool("query/uninvertPerSegment", false);
+    offHeapArenaMB = getInt("query/offHeapArenaMB", 0);
     
     filterCacheConfig = CacheConfig.getConfig(this, "query/filterCache");
     queryResultCacheConfig = CacheConfig.getConfig(this, "query/queryResultCache");
     documentCacheConfig = CacheConfig.getConfig(this, "query/documentCache");
+    storedFieldsBlockCacheConfig = CacheConfig.getConfig(this, "query/" + SegmentStoredFieldsCache.NAME);
+    segmentFilterCacheConfig = CacheConfig.getConfig(this, "query/" + SegmentFilterCache.NAME);
     CacheConfig conf = CacheConfig.getConfig(this, "query/fieldValueCache");
     if (conf == null) {
       Map<String, String> args = new HashMap<>();
@@ -437,7 +443,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
         getBool("updateHandler/autoCommit/openSearcher", true),
         getInt("updateHandler/autoSoftCommit/maxDocs", -1),
         getInt("updateHandler/autoSoftCommit/maxTime", -1),
-        getBool("updateHandler/commitWithin/softCommit", true));
+        getBool("updateHandler/commitWithin/softCommit", true),
+        getBool("updateHandler/commitNotification", false));
   }
 
   /**
@@ -517,6 +524,9 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
   public final CacheConfig filterCacheConfig;
   public final CacheConfig queryResultCacheConfig;
   public final CacheConfig documentCacheConfig;
+  // SolrCore - per-segment caches shared by all searchers
+  public final CacheConfig storedFieldsBlockCacheConfig;
+  public final CacheConfig segmentFilterCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
   public final Map<String, CacheConfig> userCacheConfigs;
   // SolrIndexSearcher - more...
@@ -524,6 +534,11 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
   public final int queryResultWindowSize;
   public final int queryResultMaxDocsCached;
   public final boolean enableLazyFieldLoading;
+  // JSON facets on multi-valued fields without docValues use the per-segment uninverted field cache
+  // instead of a top-level UnInvertedField, so that only new segments are uninverted after a reopen
+  public final boolean uninvertPerSegment;
+  // megabytes of direct memory that each searcher keeps pooled for large per-request arrays, 0 disables the arena
+  public final int offHeapArenaMB;
 
   // IndexConfig settings
   public final SolrIndexConfig indexConfig;
@@ -652,6 +667,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     public final boolean indexWriterCloseWaitsForMerges;
     public final boolean openSearcher;  // is opening a new searcher part of hard autocommit?
     public final boolean commitWithinSoftCommit;
+    public final boolean commitNotification; // does the leader notify TLOG and PULL replicas of new commits?
 
     /**
      * @param autoCommmitMaxDocs       set -1 as default
@@ -660,6 +676,12 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
      */
     public UpdateHandlerInfo(String className, int autoCommmitMaxDocs, int autoCommmitMaxTime, long autoCommitMaxSize, boolean indexWriterCloseWaitsForMerges, boolean openSearcher,
                              int autoSoftCommmitMaxDocs, int autoSoftCommmitMaxTime, boolean commitWithinSoftCommit) {
+      this(className, autoCommmitMaxDocs, autoCommmitMaxTime, autoCommitMaxSize, indexWriterCloseWaitsForMerges, openSearcher,
+          autoSoftCommmitMaxDocs, autoSoftCommmitMaxTime, commitWithinSoftCommit, false);
+    }
+
+    public UpdateHandlerInfo(String className, int autoCommmitMaxDocs, int autoCommmitMaxTime, long autoCommitMaxSize, boolean indexWriterCloseWaitsForMerges, boolean openSearcher,
+                             int autoSoftCommmitMaxDocs, int autoSoftCommmitMaxTime, boolean commitWithinSoftCommit, boolean commitNotification) {
       this.className = className;
       this.autoCommmitMaxDocs = autoCommmitMaxDocs;
       this.autoCommmitMaxTime = autoCommmitMaxTime;
@@ -671,6 +693,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
       this.autoSoftCommmitMaxTime = autoSoftCommmitMaxTime;
 
       this.commitWithinSoftCommit = commitWithinSoftCommit;
+      this.commitNotification = commitNotification;
     }
 
 
@@ -688,6 +711,7 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
       result.put("autoSoftCommit",
           makeMap("maxDocs", autoSoftCommmitMaxDocs,
               "maxTime", autoSoftCommmitMaxTime));
+      result.put("commitNotification", commitNotification);
       return result;
     }
   }
@@ -872,6 +896,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     m.put("queryResultWindowSize", queryResultWindowSize);
     m.put("queryResultMaxDocsCached", queryResultMaxDocsCached);
     m.put("enableLazyFieldLoading", enableLazyFieldLoading);
+    m.put("uninvertPerSegment", uninvertPerSegment);
+    m.put("offHeapArenaMB", offHeapArenaMB);
     m.put("maxBooleanClauses", booleanQueryMaxClauseCount);
 
     for (SolrPluginInfo plugin : plugins) {
@@ -902,7 +928,8 @@ public class SolrConfig extends XmlConfigFile implements MapSerializable {
     }
 
 
-    addCacheConfig(m, filterCacheConfig, queryResultCacheConfig, documentCacheConfig, fieldValueCacheConfig);
+    addCacheConfig(m, filterCacheConfig, queryResultCacheConfig, documentCacheConfig, fieldValueCacheConfig, storedFieldsBlockCacheConfig,
+        segmentFilterCacheConfig);
     m = new LinkedHashMap();
     result.put("requestDispatcher", m);
     m.put("handleSelect", handleSelect);
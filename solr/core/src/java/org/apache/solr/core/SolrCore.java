@@ -138,6 +138,8 @@ import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.ManagedIndexSchema;
 import org.apache.solr.schema.SimilarityFactory;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SegmentFilterCache;
+import org.apache.solr.search.SegmentStoredFieldsCache;
 import org.apache.solr.search.SolrFieldCacheBean;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
@@ -160,6 +162,7 @@ import org.apache.solr.update.processor.UpdateRequestProcessorChain.ProcessorInf
 import org.apache.solr.update.processor.UpdateRequestProcessorFactory;
 import org.apache.solr.util.IOFunction;
 import org.apache.solr.util.NumberUtils;
+import org.apache.solr.util.OffHeapArena;
 import org.apache.solr.util.PropertiesInputStream;
 import org.apache.solr.util.PropertiesOutputStream;
 import org.apache.solr.util.RefCounted;
@@ -225,6 +228,10 @@ public final class SolrCore implements SolrInfoBean, Closeable {
   private final RecoveryStrategy.Builder recoveryStrategyBuilder;
   private IndexReaderFactory indexReaderFactory;
   private final Codec codec;
+  private final CodecFactory codecFactory;
+  private final SegmentStoredFieldsCache segmentStoredFieldsCache;
+  private final SegmentFilterCache segmentFilterCache;
+  private final OffHeapArena offHeapArena;
   //singleton listener for all packages used in schema
   private final PackageListeningClassLoader schemaPluginsLoader;
 
@@ -995,7 +1002,11 @@ public final class SolrCore implements SolrInfoBean, Closeable {
       this.snapshotMgr = initSnapshotMetaDataManager();
       this.solrDelPolicy = initDeletionPolicy(delPolicy);
 
-      this.codec = initCodec(solrConfig, this.schema);
+      this.codecFactory = initCodecFactory(solrConfig, this.schema);
+      this.codec = codecFactory.getCodec();
+      this.segmentStoredFieldsCache = initSegmentStoredFieldsCache(solrConfig);
+      this.segmentFilterCache = initSegmentFilterCache(solrConfig);
+      this.offHeapArena = solrConfig.offHeapArenaMB > 0 ? new OffHeapArena(solrConfig.offHeapArenaMB * 1024L * 1024L) : null;
       initIndex(prev != null, reload);
 
       initWriters();
@@ -1175,7 +1186,7 @@ public final class SolrCore implements SolrInfoBean, Closeable {
 
   private CircuitBreakerManager initCircuitBreakerManager() {
     final PluginInfo info = solrConfig.getPluginInfo(CircuitBreakerManager.class.getName());
-    CircuitBreakerManager circuitBreakerManager = CircuitBreakerManager.build(info);
+    CircuitBreakerManager circuitBreakerManager = CircuitBreakerManager.build(info, coreContainer);
 
     return circuitBreakerManager;
   }
@@ -1402,7 +1413,7 @@ public final class SolrCore implements SolrInfoBean, Closeable {
     }
   }
 
-  private Codec initCodec(SolrConfig solrConfig, final IndexSchema schema) {
+  private CodecFactory initCodecFactory(SolrConfig solrConfig, final IndexSchema schema) {
     final PluginInfo info = solrConfig.getPluginInfo(CodecFactory.class.getName());
     final CodecFactory factory;
     if (info != null) {
@@ -1432,9 +1443,14 @@ public final class SolrCore implements SolrInfoBean, Closeable {
           log.error(msg);
           throw new SolrException(ErrorCode.SERVER_ERROR, msg);
         }
+        if (null != ft.getTermsIndexLoadMode()) {
+          String msg = "FieldType '" + ft.getTypeName() + "' is configured with a terms index load mode, but the codec does not support it: " + factory.getClass();
+          log.error(msg);
+          throw new SolrException(ErrorCode.SERVER_ERROR, msg);
+        }
       }
     }
-    return factory.getCodec();
+    return factory;
   }
 
   /**
@@ -1651,6 +1667,20 @@ public final class SolrCore implements SolrInfoBean, Closeable {
       }
     }
 
+    for (Closeable segmentCache : new Closeable[] {segmentStoredFieldsCache, segmentFilterCache, offHeapArena}) {
+      if (segmentCache == null) {
+        continue;
+      }
+      try {
+        segmentCache.close();
+      } catch (Throwable e) {
+        SolrException.log(log, e);
+        if (e instanceof Error) {
+          throw (Error) e;
+        }
+      }
+    }
+
     if (coreStateClosed) {
       try {
         cleanupOldIndexDirectories(false);
@@ -2970,6 +3000,59 @@ public final class SolrCore implements SolrInfoBean, Closeable {
     return codec;
   }
 
+  /**
+   * Returns the attributes passed to the readers of this core's index, as configured by the {@link CodecFactory}.
+   * @see CodecFactory#getReaderAttributes()
+   */
+  public Map<String, String> getReaderAttributes() {
+    return codecFactory.getReaderAttributes();
+  }
+
+  private SegmentStoredFieldsCache initSegmentStoredFieldsCache(SolrConfig solrConfig) {
+    final SegmentStoredFieldsCache cache = SegmentStoredFieldsCache.create(solrConfig.storedFieldsBlockCacheConfig);
+    if (cache != null) {
+      cache.initializeMetrics(solrMetricsContext);
+      infoRegistry.put(SegmentStoredFieldsCache.NAME, cache.getCache());
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the cache of decompressed stored fields blocks that is shared by all searchers of this core,
+   * or {@code null} if it is not configured.
+   * @see SegmentStoredFieldsCache
+   */
+  public SegmentStoredFieldsCache getSegmentStoredFieldsCache() {
+    return segmentStoredFieldsCache;
+  }
+
+  private SegmentFilterCache initSegmentFilterCache(SolrConfig solrConfig) {
+    final SegmentFilterCache cache = SegmentFilterCache.create(solrConfig.segmentFilterCacheConfig);
+    if (cache != null) {
+      cache.initializeMetrics(solrMetricsContext);
+      infoRegistry.put(SegmentFilterCache.NAME, cache.getCache());
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the cache of per-segment filter results that is shared by all searchers of this core,
+   * or {@code null} if it is not configured.
+   * @see SegmentFilterCache
+   */
+  public SegmentFilterCache getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
+  /**
+   * Returns the arena that large per-request arrays may be borrowed from, which is shared by all searchers of this
+   * core so that pooled buffers survive commits, or {@code null} if it is not configured.
+   * @see SolrIndexSearcher#getOffHeapArena()
+   */
+  public OffHeapArena getOffHeapArena() {
+    return offHeapArena;
+  }
+
   public void unloadOnClose(final CoreDescriptor desc, boolean deleteIndexDir, boolean deleteDataDir, boolean deleteInstanceDir) {
     if (deleteIndexDir) {
       try {
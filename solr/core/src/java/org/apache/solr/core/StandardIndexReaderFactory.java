@@ -25,13 +25,13 @@ import org.apache.lucene.store.Directory;
  * Default IndexReaderFactory implementation. Returns a standard Lucene
  * {@link DirectoryReader}.
  * 
- * @see DirectoryReader#open(Directory)
+ * @see DirectoryReader#open(Directory, java.util.Map)
  */
 public class StandardIndexReaderFactory extends IndexReaderFactory {
   
   @Override
   public DirectoryReader newReader(Directory indexDir, SolrCore core) throws IOException {
-    return DirectoryReader.open(indexDir);
+    return DirectoryReader.open(indexDir, core.getReaderAttributes());
   }
 
   @Override
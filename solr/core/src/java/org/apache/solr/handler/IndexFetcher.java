@@ -54,6 +54,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.zip.Adler32;
+import java.util.zip.CRC32;
 import java.util.zip.Checksum;
 import java.util.zip.InflaterInputStream;
 
@@ -69,6 +70,7 @@ import org.apache.lucene.store.FilterDirectory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpClientUtil;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
@@ -166,6 +168,11 @@ public class IndexFetcher {
 
   private boolean clearLocalIndexFirst = false;
 
+  private int maxConcurrentFileFetches = 1;
+
+  // shared by all the files that are fetched concurrently, null if downloads are not throttled
+  private RateLimiter rateLimiter;
+
   private static final String INTERRUPT_RESPONSE_MESSAGE = "Interrupted while waiting for modify lock";
 
   public static class IndexFetchResult {
@@ -256,6 +263,19 @@ public class IndexFetcher {
       soTimeout = getParameter(initArgs, HttpClientUtil.PROP_SO_TIMEOUT, 120000, null);
     }
 
+    Object maxConcurrentFileFetches = initArgs.get(MAX_CONCURRENT_FILE_FETCHES);
+    if (maxConcurrentFileFetches != null) {
+      this.maxConcurrentFileFetches = Integer.parseInt(maxConcurrentFileFetches.toString());
+      if (this.maxConcurrentFileFetches < 1) {
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+            "'" + MAX_CONCURRENT_FILE_FETCHES + "' must be at least 1, got " + this.maxConcurrentFileFetches);
+      }
+    }
+    Object maxReadMBPerSec = initArgs.get(MAX_READ_PER_SECOND);
+    if (maxReadMBPerSec != null) {
+      rateLimiter = new RateLimiter.SimpleRateLimiter(Double.parseDouble(maxReadMBPerSec.toString()));
+    }
+
     String httpBasicAuthUser = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_USER);
     String httpBasicAuthPassword = (String) initArgs.get(HttpClientUtil.PROP_BASIC_AUTH_PASS);
     myHttpClient = createHttpClient(solrCore, httpBasicAuthUser, httpBasicAuthPassword, useExternalCompression);
@@ -989,6 +1009,7 @@ public class IndexFetcher {
       deleteFilesInAdvance(indexDir, indexDirPath, totalSpaceRequired, usableSpace);
     }
 
+    List<Map<String,Object>> filesToFetch = new ArrayList<>();
     for (Map<String,Object> file : filesToDownload) {
       String filename = (String) file.get(NAME);
       long size = (Long) file.get(SIZE);
@@ -1009,24 +1030,74 @@ public class IndexFetcher {
           // compared to a file copy. TODO: Maybe we could do a move safely here?
           Files.createLink(new File(tmpIndexDirPath, filename).toPath(), localFile.toPath());
           bytesSkippedCopying += localFile.length();
+          filesDownloaded.add(new HashMap<>(file));
         } else {
-          dirFileFetcher = new DirectoryFileFetcher(tmpIndexDir, file,
-              (String) file.get(NAME), FILE, latestGeneration);
-          currentFile = file;
-          dirFileFetcher.fetchFile();
-          bytesDownloaded += dirFileFetcher.getBytesDownloaded();
+          filesToFetch.add(file);
         }
-        filesDownloaded.add(new HashMap<>(file));
       } else {
         if (log.isDebugEnabled()) {
           log.debug("Skipping download for {} because it already exists", file.get(NAME));
         }
       }
     }
+
+    if (maxConcurrentFileFetches == 1 || filesToFetch.size() <= 1) {
+      for (Map<String,Object> file : filesToFetch) {
+        bytesDownloaded += fetchIndexFile(tmpIndexDir, file, latestGeneration);
+      }
+    } else {
+      bytesDownloaded += fetchIndexFilesConcurrently(tmpIndexDir, filesToFetch, latestGeneration);
+    }
     log.info("Bytes downloaded: {}, Bytes skipped downloading: {}", bytesDownloaded, bytesSkippedCopying);
     return bytesDownloaded;
   }
 
+  private long fetchIndexFile(Directory tmpIndexDir, Map<String,Object> file, long latestGeneration) throws Exception {
+    DirectoryFileFetcher fetcher = new DirectoryFileFetcher(tmpIndexDir, file,
+        (String) file.get(NAME), FILE, latestGeneration);
+    // when files are fetched concurrently, details only report the last one that started
+    dirFileFetcher = fetcher;
+    currentFile = file;
+    fetcher.fetchFile();
+    filesDownloaded.add(new HashMap<>(file));
+    return fetcher.getBytesDownloaded();
+  }
+
+  /**
+   * Fetches files over up to {@code maxConcurrentFileFetches} streams. The first failure aborts the
+   * fetches that are still running and is rethrown once they all returned.
+   */
+  private long fetchIndexFilesConcurrently(Directory tmpIndexDir, List<Map<String,Object>> files,
+                                           long latestGeneration) throws Exception {
+    ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(
+        Math.min(maxConcurrentFileFetches, files.size()), new SolrNamedThreadFactory("indexFetcher"));
+    try {
+      List<Future<Long>> futures = new ArrayList<>(files.size());
+      for (Map<String,Object> file : files) {
+        futures.add(executor.submit(() -> fetchIndexFile(tmpIndexDir, file, latestGeneration)));
+      }
+      long bytesDownloaded = 0;
+      Exception failure = null;
+      for (Future<Long> future : futures) {
+        try {
+          bytesDownloaded += future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            // make the other fetches give up, this flag is cleared when the fetch is cleaned up
+            stop = true;
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return bytesDownloaded;
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
   //only for testing purposes. do not use this anywhere else
   //-----------START----------------------
   static BooleanSupplier testWait = () -> true;
@@ -1531,11 +1602,20 @@ public class IndexFetcher {
     private long bytesDownloaded = 0;
     private byte[] buf;
     private final Checksum checksum;
+    // checksum of the whole file, verified against the checksum in the footer as bytes arrive
+    private final CRC32 fileChecksum;
+    private final long expectedFileChecksum;
     private int errorCount = 0;
     private boolean aborted = false;
+    private boolean corrupted = false;
 
     FileFetcher(FileInterface file, Map<String, Object> fileDetails, String saveAs,
                 String solrParamOutput, long latestGen) throws IOException {
+      this(file, fileDetails, saveAs, solrParamOutput, latestGen, false);
+    }
+
+    FileFetcher(FileInterface file, Map<String, Object> fileDetails, String saveAs,
+                String solrParamOutput, long latestGen, boolean verifyFileChecksum) throws IOException {
       this.file = file;
       this.fileName = (String) fileDetails.get(NAME);
       this.size = (Long) fileDetails.get(SIZE);
@@ -1548,6 +1628,14 @@ public class IndexFetcher {
       } else {
         checksum = null;
       }
+      Long expectedFileChecksum = (Long) fileDetails.get(CHECKSUM);
+      if (verifyFileChecksum && expectedFileChecksum != null && size >= CodecUtil.footerLength()) {
+        this.fileChecksum = new CRC32();
+        this.expectedFileChecksum = expectedFileChecksum;
+      } else {
+        this.fileChecksum = null;
+        this.expectedFileChecksum = -1;
+      }
     }
 
     public long getBytesDownloaded() {
@@ -1562,7 +1650,7 @@ public class IndexFetcher {
       try {
         fetch();
       } catch(Exception e) {
-        if (!aborted) {
+        if (!aborted && !corrupted) {
           SolrException.log(IndexFetcher.log, "Error fetching file, doing one retry...", e);
           // one retry
           fetch();
@@ -1573,6 +1661,9 @@ public class IndexFetcher {
     }
     
     private void fetch() throws Exception {
+      if (fileChecksum != null && bytesDownloaded == 0) {
+        fileChecksum.reset();
+      }
       try {
         while (true) {
           final FastInputStream is = getStream();
@@ -1580,8 +1671,11 @@ public class IndexFetcher {
           try {
             //fetch packets one by one in a single request
             result = fetchPackets(is);
-            if (result == 0 || result == NO_CONTENT) {
-
+            if (result == 0) {
+              verifyFileChecksum();
+              return;
+            }
+            if (result == NO_CONTENT) {
               return;
             }
             //if there is an error continue. But continue from the point where it got broken
@@ -1608,7 +1702,7 @@ public class IndexFetcher {
       try {
         while (true) {
           if (stop) {
-            stop = false;
+            // don't clear the flag, files may be fetched concurrently and all need to give up
             aborted = true;
             throw new ReplicationHandlerException("User aborted replication");
           }
@@ -1632,6 +1726,12 @@ public class IndexFetcher {
           }
           //then read the packet of bytes
           fis.readFully(buf, 0, packetSize);
+          if (rateLimiter != null) {
+            // concurrent fetches share the limit
+            synchronized (rateLimiter) {
+              rateLimiter.pause(packetSize);
+            }
+          }
           //compare the checksum as sent from the leader
           if (includeChecksum) {
             checksum.reset();
@@ -1645,6 +1745,13 @@ public class IndexFetcher {
           }
           //if everything is fine, write down the packet to the file
           file.write(buf, packetSize);
+          if (fileChecksum != null) {
+            // the checksum covers everything but itself, ie. the last 8 bytes of the footer
+            long checksummedEnd = Math.min(bytesDownloaded + packetSize, size - Long.BYTES);
+            if (checksummedEnd > bytesDownloaded) {
+              fileChecksum.update(buf, 0, (int) (checksummedEnd - bytesDownloaded));
+            }
+          }
           bytesDownloaded += packetSize;
           log.debug("Fetched and wrote {} bytes of file: {}", bytesDownloaded, fileName);
           //errorCount is always set to zero after a successful packet
@@ -1670,6 +1777,15 @@ public class IndexFetcher {
       }
     }
 
+    private void verifyFileChecksum() {
+      if (fileChecksum != null && fileChecksum.getValue() != expectedFileChecksum) {
+        corrupted = true;
+        throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
+            "Checksum mismatch for file: " + fileName + ", expected " + expectedFileChecksum
+                + " but got " + fileChecksum.getValue());
+      }
+    }
+
     /**
      * The webcontainer flushes the data only after it fills the buffer size. So, all data has to be read as readFully()
      * other wise it fails. So read everything as bytes and then extract an integer out of it
@@ -1802,7 +1918,7 @@ public class IndexFetcher {
   private class DirectoryFileFetcher extends FileFetcher {
     DirectoryFileFetcher(Directory tmpIndexDir, Map<String, Object> fileDetails, String saveAs,
                          String solrParamOutput, long latestGen) throws IOException {
-      super(new DirectoryFile(tmpIndexDir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen);
+      super(new DirectoryFile(tmpIndexDir, saveAs), fileDetails, saveAs, solrParamOutput, latestGen, true);
     }
   }
 
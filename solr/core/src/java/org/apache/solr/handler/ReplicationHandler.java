@@ -45,6 +45,7 @@ import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -69,6 +70,7 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.RateLimiter;
+import org.apache.solr.cloud.ReplicateFromLeader;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.params.CommonParams;
@@ -225,6 +227,13 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
    */
   private AtomicBoolean pollDisabled = new AtomicBoolean(false);
 
+  private volatile Runnable pollTask;
+
+  /**
+   * Whether a poll requested by {@link #pollNow()} is waiting to run
+   */
+  private final AtomicBoolean pollPending = new AtomicBoolean(false);
+
   String getPollInterval() {
     return pollIntervalStr;
   }
@@ -282,6 +291,8 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
       deleteSnapshot(new ModifiableSolrParams(solrParams), rsp);
     } else if (command.equalsIgnoreCase(CMD_FETCH_INDEX)) {
       fetchIndex(solrParams, rsp);
+    } else if (command.equalsIgnoreCase(CMD_NOTIFY_COMMIT)) {
+      notifyCommit(rsp);
     } else if (command.equalsIgnoreCase(CMD_DISABLE_POLL)) {
       disablePoll(rsp);
     } else if (command.equalsIgnoreCase(CMD_ENABLE_POLL)) {
@@ -813,6 +824,64 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
     }
   }
 
+  private void notifyCommit(SolrQueryResponse rsp) {
+    CoreContainer cc = core.getCoreContainer();
+    if (cc.getZkController() != null && cc.getZkController().pollReplicationFromLeader(core.getName())) {
+      rsp.add(STATUS, OK_STATUS);
+    } else {
+      reportErrorOnResponse(rsp, "No replication from leader running", null);
+    }
+  }
+
+  /**
+   * Polls the leader for a new index right away, once the poll that is running, if any, is done.
+   * Requests that come in while a poll is waiting to run are folded into that poll.
+   *
+   * @return false if this handler doesn't poll
+   */
+  public boolean pollNow() {
+    Runnable task = pollTask;
+    ScheduledExecutorService executor = executorService;
+    if (task == null || executor == null) {
+      return false;
+    }
+    if (pollPending.compareAndSet(false, true)) {
+      try {
+        executor.execute(() -> {
+          pollPending.set(false);
+          task.run();
+        });
+      } catch (RejectedExecutionException e) {
+        // shutting down
+        pollPending.set(false);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Notifies the TLOG and PULL replicas of the shard after each hard commit while this core is the leader.
+   * Soft commits are not notified: replicas copy commit points, so there would be nothing new to fetch.
+   */
+  private SolrEventListener getCommitNotificationListener() {
+    return new SolrEventListener() {
+      @Override
+      public void init(@SuppressWarnings({"rawtypes"})NamedList args) {/*no op*/ }
+
+      @Override
+      public void postCommit() {
+        ReplicateFromLeader.notifyReplicas(core);
+      }
+
+      @Override
+      public void newSearcher(SolrIndexSearcher newSearcher, SolrIndexSearcher currentSearcher) { /*no op*/}
+
+      @Override
+      public void postSoftCommit() { /*no op*/}
+    };
+  }
+
   private void disablePoll(SolrQueryResponse rsp) {
     if (pollingIndexFetcher != null){
       pollDisabled.set(true);
@@ -1199,7 +1268,7 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
       return;
     }
 
-    Runnable task = () -> {
+    pollTask = () -> {
       if (pollDisabled.get()) {
         log.info("Poll disabled");
         return;
@@ -1218,7 +1287,7 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
     // Randomize initial delay, with a minimum of 1ms
     long initialDelayNs = new Random().nextLong() % pollIntervalNs
         + TimeUnit.NANOSECONDS.convert(1, TimeUnit.MILLISECONDS);
-    executorService.scheduleAtFixedRate(task, initialDelayNs, pollIntervalNs, TimeUnit.NANOSECONDS);
+    executorService.scheduleAtFixedRate(pollTask, initialDelayNs, pollIntervalNs, TimeUnit.NANOSECONDS);
     log.info("Poll scheduled at an interval of {}ms",
         TimeUnit.MILLISECONDS.convert(pollIntervalNs, TimeUnit.NANOSECONDS));
   }
@@ -1307,6 +1376,10 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
         replicateOnCommit = true;
         core.getUpdateHandler().registerCommitCallback(getEventListener(backupOnCommit, replicateOnCommit));
       }
+      // registered after the listener above, so that replicas are notified once the commit point is replicable
+      if (core.getCoreContainer().isZooKeeperAware() && core.getSolrConfig().getUpdateHandlerInfo().commitNotification) {
+        core.getUpdateHandler().registerCommitCallback(getCommitNotificationListener());
+      }
       if (replicateAfter.contains("startup")) {
         replicateOnStart = true;
         RefCounted<SolrIndexSearcher> s = core.getNewestSearcher(false);
@@ -1794,6 +1867,11 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   public static final String CMD_ABORT_FETCH = "abortfetch";
 
+  /**
+   * Sent by the shard leader to TLOG and PULL replicas when it has a new commit to fetch
+   */
+  public static final String CMD_NOTIFY_COMMIT = "notifycommit";
+
   public static final String CMD_GET_FILE_LIST = "filelist";
 
   public static final String CMD_GET_FILE = "filecontent";
@@ -1824,6 +1902,10 @@ public class ReplicationHandler extends RequestHandlerBase implements SolrCoreAw
 
   public static final String MAX_WRITE_PER_SECOND = "maxWriteMBPerSec";
 
+  public static final String MAX_READ_PER_SECOND = "maxReadMBPerSec";
+
+  public static final String MAX_CONCURRENT_FILE_FETCHES = "maxConcurrentFileFetches";
+
   public static final String CONF_FILE_SHORT = "cf";
 
   public static final String TLOG_FILE = "tlogFile";
@@ -16,12 +16,16 @@
  */
 package org.apache.solr.handler.component;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.opentracing.Span;
@@ -63,11 +67,15 @@ public class HttpShardHandler extends ShardHandler {
   public static String ONLY_NRT_REPLICAS = "distribOnlyRealtime";
 
   private HttpShardHandlerFactory httpShardHandlerFactory;
-  private Map<ShardResponse, Cancellable> responseCancellableMap;
+  private Map<ShardResponse, ShardAttempts> responseCancellableMap;
   private BlockingQueue<ShardResponse> responses;
   private AtomicInteger pending;
   private Map<String, List<String>> shardToURLs;
   private LBHttp2SolrClient lbClient;
+  // whether requests of the current distributed request may be hedged, package-private for testing
+  boolean hedgingAllowed;
+  // requests that will be hedged if they are not complete by their deadline, in the order they were submitted
+  private Deque<ShardAttempts> pendingHedges;
 
   public HttpShardHandler(HttpShardHandlerFactory httpShardHandlerFactory) {
     this.httpShardHandlerFactory = httpShardHandlerFactory;
@@ -75,6 +83,8 @@ public class HttpShardHandler extends ShardHandler {
     this.pending = new AtomicInteger(0);
     this.responses = new LinkedBlockingQueue<>();
     this.responseCancellableMap = new HashMap<>();
+    this.hedgingAllowed = false;
+    this.pendingHedges = new ArrayDeque<>();
 
     // maps "localhost:8983|localhost:7574" to a shuffled List("http://localhost:8983","http://localhost:7574")
     // This is primarily to keep track of what order we should use to query the replicas of a shard
@@ -156,9 +166,27 @@ public class HttpShardHandler extends ShardHandler {
       return;
     }
 
+    final ShardAttempts attempts = new ShardAttempts(sreq, shard, params, urls, srsp, tracer, span);
+    attempts.primary = sendRequest(lbReq, req, attempts, false);
+    responseCancellableMap.put(srsp, attempts);
+    httpShardHandlerFactory.recordShardRequest();
+
+    if (hedgingAllowed && urls.size() > 1 && (sreq.purpose & ShardRequest.PURPOSE_PRIVATE) == 0) {
+      final long hedgeDelay = httpShardHandlerFactory.getHedgeDelayNanos();
+      if (hedgeDelay >= 0) {
+        attempts.hedgeDeadline = System.nanoTime() + hedgeDelay;
+        pendingHedges.add(attempts);
+      }
+    }
+  }
+
+  private Cancellable sendRequest(LBSolrClient.Req lbReq, QueryRequest req, ShardAttempts attempts, boolean hedged) {
+    final Tracer tracer = attempts.tracer;
+    final Span span = attempts.span;
+    final ShardResponse srsp = attempts.srsp;
+    final SimpleSolrResponse ssr = (SimpleSolrResponse) srsp.getSolrResponse();
     // all variables that set inside this listener must be at least volatile
-    responseCancellableMap.put(srsp, this.lbClient.asyncReq(lbReq, new AsyncListener<>() {
-      volatile long startTime = System.nanoTime();
+    return this.lbClient.asyncReq(lbReq, new AsyncListener<>() {
 
       @Override
       public void onStart() {
@@ -171,21 +199,158 @@ public class HttpShardHandler extends ShardHandler {
 
       @Override
       public void onSuccess(LBSolrClient.Rsp rsp) {
+        if (hedged == false) {
+          // also when losing against the hedge, so that the response times are not biased towards fast replicas
+          recordPrimaryResponseTime(attempts);
+        }
+        // the first attempt to answer wins, the other one is cancelled
+        if (attempts.completed.compareAndSet(false, true) == false) {
+          return;
+        }
         ssr.nl = rsp.getResponse();
         srsp.setShardAddress(rsp.getServer());
-        ssr.elapsedTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        ssr.elapsedTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - attempts.startTime, TimeUnit.NANOSECONDS);
         responses.add(srsp);
+        if (hedged) {
+          httpShardHandlerFactory.recordHedgeWon();
+          cancelPrimary(attempts);
+        } else {
+          attempts.cancel(attempts.hedge);
+        }
       }
 
       public void onFailure(Throwable throwable) {
-        ssr.elapsedTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        if (hedged == false) {
+          recordPrimaryResponseTime(attempts);
+        }
+        // only report a failure once no attempt can succeed anymore
+        if (attempts.outstanding.decrementAndGet() > 0 || attempts.completed.compareAndSet(false, true) == false) {
+          return;
+        }
+        ssr.elapsedTime = TimeUnit.MILLISECONDS.convert(System.nanoTime() - attempts.startTime, TimeUnit.NANOSECONDS);
         srsp.setException(throwable);
         if (throwable instanceof SolrException) {
           srsp.setResponseCode(((SolrException) throwable).code());
         }
         responses.add(srsp);
       }
-    }));
+    });
+  }
+
+  /**
+   * Send a duplicate of a request that is still pending to the next replica of the shard. Replicas are tried in the
+   * order that the {@link ReplicaSource} chose, so the duplicate starts with the replica that the original request
+   * would fail over to.
+   */
+  private void hedge(ShardAttempts attempts) {
+    // check the budget first: giving back the outstanding count below could race with the failure of the original request
+    if (attempts.completed.get() || httpShardHandlerFactory.tryAcquireHedge() == false) {
+      return;
+    }
+    attempts.outstanding.incrementAndGet();
+    if (attempts.completed.get()) {
+      attempts.outstanding.decrementAndGet();
+      return;
+    }
+    final List<String> urls = new ArrayList<>(attempts.urls.size());
+    urls.addAll(attempts.urls.subList(1, attempts.urls.size()));
+    urls.add(attempts.urls.get(0));
+    QueryRequest req = makeQueryRequest(attempts.sreq, attempts.params, attempts.shard);
+    req.setMethod(SolrRequest.METHOD.POST);
+    LBSolrClient.Req lbReq = httpShardHandlerFactory.newLBHttpSolrClientReq(req, urls);
+    attempts.hedge = sendRequest(lbReq, req, attempts, true);
+    if (attempts.completed.get()) {
+      // the original request completed in the meantime
+      attempts.cancel(attempts.hedge);
+    }
+  }
+
+  /**
+   * Record how long the original request to a shard took. Requests that get cancelled are recorded with the time
+   * until they were cancelled, which is a lower bound of their response time.
+   */
+  private void recordPrimaryResponseTime(ShardAttempts attempts) {
+    if (attempts.primaryRecorded.compareAndSet(false, true)) {
+      httpShardHandlerFactory.recordShardResponseTime(
+          TimeUnit.MILLISECONDS.convert(System.nanoTime() - attempts.startTime, TimeUnit.NANOSECONDS));
+    }
+  }
+
+  private void cancelPrimary(ShardAttempts attempts) {
+    recordPrimaryResponseTime(attempts);
+    attempts.cancel(attempts.primary);
+  }
+
+  /**
+   * Wait for the next response, sending duplicates of the requests that are still pending when their hedging deadline
+   * is reached. Hedges are sent from the thread of the request so that no thread is blocked on their behalf.
+   */
+  private ShardResponse nextResponse() throws InterruptedException {
+    while (true) {
+      while (pendingHedges.isEmpty() == false) {
+        final ShardAttempts next = pendingHedges.peek();
+        if (next.completed.get()) {
+          pendingHedges.poll();
+        } else if (next.hedgeDeadline - System.nanoTime() <= 0) {
+          pendingHedges.poll();
+          hedge(next);
+        } else {
+          break;
+        }
+      }
+      if (pendingHedges.isEmpty()) {
+        return responses.take();
+      }
+      final ShardResponse rsp = responses.poll(pendingHedges.peek().hedgeDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (rsp != null) {
+        return rsp;
+      }
+    }
+  }
+
+  /**
+   * The attempts at getting the response of a shard: the original request and possibly a duplicate that was sent to
+   * another replica because the original request was slow. Only the first one to complete makes it to the response.
+   */
+  private static class ShardAttempts implements Cancellable {
+    final ShardRequest sreq;
+    final String shard;
+    final ModifiableSolrParams params;
+    final List<String> urls;
+    final ShardResponse srsp;
+    final Tracer tracer;
+    final Span span;
+    final AtomicBoolean completed = new AtomicBoolean();
+    final AtomicInteger outstanding = new AtomicInteger(1);
+    final AtomicBoolean primaryRecorded = new AtomicBoolean();
+    final long startTime = System.nanoTime();
+    long hedgeDeadline;
+    volatile Cancellable primary;
+    volatile Cancellable hedge;
+
+    ShardAttempts(ShardRequest sreq, String shard, ModifiableSolrParams params, List<String> urls,
+                  ShardResponse srsp, Tracer tracer, Span span) {
+      this.sreq = sreq;
+      this.shard = shard;
+      this.params = params;
+      this.urls = urls;
+      this.srsp = srsp;
+      this.tracer = tracer;
+      this.span = span;
+    }
+
+    void cancel(Cancellable cancellable) {
+      if (cancellable != null) {
+        cancellable.cancel();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      completed.set(true);
+      cancel(primary);
+      cancel(hedge);
+    }
   }
 
   /**
@@ -225,7 +390,7 @@ public class HttpShardHandler extends ShardHandler {
   private ShardResponse take(boolean bailOnError) {
     try {
       while (pending.get() > 0) {
-        ShardResponse rsp = responses.take();
+        ShardResponse rsp = nextResponse();
         responseCancellableMap.remove(rsp);
 
         pending.decrementAndGet();
@@ -248,11 +413,13 @@ public class HttpShardHandler extends ShardHandler {
 
   @Override
   public void cancelAll() {
-    for (Cancellable cancellable : responseCancellableMap.values()) {
-      cancellable.cancel();
+    for (ShardAttempts attempts : responseCancellableMap.values()) {
+      recordPrimaryResponseTime(attempts);
+      attempts.cancel();
       pending.decrementAndGet();
     }
     responseCancellableMap.clear();
+    pendingHedges.clear();
   }
 
   @Override
@@ -266,6 +433,7 @@ public class HttpShardHandler extends ShardHandler {
     ZkController zkController = req.getCore().getCoreContainer().getZkController();
 
     final ReplicaListTransformer replicaListTransformer = httpShardHandlerFactory.getReplicaListTransformer(req);
+    hedgingAllowed = params.getBool(ShardParams.SHARDS_HEDGE, true);
 
     HttpShardHandlerFactory.WhitelistHostChecker hostChecker = httpShardHandlerFactory.getWhitelistHostChecker();
     if (shards != null && zkController == null && hostChecker.isWhitelistHostCheckingEnabled() && !hostChecker.hasExplicitWhitelist()) {
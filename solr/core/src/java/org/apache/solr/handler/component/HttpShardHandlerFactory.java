@@ -32,6 +32,9 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
@@ -97,6 +100,9 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   int   permittedLoadBalancerRequestsMinimumAbsolute = 0;
   float permittedLoadBalancerRequestsMaximumFraction = 1.0f;
   boolean accessPolicy = false;
+  float hedgePercentile = 0f;
+  int hedgeMinDelay = 5;
+  float hedgeMaxPercent = 5f;
   private WhitelistHostChecker whitelistHostChecker = null;
   private SolrMetricsContext solrMetricsContext;
 
@@ -132,6 +138,34 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
   // Configure if the threadpool favours fairness over throughput
   static final String INIT_FAIRNESS_POLICY = "fairnessPolicy";
 
+  // The percentile of shard response times after which a request is hedged with a duplicate sent to another replica,
+  // 0 disables hedging
+  static final String INIT_HEDGE_PERCENTILE = "hedgeRequestsPercentile";
+
+  // The minimum time in milliseconds to wait for a response before hedging a request
+  static final String INIT_HEDGE_MIN_DELAY = "hedgeRequestsMinDelay";
+
+  // The maximum percentage of shard requests that may be hedged
+  static final String INIT_HEDGE_MAX_PERCENT = "hedgeRequestsMaxPercent";
+
+  // Number of shard response times that must have been recorded before requests get hedged
+  static final int HEDGE_MIN_SAMPLES = 100;
+
+  private static final long HEDGE_DELAY_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  // Maximum number of hedges that may be sent in a burst, after a period of no hedging
+  static final double HEDGE_MAX_BURST = 10;
+
+  // response times of shard requests in milliseconds, used to compute the hedging delay
+  private Histogram shardResponseTimes = new Histogram(new ExponentiallyDecayingReservoir());
+  private Counter hedgedRequests = new Counter();
+  private Counter hedgedRequestsWon = new Counter();
+  private Counter hedgedRequestsThrottled = new Counter();
+  // number of hedges that may be sent: every shard request adds hedgeMaxPercent/100 to it, every hedge takes 1
+  private double hedgeBudget = 0;
+  private volatile long hedgeDelayNanos = -1;
+  private volatile long hedgeDelayRefreshTime = System.nanoTime() - HEDGE_DELAY_REFRESH_INTERVAL_NANOS;
+
   public static final String INIT_SHARDS_WHITELIST = "shardsWhitelist";
 
   static final String INIT_SOLR_DISABLE_SHARDS_WHITELIST = "solr.disable." + INIT_SHARDS_WHITELIST;
@@ -255,6 +289,17 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
         permittedLoadBalancerRequestsMaximumFraction,
         sb);
     this.accessPolicy = getParameter(args, INIT_FAIRNESS_POLICY, accessPolicy,sb);
+    this.hedgePercentile = getParameter(args, INIT_HEDGE_PERCENTILE, hedgePercentile, sb);
+    if (hedgePercentile < 0 || hedgePercentile >= 100) {
+      throw new SolrException(ErrorCode.SERVER_ERROR,
+          INIT_HEDGE_PERCENTILE + " must be in [0, 100), got: " + hedgePercentile);
+    }
+    this.hedgeMinDelay = getParameter(args, INIT_HEDGE_MIN_DELAY, hedgeMinDelay, sb);
+    this.hedgeMaxPercent = getParameter(args, INIT_HEDGE_MAX_PERCENT, hedgeMaxPercent, sb);
+    if (hedgeMaxPercent < 0 || hedgeMaxPercent > 100) {
+      throw new SolrException(ErrorCode.SERVER_ERROR,
+          INIT_HEDGE_MAX_PERCENT + " must be in [0, 100], got: " + hedgeMaxPercent);
+    }
     this.whitelistHostChecker = new WhitelistHostChecker(args == null? null: (String) args.get(INIT_SHARDS_WHITELIST), !getDisableShardsWhitelist());
     log.info("Host whitelist initialized: {}", this.whitelistHostChecker);
 
@@ -352,6 +397,69 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     return new LBSolrClient.Req(req, urls, numServersToTry);
   }
 
+  /**
+   * Returns how long to wait in nanoseconds for the response of a shard before sending a duplicate request to another
+   * replica, or -1 if requests should not be hedged. The delay is the configured percentile of recent shard response
+   * times, and is only available once enough responses have been recorded.
+   */
+  long getHedgeDelayNanos() {
+    if (hedgePercentile <= 0) {
+      return -1;
+    }
+    final long now = System.nanoTime();
+    // computing percentiles requires sorting the sample, don't do it on every request
+    if (now - hedgeDelayRefreshTime >= HEDGE_DELAY_REFRESH_INTERVAL_NANOS) {
+      hedgeDelayRefreshTime = now;
+      if (shardResponseTimes.getCount() < HEDGE_MIN_SAMPLES) {
+        hedgeDelayNanos = -1;
+      } else {
+        final double delayMillis = shardResponseTimes.getSnapshot().getValue(hedgePercentile / 100);
+        hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(hedgeMinDelay, (long) Math.ceil(delayMillis)));
+      }
+    }
+    return hedgeDelayNanos;
+  }
+
+  /**
+   * Record the response time of the original request to a shard, in milliseconds. This is recorded whether or not
+   * the request won against its hedge, and the time until cancellation is recorded for requests that got cancelled,
+   * so that hedging does not hide slow replicas from the percentile that it is based on.
+   */
+  void recordShardResponseTime(long elapsedMillis) {
+    shardResponseTimes.update(elapsedMillis);
+  }
+
+  /** Record that a request has been sent to a shard, which increases the number of requests that may be hedged. */
+  void recordShardRequest() {
+    if (hedgePercentile <= 0) {
+      return;
+    }
+    synchronized (this) {
+      hedgeBudget = Math.min(HEDGE_MAX_BURST, hedgeBudget + hedgeMaxPercent / 100);
+    }
+  }
+
+  /**
+   * Try to take the permission to send a duplicate request to another replica. This fails if more than
+   * {@link #INIT_HEDGE_MAX_PERCENT} of recent shard requests have been hedged already.
+   */
+  boolean tryAcquireHedge() {
+    synchronized (this) {
+      if (hedgeBudget >= 1) {
+        hedgeBudget -= 1;
+        hedgedRequests.inc();
+        return true;
+      }
+    }
+    hedgedRequestsThrottled.inc();
+    return false;
+  }
+
+  /** Record that a duplicate request sent to another replica answered before the original request. */
+  void recordHedgeWon() {
+    hedgedRequestsWon.inc();
+  }
+
   /**
    * Creates a list of urls for the given shard.
    *
@@ -412,6 +520,10 @@ public class HttpShardHandlerFactory extends ShardHandlerFactory implements org.
     commExecutor = MetricUtils.instrumentedExecutorService(commExecutor, null,
         solrMetricsContext.getMetricRegistry(),
         SolrMetricManager.mkName("httpShardExecutor", expandedScope, "threadPool"));
+    shardResponseTimes = solrMetricsContext.histogram("shardResponseTimes", expandedScope, "hedging");
+    hedgedRequests = solrMetricsContext.counter("requests", expandedScope, "hedging");
+    hedgedRequestsWon = solrMetricsContext.counter("won", expandedScope, "hedging");
+    hedgedRequestsThrottled = solrMetricsContext.counter("throttled", expandedScope, "hedging");
   }
 
   /**
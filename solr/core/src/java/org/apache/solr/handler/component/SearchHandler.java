@@ -55,6 +55,8 @@ import org.apache.solr.util.RTimerTree;
 import org.apache.solr.util.SolrPluginUtils;
 import org.apache.solr.util.circuitbreaker.CircuitBreaker;
 import org.apache.solr.util.circuitbreaker.CircuitBreakerManager;
+import org.apache.solr.util.circuitbreaker.RequestMemoryBudget;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 import org.apache.solr.util.plugin.PluginInfoInitialized;
 import org.apache.solr.util.plugin.SolrCoreAware;
 import org.slf4j.Logger;
@@ -329,6 +331,26 @@ public class SearchHandler extends RequestHandlerBase implements SolrCoreAware,
 
     final ShardHandler shardHandler1 = getAndPrepShardHandler(req, rb); // creates a ShardHandler object only if it's needed
 
+    // Only requests that do the work locally are admitted against the memory budget. A distributed coordinator
+    // mostly waits for its shard requests, which may be admitted by the same budget, so if it held a reservation
+    // while they wait for theirs, requests could deadlock until their admission times out.
+    if (rb.isDistrib == false && req.getCore().getCircuitBreakerManager().isEnabled()) {
+      RequestMemoryBudget memoryBudget = req.getCore().getCircuitBreakerManager().getRequestMemoryBudget();
+      if (memoryBudget != null && rb.requestInfo != null && req.getMemoryTracker() == null) {
+        final RequestMemoryTracker memoryTracker;
+        try {
+          memoryTracker = memoryBudget.admit(req.getCore().getCircuitBreakerManager().getRequestMemoryLimitBytes());
+        } catch (SolrException e) {
+          rsp.add(STATUS, FAILURE);
+          rsp.setException(e);
+          return;
+        }
+        // released when the request completes, which is after the response was written for streaming handlers
+        rb.requestInfo.addCloseHook(memoryTracker);
+        req.getContext().put(RequestMemoryTracker.CONTEXT_KEY, memoryTracker);
+      }
+    }
+
     tagRequestWithRequestId(rb);
 
     if (timer == null) {
@@ -19,6 +19,7 @@ package org.apache.solr.handler.export;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
@@ -58,6 +59,8 @@ class ExportBuffers {
   final IteratorWriter.ItemWriter writer;
   final CyclicBarrier barrier;
   final int totalHits;
+  // number of threads that sort groups of segments in parallel, 0 if the filler sorts all segments itself
+  final int numSortThreads;
   Buffer fillBuffer;
   Buffer outputBuffer;
   Runnable filler;
@@ -68,7 +71,7 @@ class ExportBuffers {
 
   ExportBuffers(ExportWriter exportWriter, List<LeafReaderContext> leaves, SolrIndexSearcher searcher,
                 OutputStream os, IteratorWriter.ItemWriter rawWriter, Sort sort, int queueSize, int totalHits,
-                Timer writeOutputBufferTimer, Timer fillerWaitTimer, Timer writerWaitTimer) throws IOException {
+                int sortThreads, Timer writeOutputBufferTimer, Timer fillerWaitTimer, Timer writerWaitTimer) throws IOException {
     this.exportWriter = exportWriter;
     this.leaves = leaves;
     this.os = os;
@@ -87,6 +90,7 @@ class ExportBuffers {
     this.bufferOne = new Buffer(queueSize);
     this.bufferTwo = new Buffer(queueSize);
     this.totalHits = totalHits;
+    this.numSortThreads = numSortThreads(sortThreads, leaves.size());
     fillBuffer = bufferOne;
     outputBuffer = bufferTwo;
     SortDoc writerSortDoc = exportWriter.getSortDoc(searcher, sort.getSort());
@@ -96,13 +100,12 @@ class ExportBuffers {
     filler = () -> {
       try {
         // log.debug("--- filler start {}", Thread.currentThread());
-        SortDoc sortDoc = exportWriter.getSortDoc(searcher, sort.getSort());
+        BufferFiller bufferFiller = newBufferFiller(searcher, sort, queueSize);
         Buffer buffer = getFillBuffer();
-        SortQueue queue = new SortQueue(queueSize, sortDoc);
         long lastOutputCounter = 0;
         for (int count = 0; count < totalHits; ) {
           // log.debug("--- filler fillOutDocs in {}", fillBuffer);
-          exportWriter.fillOutDocs(leaves, sortDoc, queue, buffer);
+          bufferFiller.fill(buffer);
           count += (buffer.outDocsIndex + 1);
           // log.debug("--- filler count={}, exchange buffer from {}", count, buffer);
           Timer.Context timerContext = getFillerWaitTimer().time();
@@ -139,6 +142,29 @@ class ExportBuffers {
     };
   }
 
+  /** Number of threads that sort groups of segments, or 0 if the filler sorts all segments itself. */
+  static int numSortThreads(int sortThreads, int numLeaves) {
+    int numGroups = Math.min(sortThreads, numLeaves);
+    return numGroups > 1 ? numGroups : 0;
+  }
+
+  private BufferFiller newBufferFiller(SolrIndexSearcher searcher, Sort sort, int queueSize) throws Exception {
+    if (numSortThreads > 0 && exportWriter.sets != null) {
+      // each group of segments is sorted on its own thread, the filler merges their sorted runs
+      List<SortDoc> sortDocs = new ArrayList<>(numSortThreads);
+      for (int i = 0; i < numSortThreads; i++) {
+        sortDocs.add(exportWriter.getSortDoc(searcher, sort.getSort()));
+      }
+      SegmentGroupMerger merger = new SegmentGroupMerger(exportWriter, leaves, exportWriter.sets, sortDocs, queueSize);
+      merger.start(service);
+      return merger::fill;
+    } else {
+      SortDoc sortDoc = exportWriter.getSortDoc(searcher, sort.getSort());
+      SortQueue queue = new SortQueue(queueSize, sortDoc);
+      return buffer -> exportWriter.fillOutDocs(leaves, sortDoc, queue, buffer);
+    }
+  }
+
   public void exchangeBuffers() throws Exception {
     // log.debug("---- wait exchangeBuffers from {}", Thread.currentThread());
     barrier.await(EXCHANGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
@@ -211,7 +237,7 @@ class ExportBuffers {
    * @throws IOException on errors
    */
   public void run(Callable<Boolean> writer) throws IOException {
-    service = ExecutorUtil.newMDCAwareFixedThreadPool(1, new SolrNamedThreadFactory("ExportBuffers"));
+    service = ExecutorUtil.newMDCAwareFixedThreadPool(1 + numSortThreads, new SolrNamedThreadFactory("ExportBuffers"));
     try {
       CompletableFuture.runAsync(filler, service);
       writer.call();
@@ -240,6 +266,14 @@ class ExportBuffers {
     }
   }
 
+  /**
+   * Fills a buffer with the next batch of sorted documents.
+   */
+  @FunctionalInterface
+  private interface BufferFiller {
+    void fill(Buffer buffer) throws Exception;
+  }
+
   /**
    * Buffer used for transporting documents from the filler to the writer thread.
    */
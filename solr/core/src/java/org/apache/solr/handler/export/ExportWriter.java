@@ -74,6 +74,7 @@ import org.apache.solr.schema.StrField;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SortSpec;
 import org.apache.solr.search.SyntaxError;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -99,6 +100,11 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
 
   public static final String BATCH_SIZE_PARAM = "batchSize";
   public static final int DEFAULT_BATCH_SIZE = 30000;
+  /** Number of threads that sort groups of segments in parallel, documents of all groups are then merged. */
+  public static final String SORT_THREADS_PARAM = "sortThreads";
+  public static final int DEFAULT_SORT_THREADS = 1;
+  /** System property that caps {@link #SORT_THREADS_PARAM}, defaults to the number of available processors. */
+  public static final String MAX_SORT_THREADS_PROP = "solr.export.maxSortThreads";
 
   private OutputStreamWriter respWriter;
   final SolrQueryRequest req;
@@ -107,6 +113,7 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
   final SolrMetricsContext solrMetricsContext;
   final String metricsPath;
   final int batchSize;
+  final int sortThreads;
   StreamExpression streamExpression;
   StreamContext streamContext;
   FieldWriter[] fieldWriters;
@@ -131,6 +138,8 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     this.solrMetricsContext = solrMetricsContext;
     this.metricsPath = metricsPath;
     this.batchSize = req.getParams().getInt(BATCH_SIZE_PARAM, DEFAULT_BATCH_SIZE);
+    int maxSortThreads = Integer.getInteger(MAX_SORT_THREADS_PROP, Runtime.getRuntime().availableProcessors());
+    this.sortThreads = Math.max(1, Math.min(req.getParams().getInt(SORT_THREADS_PARAM, DEFAULT_SORT_THREADS), maxSortThreads));
     identifyLowestSortingDocTimer = solrMetricsContext.timer("identifyLowestSortingDoc", metricsPath);
     transferBatchToBufferTimer = solrMetricsContext.timer("transferBatchToBuffer", metricsPath);
     writeOutputBufferTimer = solrMetricsContext.timer("writeOutputBuffer", metricsPath);
@@ -308,8 +317,9 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
       queue.reset();
       SortDoc top = queue.top();
       for (int i = 0; i < leaves.size(); i++) {
-        sortDoc.setNextReader(leaves.get(i));
-        DocIdSetIterator it = new BitSetIterator(sets[i], 0); // cost is not useful here
+        LeafReaderContext leaf = leaves.get(i);
+        sortDoc.setNextReader(leaf);
+        DocIdSetIterator it = new BitSetIterator(sets[leaf.ord], 0); // cost is not useful here
         int docId;
         while ((docId = it.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
           sortDoc.setValues(docId);
@@ -351,12 +361,24 @@ public class ExportWriter implements SolrCore.RawWriter, Closeable {
     }
   }
 
+  /**
+   * Estimates the memory of the sort docs an export holds, with queueSize sort docs in each buffer and sort queue:
+   * the two buffers the writer and the filler exchange, plus the sort queue of the filler or, when groups of
+   * segments are sorted on their own threads, the two buffers of sorted runs and the sort queue of each group.
+   */
+  static long estimateBufferBytes(int queueSize, int numSortFields, int numSortThreads) {
+    final long numQueues = numSortThreads > 0 ? 2 + 3L * numSortThreads : 3;
+    return numQueues * queueSize * (32 + 16L * numSortFields);
+  }
+
   protected void writeDocs(SolrQueryRequest req, OutputStream os, IteratorWriter.ItemWriter writer, Sort sort) throws IOException {
     List<LeafReaderContext> leaves = req.getSearcher().getTopReaderContext().leaves();
     final int queueSize = Math.min(batchSize, totalHits);
+    RequestMemoryTracker.charge(req, estimateBufferBytes(queueSize, sort.getSort().length,
+        ExportBuffers.numSortThreads(sortThreads, leaves.size())), "export buffers");
 
     ExportBuffers buffers = new ExportBuffers(this, leaves, req.getSearcher(), os, writer, sort, queueSize, totalHits,
-        writeOutputBufferTimer, fillerWaitTimer, writerWaitTimer);
+        sortThreads, writeOutputBufferTimer, fillerWaitTimer, writerWaitTimer);
 
     if (streamExpression != null) {
       streamContext.put(ExportBuffers.EXPORT_BUFFERS_KEY, buffers);
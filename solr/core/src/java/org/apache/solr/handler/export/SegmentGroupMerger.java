@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.PriorityQueue;
+
+/**
+ * Sorts groups of segments in parallel and merges their sorted runs.
+ * <p>
+ * Each group of segments is stream sorted on its own thread, exactly like
+ * {@link ExportWriter} does for the whole index, and produces successive
+ * sorted batches of documents. Since batches of a group come out in order,
+ * merging the heads of the groups with a priority queue gives documents in
+ * the order of the whole index. Every thread only scans the bitsets of its
+ * own segments, which also reduces the cost of each pass.
+ */
+class SegmentGroupMerger {
+
+  // marker that a group failed to produce a batch
+  private static final ExportBuffers.Buffer FAILED = new ExportBuffers.Buffer(0);
+
+  private final List<Group> groups;
+  private final PriorityQueue<Group> queue;
+  private volatile Throwable error;
+
+  SegmentGroupMerger(ExportWriter exportWriter, List<LeafReaderContext> leaves, FixedBitSet[] sets,
+                     List<SortDoc> sortDocs, int batchSize) {
+    final int numGroups = sortDocs.size();
+    final List<List<LeafReaderContext>> groupLeaves = partition(leaves, sets, numGroups);
+    this.groups = new ArrayList<>(groupLeaves.size());
+    for (int i = 0; i < groupLeaves.size(); ++i) {
+      groups.add(new Group(exportWriter, groupLeaves.get(i), sets, sortDocs.get(i), batchSize));
+    }
+    this.queue = new PriorityQueue<>(groups.size()) {
+      @Override
+      protected boolean lessThan(Group a, Group b) {
+        // documents are written from the greatest to the least
+        return b.head().lessThan(a.head());
+      }
+    };
+  }
+
+  /** Split leaves into at most {@code numGroups} groups that have about as many matching documents. */
+  static List<List<LeafReaderContext>> partition(List<LeafReaderContext> leaves, FixedBitSet[] sets, int numGroups) {
+    final LeafReaderContext[] sorted = leaves.toArray(new LeafReaderContext[0]);
+    final int[] counts = new int[sets.length];
+    for (LeafReaderContext leaf : sorted) {
+      counts[leaf.ord] = sets[leaf.ord].cardinality();
+    }
+    // largest segments first, each one goes to the group that has the fewest documents so far
+    Arrays.sort(sorted, Comparator.comparingInt((LeafReaderContext leaf) -> counts[leaf.ord]).reversed());
+    final int n = Math.max(1, Math.min(numGroups, sorted.length));
+    final List<List<LeafReaderContext>> groups = new ArrayList<>(n);
+    final long[] groupCounts = new long[n];
+    for (int i = 0; i < n; ++i) {
+      groups.add(new ArrayList<>());
+    }
+    for (LeafReaderContext leaf : sorted) {
+      int minGroup = 0;
+      for (int i = 1; i < n; ++i) {
+        if (groupCounts[i] < groupCounts[minGroup]) {
+          minGroup = i;
+        }
+      }
+      groups.get(minGroup).add(leaf);
+      groupCounts[minGroup] += counts[leaf.ord];
+    }
+    for (List<LeafReaderContext> group : groups) {
+      // segments are scanned in index order
+      group.sort(Comparator.comparingInt(leaf -> leaf.ord));
+    }
+    return groups;
+  }
+
+  int numGroups() {
+    return groups.size();
+  }
+
+  /**
+   * Start sorting all groups on the given executor, which must have a thread
+   * available for each group, and wait for their first batches.
+   */
+  void start(ExecutorService service) throws IOException, InterruptedException {
+    for (Group group : groups) {
+      service.execute(group::sort);
+    }
+    for (Group group : groups) {
+      if (group.nextBatch()) {
+        queue.add(group);
+      }
+    }
+  }
+
+  /**
+   * Fill the given buffer with the next documents in sort order. Like with
+   * {@link ExportWriter#fillOutDocs}, documents are written from index
+   * {@link ExportBuffers.Buffer#outDocsIndex} down to 0.
+   */
+  void fill(ExportBuffers.Buffer buffer) throws IOException, InterruptedException {
+    final SortDoc[] outDocs = buffer.outDocs;
+    int count = 0;
+    while (count < outDocs.length && queue.size() > 0) {
+      final Group top = queue.top();
+      outDocs[count++].setValues(top.head());
+      if (--top.index >= 0 || top.nextBatch()) {
+        queue.updateTop();
+      } else {
+        queue.pop();
+      }
+    }
+    // reverse so that the first document to write is at the end
+    for (int i = 0, j = count - 1; i < j; ++i, --j) {
+      final SortDoc tmp = outDocs[i];
+      outDocs[i] = outDocs[j];
+      outDocs[j] = tmp;
+    }
+    buffer.outDocsIndex = count - 1;
+  }
+
+  private final class Group {
+    final ExportWriter exportWriter;
+    final List<LeafReaderContext> leaves;
+    final FixedBitSet[] sets;
+    final SortDoc sortDoc;
+    final int batchSize;
+    // batches that are ready to be merged, and batches that can be filled again
+    final BlockingQueue<ExportBuffers.Buffer> full = new ArrayBlockingQueue<>(1);
+    final BlockingQueue<ExportBuffers.Buffer> empty = new ArrayBlockingQueue<>(2);
+    // the batch being merged and the index of its next document
+    ExportBuffers.Buffer current;
+    int index;
+
+    Group(ExportWriter exportWriter, List<LeafReaderContext> leaves, FixedBitSet[] sets, SortDoc sortDoc, int batchSize) {
+      this.exportWriter = exportWriter;
+      this.leaves = leaves;
+      this.sets = sets;
+      this.sortDoc = sortDoc;
+      this.batchSize = batchSize;
+    }
+
+    SortDoc head() {
+      return current.outDocs[index];
+    }
+
+    /** Move on to the next batch of this group, returns false if there are no more documents. */
+    boolean nextBatch() throws IOException, InterruptedException {
+      if (current != null) {
+        empty.put(current);
+        current = null;
+      }
+      final ExportBuffers.Buffer next = full.take();
+      if (next == FAILED) {
+        throw new IOException("Failed to sort segments", error);
+      }
+      if (next.outDocsIndex < 0) {
+        return false;
+      }
+      current = next;
+      index = next.outDocsIndex;
+      return true;
+    }
+
+    /** Produce the sorted batches of this group, runs on its own thread. */
+    void sort() {
+      try {
+        for (int i = 0; i < 2; ++i) {
+          final ExportBuffers.Buffer buffer = new ExportBuffers.Buffer(batchSize);
+          buffer.initialize(sortDoc);
+          empty.put(buffer);
+        }
+        long remaining = 0;
+        for (LeafReaderContext leaf : leaves) {
+          remaining += sets[leaf.ord].cardinality();
+        }
+        final SortQueue sortQueue = new SortQueue(batchSize, sortDoc);
+        while (remaining > 0) {
+          final ExportBuffers.Buffer buffer = empty.take();
+          exportWriter.fillOutDocs(leaves, sortDoc, sortQueue, buffer);
+          if (buffer.outDocsIndex < 0) {
+            throw new IllegalStateException("No documents in batch while " + remaining + " documents are left");
+          }
+          remaining -= buffer.outDocsIndex + 1;
+          full.put(buffer);
+        }
+        final ExportBuffers.Buffer last = empty.take();
+        last.outDocsIndex = ExportBuffers.Buffer.NO_MORE_DOCS;
+        full.put(last);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Throwable t) {
+        error = t;
+        try {
+          full.put(FAILED);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.apache.solr.core.SolrCore;
 import org.apache.solr.servlet.HttpSolrCall;
 import org.apache.solr.common.util.CommandOperation;
 import org.apache.solr.util.RTimerTree;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 
 import java.security.Principal;
 import java.util.Collections;
@@ -132,6 +133,11 @@ public interface SolrQueryRequest extends AutoCloseable {
   default HttpSolrCall getHttpSolrCall() {
     return null;
   }
+
+  /** The tracker the memory of this request is charged to, null if the request isn't tracked */
+  default RequestMemoryTracker getMemoryTracker() {
+    return (RequestMemoryTracker) getContext().get(RequestMemoryTracker.CONTEXT_KEY);
+  }
 }
 
 
@@ -17,6 +17,7 @@
 package org.apache.solr.response;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -52,11 +53,15 @@ import org.apache.solr.search.DocList;
 import org.apache.solr.search.ReturnFields;
 import org.apache.solr.search.SolrDocumentFetcher;
 import org.apache.solr.search.SolrReturnFields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This streams SolrDocuments from a DocList and applies transformer
  */
 public class DocsStreamer implements Iterator<SolrDocument> {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
   @SuppressWarnings({"rawtypes"})
   public static final Set<Class> KNOWN_TYPES = new HashSet<>();
 
@@ -80,6 +85,24 @@ public class DocsStreamer implements Iterator<SolrDocument> {
     solrReturnFields = (SolrReturnFields)rctx.getReturnFields();
 
     if (transformer != null) transformer.setContext(rctx);
+
+    if (docs.size() > 1) {
+      prefetchDocuments();
+    }
+  }
+
+  /**
+   * Let the index start loading the stored fields of the documents we are about to stream. This is only
+   * a hint: if it fails, documents are still read when they are streamed.
+   *
+   * @see SolrDocumentFetcher#prefetchDocuments
+   */
+  private void prefetchDocuments() {
+    try {
+      docFetcher.prefetchDocuments(docs, solrReturnFields);
+    } catch (IOException e) {
+      log.warn("Error prefetching documents, they will be loaded when streamed", e);
+    }
   }
 
   public int currentIndex() {
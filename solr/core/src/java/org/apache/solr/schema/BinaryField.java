@@ -85,6 +85,12 @@ public class BinaryField extends FieldType  {
       log.trace("Ignoring unstored binary field: {}", field);
       return null;
     }
+    BytesRef bytes = getBytesRef(val);
+    return new org.apache.lucene.document.StoredField(field.getName(), bytes.bytes, bytes.offset, bytes.length);
+  }
+
+  /** Returns the bytes of a binary value given as a byte array, a ByteBuffer or a base64 encoded string */
+  protected BytesRef getBytesRef(Object val) {
     byte[] buf = null;
     int offset = 0, len = 0;
     if (val instanceof byte[]) {
@@ -102,8 +108,7 @@ public class BinaryField extends FieldType  {
       offset = 0;
       len = buf.length;
     }
-
-    return new org.apache.lucene.document.StoredField(field.getName(), buf, offset, len);
+    return new BytesRef(buf, offset, len);
   }
 
   @Override
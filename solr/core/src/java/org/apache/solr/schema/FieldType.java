@@ -19,6 +19,7 @@ package org.apache.solr.schema;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -36,6 +37,7 @@ import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.util.CharFilterFactory;
 import org.apache.lucene.analysis.util.TokenFilterFactory;
 import org.apache.lucene.analysis.util.TokenizerFactory;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.index.IndexableField;
@@ -216,6 +218,7 @@ public abstract class FieldType extends FieldProperties {
 
     this.postingsFormat = initArgs.remove(POSTINGS_FORMAT);
     this.docValuesFormat = initArgs.remove(DOC_VALUES_FORMAT);
+    this.termsIndexLoadMode = parseTermsIndexLoadMode(initArgs.remove(TERMS_INDEX_LOAD_MODE));
 
     if (initArgs.size() > 0) {
       throw new RuntimeException("schema fieldtype " + typeName
@@ -675,6 +678,29 @@ public abstract class FieldType extends FieldProperties {
     return docValuesFormat;
   }
 
+  /**
+   * How the terms index of fields of this type is loaded by readers, or null to use the
+   * codec's default
+   */
+  protected FSTLoadMode termsIndexLoadMode;
+
+  public final FSTLoadMode getTermsIndexLoadMode() {
+    return termsIndexLoadMode;
+  }
+
+  /** Parses a {@code termsIndexLoadMode} property, returning null if unspecified. */
+  static FSTLoadMode parseTermsIndexLoadMode(Object value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return FSTLoadMode.valueOf(value.toString().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new SolrException(ErrorCode.SERVER_ERROR, "Invalid " + TERMS_INDEX_LOAD_MODE + ": '" + value
+          + "'. Value must be one of " + Arrays.toString(FSTLoadMode.values()));
+    }
+  }
+
   /**
    * calls back to TextResponseWriter to write the field value
    * <p>
@@ -1120,6 +1146,9 @@ public abstract class FieldType extends FieldProperties {
       if (null != getDocValuesFormat()) {
         namedPropertyValues.add(DOC_VALUES_FORMAT, getDocValuesFormat());
       }
+      if (null != getTermsIndexLoadMode()) {
+        namedPropertyValues.add(TERMS_INDEX_LOAD_MODE, getTermsIndexLoadMode().name());
+      }
     } else { // Don't show defaults
       Set<String> fieldProperties = new HashSet<>();
       for (String propertyName : FieldProperties.propertyNames) {
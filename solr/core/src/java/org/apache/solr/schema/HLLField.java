@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.util.hll.HLL;
+
+/**
+ * A {@link SketchField} of serialized {@link HLL}s. The <code>hll</code> aggregation of the JSON Facet API
+ * unions these sketches instead of hashing raw values. Since only sketches with the same parameters
+ * can be unioned, every value must use the <code>log2m</code> (default 13) and <code>regwidth</code>
+ * (default 6) configured on the field type, which match the defaults of the <code>hll</code> aggregation.
+ * <pre class="prettyprint">
+ * &lt;fieldType name="hll" class="solr.HLLField" log2m="13" regwidth="6" /&gt;
+ * </pre>
+ *
+ * @lucene.experimental
+ */
+public class HLLField extends SketchField {
+  public static final String LOG2M = "log2m";
+  public static final String REGWIDTH = "regwidth";
+
+  private int log2m = 13;
+  private int regwidth = 6;
+
+  @Override
+  protected void init(IndexSchema schema, Map<String,String> args) {
+    String p = args.remove(LOG2M);
+    if (p != null) {
+      log2m = Integer.parseInt(p);
+    }
+    p = args.remove(REGWIDTH);
+    if (p != null) {
+      regwidth = Integer.parseInt(p);
+    }
+    super.init(schema, args);
+  }
+
+  public int getLog2m() {
+    return log2m;
+  }
+
+  public int getRegwidth() {
+    return regwidth;
+  }
+
+  /** Deserializes a sketch previously accepted by this field */
+  public static HLL toHLL(BytesRef bytes) {
+    if (bytes.offset == 0 && bytes.length == bytes.bytes.length) {
+      return HLL.fromBytes(bytes.bytes);
+    }
+    return HLL.fromBytes(Arrays.copyOfRange(bytes.bytes, bytes.offset, bytes.offset + bytes.length));
+  }
+
+  @Override
+  protected void checkSketch(BytesRef bytes) {
+    HLL hll = toHLL(bytes);
+    if (hll.getLog2m() != log2m || hll.getRegwidth() != regwidth) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "HLL with log2m=" + hll.getLog2m() + " and regwidth="
+          + hll.getRegwidth() + " can't be added to " + this + ", which expects log2m=" + log2m + " and regwidth=" + regwidth);
+    }
+  }
+}
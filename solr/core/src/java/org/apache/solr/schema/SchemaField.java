@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader.FSTLoadMode;
 import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
@@ -170,6 +171,16 @@ public final class SchemaField extends FieldProperties implements IndexableField
     return (String) args.getOrDefault(DOC_VALUES_FORMAT, type.getDocValuesFormat());
   }
 
+  /**
+   * Expert/advanced method to get how the terms index of this field is loaded by readers.
+   * @return The {@code termsIndexLoadMode} declared; or null if unspecified.
+   * @see org.apache.lucene.codecs.blocktree.BlockTreeTermsReader#FST_MODE_KEY
+   */
+  public FSTLoadMode getTermsIndexLoadMode() {
+    Object mode = args.get(TERMS_INDEX_LOAD_MODE);
+    return mode == null ? type.getTermsIndexLoadMode() : FieldType.parseTermsIndexLoadMode(mode);
+  }
+
   /**
    * Sanity checks that the properties of this field type are plausible 
    * for a field that may be used in sorting, throwing an appropriate 
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.uninverting.UninvertingReader.Type;
+
+/**
+ * Base class for fields whose values are serialized, mergeable sketches of pre-aggregated data.
+ * Values are given as bytes (or base64 encoded strings), validated at index time and kept in
+ * {@link org.apache.lucene.index.BinaryDocValues} so that facet aggregations can merge them
+ * without reading the raw values the sketches were built from.
+ * <p>
+ * Sketch fields always have docValues and are single-valued.
+ *
+ * @see TDigestField
+ * @see HLLField
+ * @lucene.experimental
+ */
+public abstract class SketchField extends BinaryField {
+
+  @Override
+  protected void init(IndexSchema schema, Map<String,String> args) {
+    super.init(schema, args);
+    if ((falseProperties & DOC_VALUES) == 0) {
+      properties |= DOC_VALUES;
+    }
+    if ((trueProperties & USE_DOCVALUES_AS_STORED) == 0) {
+      properties &= ~USE_DOCVALUES_AS_STORED;
+    }
+  }
+
+  @Override
+  public void checkSchemaField(SchemaField field) {
+    super.checkSchemaField(field);
+    if (field.hasDocValues() == false) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Field type " + this + " requires docValues: " + field.getName());
+    }
+    if (field.multiValued()) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Field type " + this + " can't be multiValued: " + field.getName());
+    }
+  }
+
+  @Override
+  protected void checkSupportsDocValues() {
+    // sketches are always read from docValues
+  }
+
+  @Override
+  public Type getUninversionType(SchemaField sf) {
+    return null;
+  }
+
+  @Override
+  public List<IndexableField> createFields(SchemaField field, Object value) {
+    if (value == null) return Collections.emptyList();
+    BytesRef bytes = getBytesRef(value);
+    try {
+      checkSketch(bytes);
+    } catch (SolrException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
+          "Invalid " + getClass().getSimpleName() + " value for field '" + field.getName() + "': " + e, e);
+    }
+    List<IndexableField> fields = new ArrayList<>(2);
+    IndexableField stored = createField(field, value);
+    if (stored != null) {
+      fields.add(stored);
+    }
+    fields.add(new BinaryDocValuesField(field.getName(), bytes));
+    return fields;
+  }
+
+  /**
+   * Verifies that the given bytes are a sketch this field can merge.
+   *
+   * @throws SolrException (BAD_REQUEST) or any RuntimeException if the bytes are not a valid sketch
+   */
+  protected abstract void checkSketch(BytesRef bytes);
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import java.nio.ByteBuffer;
+
+import com.tdunning.math.stats.AVLTreeDigest;
+import org.apache.lucene.util.BytesRef;
+
+/**
+ * A {@link SketchField} of serialized t-digests, in the format of
+ * {@link AVLTreeDigest#asSmallBytes(ByteBuffer)} or {@link AVLTreeDigest#asBytes(ByteBuffer)}.
+ * The <code>percentile</code> aggregation of the JSON Facet API merges these digests instead
+ * of building them from raw values.
+ * <pre class="prettyprint">
+ * &lt;fieldType name="tdigest" class="solr.TDigestField" /&gt;
+ * </pre>
+ *
+ * @lucene.experimental
+ */
+public class TDigestField extends SketchField {
+
+  /** Deserializes a digest previously accepted by this field */
+  public static AVLTreeDigest toDigest(BytesRef bytes) {
+    return AVLTreeDigest.fromBytes(ByteBuffer.wrap(bytes.bytes, bytes.offset, bytes.length));
+  }
+
+  @Override
+  protected void checkSketch(BytesRef bytes) {
+    toDigest(bytes);
+  }
+}
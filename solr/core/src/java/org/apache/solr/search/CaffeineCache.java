@@ -179,6 +179,11 @@ public class CaffeineCache<K, V> extends SolrCacheBase implements SolrCache<K, V
     return cache.getIfPresent(key);
   }
 
+  @Override
+  public boolean containsKey(K key) {
+    return cache.asMap().containsKey(key);
+  }
+
   @Override
   public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
     return cache.get(key, k -> {
@@ -19,6 +19,7 @@ package org.apache.solr.search;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Iterator;
@@ -30,6 +31,7 @@ import com.carrotsearch.hppc.FloatArrayList;
 import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntIntHashMap;
 import com.carrotsearch.hppc.IntLongHashMap;
+import com.carrotsearch.hppc.LongArrayList;
 import com.carrotsearch.hppc.cursors.IntIntCursor;
 import com.carrotsearch.hppc.cursors.IntLongCursor;
 import org.apache.commons.lang3.StringUtils;
@@ -49,6 +51,7 @@ import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.queries.function.FunctionQuery;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.FieldComparator;
 import org.apache.lucene.search.IndexSearcher;
@@ -57,6 +60,7 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.ArrayUtil;
@@ -81,6 +85,8 @@ import org.apache.solr.uninverting.UninvertingReader;
 import org.apache.solr.util.IntFloatDynamicMap;
 import org.apache.solr.util.IntIntDynamicMap;
 import org.apache.solr.util.IntLongDynamicMap;
+import org.apache.solr.util.OffHeapArena;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 
 import static org.apache.solr.common.params.CommonParams.SORT;
 
@@ -407,6 +413,28 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
   }
 
+  /** The arena of the searcher that collapse maps borrow their arrays from, if any */
+  private static OffHeapArena getOffHeapArena(IndexSearcher searcher) {
+    return searcher instanceof SolrIndexSearcher ? ((SolrIndexSearcher) searcher).getOffHeapArena() : null;
+  }
+
+  /**
+   * Releases maps that borrowed their arrays from the arena when the current request completes, so that they are
+   * given back even if the collector fails or times out before it releases them in finish(). Releasing twice is a
+   * no-op.
+   */
+  private static void releaseOnRequestClose(OffHeapArena arena, Runnable release) {
+    SolrRequestInfo info = arena == null ? null : SolrRequestInfo.getRequestInfo();
+    if (info != null) {
+      info.addCloseHook(release::run);
+    }
+  }
+
+  /** Charges the collapsed set and the per group arrays of a collector to the memory budget of the current request */
+  private static void chargeCollapse(int maxDoc, int valueCount, int bytesPerGroup) {
+    RequestMemoryTracker.chargeCurrentRequest(maxDoc / 8L + (long) valueCount * bytesPerGroup, "collapse");
+  }
+
   /**
    * This forces the use of the top level field cache for String fields.
    * This is VERY fast at query time but slower to warm and causes insanity.
@@ -517,6 +545,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     private MultiDocValues.MultiSortedDocValues multiSortedDocValues;
     private IntIntDynamicMap ords;
     private IntFloatDynamicMap scores;
+    private final OffHeapArena arena;
     private int maxDoc;
     private int nullPolicy;
     private float nullScore = -Float.MAX_VALUE;
@@ -533,6 +562,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                              int nullPolicy,
                              IntIntHashMap boostDocsMap,
                              IndexSearcher searcher) throws IOException {
+      this.arena = getOffHeapArena(searcher);
       this.maxDoc = maxDoc;
       this.contexts = new LeafReaderContext[segments];
       List<LeafReaderContext> con = searcher.getTopReaderContext().leaves();
@@ -549,8 +579,13 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         this.multiSortedDocValues = (MultiDocValues.MultiSortedDocValues)collapseValues;
         this.ordinalMap = multiSortedDocValues.mapping;
       }
-      this.ords = new IntIntDynamicMap(valueCount, -1);
-      this.scores = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE);
+      chargeCollapse(maxDoc, valueCount, Integer.BYTES + Float.BYTES);
+      this.ords = new IntIntDynamicMap(valueCount, -1, arena);
+      this.scores = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE, arena);
+      releaseOnRequestClose(arena, () -> {
+        ords.release();
+        scores.release();
+      });
       this.nullPolicy = nullPolicy;
       if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
         nullScores = new FloatArrayList();
@@ -634,6 +669,15 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
     @Override
     public void finish() throws IOException {
+      try {
+        doFinish();
+      } finally {
+        ords.release();
+        scores.release();
+      }
+    }
+
+    private void doFinish() throws IOException {
       if(contexts.length == 0) {
         return;
       }
@@ -730,6 +774,143 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         ((DelegatingCollector) delegate).finish();
       }
     }
+
+    @Override
+    public CollectorManager<?, ?> getCollectorManager() {
+      // elevated documents are merged with the group heads in document order
+      return boosts ? null : new SliceCollectorManager();
+    }
+
+    /**
+     * Collects the group heads of each slice of the searcher separately, then reduces them into the
+     * group heads of this collector. Ties on score are broken by document id so that the heads are the
+     * same as if this collector had seen all the documents in order.
+     */
+    private class SliceCollectorManager implements CollectorManager<SliceCollector, Void> {
+
+      @Override
+      public SliceCollector newCollector() throws IOException {
+        return new SliceCollector();
+      }
+
+      @Override
+      public Void reduce(Collection<SliceCollector> collectors) throws IOException {
+        LongArrayList expanded = new LongArrayList();
+        for (SliceCollector slice : collectors) {
+          for (IntLongCursor cursor : slice.heads) {
+            int ord = cursor.key;
+            int doc = (int) cursor.value;
+            float score = Float.intBitsToFloat((int) (cursor.value >>> 32));
+            float current = scores.get(ord);
+            if (score > current || (score == current && doc < ords.get(ord))) {
+              ords.put(ord, doc);
+              scores.put(ord, score);
+            }
+          }
+          if (slice.nullDoc != -1 && (slice.nullScore > nullScore || (slice.nullScore == nullScore && slice.nullDoc < nullDoc))) {
+            nullScore = slice.nullScore;
+            nullDoc = slice.nullDoc;
+          }
+          if (slice.expanded != null) {
+            expanded.addAll(slice.expanded);
+          }
+        }
+        if (nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
+          // finish() expects the scores of the expanded documents in document order
+          long[] docAndScores = expanded.toArray();
+          Arrays.sort(docAndScores);
+          for (long docAndScore : docAndScores) {
+            collapsedSet.set((int) (docAndScore >>> 32));
+            nullScores.add(Float.intBitsToFloat((int) docAndScore));
+          }
+        }
+        return null;
+      }
+    }
+
+    /**
+     * Collects the group heads of a slice. Leaves of a slice aren't visited in order, so each leaf
+     * gets its own doc values iterator when there is no ordinal map. Heads are kept in a hash map rather
+     * than in arrays sized by the number of groups, since a slice only sees the groups of its documents
+     * and there may be many slices.
+     */
+    private class SliceCollector extends SimpleCollector {
+      private final SortedDocValues sliceValues;
+      private final MultiDocValues.MultiSortedDocValues sliceMultiValues;
+      private SortedDocValues leafValues;
+      private LongValues leafOrdinalMap;
+      private Scorable leafScorer;
+      private int leafDocBase;
+
+      // maps the ord of a group to its head, with the score in the upper 32 bits and the doc in the lower 32 bits
+      final IntLongHashMap heads = new IntLongHashMap();
+      float nullScore = -Float.MAX_VALUE;
+      int nullDoc = -1;
+      final LongArrayList expanded;
+
+      SliceCollector() throws IOException {
+        this.sliceValues = collapseValuesProducer.getSorted(null);
+        this.sliceMultiValues = ordinalMap != null ? (MultiDocValues.MultiSortedDocValues) sliceValues : null;
+        this.expanded = nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND ? new LongArrayList() : null;
+      }
+
+      @Override
+      public ScoreMode scoreMode() {
+        return ScoreMode.COMPLETE;
+      }
+
+      @Override
+      public void setScorer(Scorable scorer) throws IOException {
+        this.leafScorer = scorer;
+      }
+
+      @Override
+      protected void doSetNextReader(LeafReaderContext context) throws IOException {
+        this.leafDocBase = context.docBase;
+        if (sliceMultiValues != null) {
+          this.leafValues = sliceMultiValues.values[context.ord];
+          this.leafOrdinalMap = sliceMultiValues.mapping.getGlobalOrds(context.ord);
+        } else {
+          this.leafValues = collapseValuesProducer.getSorted(null);
+        }
+      }
+
+      @Override
+      public void collect(int contextDoc) throws IOException {
+        int globalDoc = contextDoc + leafDocBase;
+        int ord = -1;
+        if (sliceMultiValues != null) {
+          if (leafValues.advanceExact(contextDoc)) {
+            ord = (int) leafOrdinalMap.get(leafValues.ordValue());
+          }
+        } else if (leafValues.advanceExact(globalDoc)) {
+          ord = leafValues.ordValue();
+        }
+
+        if (ord > -1) {
+          float score = leafScorer.score();
+          long scoreDoc = (((long) Float.floatToRawIntBits(score)) << 32) | globalDoc;
+          final int idx;
+          if ((idx = heads.indexOf(ord)) >= 0) {
+            long head = heads.indexGet(idx);
+            float current = Float.intBitsToFloat((int) (head >>> 32));
+            if (score > current || (score == current && globalDoc < (int) head)) {
+              heads.indexReplace(idx, scoreDoc);
+            }
+          } else {
+            heads.indexInsert(idx, ord, scoreDoc);
+          }
+        } else if (nullPolicy == CollapsingPostFilter.NULL_POLICY_COLLAPSE) {
+          float score = leafScorer.score();
+          if (score > nullScore || (score == nullScore && globalDoc < nullDoc)) {
+            nullScore = score;
+            nullDoc = globalDoc;
+          }
+        } else if (nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
+          expanded.add(((long) globalDoc << 32) | (Float.floatToRawIntBits(leafScorer.score()) & 0xFFFFFFFFL));
+        }
+      }
+    }
   }
 
   /*
@@ -769,6 +950,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         contexts[i] = con.get(i);
       }
 
+      chargeCollapse(maxDoc, 0, 0);
       this.collapsedSet = new FixedBitSet(maxDoc);
       this.nullValue = nullValue;
       this.nullPolicy = nullPolicy;
@@ -985,9 +1167,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.needsScores4Collapsing = needsScores4Collapsing;
       this.needsScores = needsScores;
       if (null != sortSpec) {
-        this.collapseStrategy = new OrdSortSpecStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores4Collapsing, this.needsScores, boostDocs, sortSpec, searcher, collapseValues);
+        this.collapseStrategy = new OrdSortSpecStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores4Collapsing, this.needsScores, boostDocs, sortSpec, searcher, collapseValues, getOffHeapArena(searcher));
       } else if (funcQuery != null) {
-        this.collapseStrategy =  new OrdValueSourceStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores4Collapsing, this.needsScores, boostDocs, funcQuery, searcher, collapseValues);
+        this.collapseStrategy =  new OrdValueSourceStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores4Collapsing, this.needsScores, boostDocs, funcQuery, searcher, collapseValues, getOffHeapArena(searcher));
       } else {
         NumberType numType = fieldType.getNumberType();
         if (null == numType) {
@@ -995,15 +1177,15 @@ public class CollapsingQParserPlugin extends QParserPlugin {
         }
         switch (numType) {
           case INTEGER: {
-            this.collapseStrategy = new OrdIntStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy = new OrdIntStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues, getOffHeapArena(searcher));
             break;
           }
           case FLOAT: {
-            this.collapseStrategy = new OrdFloatStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy = new OrdFloatStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues, getOffHeapArena(searcher));
             break;
           }
           case LONG: {
-            this.collapseStrategy =  new OrdLongStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues);
+            this.collapseStrategy =  new OrdLongStrategy(maxDoc, nullPolicy, valueCount, groupHeadSelector, this.needsScores, boostDocs, collapseValues, getOffHeapArena(searcher));
             break;
           }
           default: {
@@ -1011,6 +1193,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
           }
         }
       }
+      releaseOnRequestClose(getOffHeapArena(searcher), collapseStrategy::release);
     }
 
     @Override public ScoreMode scoreMode() { return needsScores ? ScoreMode.COMPLETE : super.scoreMode(); }
@@ -1047,6 +1230,14 @@ public class CollapsingQParserPlugin extends QParserPlugin {
     }
 
     public void finish() throws IOException {
+      try {
+        doFinish();
+      } finally {
+        collapseStrategy.release();
+      }
+    }
+
+    private void doFinish() throws IOException {
       if(contexts.length == 0) {
         return;
       }
@@ -1514,8 +1705,10 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                                  int nullPolicy,
                                  boolean needsScores,
                                  IntIntHashMap boostDocsMap,
-                                 SortedDocValues values) {
-      this.ords = new IntIntDynamicMap(valueCount, -1);
+                                 SortedDocValues values,
+                                 OffHeapArena arena) {
+      chargeCollapse(maxDoc, valueCount, Integer.BYTES + Long.BYTES + (needsScores ? Float.BYTES : 0));
+      this.ords = new IntIntDynamicMap(valueCount, -1, arena);
       this.nullPolicy = nullPolicy;
       this.needsScores = needsScores;
       this.collapsedSet = new FixedBitSet(maxDoc);
@@ -1537,13 +1730,21 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       }
 
       if (this.needsScores) {
-        this.scores = new IntFloatDynamicMap(valueCount, 0.0f);
+        this.scores = new IntFloatDynamicMap(valueCount, 0.0f, arena);
         if(nullPolicy == CollapsingPostFilter.NULL_POLICY_EXPAND) {
           nullScores = new FloatArrayList();
         }
       }
     }
 
+    /** Gives the off-heap memory of the maps back to the arena, once the collapsed set was passed on */
+    public void release() {
+      ords.release();
+      if (scores != null) {
+        scores.release();
+      }
+    }
+
     public MergeBoost getMergeBoost() {
       return this.mergeBoost;
     }
@@ -1605,22 +1806,29 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                           GroupHeadSelector groupHeadSelector,
                           boolean needsScores,
                           IntIntHashMap boostDocs,
-                          SortedDocValues values) throws IOException {
-      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values);
+                          SortedDocValues values,
+                          OffHeapArena arena) throws IOException {
+      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values, arena);
       this.field = groupHeadSelector.selectorText;
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
 
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxIntComp();
-        this.ordVals = new IntIntDynamicMap(valueCount, Integer.MIN_VALUE);
+        this.ordVals = new IntIntDynamicMap(valueCount, Integer.MIN_VALUE, arena);
       } else {
         comp = new MinIntComp();
-        this.ordVals = new IntIntDynamicMap(valueCount, Integer.MAX_VALUE);
+        this.ordVals = new IntIntDynamicMap(valueCount, Integer.MAX_VALUE, arena);
         this.nullVal = Integer.MAX_VALUE;
       }
     }
 
+    @Override
+    public void release() {
+      super.release();
+      ordVals.release();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -1683,23 +1891,30 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                             GroupHeadSelector groupHeadSelector,
                             boolean needsScores,
                             IntIntHashMap boostDocs,
-                            SortedDocValues values) throws IOException {
-      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values);
+                            SortedDocValues values,
+                            OffHeapArena arena) throws IOException {
+      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values, arena);
       this.field = groupHeadSelector.selectorText;
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
 
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxFloatComp();
-        this.ordVals = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE);
+        this.ordVals = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE, arena);
         this.nullVal = -Float.MAX_VALUE;
       } else {
         comp = new MinFloatComp();
-        this.ordVals = new IntFloatDynamicMap(valueCount, Float.MAX_VALUE);
+        this.ordVals = new IntFloatDynamicMap(valueCount, Float.MAX_VALUE, arena);
         this.nullVal = Float.MAX_VALUE;
       }
     }
 
+    @Override
+    public void release() {
+      super.release();
+      ordVals.release();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxValues = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -1764,22 +1979,29 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                            int valueCount,
                            GroupHeadSelector groupHeadSelector,
                            boolean needsScores,
-                           IntIntHashMap boostDocs, SortedDocValues values) throws IOException {
-      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values);
+                           IntIntHashMap boostDocs, SortedDocValues values,
+                           OffHeapArena arena) throws IOException {
+      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values, arena);
       this.field = groupHeadSelector.selectorText;
 
       assert GroupHeadSelectorType.MIN_MAX.contains(groupHeadSelector.type);
 
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxLongComp();
-        this.ordVals = new IntLongDynamicMap(valueCount, Long.MIN_VALUE);
+        this.ordVals = new IntLongDynamicMap(valueCount, Long.MIN_VALUE, arena);
       } else {
         this.nullVal = Long.MAX_VALUE;
         comp = new MinLongComp();
-        this.ordVals = new IntLongDynamicMap(valueCount, Long.MAX_VALUE);
+        this.ordVals = new IntLongDynamicMap(valueCount, Long.MAX_VALUE, arena);
       }
     }
 
+    @Override
+    public void release() {
+      super.release();
+      ordVals.release();
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
       this.minMaxVals = DocValues.getNumeric(context.reader(), this.field);
     }
@@ -1849,8 +2071,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                                   IntIntHashMap boostDocs,
                                   FunctionQuery funcQuery,
                                   IndexSearcher searcher,
-                                  SortedDocValues values) throws IOException {
-      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values);
+                                  SortedDocValues values,
+                                  OffHeapArena arena) throws IOException {
+      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values, arena);
       this.needsScores4Collapsing = needsScores4Collapsing;
       this.valueSource = funcQuery.getValueSource();
       this.rcontext = ValueSource.newContext(searcher);
@@ -1859,16 +2082,22 @@ public class CollapsingQParserPlugin extends QParserPlugin {
 
       if (GroupHeadSelectorType.MAX.equals(groupHeadSelector.type)) {
         comp = new MaxFloatComp();
-        this.ordVals = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE);
+        this.ordVals = new IntFloatDynamicMap(valueCount, -Float.MAX_VALUE, arena);
       } else {
         this.nullVal = Float.MAX_VALUE;
         comp = new MinFloatComp();
-        this.ordVals = new IntFloatDynamicMap(valueCount, Float.MAX_VALUE);
+        this.ordVals = new IntFloatDynamicMap(valueCount, Float.MAX_VALUE, arena);
       }
 
       collapseScore.setupIfNeeded(groupHeadSelector, rcontext);
     }
 
+    @Override
+    public void release() {
+      super.release();
+      ordVals.release();
+    }
+
     @SuppressWarnings({"unchecked"})
     public void setNextReader(LeafReaderContext context) throws IOException {
       functionValues = this.valueSource.getValues(rcontext, context);
@@ -1944,8 +2173,9 @@ public class CollapsingQParserPlugin extends QParserPlugin {
                                IntIntHashMap boostDocs,
                                SortSpec sortSpec,
                                IndexSearcher searcher,
-                               SortedDocValues values) throws IOException {
-      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values);
+                               SortedDocValues values,
+                               OffHeapArena arena) throws IOException {
+      super(maxDoc, valueCount, nullPolicy, needsScores, boostDocs, values, arena);
       this.needsScores4Collapsing = needsScores4Collapsing;
 
       assert GroupHeadSelectorType.SORT.equals(groupHeadSelector.type);
@@ -2073,6 +2303,7 @@ public class CollapsingQParserPlugin extends QParserPlugin {
       this.nullValue = nullValue;
       this.nullPolicy = nullPolicy;
       this.needsScores = needsScores;
+      chargeCollapse(maxDoc, 0, 0);
       this.collapsedSet = new FixedBitSet(maxDoc);
       this.cmap = new IntIntHashMap(size);
       this.docs = new IntIntDynamicMap(size, 0);
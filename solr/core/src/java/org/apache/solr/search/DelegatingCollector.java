@@ -21,6 +21,7 @@ import java.io.IOException;
 
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreMode;
@@ -80,6 +81,19 @@ public class DelegatingCollector extends SimpleCollector {
     leafDelegate = delegate.getLeafCollector(context);
   }
 
+  /**
+   * Returns a {@link CollectorManager} whose collectors can collect the matches of this collector concurrently,
+   * one per slice of the searcher, or null if this collector must see all the matches itself. Reducing the
+   * collectors must leave this collector as if it had collected all matches, as {@link #finish()} is called
+   * afterwards to pass the results to the delegate. Large segments may be split across slices, so collectors
+   * of the manager may only see a range of the documents of a segment.
+   * <p>
+   * Only used when this is the first collector of the chain and the searcher has a collector executor.
+   */
+  public CollectorManager<?, ?> getCollectorManager() {
+    return null;
+  }
+
   public void finish() throws IOException {
     if(delegate instanceof DelegatingCollector) {
       ((DelegatingCollector) delegate).finish();
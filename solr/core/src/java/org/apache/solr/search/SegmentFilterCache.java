@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.valuesource.ConstNumberSource;
+import org.apache.lucene.queries.function.valuesource.FieldCacheSource;
+import org.apache.lucene.queries.function.valuesource.JoinDocFreqValueSource;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.search.function.ValueSourceRangeFilter;
+
+/**
+ * A cache of the documents that match filters, on a per-segment basis. The
+ * <code>filterCache</code> of a {@link SolrIndexSearcher} holds top-level
+ * {@link DocSet}s that need to be recomputed on every reopen, which makes
+ * autowarming cost proportional to the size of the index. When this cache is
+ * configured, top-level sets are instead composed out of per-segment sets,
+ * which are keyed on the core cache key of their segment and thus survive
+ * commits: only new segments need to run the query. Entries of a segment are
+ * evicted as soon as its core is closed.
+ * <p>
+ * Per-segment sets don't take deleted documents into account, live docs are
+ * applied when composing the top-level set. This cache is owned by the
+ * {@link org.apache.solr.core.SolrCore} and shared by all its searchers. It
+ * is configured in the <code>&lt;query&gt;</code> section of
+ * <code>solrconfig.xml</code>, and is best bounded by RAM:
+ * <pre class="prettyprint">
+ * &lt;segmentFilterCache class="solr.CaffeineCache" maxRamMB="256"/&gt;
+ * </pre>
+ * Queries that are {@link DocSetProducer}s or whose weights are not
+ * {@link Weight#isCacheable(LeafReaderContext) cacheable}, typically because
+ * they depend on the top-level reader like joins, are computed as usual.
+ * {@link SolrConstantScoreQuery} weights are never cacheable since their
+ * filters are opaque, so they are only cached per segment when their filter
+ * is known to only depend on the segment: this is the case of function range
+ * filters (<code>{!frange}</code>) over field values or constants.
+ *
+ * @lucene.experimental
+ */
+public class SegmentFilterCache implements Closeable {
+
+  /** Name of this cache, used for configuration and metrics. */
+  public static final String NAME = "segmentFilterCache";
+
+  private final SolrCache<LeafKey, DocSet> cache;
+  /** Queries whose sets were cached, per core key, so that they can be evicted when the core closes. */
+  private final Map<IndexReader.CacheKey, Set<Query>> queries = new ConcurrentHashMap<>();
+
+  public SegmentFilterCache(SolrCache<LeafKey, DocSet> cache) {
+    this.cache = cache;
+  }
+
+  /** Creates a new instance from its configuration, or returns {@code null} if it is not configured. */
+  @SuppressWarnings({"unchecked"})
+  public static SegmentFilterCache create(CacheConfig config) {
+    if (config == null) {
+      return null;
+    }
+    final SolrCache<LeafKey, DocSet> cache = config.newInstance();
+    return cache == null ? null : new SegmentFilterCache(cache);
+  }
+
+  public SolrCache<LeafKey, DocSet> getCache() {
+    return cache;
+  }
+
+  /** Register the metrics of the underlying cache, which include hits, misses and RAM usage. */
+  public void initializeMetrics(SolrMetricsContext parentContext) {
+    cache.initializeMetrics(parentContext, NAME);
+  }
+
+  /**
+   * Returns the set of live documents that match the given positive query,
+   * or {@code null} if the query can't be cached per segment. The returned
+   * set should not be modified.
+   */
+  public DocSet getDocSet(SolrIndexSearcher searcher, Query query) throws IOException {
+    if (query instanceof DocSetProducer) {
+      return null;
+    }
+    final List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
+    final Query rewritten = searcher.rewrite(query);
+    final Weight weight = searcher.createWeight(rewritten, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    if (rewritten instanceof SolrConstantScoreQuery) {
+      if (isSegmentLocal(((SolrConstantScoreQuery) rewritten).getFilter()) == false) {
+        return null;
+      }
+    } else {
+      for (LeafReaderContext ctx : leaves) {
+        if (weight.isCacheable(ctx) == false) {
+          return null;
+        }
+      }
+    }
+
+    final int maxDoc = searcher.maxDoc();
+    final FixedBitSet bits = new FixedBitSet(maxDoc);
+    int count = 0;
+    for (LeafReaderContext ctx : leaves) {
+      final DocSet leafSet = getLeafDocSet(query, weight, ctx);
+      final Bits liveDocs = ctx.reader().getLiveDocs();
+      final int docBase = ctx.docBase;
+      for (DocIterator it = leafSet.iterator(); it.hasNext(); ) {
+        final int doc = it.nextDoc();
+        if (liveDocs == null || liveDocs.get(doc)) {
+          bits.set(docBase + doc);
+          count++;
+        }
+      }
+    }
+
+    final BitDocSet bitSet = new BitDocSet(bits, count);
+    final DocSet answer = count < DocSetUtil.smallSetSize(maxDoc) ? DocSetUtil.toSmallSet(bitSet) : bitSet;
+    return DocSetUtil.getDocSet(answer, searcher);
+  }
+
+  /** Whether the documents that match the given filter on a segment only depend on the content of that segment. */
+  static boolean isSegmentLocal(Filter filter) {
+    if (filter instanceof ValueSourceRangeFilter) {
+      return isSegmentLocal(((ValueSourceRangeFilter) filter).getValueSource());
+    }
+    return false;
+  }
+
+  private static boolean isSegmentLocal(ValueSource valueSource) {
+    // values of fields are read from the segment's doc values or field cache, unlike
+    // eg. ord() or docfreq() which depend on the top-level reader
+    return (valueSource instanceof FieldCacheSource && valueSource instanceof JoinDocFreqValueSource == false)
+        || valueSource instanceof ConstNumberSource;
+  }
+
+  private DocSet getLeafDocSet(Query query, Weight weight, LeafReaderContext ctx) throws IOException {
+    final IndexReader.CacheHelper cacheHelper = ctx.reader().getCoreCacheHelper();
+    final LeafKey key = cacheHelper == null ? null : new LeafKey(query, cacheHelper.getKey());
+    if (key != null) {
+      final DocSet cached = cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    final int maxDoc = ctx.reader().maxDoc();
+    final FixedBitSet leafBits = new FixedBitSet(maxDoc);
+    final Scorer scorer = weight.scorer(ctx);
+    if (scorer != null) {
+      // deleted documents are included so that the set remains valid when live docs change
+      final DocIdSetIterator iterator = scorer.iterator();
+      for (int doc = iterator.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+        leafBits.set(doc);
+      }
+    }
+    final BitDocSet leafSet = new BitDocSet(leafBits);
+    final DocSet answer = leafSet.size() < DocSetUtil.smallSetSize(maxDoc) ? DocSetUtil.toSmallSet(leafSet) : leafSet;
+    if (key != null) {
+      queries.computeIfAbsent(cacheHelper.getKey(), coreKey -> {
+        cacheHelper.addClosedListener(this::evict);
+        return ConcurrentHashMap.newKeySet();
+      }).add(query);
+      cache.put(key, answer);
+    }
+    return answer;
+  }
+
+  /** Remove all cached sets of the given core. */
+  void evict(IndexReader.CacheKey coreKey) {
+    final Set<Query> cachedQueries = queries.remove(coreKey);
+    if (cachedQueries != null) {
+      for (Query query : cachedQueries) {
+        cache.remove(new LeafKey(query, coreKey));
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    queries.clear();
+    cache.close();
+  }
+
+  /** Identifies the set of documents of a segment that match a query by the query and the core key of the segment. */
+  public static final class LeafKey implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(LeafKey.class);
+
+    private final Query query;
+    private final Object coreKey;
+    private final int hashCode;
+
+    LeafKey(Query query, Object coreKey) {
+      this.query = query;
+      this.coreKey = coreKey;
+      this.hashCode = 31 * query.hashCode() + System.identityHashCode(coreKey);
+    }
+
+    public Query getQuery() {
+      return query;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != LeafKey.class) {
+        return false;
+      }
+      final LeafKey that = (LeafKey) obj;
+      // core keys are compared by identity
+      return coreKey == that.coreKey && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      // the core key is shared with the segment
+      return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOfObject(query, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+    }
+
+    @Override
+    public String toString() {
+      return "LeafKey(" + query + "," + coreKey + ")";
+    }
+  }
+}
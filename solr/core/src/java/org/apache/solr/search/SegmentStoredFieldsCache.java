@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.codecs.compressing.CompressingStoredFieldsReader;
+import org.apache.lucene.codecs.compressing.StoredFieldsBlockCache;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.solr.metrics.SolrMetricsContext;
+
+/**
+ * A cache of decompressed blocks of stored fields that lives below the
+ * {@link SolrIndexSearcher} caches. Unlike the <code>documentCache</code>,
+ * which is keyed on global doc ids and thrown away on every reopen, entries
+ * are keyed on the core cache key of the segment they belong to, so they
+ * remain valid for as long as the segment is live. This cache is owned by the
+ * {@link org.apache.solr.core.SolrCore} and shared by all its searchers.
+ * <p>
+ * It is configured in the <code>&lt;query&gt;</code> section of
+ * <code>solrconfig.xml</code>, and is best bounded by RAM:
+ * <pre class="prettyprint">
+ * &lt;storedFieldsBlockCache class="solr.CaffeineCache" maxRamMB="64"/&gt;
+ * </pre>
+ * Only segments whose stored fields are read by a
+ * {@link CompressingStoredFieldsReader}, which is the case of all default
+ * codecs, can be cached; other segments are read directly. Entries of a
+ * segment are evicted as soon as its core is closed.
+ *
+ * @lucene.experimental
+ */
+public class SegmentStoredFieldsCache implements Closeable {
+
+  /** Name of this cache, used for configuration and metrics. */
+  public static final String NAME = "storedFieldsBlockCache";
+
+  private final SolrCache<BlockKey, StoredFieldsBlockCache.Block> cache;
+  /** Start pointers of the blocks that were cached, per core key, so that they can be evicted when the core closes. */
+  private final Map<IndexReader.CacheKey, Set<Long>> startPointers = new ConcurrentHashMap<>();
+
+  public SegmentStoredFieldsCache(SolrCache<BlockKey, StoredFieldsBlockCache.Block> cache) {
+    this.cache = cache;
+  }
+
+  /** Creates a new instance from its configuration, or returns {@code null} if it is not configured. */
+  @SuppressWarnings({"unchecked"})
+  public static SegmentStoredFieldsCache create(CacheConfig config) {
+    if (config == null) {
+      return null;
+    }
+    final SolrCache<BlockKey, StoredFieldsBlockCache.Block> cache = config.newInstance();
+    return cache == null ? null : new SegmentStoredFieldsCache(cache);
+  }
+
+  public SolrCache<BlockKey, StoredFieldsBlockCache.Block> getCache() {
+    return cache;
+  }
+
+  /** Register the metrics of the underlying cache, which include hits, misses and RAM usage. */
+  public void initializeMetrics(SolrMetricsContext parentContext) {
+    cache.initializeMetrics(parentContext, NAME);
+  }
+
+  /**
+   * Visit the stored fields of the given document using cached blocks when
+   * possible.
+   *
+   * @param reader the top-level reader
+   * @param docId  the global doc id of the document to visit
+   * @param visitor the visitor to pass stored fields to
+   */
+  public void visitDocument(IndexReader reader, int docId, StoredFieldVisitor visitor) throws IOException {
+    final List<LeafReaderContext> leaves = reader.leaves();
+    final LeafReaderContext context = leaves.get(ReaderUtil.subIndex(docId, leaves));
+    final int segmentDocId = docId - context.docBase;
+    final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+    // filter readers that Solr uses, like the uninverting reader, don't alter stored fields
+    final LeafReader unwrapped = FilterLeafReader.unwrap(context.reader());
+    if (cacheHelper != null && unwrapped instanceof CodecReader) {
+      final StoredFieldsReader fieldsReader = ((CodecReader) unwrapped).getFieldsReader();
+      if (fieldsReader instanceof CompressingStoredFieldsReader) {
+        final IndexReader.CacheKey coreKey = cacheHelper.getKey();
+        ((CompressingStoredFieldsReader) fieldsReader).visitDocument(segmentDocId, visitor, new StoredFieldsBlockCache() {
+          @Override
+          public Block get(long startPointer) {
+            return cache.get(new BlockKey(coreKey, startPointer));
+          }
+
+          @Override
+          public void put(long startPointer, Block block) {
+            startPointers.computeIfAbsent(coreKey, key -> {
+              cacheHelper.addClosedListener(SegmentStoredFieldsCache.this::evict);
+              return ConcurrentHashMap.newKeySet();
+            }).add(startPointer);
+            cache.put(new BlockKey(coreKey, startPointer), block);
+          }
+        });
+        return;
+      }
+    }
+    context.reader().document(segmentDocId, visitor);
+  }
+
+  /** Remove all cached blocks of the given core. */
+  void evict(IndexReader.CacheKey coreKey) {
+    final Set<Long> pointers = startPointers.remove(coreKey);
+    if (pointers != null) {
+      for (long startPointer : pointers) {
+        cache.remove(new BlockKey(coreKey, startPointer));
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    startPointers.clear();
+    cache.close();
+  }
+
+  /** Identifies a block of documents by the core key of its segment and its start pointer. */
+  public static final class BlockKey implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(BlockKey.class);
+
+    private final Object coreKey;
+    private final long startPointer;
+
+    BlockKey(Object coreKey, long startPointer) {
+      this.coreKey = coreKey;
+      this.startPointer = startPointer;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != BlockKey.class) {
+        return false;
+      }
+      final BlockKey that = (BlockKey) obj;
+      // core keys are compared by identity
+      return coreKey == that.coreKey && startPointer == that.startPointer;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(coreKey) + Long.hashCode(startPointer);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      // the core key is shared with the segment
+      return BASE_RAM_BYTES_USED;
+    }
+
+    @Override
+    public String toString() {
+      return "BlockKey(" + coreKey + "," + startPointer + ")";
+    }
+  }
+}
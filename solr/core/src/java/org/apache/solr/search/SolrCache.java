@@ -95,6 +95,14 @@ public interface SolrCache<K,V> extends SolrInfoBean {
   /** :TODO: copy from Map */
   public V get(K key);
 
+  /**
+   * Whether the cache holds a value for the key. Unlike {@link #get}, this should not count as a
+   * lookup in the statistics of the cache.
+   */
+  default boolean containsKey(K key) {
+    return get(key) != null;
+  }
+
   public V remove(K key);
 
   /**
@@ -83,12 +83,21 @@ public class SolrDocumentFetcher {
 
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  /**
+   * The most documents of a response whose stored fields are prefetched. A directory's prefetch executor drops
+   * hints once 1024 are pending, so a single large response must not take all of them.
+   */
+  public static final int MAX_PREFETCH_DOCS = 128;
+
   private final SolrIndexSearcher searcher;
 
   private final boolean enableLazyFieldLoading;
 
   private final SolrCache<Integer,Document> documentCache;
 
+  /** Cache of decompressed stored fields blocks shared with the other searchers of the core, may be null. */
+  private final SegmentStoredFieldsCache storedFieldsCache;
+
   private final Set<String> allStored;
 
   private final Set<String> dvsCanSubstituteStored;
@@ -117,6 +126,7 @@ public class SolrDocumentFetcher {
     } else {
       documentCache = null;
     }
+    this.storedFieldsCache = searcher.getCore() == null ? null : searcher.getCore().getSegmentStoredFieldsCache();
 
     final Set<String> nonStoredDVsUsedAsStored = new HashSet<>();
     final Set<String> allNonStoredDVs = new HashSet<>();
@@ -247,10 +257,19 @@ public class SolrDocumentFetcher {
   private Document docNC(int i, Set<String> fields) throws IOException {
     final DirectoryReader reader = searcher.getIndexReader();
     final SolrDocumentStoredFieldVisitor visitor = new SolrDocumentStoredFieldVisitor(fields, reader, i);
-    reader.document(i, visitor);
+    visitStoredFields(i, visitor);
     return visitor.getDocument();
   }
 
+  /** Visits the stored fields of a document, going through the stored fields block cache if there is one. */
+  private void visitStoredFields(int docId, StoredFieldVisitor visitor) throws IOException {
+    if (storedFieldsCache != null) {
+      storedFieldsCache.visitDocument(searcher.getIndexReader(), docId, visitor);
+    } else {
+      searcher.getIndexReader().document(docId, visitor);
+    }
+  }
+
   /**
    * This is an optimized version for populating a SolrDocument that:
    *
@@ -288,6 +307,32 @@ public class SolrDocumentFetcher {
     return solrReturnFields.getFetchOptimizer(rfoSupplier).getSolrDoc(luceneDocId);
   }
 
+  /**
+   * Hints the index to start loading the stored fields of the documents that {@link #solrDoc} will read for the
+   * given return fields. Nothing is prefetched if all fields are pseudo fields or come from docValues, nor for
+   * documents in the document cache, and at most {@link #MAX_PREFETCH_DOCS} documents are prefetched.
+   * <p>
+   * This is only a hint: documents that are not loaded in time are read when they are fetched.
+   *
+   * @return the number of documents that were prefetched
+   */
+  public int prefetchDocuments(DocList docs, SolrReturnFields solrReturnFields) throws IOException {
+    Supplier<RetrieveFieldsOptimizer> rfoSupplier = () -> new RetrieveFieldsOptimizer(solrReturnFields);
+    if (solrReturnFields.getFetchOptimizer(rfoSupplier).returnStoredFields() == false) {
+      return 0;
+    }
+    final IndexReader reader = searcher.getIndexReader();
+    int prefetched = 0;
+    for (DocIterator it = docs.iterator(); it.hasNext() && prefetched < MAX_PREFETCH_DOCS; ) {
+      int docId = it.nextDoc();
+      if (documentCache == null || documentCache.containsKey(docId) == false) {
+        reader.prefetchDocument(docId);
+        prefetched++;
+      }
+    }
+    return prefetched;
+  }
+
   /** {@link StoredFieldVisitor} which loads the specified fields eagerly (or all if null).
    * If {@link #enableLazyFieldLoading} then the rest get special lazy field entries.  Designated "large"
    * fields will always get a special field entry. */
@@ -348,7 +393,7 @@ public class SolrDocumentFetcher {
       Document cached = doc(docId);
       visitFromCached(cached, visitor);
     } else {
-      searcher.getIndexReader().document(docId, visitor);
+      visitStoredFields(docId, visitor);
     }
   }
 
@@ -456,7 +501,7 @@ public class SolrDocumentFetcher {
         return cachedBytes;
       } else {
         BytesRef bytesRef = new BytesRef();
-        searcher.getIndexReader().document(docId, new StoredFieldVisitor() {
+        visitStoredFields(docId, new StoredFieldVisitor() {
           boolean done = false;
 
           @Override
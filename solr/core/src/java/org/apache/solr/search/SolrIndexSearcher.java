@@ -31,6 +31,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -38,10 +41,14 @@ import java.util.concurrent.atomic.AtomicReference;
 import com.codahale.metrics.Gauge;
 import com.google.common.collect.Iterables;
 
+import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.ExitableDirectoryReader;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -83,6 +90,7 @@ import org.apache.solr.search.stats.StatsSource;
 import org.apache.solr.uninverting.UninvertingReader;
 import org.apache.solr.update.IndexFingerprint;
 import org.apache.solr.update.SolrIndexConfig;
+import org.apache.solr.util.OffHeapArena;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -121,8 +129,20 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final int queryResultMaxDocsCached;
   private final boolean useFilterForSortedQuery;
 
+  /** System property for the number of documents above which a segment is split across slices when collecting concurrently. */
+  public static final String COLLECTOR_MAX_DOCS_PER_SLICE_PROP = "solr.collectorMaxDocsPerSlice";
+  private static final int COLLECTOR_MAX_SEGMENTS_PER_SLICE = 5;
+
+  // collects post filters that support it across slices, null unless the container has a collector executor
+  private final ExecutorService collectorExecutor;
+  final LeafSlice[] collectorSlices; // package-private for testing
+
+  // pools direct memory for the large per-request arrays of collapse and facets, shared by the searchers of the core, null unless configured
+  private final OffHeapArena offHeapArena;
+
   private final boolean cachingEnabled;
   private final SolrCache<Query,DocSet> filterCache;
+  private final SegmentFilterCache segmentFilterCache;
   private final SolrCache<QueryResultKey,DocList> queryResultCache;
   private final SolrCache<String,UnInvertedField> fieldValueCache;
 
@@ -206,8 +226,15 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       collector = postFilter;
     }
 
+    final CollectorManager<?, ?> postFilterManager = postFilter != null && collectorSlices != null && collectorSlices.length > 1
+        ? postFilter.getCollectorManager() : null;
+
     try {
-      super.search(query, collector);
+      if (postFilterManager != null) {
+        searchConcurrently(query, postFilterManager);
+      } else {
+        super.search(query, collector);
+      }
     } catch (TimeLimitingCollector.TimeExceededException | ExitableDirectoryReader.ExitingReaderException x) {
       log.warn("Query: [{}]; ", query, x);
       qr.setPartialResults(true);
@@ -227,6 +254,42 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return collector;
   }
 
+  /**
+   * Runs the query with one collector of the manager per slice, on the collector executor, and reduces them.
+   * Exceptions of the slices are rethrown as is.
+   */
+  private <C extends Collector> void searchConcurrently(Query query, CollectorManager<C, ?> manager) throws IOException {
+    final List<C> collectors = new ArrayList<>(collectorSlices.length);
+    for (int i = 0; i < collectorSlices.length; i++) {
+      collectors.add(manager.newCollector());
+    }
+    final Weight weight = createWeight(rewrite(query), collectors.get(0).scoreMode(), 1);
+    final List<Future<C>> futures = new ArrayList<>(collectorSlices.length);
+    for (int i = 0; i < collectorSlices.length; i++) {
+      final LeafSlice slice = collectorSlices[i];
+      final C collector = collectors.get(i);
+      futures.add(collectorExecutor.submit(() -> {
+        search(slice.partitions, weight, collector);
+        return collector;
+      }));
+    }
+    for (Future<C> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolrException(ErrorCode.SERVER_ERROR, e);
+      } catch (ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new SolrException(ErrorCode.SERVER_ERROR, cause);
+      }
+    }
+    manager.reduce(collectors);
+  }
+
   public SolrIndexSearcher(SolrCore core, String path, IndexSchema schema, SolrIndexConfig config, String name,
       boolean enableCache, DirectoryFactory directoryFactory) throws IOException {
     // We don't need to reserve the directory because we get it from the factory
@@ -274,6 +337,11 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     this.queryResultWindowSize = solrConfig.queryResultWindowSize;
     this.queryResultMaxDocsCached = solrConfig.queryResultMaxDocsCached;
     this.useFilterForSortedQuery = solrConfig.useFilterForSortedQuery;
+    this.collectorExecutor = core.getCoreContainer() == null ? null : core.getCoreContainer().getCollectorExecutor();
+    // large segments, like the single segment of a force-merged index, are split into several slices
+    this.collectorSlices = collectorExecutor == null ? null : slices(leafContexts,
+        Integer.getInteger(COLLECTOR_MAX_DOCS_PER_SLICE_PROP, 250_000), COLLECTOR_MAX_SEGMENTS_PER_SLICE, true);
+    this.offHeapArena = core.getOffHeapArena();
 
     this.docFetcher = new SolrDocumentFetcher(this, solrConfig, enableCache);
 
@@ -285,6 +353,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       if (fieldValueCache != null) clist.add(fieldValueCache);
       filterCache = solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
+      // shared with the other searchers of the core, so not in the list of caches to warm and close
+      segmentFilterCache = core.getSegmentFilterCache();
       queryResultCache = solrConfig.queryResultCacheConfig == null ? null
           : solrConfig.queryResultCacheConfig.newInstance();
       if (queryResultCache != null) clist.add(queryResultCache);
@@ -307,6 +377,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cacheList = clist.toArray(new SolrCache[clist.size()]);
     } else {
       this.filterCache = null;
+      this.segmentFilterCache = null;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.cacheMap = NO_GENERIC_CACHES;
@@ -325,6 +396,14 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return docFetcher;
   }
 
+  /**
+   * The arena that large per-request arrays may be borrowed from, or null if the searcher doesn't pool direct memory.
+   * Borrowed buffers must be released before the request completes.
+   */
+  public OffHeapArena getOffHeapArena() {
+    return offHeapArena;
+  }
+
   List<LeafReaderContext> getLeafContexts() {
     return super.leafContexts;
   }
@@ -828,7 +907,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       }
     }
 
-    DocSet absAnswer = getDocSetNC(absQ, null);
+    DocSet absAnswer = getCacheableDocSetNC(absQ);
     DocSet answer = positive ? absAnswer : getLiveDocSet().andNot(absAnswer);
 
     if (filterCache != null) {
@@ -846,7 +925,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       answer = filterCache.get(q);
       if (answer != null) return answer;
     }
-    answer = getDocSetNC(q, null);
+    answer = getCacheableDocSetNC(q);
     if (filterCache != null) filterCache.put(q, answer);
     return answer;
   }
@@ -1173,6 +1252,18 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return DocSetUtil.createDocSet(this, query, filter);
   }
 
+  // query must be positive, the answer is about to be put in the filterCache
+  private DocSet getCacheableDocSetNC(Query query) throws IOException {
+    if (segmentFilterCache != null) {
+      // compose the answer out of per-segment sets, only segments that are new to the cache run the query
+      DocSet answer = segmentFilterCache.getDocSet(this, query);
+      if (answer != null) {
+        return answer;
+      }
+    }
+    return getDocSetNC(query, null);
+  }
+
   /**
    * Returns the set of document ids matching both the query and the filter. This method is cache-aware and attempts to
    * retrieve the answer from the cache if possible. If the answer was not cached, it may have been inserted into the
@@ -1205,7 +1296,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     if (filterCache != null) {
       first = filterCache.get(absQ);
       if (first == null) {
-        first = getDocSetNC(absQ, null);
+        first = getCacheableDocSetNC(absQ);
         filterCache.put(absQ, first);
       }
       return positive ? first.intersection(filter) : filter.andNot(first);
@@ -2296,6 +2387,39 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
         return -1;
       }
     }, true, "indexCommitSize", Category.SEARCHER.toString(), scope);
+    // how much of the terms index is resident on-heap vs. read off-heap
+    parentContext.gauge(
+        new MetricsMap((detailed, map) -> {
+          try {
+            long onHeapBytes = 0, offHeapBytes = 0;
+            int onHeapFields = 0, offHeapFields = 0;
+            for (LeafReaderContext ctx : reader.leaves()) {
+              LeafReader leaf = FilterLeafReader.unwrap(ctx.reader());
+              for (FieldInfo fi : leaf.getFieldInfos()) {
+                if (fi.getIndexOptions() == IndexOptions.NONE) {
+                  continue;
+                }
+                Terms terms = leaf.terms(fi.name);
+                if (terms instanceof FieldReader) {
+                  FieldReader fieldReader = (FieldReader) terms;
+                  if (fieldReader.isFSTOffHeap()) {
+                    offHeapBytes += fieldReader.offHeapBytesUsed();
+                    offHeapFields++;
+                  } else {
+                    onHeapBytes += fieldReader.ramBytesUsed();
+                    onHeapFields++;
+                  }
+                }
+              }
+            }
+            map.put("onHeapBytes", onHeapBytes);
+            map.put("offHeapBytes", offHeapBytes);
+            map.put("onHeapFields", onHeapFields);
+            map.put("offHeapFields", offHeapFields);
+          } catch (AlreadyClosedException | IOException ignore) {
+            // the searcher was closed in the meantime
+          }
+        }), true, "termsIndex", Category.SEARCHER.toString(), scope);
     // statsCache metrics
     parentContext.gauge(
         new MetricsMap((detailed, map) -> {
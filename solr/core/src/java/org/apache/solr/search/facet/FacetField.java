@@ -78,7 +78,8 @@ public class FacetField extends FacetRequestSorted {
 
     if (fcontext.facetInfo != null) {
       // refinement... we will end up either skipping the entire facet, or doing calculating only specific facet buckets
-      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible()) {
+      if (multiToken && !sf.hasDocValues() && method!=FacetMethod.DV && sf.isUninvertible()
+          && !preferPerSegmentUninversion(fcontext)) {
         // Match the access method from the first phase.
         // It won't always matter, but does currently for an all-values bucket
         return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
@@ -143,10 +144,20 @@ public class FacetField extends FacetRequestSorted {
       return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
     }
 
+    if (preferPerSegmentUninversion(fcontext)) {
+      // per-segment uninverted values, cached by segment core key and mapped to global ords through an OrdinalMap
+      return new FacetFieldProcessorByArrayDV(fcontext, this, sf);
+    }
+
     // Top-level multi-valued field cache (UIF)
     return new FacetFieldProcessorByArrayUIF(fcontext, this, sf);
   }
 
+  /** Whether multi-valued fields without docValues are uninverted per segment, unless uif was explicitly requested */
+  private boolean preferPerSegmentUninversion(FacetContext fcontext) {
+    return method != FacetMethod.UIF && fcontext.searcher.getCore().getSolrConfig().uninvertPerSegment;
+  }
+
   @Override
   public FacetMerger createFacetMerger(Object prototype) {
     return new FacetFieldMerger(this);
@@ -112,6 +112,7 @@ abstract class FacetFieldProcessor extends FacetProcessor<FacetField> {
   /** This is used to create accs for second phase (or to create accs for all aggs) */
   @Override
   protected void createAccs(long docCount, int slotCount) throws IOException {
+    chargeAccs(slotCount);
     if (accMap == null) {
       accMap = new LinkedHashMap<>();
     }
@@ -17,7 +17,11 @@
 package org.apache.solr.search.facet;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
 import java.text.ParseException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.function.IntFunction;
 
 import org.apache.lucene.index.DocValues;
@@ -38,6 +42,7 @@ import org.apache.solr.common.util.SimpleOrderedMap;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.DocSetUtil;
 import org.apache.solr.search.facet.SlotAcc.SlotContext;
+import org.apache.solr.util.OffHeapArena;
 
 /**
  * Facets numbers into a hash table.  The number is either a raw numeric DocValues value, or
@@ -56,23 +61,60 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
     static final float LOAD_FACTOR = 0.7f;
 
-    long[] vals;
-    long[] counts;  // maintain the counts here since we need them to tell if there was actually a value anyway
-    long[] oldToNewMapping;
+    LongBuffer vals;
+    LongBuffer counts;  // maintain the counts here since we need them to tell if there was actually a value anyway
+    LongBuffer oldToNewMapping;
 
     int cardinality;
     int threshold;
 
+    // the arena the tables are borrowed from if not null, and the buffers backing the borrowed tables
+    private final OffHeapArena arena;
+    private final Map<LongBuffer, ByteBuffer> borrowed = new IdentityHashMap<>();
+
     /** sz must be a power of two */
-    LongCounts(int sz) {
-      vals = new long[sz];
-      counts = new long[sz];
+    LongCounts(int sz, OffHeapArena arena) {
+      this.arena = arena;
+      vals = allocate(sz);
+      counts = allocate(sz);
       threshold = (int) (sz * LOAD_FACTOR);
     }
 
+    /** Returns a zeroed table of exactly sz slots */
+    private LongBuffer allocate(int sz) {
+      if (arena == null) {
+        return LongBuffer.wrap(new long[sz]);
+      }
+      ByteBuffer bytes = arena.acquire((long) sz * Long.BYTES);
+      bytes.limit(sz * Long.BYTES);
+      LongBuffer table = bytes.asLongBuffer();
+      // pooled buffers aren't zeroed
+      for (int i = 0; i < sz; i++) {
+        table.put(i, 0L);
+      }
+      borrowed.put(table, bytes);
+      return table;
+    }
+
+    /** Gives a table that isn't used anymore back to the arena */
+    void release(LongBuffer table) {
+      ByteBuffer bytes = table == null ? null : borrowed.remove(table);
+      if (bytes != null) {
+        arena.release(bytes);
+      }
+    }
+
+    /** Gives all tables back to the arena, the hash table must not be used afterwards */
+    void release() {
+      for (ByteBuffer bytes : borrowed.values()) {
+        arena.release(bytes);
+      }
+      borrowed.clear();
+    }
+
     /** Current number of slots in the hash table */
     int numSlots() {
-      return vals.length;
+      return vals.capacity();
     }
 
     private int hash(long val) {
@@ -94,48 +136,51 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
       }
 
       int h = hash(val);
-      for (int slot = h & (vals.length-1);  ;slot = (slot + ((h>>7)|1)) & (vals.length-1)) {
-        long count = counts[slot];
+      int mask = vals.capacity() - 1;
+      for (int slot = h & mask;  ;slot = (slot + ((h>>7)|1)) & mask) {
+        long count = counts.get(slot);
         if (count == 0) {
-          counts[slot] = 1;
-          vals[slot] = val;
+          counts.put(slot, 1);
+          vals.put(slot, val);
           cardinality++;
           return slot;
-        } else if (vals[slot] == val) {
+        } else if (vals.get(slot) == val) {
           // val is already in the set
-          counts[slot] = count + 1;
+          counts.put(slot, count + 1);
           return slot;
         }
       }
     }
 
     protected void rehash() {
-      long[] oldVals = vals;
-      long[] oldCounts = counts;  // after retrieving the count, this array is reused as a mapping to new array
-      int newCapacity = vals.length << 1;
-      vals = new long[newCapacity];
-      counts = new long[newCapacity];
+      LongBuffer oldVals = vals;
+      LongBuffer oldCounts = counts;  // after retrieving the count, this array is reused as a mapping to new array
+      int newCapacity = vals.capacity() << 1;
+      vals = allocate(newCapacity);
+      counts = allocate(newCapacity);
       threshold = (int) (newCapacity * LOAD_FACTOR);
 
-      for (int i=0; i<oldVals.length; i++) {
-        long count = oldCounts[i];
+      int mask = newCapacity - 1;
+      for (int i=0; i<oldVals.capacity(); i++) {
+        long count = oldCounts.get(i);
         if (count == 0) {
-          oldCounts[i] = -1;
+          oldCounts.put(i, -1);
           continue;
         }
 
-        long val = oldVals[i];
+        long val = oldVals.get(i);
 
         int h = hash(val);
-        int slot = h & (vals.length-1);
-        while (counts[slot] != 0) {
-          slot = (slot + ((h>>7)|1)) & (vals.length-1);
+        int slot = h & mask;
+        while (counts.get(slot) != 0) {
+          slot = (slot + ((h>>7)|1)) & mask;
         }
-        counts[slot] = count;
-        vals[slot] = val;
-        oldCounts[i] = slot;
+        counts.put(slot, count);
+        vals.put(slot, val);
+        oldCounts.put(i, slot);
       }
 
+      release(oldVals);
       oldToNewMapping = oldCounts;
     }
 
@@ -216,8 +261,15 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
   @Override
   public void process() throws IOException {
     super.process();
-    response = calcFacets();
-    table = null;//gc
+    try {
+      response = calcFacets();
+    } finally {
+      // give the borrowed tables back to the arena even if faceting failed
+      if (table != null) {
+        table.release();
+      }
+      table = null;//gc
+    }
   }
 
   private SimpleOrderedMap<Object> calcFacets() throws IOException {
@@ -236,11 +288,12 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
     // size smaller tables so that no resize will be necessary
     int currHashSize = BitUtil.nextHighestPowerOfTwo((int) (possibleValues * (1 / LongCounts.LOAD_FACTOR) + 1));
     currHashSize = Math.min(currHashSize, MAXIMUM_STARTING_TABLE_SIZE);
-    table = new LongCounts(currHashSize) {
+    table = new LongCounts(currHashSize, fcontext.searcher.getOffHeapArena()) {
       @Override
       protected void rehash() {
         super.rehash();
         doRehash(this);
+        release(oldToNewMapping);
         oldToNewMapping = null; // allow for gc
       }
     };
@@ -252,7 +305,7 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
     collectDocs();
 
     return super.findTopSlots(table.numSlots(), table.cardinality(),
-        slotNum -> calc.bitsToValue(table.vals[slotNum]), // getBucketValFromSlotNum
+        slotNum -> calc.bitsToValue(table.vals.get(slotNum)), // getBucketValFromSlotNum
         val -> calc.formatValue(val)); // getFieldQueryVal
   }
 
@@ -270,8 +323,8 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
       @Override
       public int compare(int slotA, int slotB) {
-        long s1 = calc.bitsToSortableBits(table.vals[slotA]);
-        long s2 = calc.bitsToSortableBits(table.vals[slotB]);
+        long s1 = calc.bitsToSortableBits(table.vals.get(slotA));
+        long s2 = calc.bitsToSortableBits(table.vals.get(slotB));
         return Long.compare(s1, s2);
       }
 
@@ -297,7 +350,7 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
       @Override
       public long getCount(int slot) {
-        return table.counts[slot];
+        return table.counts.get(slot);
       }
 
       @Override
@@ -317,7 +370,7 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
       @Override
       public int compare(int slotA, int slotB) {
-        return Long.compare( table.counts[slotA], table.counts[slotB] );
+        return Long.compare( table.counts.get(slotA), table.counts.get(slotB) );
       }
 
       @Override
@@ -440,7 +493,7 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
    * This avoids a memory allocation for each invocation of collectValFirstPhase.
    */
   private IntFunction<SlotContext> slotContext = (slotNum) -> {
-    long val = table.vals[slotNum];
+    long val = table.vals.get(slotNum);
     @SuppressWarnings({"rawtypes"})
     Comparable value = calc.bitsToValue(val);
     return new SlotContext(sf.getType().getFieldQuery(null, sf, calc.formatValue(value)));
@@ -460,7 +513,7 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
     }
 
     final int finalNumSlots = numSlots;
-    final long[] mapping = table.oldToNewMapping;
+    final LongBuffer mapping = table.oldToNewMapping;
 
     SlotAcc.Resizer resizer = new SlotAcc.Resizer() {
       @Override
@@ -470,8 +523,8 @@ class FacetFieldProcessorByHashDV extends FacetFieldProcessor {
 
       @Override
       public int getNewSlot(int oldSlot) {
-        if (oldSlot < mapping.length) {
-          return (int) mapping[oldSlot];
+        if (oldSlot < mapping.capacity()) {
+          return (int) mapping.get(oldSlot);
         }
         if (oldSlot == oldAllBucketsSlot) {
           return allBucketsSlot;
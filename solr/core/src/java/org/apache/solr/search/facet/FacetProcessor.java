@@ -43,6 +43,7 @@ import org.apache.solr.search.QParser;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.search.facet.SlotAcc.SlotContext;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 
 /** Base abstraction for a class that computes facets. This is fairly internal to the module. */
 public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
@@ -54,6 +55,7 @@ public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
   LinkedHashMap<String,SlotAcc> accMap;
   SlotAcc[] accs;
   SlotAcc.CountSlotAcc countAcc;
+  private long chargedAccBytes; // memory of the accumulators that is charged to the request
 
   FacetProcessor(FacetContext fcontext, FacetRequestT freq) {
     this.fcontext = fcontext;
@@ -305,6 +307,7 @@ public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
   }
 
   protected void createAccs(long docCount, int slotCount) throws IOException {
+    chargeAccs(slotCount);
     accMap = new LinkedHashMap<>();
 
     // allow a custom count acc to be used
@@ -325,6 +328,25 @@ public abstract class FacetProcessor<FacetRequestT extends FacetRequest>  {
     }
   }
 
+  /**
+   * Charges the slot arrays of the count and stat accumulators to the memory budget of the request. Accumulators
+   * that are created again are reused or replace the previous ones, so only the largest size is charged, until
+   * {@link #releaseAccs()} gives it back.
+   */
+  void chargeAccs(int slotCount) {
+    long bytes = (freq.getFacetStats().size() + 1L) * slotCount * Long.BYTES;
+    if (bytes > chargedAccBytes) {
+      RequestMemoryTracker.charge(fcontext.req, bytes - chargedAccBytes, "facet accumulators");
+      chargedAccBytes = bytes;
+    }
+  }
+
+  /** Gives back the memory charged by {@link #chargeAccs(int)}, once the response of this processor is built */
+  void releaseAccs() {
+    RequestMemoryTracker.release(fcontext.req, chargedAccBytes);
+    chargedAccBytes = 0;
+  }
+
   // note: only called by enum/stream prior to collect
   void resetStats() throws IOException {
     countAcc.reset();
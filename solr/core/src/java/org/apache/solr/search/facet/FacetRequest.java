@@ -422,25 +422,30 @@ public abstract class FacetRequest {
     @SuppressWarnings("rawtypes")
     FacetProcessor facetProcessor = createFacetProcessor(fcontext);
 
-    FacetDebugInfo debugInfo = fcontext.getDebugInfo();
-    if (debugInfo == null) {
-      facetProcessor.process();
-    } else {
-      if (fcontext.filter != null) {
-        debugInfo.setFilter(fcontext.filter.toString());
-      }
-      debugInfo.setReqDescription(getFacetDescription());
-      debugInfo.setProcessor(facetProcessor.getClass().getSimpleName());
-      debugInfo.putInfoItem("domainSize", (long) fcontext.base.size());
-      RTimer timer = new RTimer();
-      try {
+    try {
+      FacetDebugInfo debugInfo = fcontext.getDebugInfo();
+      if (debugInfo == null) {
         facetProcessor.process();
-      }finally {
-        debugInfo.setElapse((long) timer.getTime());
+      } else {
+        if (fcontext.filter != null) {
+          debugInfo.setFilter(fcontext.filter.toString());
+        }
+        debugInfo.setReqDescription(getFacetDescription());
+        debugInfo.setProcessor(facetProcessor.getClass().getSimpleName());
+        debugInfo.putInfoItem("domainSize", (long) fcontext.base.size());
+        RTimer timer = new RTimer();
+        try {
+          facetProcessor.process();
+        }finally {
+          debugInfo.setElapse((long) timer.getTime());
+        }
       }
-    }
 
-    return facetProcessor.getResponse(); 
+      return facetProcessor.getResponse(); 
+    } finally {
+      // nested facets create a processor per bucket, which must not add up
+      facetProcessor.releaseAccs();
+    }
   }
 
   @SuppressWarnings("rawtypes")
@@ -18,12 +18,14 @@ package org.apache.solr.search.facet;
 
 import java.io.IOException;
 
+import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.solr.common.util.Hash;
 import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.schema.HLLField;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.util.hll.HLL;
 import org.apache.solr.util.hll.HLLType;
@@ -52,6 +54,9 @@ public class HLLAgg extends StrAggValueSource {
   @Override
   public SlotAcc createSlotAcc(FacetContext fcontext, long numDocs, int numSlots) throws IOException {
     SchemaField sf = fcontext.qcontext.searcher().getSchema().getField(getArg());
+    if (sf.getType() instanceof HLLField) {
+      return new SketchAcc(fcontext, getArg(), numSlots);
+    }
     if (sf.multiValued() || sf.getType().multiValuedFieldCache()) {
       if (sf.getType().isPointField()) {
         return new SortedNumericAcc(fcontext, getArg(), numSlots);
@@ -235,4 +240,42 @@ public class HLLAgg extends StrAggValueSource {
     }
   }
 
+  /**
+   * Unions the pre-aggregated sketches of an {@link HLLField}
+   */
+  class SketchAcc extends BaseNumericAcc {
+    BinaryDocValues values;
+
+    public SketchAcc(FacetContext fcontext, String field, int numSlots) throws IOException {
+      super(fcontext, field, numSlots);
+    }
+
+    @Override
+    public void setNextReader(LeafReaderContext readerContext) throws IOException {
+      super.setNextReader(readerContext);
+      values = DocValues.getBinary(readerContext.reader(),  sf.getName());
+    }
+
+    @Override
+    protected boolean advanceExact(int doc) throws IOException {
+      return values.advanceExact(doc);
+    }
+
+    @Override
+    protected void collectValues(int doc, int slot) throws IOException {
+      // start from the first sketch rather than an empty one, the field's parameters may differ from the factory's
+      HLL hll = sets[slot];
+      if (hll == null) {
+        sets[slot] = HLLField.toHLL(values.binaryValue());
+      } else {
+        collectValues(doc, hll);
+      }
+    }
+
+    @Override
+    protected void collectValues(int doc, HLL hll) throws IOException {
+      hll.union(HLLField.toHLL(values.binaryValue()));
+    }
+  }
+
 }
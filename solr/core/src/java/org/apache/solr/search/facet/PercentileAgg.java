@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.function.IntFunction;
 
 import com.tdunning.math.stats.AVLTreeDigest;
+import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SortedNumericDocValues;
@@ -35,6 +36,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.NumericUtils;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.schema.SchemaField;
+import org.apache.solr.schema.TDigestField;
 import org.apache.solr.search.FunctionQParser;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.search.ValueSourceParser;
@@ -55,6 +57,9 @@ public class PercentileAgg extends SimpleAggValueSource {
     if (vs instanceof FieldNameValueSource) {
       String field = ((FieldNameValueSource) vs).getFieldName();
       SchemaField sf = fcontext.qcontext.searcher().getSchema().getField(field);
+      if (sf.getType() instanceof TDigestField) {
+        return new PercentileDigestAcc(fcontext, sf, numSlots);
+      }
       if (sf.getType().getNumberType() == null) {
         throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
             name() + " aggregation not supported for " + sf.getType().getTypeName());
@@ -370,6 +375,39 @@ public class PercentileAgg extends SimpleAggValueSource {
     }
   }
 
+  /**
+   * Merges the pre-aggregated digests of a {@link TDigestField}
+   */
+  class PercentileDigestAcc extends BasePercentileDVAcc {
+    BinaryDocValues values;
+
+    public PercentileDigestAcc(FacetContext fcontext, SchemaField sf, int numSlots) throws IOException {
+      super(fcontext, sf, numSlots);
+    }
+
+    @Override
+    protected void collectValues(int doc, int slot) throws IOException {
+      AVLTreeDigest subDigest = TDigestField.toDigest(values.binaryValue());
+      AVLTreeDigest digest = digests[slot];
+      if (digest == null) {
+        digests[slot] = subDigest;
+      } else {
+        digest.add(subDigest);
+      }
+    }
+
+    @Override
+    public void setNextReader(LeafReaderContext readerContext) throws IOException {
+      super.setNextReader(readerContext);
+      values = DocValues.getBinary(readerContext.reader(),  sf.getName());
+    }
+
+    @Override
+    protected boolean advanceExact(int doc) throws IOException {
+      return values.advanceExact(doc);
+    }
+  }
+
   class PercentileUnInvertedFieldAcc extends UnInvertedFieldAcc {
     protected AVLTreeDigest[] digests;
     protected ByteBuffer buf;
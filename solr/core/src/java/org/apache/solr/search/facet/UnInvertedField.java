@@ -52,6 +52,7 @@ import org.apache.solr.search.facet.SlotAcc.SweepingCountSlotAcc;
 import org.apache.solr.search.facet.SweepDocIterator.SweepIteratorAndCounts;
 import org.apache.solr.uninverting.DocTermOrds;
 import org.apache.solr.util.TestInjection;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -604,7 +605,10 @@ public class UnInvertedField extends DocTermOrds {
   public static UnInvertedField getUnInvertedField(String field, SolrIndexSearcher searcher) throws IOException {
     SolrCache<String, UnInvertedField> cache = searcher.getFieldValueCache();
     if (cache == null) {
-      return new UnInvertedField(field, searcher);
+      UnInvertedField uif = new UnInvertedField(field, searcher);
+      // only charged when it belongs to this request; cached ones are shared by all requests of the searcher
+      RequestMemoryTracker.chargeCurrentRequest(uif.memSize(), "uninverting " + field);
+      return uif;
     }
     AtomicReference<Throwable> throwableRef = new AtomicReference<>();
     UnInvertedField uif = cache.computeIfAbsent(field, f -> {
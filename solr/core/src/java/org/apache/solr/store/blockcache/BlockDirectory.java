@@ -90,6 +90,7 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
   private final String dirName;
   private final Cache cache;
   private final Set<String> blockCacheFileTypes;
+  private final Set<String> blockCacheExcludedFileTypes;
   private final boolean blockCacheReadEnabled;
   private final boolean blockCacheWriteEnabled;
 
@@ -105,6 +106,16 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
   public BlockDirectory(String dirName, Directory directory, Cache cache,
       Set<String> blockCacheFileTypes, boolean blockCacheReadEnabled,
       boolean blockCacheWriteEnabled, boolean cacheMerges, boolean cacheReadOnce) throws IOException {
+    this(dirName, directory, cache, blockCacheFileTypes, null, blockCacheReadEnabled, blockCacheWriteEnabled, cacheMerges, cacheReadOnce);
+  }
+
+  /**
+   * @param blockCacheFileTypes the file extensions to cache, or null or empty to cache all files
+   * @param blockCacheExcludedFileTypes the file extensions to never cache, or null
+   */
+  public BlockDirectory(String dirName, Directory directory, Cache cache,
+      Set<String> blockCacheFileTypes, Set<String> blockCacheExcludedFileTypes, boolean blockCacheReadEnabled,
+      boolean blockCacheWriteEnabled, boolean cacheMerges, boolean cacheReadOnce) throws IOException {
     super(directory);
     this.cacheMerges = cacheMerges;
     this.cacheReadOnce = cacheReadOnce;
@@ -116,6 +127,11 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
     } else {
       this.blockCacheFileTypes = blockCacheFileTypes;
     }
+    if (blockCacheExcludedFileTypes == null || blockCacheExcludedFileTypes.isEmpty()) {
+      this.blockCacheExcludedFileTypes = null;
+    } else {
+      this.blockCacheExcludedFileTypes = blockCacheExcludedFileTypes;
+    }
     this.blockCacheReadEnabled = blockCacheReadEnabled;
     if (!blockCacheReadEnabled) {
       log.info("Block cache on read is disabled");
@@ -137,7 +153,14 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
   }
   
   private boolean isCachableFile(String name) {
-    for (String ext : blockCacheFileTypes) {
+    if (blockCacheExcludedFileTypes != null && hasFileType(name, blockCacheExcludedFileTypes)) {
+      return false;
+    }
+    return blockCacheFileTypes == null || hasFileType(name, blockCacheFileTypes);
+  }
+
+  private static boolean hasFileType(String name, Set<String> fileTypes) {
+    for (String ext : fileTypes) {
       if (name.endsWith(ext)) {
         return true;
       }
@@ -300,7 +323,7 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
     if (!blockCacheReadEnabled) {
       return false;
     }
-    if (blockCacheFileTypes != null && !isCachableFile(name)) {
+    if (!isCachableFile(name)) {
       return false;
     }
     switch (context.context) {
@@ -331,7 +354,7 @@ public class BlockDirectory extends FilterDirectory implements ShutdownAwareDire
       // the cache does support renaming (renameCacheFile), but thats a scary optimization.
       return false;
     }
-    if (blockCacheFileTypes != null && !isCachableFile(name)) {
+    if (!isCachableFile(name)) {
       return false;
     }
     switch (context.context) {
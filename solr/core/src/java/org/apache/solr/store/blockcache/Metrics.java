@@ -55,6 +55,17 @@ public class Metrics extends SolrCacheBase implements SolrInfoBean {
   private Set<String> metricNames = ConcurrentHashMap.newKeySet();
   private SolrMetricsContext solrMetricsContext;
   private long previous = System.nanoTime();
+  private final String name;
+  private final String description;
+
+  public Metrics() {
+    this("hdfsBlockCache", "Provides metrics for the HdfsDirectoryFactory BlockCache.");
+  }
+
+  public Metrics(String name, String description) {
+    this.name = name;
+    this.description = description;
+  }
 
   @Override
   public void initializeMetrics(SolrMetricsContext parentContext, String scope) {
@@ -88,6 +99,7 @@ public class Metrics extends SolrCacheBase implements SolrInfoBean {
       map.put("hits", hits_total);
       map.put("evictions", evict_total);
       map.put("storeFails", storeFail_total);
+      map.put("hitratio", calcHitRatio(lookups_total, hits_total));
       map.put("hitratio_current", calcHitRatio(lookups_delta, hits_delta));  // hit ratio since the last call
       map.put("lookups_persec", getPerSecond(lookups_delta, seconds)); // lookups per second since the last call
       map.put("hits_persec", getPerSecond(hits_delta, seconds));       // hits per second since the last call
@@ -113,12 +125,12 @@ public class Metrics extends SolrCacheBase implements SolrInfoBean {
 
   @Override
   public String getName() {
-    return "hdfsBlockCache";
+    return name;
   }
 
   @Override
   public String getDescription() {
-    return "Provides metrics for the HdfsDirectoryFactory BlockCache.";
+    return description;
   }
 
   @Override
@@ -25,6 +25,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -320,6 +322,12 @@ public class HdfsTransactionLog extends TransactionLog {
       throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
     }
   }
+
+  @Override
+  public void groupSync(long windowNanos, Timer fsyncTimer, Histogram batchSizes) {
+    // hsync is not shared between callers
+    finish(UpdateLog.SyncLevel.FSYNC);
+  }
   
   @Override
   public void close() {
@@ -126,7 +126,8 @@ public class SolrIndexWriter extends IndexWriter {
     super(directory,
           config.toIndexWriterConfig(core).
           setOpenMode(create ? IndexWriterConfig.OpenMode.CREATE : IndexWriterConfig.OpenMode.APPEND).
-          setIndexDeletionPolicy(delPolicy).setCodec(codec)
+          setIndexDeletionPolicy(delPolicy).setCodec(codec).
+          setReaderAttributes(core.getReaderAttributes())
           );
     log.debug("Opened Writer {}", name);
     this.name = name;
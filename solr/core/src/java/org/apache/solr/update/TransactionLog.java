@@ -34,9 +34,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.Constants;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.DataInputInputStream;
@@ -80,6 +84,15 @@ public class TransactionLog implements Closeable {
   int numRecords;
   boolean isBuffer;
 
+  // group commit state, guarded by syncLock
+  private final Object syncLock = new Object();
+  private long syncedPosition;    // everything before this position has been fsynced
+  private boolean syncInProgress;
+  private int syncWaiters;        // callers waiting for the next fsync
+
+  // read-only mapping of the log once its output is closed, null otherwise
+  private volatile ByteBuffer mappedLog;
+
   protected volatile boolean deleteOnClose = true;  // we can delete old tlogs since they are currently only used for real-time-get (and in the future, recovery)
 
   AtomicInteger refcount = new AtomicInteger(1);
@@ -498,6 +511,9 @@ public class TransactionLog implements Closeable {
         fos.flush();  // flush since this will be the last record in a log fill
         assert fos.size() == channel.size();
 
+        // now the commit command is written we will never write to this log again
+        closeOutput();
+
         return pos;
       } catch (IOException e) {
         throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
@@ -526,7 +542,7 @@ public class TransactionLog implements Closeable {
          ***/
       }
 
-      ChannelFastInputStream fis = new ChannelFastInputStream(channel, pos);
+      ChannelFastInputStream fis = newInputStream(pos);
       try (LogCodec codec = new LogCodec(resolver)) {
         return codec.readVal(fis);
       }
@@ -559,9 +575,34 @@ public class TransactionLog implements Closeable {
     }
   }
 
-  /** Move to a read-only state, closing and releasing resources while keeping the log available for reads */
+  /**
+   * Move to a read-only state, closing and releasing resources while keeping the log available for reads.
+   * The log is memory-mapped so that readers, such as log replay and peer sync, no longer need a
+   * system call for every buffer they fill.
+   */
   public void closeOutput() {
+    synchronized (this) {
+      if (mappedLog != null) return;
+      try {
+        fos.flushBuffer();
+        long size = fos.size();
+        // mappings can't be released explicitly and would prevent the deletion of the file on Windows
+        if (size > 0 && size <= Integer.MAX_VALUE && Constants.WINDOWS == false) {
+          mappedLog = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+      } catch (IOException e) {
+        log.warn("Could not map {}, reads will go through the file channel", tlogFile, e);
+      }
+    }
+  }
 
+  /** Returns a stream over the log starting at {@code position}, backed by the mapped log if output is closed. */
+  protected ChannelFastInputStream newInputStream(long position) {
+    ByteBuffer mapped = mappedLog;
+    if (mapped != null) {
+      return new MappedFastInputStream(mapped.duplicate(), position);
+    }
+    return new ChannelFastInputStream(channel, position);
   }
 
   public void finish(UpdateLog.SyncLevel syncLevel) {
@@ -583,6 +624,85 @@ public class TransactionLog implements Closeable {
     }
   }
 
+  /**
+   * Same as {@link #finish(UpdateLog.SyncLevel)} with {@link UpdateLog.SyncLevel#FSYNC}, except
+   * that concurrent callers share fsyncs: a caller returns as soon as an fsync that started after
+   * its records were flushed completes. While one fsync is running, the callers that arrive queue up
+   * and are all covered by the next one. The thread that runs an fsync first waits up to
+   * {@code windowNanos} so that more callers can join the batch.
+   *
+   * @param fsyncTimer if not null, records the latency of each fsync
+   * @param batchSizes if not null, records the number of callers covered by each fsync
+   */
+  public void groupSync(long windowNanos, Timer fsyncTimer, Histogram batchSizes) {
+    try {
+      final long target;
+      synchronized (this) {
+        fos.flushBuffer();
+        target = fos.size();
+      }
+
+      synchronized (syncLock) {
+        if (syncedPosition >= target) {
+          return;
+        }
+        syncWaiters++;
+        while (syncInProgress) {
+          syncLock.wait();
+          if (syncedPosition >= target) {
+            return;
+          }
+        }
+        syncInProgress = true;
+      }
+
+      // this thread is the leader of the next batch
+      boolean success = false;
+      long syncTarget = target;
+      try {
+        if (windowNanos > 0) {
+          TimeUnit.NANOSECONDS.sleep(windowNanos);
+        }
+        final int batchSize;
+        synchronized (syncLock) {
+          synchronized (this) {
+            fos.flushBuffer();
+            syncTarget = fos.size();
+          }
+          // callers that registered so far flushed before syncTarget, they are all part of this batch
+          batchSize = syncWaiters;
+          syncWaiters = 0;
+        }
+        final long start = System.nanoTime();
+        // Since fsync is outside of synchronized block, we can end up with a partial
+        // last record on power failure (which is OK, and does not represent an error...
+        // we just need to be aware of it when reading).
+        raf.getFD().sync();
+        if (fsyncTimer != null) {
+          fsyncTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (batchSizes != null) {
+          batchSizes.update(batchSize);
+        }
+        success = true;
+      } finally {
+        synchronized (syncLock) {
+          syncInProgress = false;
+          if (success) {
+            syncedPosition = Math.max(syncedPosition, syncTarget);
+          }
+          // on failure, one of the waiters takes over and retries
+          syncLock.notifyAll();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    } catch (IOException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    }
+  }
+
   public void close() {
     try {
       if (debug) {
@@ -592,6 +712,7 @@ public class TransactionLog implements Closeable {
       synchronized (this) {
         fos.flush();
         fos.close();
+        mappedLog = null;
       }
 
       if (deleteOnClose) {
@@ -659,7 +780,7 @@ public class TransactionLog implements Closeable {
 
     public LogReader(long startingPos) {
       incref();
-      fis = new ChannelFastInputStream(channel, startingPos);
+      fis = newInputStream(startingPos);
     }
 
     // for classes that extend
@@ -819,7 +940,7 @@ public class TransactionLog implements Closeable {
         assert sz == channel.size();
       }
 
-      fis = new ChannelFastInputStream(channel, 0);
+      fis = newInputStream(0);
       if (sz >= 4) {
         // readHeader(fis);  // should not be needed
         prevPos = sz - 4;
@@ -937,6 +1058,31 @@ public class TransactionLog implements Closeable {
       return "readFromStream=" + readFromStream + " pos=" + pos + " end=" + end + " bufferPos=" + getBufferPos() + " position=" + position();
     }
   }
-}
 
+  /** Reads from a read-only mapping of a log whose output is closed. */
+  static class MappedFastInputStream extends ChannelFastInputStream {
+    private final ByteBuffer buffer;
+
+    public MappedFastInputStream(ByteBuffer buffer, long position) {
+      super(null, position);
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int readWrappedStream(byte[] target, int offset, int len) {
+      long remaining = buffer.limit() - readFromStream;
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = (int) Math.min(len, remaining);
+      buffer.position((int) readFromStream);
+      buffer.get(target, offset, n);
+      return n;
+    }
 
+    @Override
+    public void close() {
+      // the mapping is shared with other readers and released by the GC
+    }
+  }
+}
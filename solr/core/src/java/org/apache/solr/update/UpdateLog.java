@@ -48,7 +48,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.lucene.util.BytesRef;
 import org.apache.solr.common.SolrDocumentBase;
@@ -240,6 +242,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected VersionInfo versionInfo;
 
   protected SyncLevel defaultSyncLevel = SyncLevel.FLUSH;
+  /** How long an fsync waits for concurrent requests to join it, in ms; negative disables group commit. */
+  protected int groupCommitWindowMs = -1;
+  /** Whether buffered updates are also replayed concurrently, partitioned by the hash of their ids. */
+  protected boolean parallelBufferedReplay = false;
 
   volatile UpdateHandler uhandler;    // a core reload can change this reference!
   protected volatile boolean cancelApplyBufferUpdate;
@@ -250,6 +256,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   protected Meter applyingBufferedOpsMeter;
   protected Meter replayOpsMeter;
   protected Meter copyOverOldUpdatesMeter;
+  protected Timer groupCommitFsyncTimer;
+  protected Histogram groupCommitBatchSize;
   protected SolrMetricsContext solrMetricsContext;
 
   public static class LogPtr {
@@ -343,9 +351,12 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     if (numVersionBuckets <= 0)
       throw new SolrException(SolrException.ErrorCode.SERVER_ERROR,
           "Number of version buckets must be greater than 0!");
+    groupCommitWindowMs = objToInt(info.initArgs.get("groupCommitWindowMs"), -1);
+    Object parallelBufferedReplayArg = info.initArgs.get("parallelBufferedReplay");
+    parallelBufferedReplay = parallelBufferedReplayArg != null && Boolean.parseBoolean(parallelBufferedReplayArg.toString());
 
-    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={}",
-        dataDir, defaultSyncLevel, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets);
+    log.info("Initializing UpdateLog: dataDir={} defaultSyncLevel={} numRecordsToKeep={} maxNumLogsToKeep={} numVersionBuckets={} groupCommitWindowMs={} parallelBufferedReplay={}",
+        dataDir, defaultSyncLevel, numRecordsToKeep, maxNumLogsToKeep, numVersionBuckets, groupCommitWindowMs, parallelBufferedReplay);
   }
 
   /* Note, when this is called, uhandler is not completely constructed.
@@ -456,6 +467,8 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     applyingBufferedOpsMeter = solrMetricsContext.meter("ops", scope, "applyingBuffered");
     replayOpsMeter = solrMetricsContext.meter("ops", scope, "replay");
     copyOverOldUpdatesMeter = solrMetricsContext.meter("ops", scope, "copyOverOldUpdates");
+    groupCommitFsyncTimer = solrMetricsContext.timer("fsync", scope, "groupCommit");
+    groupCommitBatchSize = solrMetricsContext.histogram("batchSize", scope, "groupCommit");
     solrMetricsContext.gauge(() -> state.getValue(), true, "state", scope);
   }
 
@@ -1099,7 +1112,11 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     }
 
     try {
-      currLog.finish(syncLevel);
+      if (syncLevel == SyncLevel.FSYNC && groupCommitWindowMs >= 0) {
+        currLog.groupSync(TimeUnit.MILLISECONDS.toNanos(groupCommitWindowMs), groupCommitFsyncTimer, groupCommitBatchSize);
+      } else {
+        currLog.finish(syncLevel);
+      }
     } finally {
       currLog.decref();
     }
@@ -1812,7 +1829,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
 
         UpdateRequestProcessorChain processorChain = req.getCore().getUpdateProcessingChain(null);
         UpdateRequestProcessor proc = processorChain.createProcessor(req, rsp);
-        OrderedExecutor executor = inSortedOrder ? null : req.getCore().getCoreContainer().getReplayUpdatesExecutor();
+        // updates to the same id go to the same bucket and are applied in log order, so sorted replay
+        // may run in parallel too; deletes by query still wait for all pending updates
+        OrderedExecutor executor = inSortedOrder && parallelBufferedReplay == false
+            ? null : req.getCore().getCoreContainer().getReplayUpdatesExecutor();
         AtomicInteger pendingTasks = new AtomicInteger(0);
         AtomicReference<SolrException> exceptionOnExecuteUpdate = new AtomicReference<>();
 
@@ -52,4 +52,11 @@ public interface DynamicMap {
     // +2 let's us not to worry about which comparison operator to choose
     return threshold(expectedKeyMax) + 2;
   }
+
+  /**
+   * Gives the memory borrowed from an {@link OffHeapArena}, if any, back to the arena.
+   * The map must not be used afterwards.
+   */
+  default void release() {
+  }
 }
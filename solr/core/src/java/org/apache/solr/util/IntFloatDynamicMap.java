@@ -17,6 +17,8 @@
 
 package org.apache.solr.util;
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
 
 import com.carrotsearch.hppc.IntFloatHashMap;
@@ -28,6 +30,10 @@ public class IntFloatDynamicMap implements DynamicMap {
   private int maxSize;
   private IntFloatHashMap hashMap;
   private float[] keyValues;
+  // used instead of keyValues when the map has an arena
+  private final OffHeapArena arena;
+  private ByteBuffer buffer;
+  private FloatBuffer offHeapValues;
   private float emptyValue;
   private int threshold;
 
@@ -37,6 +43,15 @@ public class IntFloatDynamicMap implements DynamicMap {
    * But putting key much larger than {@code expectedKeyMax} is discourage since it can leads to use LOT OF memory.
    */
   public IntFloatDynamicMap(int expectedKeyMax, float emptyValue) {
+    this(expectedKeyMax, emptyValue, null);
+  }
+
+  /**
+   * Create map with expected max value of key, whose array, once the map is array based, is borrowed from
+   * the given arena if it isn't null. Such a map must be {@link #release() released} after use.
+   */
+  public IntFloatDynamicMap(int expectedKeyMax, float emptyValue, OffHeapArena arena) {
+    this.arena = arena;
     this.threshold = threshold(expectedKeyMax);
     this.maxSize = expectedKeyMax;
     this.emptyValue = emptyValue;
@@ -48,6 +63,14 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   private void upgradeToArray() {
+    if (arena != null) {
+      growOffHeap(maxSize);
+      if (hashMap != null) {
+        hashMap.forEach((IntFloatProcedure) (key, value) -> offHeapValues.put(key, value));
+        hashMap = null;
+      }
+      return;
+    }
     keyValues = new float[maxSize];
     if (emptyValue != 0.0f) {
       Arrays.fill(keyValues, emptyValue);
@@ -58,7 +81,29 @@ public class IntFloatDynamicMap implements DynamicMap {
     }
   }
 
+  private void growOffHeap(int minSize) {
+    ByteBuffer newBuffer = arena.acquire((long) minSize * Float.BYTES);
+    FloatBuffer newValues = newBuffer.asFloatBuffer();
+    int size = 0;
+    if (offHeapValues != null) {
+      size = offHeapValues.capacity();
+      offHeapValues.position(0);
+      newValues.put(offHeapValues);
+      arena.release(buffer);
+    }
+    // pooled buffers aren't zeroed
+    for (int i = size; i < newValues.capacity(); i++) {
+      newValues.put(i, emptyValue);
+    }
+    buffer = newBuffer;
+    offHeapValues = newValues;
+  }
+
   private void growBuffer(int minSize) {
+    if (offHeapValues != null) {
+      growOffHeap(minSize);
+      return;
+    }
     assert keyValues != null;
     int size = keyValues.length;
     keyValues = ArrayUtil.grow(keyValues, minSize);
@@ -70,7 +115,12 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public void put(int key, float value) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key >= offHeapValues.capacity()) {
+        growBuffer(key + 1);
+      }
+      offHeapValues.put(key, value);
+    } else if (keyValues != null) {
       if (key >= keyValues.length) {
         growBuffer(key + 1);
       }
@@ -85,7 +135,12 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public float get(int key) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key >= offHeapValues.capacity()) {
+        return emptyValue;
+      }
+      return offHeapValues.get(key);
+    } else if (keyValues != null) {
       if (key >= keyValues.length) {
         return emptyValue;
       }
@@ -96,7 +151,12 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public void forEachValue(FloatConsumer consumer) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      for (int i = 0, n = offHeapValues.capacity(); i < n; i++) {
+        float val = offHeapValues.get(i);
+        if (val != emptyValue) consumer.accept(val);
+      }
+    } else if (keyValues != null) {
       for (float val : keyValues) {
         if (val != emptyValue) consumer.accept(val);
       }
@@ -108,11 +168,23 @@ public class IntFloatDynamicMap implements DynamicMap {
   }
 
   public void remove(int key) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key < offHeapValues.capacity())
+        offHeapValues.put(key, emptyValue);
+    } else if (keyValues != null) {
       if (key < keyValues.length)
         keyValues[key] = emptyValue;
     } else {
       hashMap.remove(key);
     }
   }
+
+  @Override
+  public void release() {
+    if (buffer != null) {
+      arena.release(buffer);
+      buffer = null;
+      offHeapValues = null;
+    }
+  }
 }
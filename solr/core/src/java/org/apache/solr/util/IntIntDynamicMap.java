@@ -17,6 +17,8 @@
 
 package org.apache.solr.util;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.function.IntConsumer;
 
@@ -29,6 +31,10 @@ public class IntIntDynamicMap implements DynamicMap {
   private int maxSize;
   private IntIntHashMap hashMap;
   private int[] keyValues;
+  // used instead of keyValues when the map has an arena
+  private final OffHeapArena arena;
+  private ByteBuffer buffer;
+  private IntBuffer offHeapValues;
   private int emptyValue;
   private int threshold;
 
@@ -38,6 +44,15 @@ public class IntIntDynamicMap implements DynamicMap {
    * But putting key much larger than {@code expectedKeyMax} is discourage since it can leads to use LOT OF memory.
    */
   public IntIntDynamicMap(int expectedKeyMax, int emptyValue) {
+    this(expectedKeyMax, emptyValue, null);
+  }
+
+  /**
+   * Create map with expected max value of key, whose array, once the map is array based, is borrowed from
+   * the given arena if it isn't null. Such a map must be {@link #release() released} after use.
+   */
+  public IntIntDynamicMap(int expectedKeyMax, int emptyValue, OffHeapArena arena) {
+    this.arena = arena;
     this.threshold = threshold(expectedKeyMax);
     this.maxSize = expectedKeyMax;
     this.emptyValue = emptyValue;
@@ -49,6 +64,14 @@ public class IntIntDynamicMap implements DynamicMap {
   }
 
   private void upgradeToArray() {
+    if (arena != null) {
+      growOffHeap(maxSize);
+      if (hashMap != null) {
+        hashMap.forEach((IntIntProcedure) (key, value) -> offHeapValues.put(key, value));
+        hashMap = null;
+      }
+      return;
+    }
     keyValues = new int[maxSize];
     if (emptyValue != 0) {
       Arrays.fill(keyValues, emptyValue);
@@ -59,7 +82,29 @@ public class IntIntDynamicMap implements DynamicMap {
     }
   }
 
+  private void growOffHeap(int minSize) {
+    ByteBuffer newBuffer = arena.acquire((long) minSize * Integer.BYTES);
+    IntBuffer newValues = newBuffer.asIntBuffer();
+    int size = 0;
+    if (offHeapValues != null) {
+      size = offHeapValues.capacity();
+      offHeapValues.position(0);
+      newValues.put(offHeapValues);
+      arena.release(buffer);
+    }
+    // pooled buffers aren't zeroed
+    for (int i = size; i < newValues.capacity(); i++) {
+      newValues.put(i, emptyValue);
+    }
+    buffer = newBuffer;
+    offHeapValues = newValues;
+  }
+
   private void growBuffer(int minSize) {
+    if (offHeapValues != null) {
+      growOffHeap(minSize);
+      return;
+    }
     assert keyValues != null;
     int size = keyValues.length;
     keyValues = ArrayUtil.grow(keyValues, minSize);
@@ -71,7 +116,12 @@ public class IntIntDynamicMap implements DynamicMap {
   }
 
   public void put(int key, int value) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key >= offHeapValues.capacity()) {
+        growBuffer(key + 1);
+      }
+      offHeapValues.put(key, value);
+    } else if (keyValues != null) {
       if (key >= keyValues.length) {
         growBuffer(key + 1);
       }
@@ -86,7 +136,12 @@ public class IntIntDynamicMap implements DynamicMap {
   }
 
   public int get(int key) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key >= offHeapValues.capacity()) {
+        return emptyValue;
+      }
+      return offHeapValues.get(key);
+    } else if (keyValues != null) {
       if (key >= keyValues.length) {
         return emptyValue;
       }
@@ -97,7 +152,12 @@ public class IntIntDynamicMap implements DynamicMap {
   }
 
   public void forEachValue(IntConsumer consumer) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      for (int i = 0, n = offHeapValues.capacity(); i < n; i++) {
+        int val = offHeapValues.get(i);
+        if (val != emptyValue) consumer.accept(val);
+      }
+    } else if (keyValues != null) {
       for (int val : keyValues) {
         if (val != emptyValue) consumer.accept(val);
       }
@@ -109,7 +169,10 @@ public class IntIntDynamicMap implements DynamicMap {
   }
 
   public void remove(int key) {
-    if (keyValues != null) {
+    if (offHeapValues != null) {
+      if (key < offHeapValues.capacity())
+        offHeapValues.put(key, emptyValue);
+    } else if (keyValues != null) {
       if (key < keyValues.length)
         keyValues[key] = emptyValue;
     } else {
@@ -117,4 +180,12 @@ public class IntIntDynamicMap implements DynamicMap {
     }
   }
 
+  @Override
+  public void release() {
+    if (buffer != null) {
+      arena.release(buffer);
+      buffer = null;
+      offHeapValues = null;
+    }
+  }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.util;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of direct {@link ByteBuffer}s that per-request data structures, such as the array based
+ * {@link DynamicMap}s, borrow for their large arrays instead of allocating them on the heap for every request.
+ * Buffer capacities are rounded up to size classes, four per power of two so that no more than 25% of a buffer is
+ * wasted, and buffers are pooled per size class, up to a maximum number of bytes in total; buffers released beyond
+ * that limit, or after the arena was closed, are left to the garbage collector. The arena is meant to be shared by
+ * all searchers of a core, so that pooled buffers survive commits.
+ * <p>
+ * Buffers are in native byte order and are not zeroed when reused.
+ *
+ * @lucene.internal
+ */
+public class OffHeapArena implements Closeable {
+  private static final int MIN_SIZE_SHIFT = 12; // 4KB
+  private static final int MAX_SIZE_SHIFT = 30; // 1GB
+  private static final int SUB_CLASS_SHIFT = 2; // 4 size classes per power of two
+  private static final int NUM_SIZE_CLASSES = ((MAX_SIZE_SHIFT - MIN_SIZE_SHIFT) << SUB_CLASS_SHIFT) + 1;
+
+  private final long maxPooledBytes;
+  private final AtomicLong pooledBytes = new AtomicLong();
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private final ConcurrentLinkedDeque<ByteBuffer>[] pools = new ConcurrentLinkedDeque[NUM_SIZE_CLASSES];
+  private final LongAdder allocations = new LongAdder();
+  private final LongAdder reuses = new LongAdder();
+  private volatile boolean closed;
+
+  public OffHeapArena(long maxPooledBytes) {
+    this.maxPooledBytes = maxPooledBytes;
+    for (int i = 0; i < NUM_SIZE_CLASSES; i++) {
+      pools[i] = new ConcurrentLinkedDeque<>();
+    }
+  }
+
+  /** Returns the smallest size class whose buffers have at least the given number of bytes */
+  static int sizeClass(long bytes) {
+    if (bytes <= 1L << MIN_SIZE_SHIFT) {
+      return 0;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(bytes - 1); // 2^shift < bytes <= 2^(shift+1)
+    final long steps = ((bytes - 1 - (1L << shift)) >>> (shift - SUB_CLASS_SHIFT)) + 1;
+    return ((shift - MIN_SIZE_SHIFT) << SUB_CLASS_SHIFT) + (int) steps;
+  }
+
+  /** Returns the capacity of the buffers of the given size class */
+  static long sizeOf(int sizeClass) {
+    if (sizeClass == 0) {
+      return 1L << MIN_SIZE_SHIFT;
+    }
+    final int shift = ((sizeClass - 1) >>> SUB_CLASS_SHIFT) + MIN_SIZE_SHIFT;
+    final long steps = ((sizeClass - 1) & ((1 << SUB_CLASS_SHIFT) - 1)) + 1;
+    return (1L << shift) + (steps << (shift - SUB_CLASS_SHIFT));
+  }
+
+  /**
+   * Returns a cleared buffer of at least the given number of bytes, which should be given back with
+   * {@link #release(ByteBuffer)} once it isn't used anymore.
+   */
+  public ByteBuffer acquire(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Can't allocate a buffer of " + bytes + " bytes");
+    }
+    if (bytes > 1L << MAX_SIZE_SHIFT) {
+      allocations.increment();
+      return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+    final int sizeClass = sizeClass(bytes);
+    final ByteBuffer buffer = pools[sizeClass].pollFirst();
+    if (buffer != null) {
+      pooledBytes.addAndGet(-buffer.capacity());
+      reuses.increment();
+      buffer.clear();
+      return buffer;
+    }
+    allocations.increment();
+    return ByteBuffer.allocateDirect((int) sizeOf(sizeClass)).order(ByteOrder.nativeOrder());
+  }
+
+  /** Gives back a buffer of {@link #acquire(long)}, which must not be used by the caller anymore */
+  public void release(ByteBuffer buffer) {
+    final int capacity = buffer.capacity();
+    if (closed || capacity > 1L << MAX_SIZE_SHIFT) {
+      return;
+    }
+    final int sizeClass = sizeClass(capacity);
+    if (sizeOf(sizeClass) != capacity) {
+      // not one of ours
+      return;
+    }
+    if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+      pooledBytes.addAndGet(-capacity);
+      return;
+    }
+    pools[sizeClass].offerFirst(buffer);
+  }
+
+  /** Number of bytes of the buffers that are currently pooled */
+  public long getPooledBytes() {
+    return pooledBytes.get();
+  }
+
+  /** Number of buffers that had to be allocated */
+  public long getAllocations() {
+    return allocations.sum();
+  }
+
+  /** Number of buffers that were taken from the pool */
+  public long getReuses() {
+    return reuses.sum();
+  }
+
+  /** Drops the pooled buffers, buffers released afterwards aren't pooled anymore */
+  @Override
+  public void close() {
+    closed = true;
+    for (ConcurrentLinkedDeque<ByteBuffer> pool : pools) {
+      pool.clear();
+    }
+    pooledBytes.set(0);
+  }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CoreContainer;
 import org.apache.solr.core.PluginInfo;
 import org.apache.solr.util.plugin.PluginInfoInitialized;
 
@@ -45,8 +46,20 @@ public class CircuitBreakerManager implements PluginInfoInitialized {
 
   private final List<CircuitBreaker> circuitBreakerList = new ArrayList<>();
 
+  // provides the request memory budget shared by all cores, null for a budget of this manager's own
+  private final CoreContainer coreContainer;
+
+  // admission control based on the memory charged to requests, null unless enabled
+  private RequestMemoryBudget requestMemoryBudget;
+  private long requestMemoryLimitBytes;
+
   public CircuitBreakerManager(final boolean enableCircuitBreakerManager) {
+    this(enableCircuitBreakerManager, null);
+  }
+
+  public CircuitBreakerManager(final boolean enableCircuitBreakerManager, CoreContainer coreContainer) {
     this.enableCircuitBreakerManager = enableCircuitBreakerManager;
+    this.coreContainer = coreContainer;
   }
 
   @Override
@@ -59,6 +72,8 @@ public class CircuitBreakerManager implements PluginInfoInitialized {
 
     register(memoryCircuitBreaker);
     register(cpuCircuitBreaker);
+
+    requestMemoryBudget = buildRequestMemoryBudget(pluginInfo);
   }
 
   public void register(CircuitBreaker circuitBreaker) {
@@ -135,10 +150,18 @@ public class CircuitBreakerManager implements PluginInfoInitialized {
    *
    * Any default circuit breakers should be registered here.
    */
-  @SuppressWarnings({"rawtypes"})
   public static CircuitBreakerManager build(PluginInfo pluginInfo) {
+    return build(pluginInfo, null);
+  }
+
+  /**
+   * Like {@link #build(PluginInfo)}, but the request memory budget is the one shared by all cores of the given
+   * container.
+   */
+  @SuppressWarnings({"rawtypes"})
+  public static CircuitBreakerManager build(PluginInfo pluginInfo, CoreContainer coreContainer) {
     boolean enabled = pluginInfo == null ? false : Boolean.parseBoolean(pluginInfo.attributes.getOrDefault("enabled", "false"));
-    CircuitBreakerManager circuitBreakerManager = new CircuitBreakerManager(enabled);
+    CircuitBreakerManager circuitBreakerManager = new CircuitBreakerManager(enabled, coreContainer);
 
     circuitBreakerManager.init(pluginInfo);
 
@@ -171,10 +194,40 @@ public class CircuitBreakerManager implements PluginInfoInitialized {
     return new CircuitBreaker.CircuitBreakerConfig(enabled, memCBEnabled, memCBThreshold, cpuCBEnabled, cpuCBThreshold);
   }
 
+  @SuppressWarnings({"rawtypes"})
+  private RequestMemoryBudget buildRequestMemoryBudget(PluginInfo pluginInfo) {
+    NamedList args = pluginInfo == null ? null : pluginInfo.initArgs;
+    if (enableCircuitBreakerManager == false || args == null
+        || Boolean.parseBoolean(args._getStr("requestMemoryEnabled", "false")) == false) {
+      return null;
+    }
+    long budgetMB = Long.parseLong(args._getStr("requestMemoryBudgetMB", "0"));
+    long requestLimitMB = Long.parseLong(args._getStr("requestMemoryLimitMB", "0"));
+    long admissionTimeoutMs = Long.parseLong(args._getStr("requestAdmissionTimeoutMs", "0"));
+    requestMemoryLimitBytes = requestLimitMB * 1024L * 1024L;
+    if (coreContainer != null) {
+      return coreContainer.getRequestMemoryBudget(budgetMB * 1024L * 1024L, admissionTimeoutMs);
+    }
+    return new RequestMemoryBudget(budgetMB * 1024L * 1024L, admissionTimeoutMs);
+  }
+
   public boolean isEnabled() {
     return enableCircuitBreakerManager;
   }
 
+  /**
+   * The budget search requests are admitted by and charge their memory to, null if request memory
+   * accounting isn't enabled.
+   */
+  public RequestMemoryBudget getRequestMemoryBudget() {
+    return requestMemoryBudget;
+  }
+
+  /** The memory a single search request of this core may be charged with, 0 for no limit */
+  public long getRequestMemoryLimitBytes() {
+    return requestMemoryLimitBytes;
+  }
+
   @VisibleForTesting
   public List<CircuitBreaker> getRegisteredCircuitBreakers() {
     return circuitBreakerList;
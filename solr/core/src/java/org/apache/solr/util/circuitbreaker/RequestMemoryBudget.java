@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.util.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.solr.common.SolrException;
+
+/**
+ * Admission control for search requests based on the memory their largest data structures are charged with.
+ * <p>
+ * Every admitted request reserves the estimated memory of a request, which is a moving average of the memory
+ * charged to the recently completed requests, against the budget. A request whose reservation doesn't
+ * fit into what is left of the budget waits until running requests complete, up to the admission timeout, and is
+ * rejected if it still doesn't fit. A running request that is charged with more than its reservation reserves the
+ * difference, and fails if that overflows the budget or the per request limit. This way a single expensive request
+ * fails alone instead of pushing the whole node into full garbage collections.
+ * </p>
+ * <p>
+ * The budget is shared by all cores of a node, see {@link org.apache.solr.core.CoreContainer#getRequestMemoryBudget},
+ * while the per request limit is configured per core and passed to {@link #admit(long)}.
+ * </p>
+ *
+ * @see RequestMemoryTracker
+ */
+public class RequestMemoryBudget {
+  private final long budgetBytes;
+  private final long admissionTimeoutMs;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  // guarded by lock
+  private long reservedBytes;
+  private int running;
+
+  private final AtomicLong estimatedBytes = new AtomicLong();
+
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder delayed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * @param budgetBytes the memory all running requests may be charged with together, 0 for no admission control
+   * @param admissionTimeoutMs how long a request may wait for its admission
+   */
+  public RequestMemoryBudget(long budgetBytes, long admissionTimeoutMs) {
+    this.budgetBytes = budgetBytes;
+    this.admissionTimeoutMs = admissionTimeoutMs;
+  }
+
+  /**
+   * Waits until the estimated memory of a request fits into the budget, and returns the tracker the request's
+   * memory is charged to, which must be closed once the request completes.
+   *
+   * @param requestLimitBytes the memory the request may be charged with, 0 for no limit
+   * @throws SolrException with {@link SolrException.ErrorCode#SERVICE_UNAVAILABLE} if the request can't be
+   * admitted within the admission timeout
+   */
+  public RequestMemoryTracker admit(long requestLimitBytes) {
+    final long estimate = estimatedBytes.get();
+    if (budgetBytes > 0) {
+      lock.lock();
+      try {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(admissionTimeoutMs);
+        boolean waited = false;
+        // a request is always admitted when nothing else is running, so that the estimate can't lock out everything
+        while (running > 0 && reservedBytes + estimate > budgetBytes) {
+          if (remainingNanos <= 0) {
+            rejected.increment();
+            throw new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE,
+                "Request memory budget of " + budgetBytes + " bytes exhausted: " + reservedBytes
+                    + " bytes reserved by " + running + " running requests, " + estimate + " bytes estimated for this request");
+          }
+          waited = true;
+          remainingNanos = released.awaitNanos(remainingNanos);
+        }
+        if (waited) {
+          delayed.increment();
+        }
+        reservedBytes += estimate;
+        running++;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE, "Interrupted while waiting for admission", e);
+      } finally {
+        lock.unlock();
+      }
+    }
+    admitted.increment();
+    return new RequestMemoryTracker(this, estimate, requestLimitBytes);
+  }
+
+  /** Reserves the memory a running request is charged with beyond its reservation */
+  void reserve(long bytes) {
+    if (budgetBytes <= 0) {
+      return;
+    }
+    lock.lock();
+    try {
+      if (reservedBytes + bytes > budgetBytes) {
+        throw new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE,
+            "Request memory budget of " + budgetBytes + " bytes exhausted: " + reservedBytes
+                + " bytes reserved by " + running + " running requests, " + bytes + " more bytes charged to this request");
+      }
+      reservedBytes += bytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Gives back the reservation of a completed request and folds its peak usage into the estimate */
+  void release(long reservation, long peakBytes) {
+    estimatedBytes.accumulateAndGet(peakBytes, (estimate, peak) -> estimate - (estimate >> 3) + (peak >> 3));
+    if (budgetBytes <= 0) {
+      return;
+    }
+    lock.lock();
+    try {
+      reservedBytes -= reservation;
+      running--;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  public long getAdmissionTimeoutMs() {
+    return admissionTimeoutMs;
+  }
+
+  /** The memory that is currently reserved by running requests */
+  public long getReservedBytes() {
+    lock.lock();
+    try {
+      return reservedBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** The memory a new request is expected to be charged with */
+  public long getEstimatedBytes() {
+    return estimatedBytes.get();
+  }
+
+  public long getAdmitted() {
+    return admitted.sum();
+  }
+
+  /** Number of admitted requests that had to wait for their admission */
+  public long getDelayed() {
+    return delayed.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.util.circuitbreaker;
+
+import java.io.Closeable;
+
+import org.apache.solr.common.SolrException;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.request.SolrRequestInfo;
+
+/**
+ * Accounts the memory of the largest data structures a single request allocates, such as facet accumulators,
+ * collapse maps and export buffers, against the {@link RequestMemoryBudget} the request was admitted by.
+ * The tracker of a request is available from {@link SolrQueryRequest#getMemoryTracker()}; code that doesn't have
+ * the request at hand may use {@link #chargeCurrentRequest(long, String)}.
+ */
+public class RequestMemoryTracker implements Closeable {
+  /** The key of the tracker in the request context */
+  public static final String CONTEXT_KEY = "requestMemoryTracker";
+
+  private final RequestMemoryBudget budget;
+  private final long limitBytes;
+  // guarded by this
+  private long chargedBytes;
+  private long peakBytes;
+  private long reservedBytes;
+  private boolean closed;
+
+  RequestMemoryTracker(RequestMemoryBudget budget, long reservedBytes, long limitBytes) {
+    this.budget = budget;
+    this.reservedBytes = reservedBytes;
+    this.limitBytes = limitBytes;
+  }
+
+  /**
+   * Charges the request with memory it is about to allocate.
+   *
+   * @param bytes an estimate of the allocated memory
+   * @param what describes the allocation for the error message
+   * @throws SolrException if the request or the budget would be exceeded
+   */
+  public synchronized void charge(long bytes, String what) {
+    if (bytes <= 0 || closed) {
+      return;
+    }
+    if (limitBytes > 0 && chargedBytes + bytes > limitBytes) {
+      throw new SolrException(SolrException.ErrorCode.BAD_REQUEST,
+          "Request memory limit of " + limitBytes + " bytes exceeded by " + what + ": " + bytes
+              + " bytes requested, " + chargedBytes + " bytes already charged");
+    }
+    if (chargedBytes + bytes > reservedBytes) {
+      long more = chargedBytes + bytes - reservedBytes;
+      budget.reserve(more);
+      reservedBytes += more;
+    }
+    chargedBytes += bytes;
+    peakBytes = Math.max(peakBytes, chargedBytes);
+  }
+
+  /**
+   * Gives back memory that was charged with {@link #charge(long, String)} and is not used anymore. The request
+   * keeps its reservation, which covers the peak memory of the request, until it completes.
+   */
+  public synchronized void release(long bytes) {
+    if (bytes <= 0 || closed) {
+      return;
+    }
+    chargedBytes = Math.max(0, chargedBytes - bytes);
+  }
+
+  /** The memory the request is currently charged with */
+  public synchronized long getChargedBytes() {
+    return chargedBytes;
+  }
+
+  /** The largest memory the request was charged with at any time */
+  public synchronized long getPeakBytes() {
+    return peakBytes;
+  }
+
+  /** Gives the reservation of the request back to the budget */
+  @Override
+  public synchronized void close() {
+    if (closed == false) {
+      closed = true;
+      budget.release(reservedBytes, peakBytes);
+    }
+  }
+
+  /** Charges the given request, if it is tracked */
+  public static void charge(SolrQueryRequest req, long bytes, String what) {
+    RequestMemoryTracker tracker = req == null ? null : req.getMemoryTracker();
+    if (tracker != null) {
+      tracker.charge(bytes, what);
+    }
+  }
+
+  /** Gives memory back to the given request, if it is tracked */
+  public static void release(SolrQueryRequest req, long bytes) {
+    RequestMemoryTracker tracker = req == null ? null : req.getMemoryTracker();
+    if (tracker != null) {
+      tracker.release(bytes);
+    }
+  }
+
+  /** Charges the request of the current thread, if there is one and it is tracked */
+  public static void chargeCurrentRequest(long bytes, String what) {
+    SolrRequestInfo requestInfo = SolrRequestInfo.getRequestInfo();
+    if (requestInfo != null) {
+      charge(requestInfo.getReq(), bytes, what);
+    }
+  }
+}
@@ -283,6 +283,16 @@ public class HLL implements Cloneable {
      */
     public HLLType getType() { return type; }
 
+    /**
+     * @return the log-base-2 of the number of registers of this instance.
+     */
+    public int getLog2m() { return log2m; }
+
+    /**
+     * @return the number of bits per register of this instance.
+     */
+    public int getRegwidth() { return regwidth; }
+
     // ========================================================================
     // Add
     /**
@@ -54,6 +54,7 @@ import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.util.TimeSource;
 import org.apache.solr.core.SolrCore;
+import org.apache.solr.handler.ReplicationHandler;
 import org.apache.solr.util.TestInjection;
 import org.apache.solr.util.TimeOut;
 import org.apache.zookeeper.KeeperException;
@@ -74,6 +75,7 @@ public class TestPullReplica extends SolrCloudTestCase {
 
   private String collectionName = null;
   private final static int REPLICATION_TIMEOUT_SECS = 30;
+  private final static int COMMIT_NOTIFICATION_TIMEOUT_SECS = 10;
 
   private String suggestedCollectionName() {
     return (getTestClass().getSimpleName().replace("Test", "") + "_" + getSaferTestName().split(" ")[0]).replaceAll("(.)(\\p{Upper})", "$1_$2").toLowerCase(Locale.ROOT);
@@ -273,6 +275,41 @@ public class TestPullReplica extends SolrCloudTestCase {
     assertUlogPresence(docCollection);
   }
 
+  public void testCommitNotification() throws Exception {
+    int numPullReplicas = 1 + random().nextInt(2);
+    System.setProperty("solr.commitNotification", "true");
+    // make sure that replicas don't get the commits by polling within the time of the test
+    System.setProperty(ReplicateFromLeader.COMMIT_NOTIFICATION_POLL_INTERVAL_PROP, "01:00:00");
+    try {
+      CollectionAdminRequest.createCollection(collectionName, "conf", 1, 1, 0, numPullReplicas)
+      .process(cluster.getSolrClient());
+      waitForState("Expected collection to be created with 1 shard and " + (numPullReplicas + 1) + " replicas", collectionName, clusterShape(1, numPullReplicas + 1));
+    } finally {
+      System.clearProperty("solr.commitNotification");
+      System.clearProperty(ReplicateFromLeader.COMMIT_NOTIFICATION_POLL_INTERVAL_PROP);
+    }
+    DocCollection docCollection = assertNumberOfReplicas(1, 0, numPullReplicas, false, true);
+    Slice s = docCollection.getSlices().iterator().next();
+
+    for (int numDocs = 1; numDocs <= 3; numDocs++) {
+      cluster.getSolrClient().add(collectionName, new SolrInputDocument("id", String.valueOf(numDocs), "foo", "bar"));
+      cluster.getSolrClient().commit(collectionName);
+      // way shorter than the poll interval, so the replicas must have been notified of the commit
+      waitForNumDocsInAllReplicas(numDocs, docCollection.getReplicas(), "*:*", COMMIT_NOTIFICATION_TIMEOUT_SECS);
+    }
+
+    // only replicas that replicate from the leader accept the notification
+    SolrQuery notify = new SolrQuery("qt", ReplicationHandler.PATH, ReplicationHandler.COMMAND, ReplicationHandler.CMD_NOTIFY_COMMIT);
+    for (Replica r:s.getReplicas(EnumSet.of(Replica.Type.PULL))) {
+      try (HttpSolrClient pullReplicaClient = getHttpSolrClient(r.getCoreUrl())) {
+        assertEquals(ReplicationHandler.OK_STATUS, pullReplicaClient.query(notify).getResponse().get(ReplicationHandler.STATUS));
+      }
+    }
+    try (HttpSolrClient leaderClient = getHttpSolrClient(s.getLeader().getCoreUrl())) {
+      assertEquals(ReplicationHandler.ERR_STATUS, leaderClient.query(notify).getResponse().get(ReplicationHandler.STATUS));
+    }
+  }
+
   public void testAddRemovePullReplica() throws Exception {
     CollectionAdminRequest.createCollection(collectionName, "conf", 2, 1, 0, 0)
       .process(cluster.getSolrClient());
@@ -532,12 +569,16 @@ public class TestPullReplica extends SolrCloudTestCase {
   }
 
   private void waitForNumDocsInAllReplicas(int numDocs, Collection<Replica> replicas, String query) throws IOException, SolrServerException, InterruptedException {
-    TimeOut t = new TimeOut(REPLICATION_TIMEOUT_SECS, TimeUnit.SECONDS, TimeSource.NANO_TIME);
+    waitForNumDocsInAllReplicas(numDocs, replicas, query, REPLICATION_TIMEOUT_SECS);
+  }
+
+  private void waitForNumDocsInAllReplicas(int numDocs, Collection<Replica> replicas, String query, int timeoutSecs) throws IOException, SolrServerException, InterruptedException {
+    TimeOut t = new TimeOut(timeoutSecs, TimeUnit.SECONDS, TimeSource.NANO_TIME);
     for (Replica r:replicas) {
       try (HttpSolrClient replicaClient = getHttpSolrClient(r.getCoreUrl())) {
         while (true) {
           try {
-            assertEquals("Replica " + r.getName() + " not up to date after " + REPLICATION_TIMEOUT_SECS + " seconds",
+            assertEquals("Replica " + r.getName() + " not up to date after " + timeoutSecs + " seconds",
                 numDocs, replicaClient.query(new SolrQuery(query)).getResults().getNumFound());
             break;
           } catch (AssertionError e) {
@@ -20,7 +20,10 @@ import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.util.IOUtils;
@@ -36,6 +39,8 @@ import org.apache.solr.common.cloud.DocRouter;
 import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkStateReader;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.KeeperException;
 import org.junit.AfterClass;
@@ -144,6 +149,58 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
     }
   }
 
+  public void testConcurrentWrites() throws Exception {
+    Path zkDir = createTempDir("testConcurrentWrites");
+
+    ZkTestServer server = new ZkTestServer(zkDir);
+
+    SolrZkClient zkClient = null;
+    ExecutorService executor = ExecutorUtil.newMDCAwareFixedThreadPool(4, new SolrNamedThreadFactory("testConcurrentWrites"));
+
+    try {
+      server.run();
+
+      zkClient = new SolrZkClient(server.getZkAddress(), OverseerTest.DEFAULT_CONNECTION_TIMEOUT);
+      ZkController.createClusterZkNodes(zkClient);
+
+      try (ZkStateReader reader = new ZkStateReader(zkClient)) {
+        reader.createClusterStateWatchersAndUpdate();
+
+        Stats stats = new Stats();
+        ZkStateWriter writer = new ZkStateWriter(reader, stats, executor);
+
+        int numCollections = 10;
+        List<ZkWriteCommand> cmds = new ArrayList<>();
+        for (int i = 0; i < numCollections; i++) {
+          String name = "c" + i;
+          zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/" + name, true);
+          cmds.add(new ZkWriteCommand(name, new DocCollection(name, new HashMap<>(), new HashMap<>(), DocRouter.DEFAULT, 0)));
+        }
+        ClusterState clusterState = writer.enqueueUpdate(reader.getClusterState(), cmds, null);
+        clusterState = writer.writePendingUpdates();
+
+        for (int i = 0; i < numCollections; i++) {
+          String name = "c" + i;
+          @SuppressWarnings({"rawtypes"})
+          Map map = (Map) Utils.fromJSON(zkClient.getData(ZkStateReader.COLLECTIONS_ZKNODE + "/" + name + "/state.json", null, null, true));
+          assertNotNull(map.get(name));
+          assertEquals(0, clusterState.getCollection(name).getZNodeVersion());
+        }
+        assertEquals(numCollections, stats.getHistograms().get("update_state_batch_collections").getSnapshot().getMax());
+
+        // versions of concurrently written collections are tracked, so they can be updated again
+        clusterState = writer.enqueueUpdate(clusterState, cmds.subList(0, 2), null);
+        clusterState = writer.writePendingUpdates();
+        assertEquals(1, clusterState.getCollection("c0").getZNodeVersion());
+        assertEquals(1, clusterState.getCollection("c1").getZNodeVersion());
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
   public void testExternalModification() throws Exception {
     Path zkDir = createTempDir("testExternalModification");
 
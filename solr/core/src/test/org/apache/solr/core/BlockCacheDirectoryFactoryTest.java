@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.core;
+
+import java.util.Map;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.metrics.MetricsMap;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.store.blockcache.BlockDirectory;
+import org.apache.solr.util.RefCounted;
+import org.junit.After;
+
+/**
+ * Test-case for BlockCacheDirectoryFactory
+ */
+public class BlockCacheDirectoryFactoryTest extends SolrTestCaseJ4 {
+
+  @After
+  public void cleanup() {
+    System.clearProperty("solr.directoryFactory");
+    deleteCore();
+  }
+
+  public void testIndexRetrieve() throws Exception {
+    System.setProperty("solr.directoryFactory", "solr.BlockCacheDirectoryFactory");
+    initCore("solrconfig-minimal.xml","schema-minimal.xml");
+    DirectoryFactory factory = h.getCore().getDirectoryFactory();
+    assertTrue("Found: " + factory.getClass().getName(), factory instanceof BlockCacheDirectoryFactory);
+    for (int i = 0 ; i < 5 ; ++i) {
+      assertU(adoc("id", "" + i, "a_s", "_" + i + "_"));
+    }
+    assertU(commit());
+    assertQ(req("q", "a_s:_0_"), "//result[@numFound = '1']");
+    assertQ(req("q", "a_s:_1_"), "//result[@numFound = '1']");
+
+    RefCounted<SolrIndexSearcher> searcher = h.getCore().getSearcher();
+    try {
+      Directory dir = searcher.get().getIndexReader().directory();
+      while (dir instanceof BlockDirectory == false && dir instanceof FilterDirectory) {
+        dir = ((FilterDirectory) dir).getDelegate();
+      }
+      assertTrue("Found: " + dir, dir instanceof BlockDirectory);
+      assertTrue(((BlockDirectory) dir).getDelegate() instanceof NIOFSDirectory);
+    } finally {
+      searcher.decref();
+    }
+
+    SolrMetricManager metricManager = h.getCoreContainer().getMetricManager();
+    String registry = h.getCore().getCoreMetricManager().getRegistryName();
+    MetricsMap metrics = (MetricsMap) ((SolrMetricManager.GaugeWrapper) metricManager.registry(registry).getMetrics()
+        .get("CACHE.directoryFactory.blockCache")).getGauge();
+    Map<String, Object> statistics = metrics.getValue();
+    assertTrue("Expected lookups: " + statistics, ((Number) statistics.get("lookups")).longValue() > 0);
+    assertNotNull(statistics.get("hitratio"));
+  }
+}
@@ -20,10 +20,15 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.blocktree.BlockTreeTermsReader;
+import org.apache.lucene.codecs.blocktree.FieldReader;
 import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat;
 import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat.Mode;
 import org.apache.lucene.codecs.perfield.PerFieldDocValuesFormat;
 import org.apache.lucene.codecs.perfield.PerFieldPostingsFormat;
+import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.SegmentInfo;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.util.TestUtil;
@@ -92,6 +97,31 @@ public class TestCodecSupport extends SolrTestCaseJ4 {
     assertEquals("Asserting", format.getDocValuesFormatForField("bar_direct").getName());
   }
   
+  public void testTermsIndexLoadMode() throws Exception {
+    Map<String, String> readerAttributes = h.getCore().getReaderAttributes();
+    assertEquals("ON_HEAP", readerAttributes.get(BlockTreeTermsReader.fstModeKey("string_onheap_f")));
+    assertNull(readerAttributes.get(BlockTreeTermsReader.fstModeKey("string_f")));
+
+    assertU(add(doc("string_f", "foo", "string_onheap_f", "bar")));
+    assertU(commit());
+    h.getCore().withSearcher(searcher -> {
+      for (LeafReaderContext ctx : searcher.getIndexReader().leaves()) {
+        LeafReader leaf = FilterLeafReader.unwrap(ctx.reader());
+        FieldReader onHeap = (FieldReader) leaf.terms("string_onheap_f");
+        if (onHeap != null) {
+          assertFalse(onHeap.isFSTOffHeap());
+        }
+        FieldReader offHeap = (FieldReader) leaf.terms("string_f");
+        if (offHeap != null) {
+          assertTrue(offHeap.isFSTOffHeap());
+        }
+      }
+      return null;
+    });
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
   private void reloadCoreAndRecreateIndex() {
     h.getCoreContainer().reload(h.coreName);
     assertU(delQ("*:*"));
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.Writer;
 import java.lang.invoke.MethodHandles;
 import java.net.MalformedURLException;
@@ -139,6 +140,7 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
     leaderJetty = createAndStartJetty(leader);
     leaderClient = createNewSolrClient(leaderJetty.getLocalPort());
 
+    System.setProperty("solr.indexfetcher.maxConcurrentFileFetches", Integer.toString(TestUtil.nextInt(random(), 1, 4)));
     follower = new SolrInstance(createTempDir("solr-instance").toFile(), "follower", leaderJetty.getLocalPort());
     follower.setUp();
     followerJetty = createAndStartJetty(follower);
@@ -177,6 +179,7 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
       followerClient = null;
     }
     System.clearProperty("solr.indexfetcher.sotimeout");
+    System.clearProperty("solr.indexfetcher.maxConcurrentFileFetches");
   }
 
   static JettySolrRunner createAndStartJetty(SolrInstance instance) throws Exception {
@@ -1590,6 +1593,69 @@ public class TestReplicationHandler extends SolrTestCaseJ4 {
     assertTrue(timeTakenInSeconds - approximateTimeInSeconds > 0);
   }
 
+  @Test
+  public void testCorruptFileFailsFetch() throws Exception {
+    useFactory(null);
+    try {
+      leaderJetty.stop();
+      followerJetty.stop();
+
+      //index docs in a leader that doesn't get polled
+      leaderJetty = createAndStartJetty(leader);
+      leaderClient.close();
+      leaderClient = createNewSolrClient(leaderJetty.getLocalPort());
+      final int totalDocs = TestUtil.nextInt(random(), 17, 53);
+      for (int i = 0; i < totalDocs; i++)
+        index(leaderClient, "id", i, "name", TestUtil.randomSimpleString(random(), 1000, 5000));
+      leaderClient.commit();
+      leaderJetty.stop();
+
+      //flip a byte in the middle of the largest file, the footer and the checksum the leader reports stay intact
+      String corruptFile = null;
+      long corruptFileLength = 0;
+      try (Directory dir = FSDirectory.open(Paths.get(leader.getDataDir()).resolve("index"))) {
+        for (String file : dir.listAll()) {
+          if (file.startsWith("segments") == false && dir.fileLength(file) > corruptFileLength) {
+            corruptFile = file;
+            corruptFileLength = dir.fileLength(file);
+          }
+        }
+      }
+      assertNotNull(corruptFile);
+      File file = Paths.get(leader.getDataDir()).resolve("index").resolve(corruptFile).toFile();
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(corruptFileLength / 2);
+        int b = raf.read();
+        raf.seek(corruptFileLength / 2);
+        raf.write(b ^ 0xff);
+      }
+
+      leaderJetty = createAndStartJetty(leader);
+      leaderClient.close();
+      leaderClient = createNewSolrClient(leaderJetty.getLocalPort());
+
+      follower.setTestPort(leaderJetty.getLocalPort());
+      follower.copyConfigFile(CONF_DIR + "solrconfig-follower1.xml", "solrconfig.xml");
+      followerJetty = createAndStartJetty(follower);
+      followerClient.close();
+      followerClient = createNewSolrClient(followerJetty.getLocalPort());
+
+      //the corrupt file is not retried and fails the fetch, every time
+      for (int i = 0; i < 2; i++) {
+        SolrQuery q = new SolrQuery();
+        q.add("qt", "/replication")
+            .add("wait", "true")
+            .add("command", "fetchindex")
+            .add("leaderUrl", buildUrl(leaderJetty.getLocalPort()) + "/" + DEFAULT_TEST_CORENAME + ReplicationHandler.PATH);
+        NamedList<Object> resp = followerClient.query(q).getResponse();
+        assertEquals("fetching a corrupt " + corruptFile + " should fail", "ERROR", resp.get("status"));
+      }
+      assertEquals(0, numFound(query("*:*", followerClient)));
+    } finally {
+      resetFactory();
+    }
+  }
+
   @Test
   public void doTestIllegalFilePaths() throws Exception {
     // Loop through the file=, cf=, tlogFile= params and prove that it throws exception for path traversal attempts
@@ -20,16 +20,24 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.impl.LBHttp2SolrClient;
 import org.apache.solr.client.solrj.impl.LBSolrClient;
 import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.util.AsyncListener;
+import org.apache.solr.client.solrj.util.Cancellable;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.CoreContainer;
 import org.apache.solr.handler.component.HttpShardHandlerFactory.WhitelistHostChecker;
 import org.junit.AfterClass;
@@ -113,6 +121,113 @@ public class TestHttpShardHandlerFactory extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testHedgeDelay() {
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    // hedging is disabled by default
+    assertEquals(-1, factory.getHedgeDelayNanos());
+
+    factory.hedgePercentile = 90f;
+    factory.hedgeMinDelay = 5;
+    for (int i = 1; i < HttpShardHandlerFactory.HEDGE_MIN_SAMPLES; ++i) {
+      factory.recordShardResponseTime(i);
+    }
+    factory.recordShardResponseTime(HttpShardHandlerFactory.HEDGE_MIN_SAMPLES);
+    final long delayMillis = TimeUnit.NANOSECONDS.toMillis(factory.getHedgeDelayNanos());
+    assertTrue("delay=" + delayMillis, delayMillis >= 80 && delayMillis <= 100);
+  }
+
+  @Test
+  public void testHedgeDelayNotEnoughSamples() {
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    factory.hedgePercentile = 90f;
+    factory.hedgeMinDelay = 5;
+    for (int i = 1; i < HttpShardHandlerFactory.HEDGE_MIN_SAMPLES; ++i) {
+      factory.recordShardResponseTime(i);
+    }
+    assertEquals(-1, factory.getHedgeDelayNanos());
+  }
+
+  @Test
+  public void testHedgeBudget() {
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    factory.hedgePercentile = 90f;
+    factory.hedgeMaxPercent = 10f;
+    assertFalse(factory.tryAcquireHedge());
+    for (int i = 0; i < 9; ++i) {
+      factory.recordShardRequest();
+    }
+    assertFalse(factory.tryAcquireHedge());
+    factory.recordShardRequest();
+    assertTrue(factory.tryAcquireHedge());
+    assertFalse(factory.tryAcquireHedge());
+
+    // the budget does not grow without bounds while there is nothing to hedge
+    for (int i = 0; i < 10000; ++i) {
+      factory.recordShardRequest();
+    }
+    int hedges = 0;
+    while (factory.tryAcquireHedge()) {
+      ++hedges;
+    }
+    assertEquals((int) HttpShardHandlerFactory.HEDGE_MAX_BURST, hedges);
+  }
+
+  @Test
+  public void testHedgeSlowReplica() throws Exception {
+    final HttpShardHandlerFactory factory = new HttpShardHandlerFactory();
+    factory.hedgePercentile = 50f;
+    factory.hedgeMinDelay = 5;
+    factory.hedgeMaxPercent = 100f;
+    for (int i = 1; i <= HttpShardHandlerFactory.HEDGE_MIN_SAMPLES; ++i) {
+      factory.recordShardResponseTime(i);
+    }
+    final long hedgeDelayMillis = TimeUnit.NANOSECONDS.toMillis(factory.getHedgeDelayNanos());
+    assertTrue("delay=" + hedgeDelayMillis, hedgeDelayMillis > 0);
+
+    final String slowUrl = "http://slow:8983/solr/collection1";
+    final String fastUrl = "http://fast:8983/solr/collection1";
+    final List<String> requestedUrls = Collections.synchronizedList(new ArrayList<>());
+    final AtomicBoolean slowCancelled = new AtomicBoolean();
+    factory.loadbalancer = new LBHttp2SolrClient(null) {
+      @Override
+      public Cancellable asyncReq(Req req, AsyncListener<Rsp> asyncListener) {
+        final String url = req.getServers().get(0);
+        requestedUrls.add(url);
+        if (url.equals(slowUrl)) {
+          // never answers, unless cancelled
+          return () -> slowCancelled.set(true);
+        }
+        asyncListener.onSuccess(new Rsp() {{
+          server = url;
+          rsp = new NamedList<>();
+        }});
+        return () -> {};
+      }
+    };
+
+    final HttpShardHandler shardHandler = (HttpShardHandler) factory.getShardHandler();
+    shardHandler.hedgingAllowed = true;
+    final String shard = slowUrl + "|" + fastUrl;
+    final ShardRequest sreq = new ShardRequest();
+    sreq.purpose = ShardRequest.PURPOSE_GET_TOP_IDS;
+    sreq.actualShards = new String[] {shard};
+    final long start = System.nanoTime();
+    shardHandler.submit(sreq, shard, new ModifiableSolrParams());
+    final ShardResponse rsp = shardHandler.takeCompletedOrError();
+    final long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertNull(rsp.getException());
+    // the request was hedged to the next replica once the delay elapsed, and the first response won
+    assertEquals(Arrays.asList(slowUrl, fastUrl), requestedUrls);
+    assertEquals(fastUrl, rsp.getShardAddress());
+    assertTrue("took=" + tookMillis + " delay=" + hedgeDelayMillis, tookMillis >= hedgeDelayMillis);
+    // the loser got cancelled
+    assertTrue(slowCancelled.get());
+    // no more hedges are allowed than the budget permits
+    assertFalse(factory.tryAcquireHedge());
+  }
+
   @Test
   public void getShardsWhitelist() throws Exception {
     System.setProperty(SHARDS_WHITELIST, "http://abc:8983/,http://def:8984/,");
@@ -38,6 +38,7 @@ import org.apache.solr.common.util.Utils;
 import org.apache.solr.index.LogDocMergePolicyFactory;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.SchemaField;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -51,9 +52,16 @@ public class TestExportWriter extends SolrTestCaseJ4 {
     // force LogDocMergePolicy so that we get a predictable doc order
     // when testing index order results
     systemSetPropertySolrTestsMergePolicyFactory(LogDocMergePolicyFactory.class.getName());
+    // sort on several threads even if this machine has few processors
+    System.setProperty(ExportWriter.MAX_SORT_THREADS_PROP, "4");
     initCore("solrconfig-sortingresponse.xml","schema-sortingresponse.xml");
   }
 
+  @AfterClass
+  public static void afterClass() throws Exception {
+    System.clearProperty(ExportWriter.MAX_SORT_THREADS_PROP);
+  }
+
   @Before
   @Override
   public void setUp() throws Exception {
@@ -709,6 +717,55 @@ public class TestExportWriter extends SolrTestCaseJ4 {
     validateSort(numDocs);
   }
 
+  @Test
+  public void testSortThreads() throws Exception {
+    assertU(delQ("*:*"));
+    assertU(commit());
+
+    int numDocs = 500;
+    for (int i = 0; i < numDocs; i++) {
+      int number = TestUtil.nextInt(random(), 0, 20);
+      assertU(adoc("id", String.valueOf(i),
+          "intdv", String.valueOf(number),
+          "longdv", String.valueOf(random().nextLong()),
+          "stringdv", TestUtil.randomSimpleString(random(), 1, 2)));
+      if (i % 50 == 49) {
+        // several segments to sort in parallel
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    String[] sorts = {"intdv asc", "intdv desc", "stringdv asc", "stringdv desc,intdv asc", "longdv asc"};
+    for (String sort : sorts) {
+      // small batches so that every thread produces several sorted runs
+      String batchSize = String.valueOf(TestUtil.nextInt(random(), 7, 100));
+      String expected = h.query(req("q", "*:*", "qt", "/export", "fl", "id,intdv", "sort", sort, "batchSize", batchSize));
+      for (int sortThreads = 2; sortThreads <= 4; sortThreads++) {
+        String actual = h.query(req("q", "*:*", "qt", "/export", "fl", "id,intdv", "sort", sort, "batchSize", batchSize,
+            ExportWriter.SORT_THREADS_PARAM, String.valueOf(sortThreads)));
+        assertEquals("sort=" + sort + ", sortThreads=" + sortThreads, expected, actual);
+      }
+      // out of range values are clamped
+      for (String sortThreads : new String[] {"0", "1000"}) {
+        String actual = h.query(req("q", "*:*", "qt", "/export", "fl", "id,intdv", "sort", sort, "batchSize", batchSize,
+            ExportWriter.SORT_THREADS_PARAM, sortThreads));
+        assertEquals("sort=" + sort + ", sortThreads=" + sortThreads, expected, actual);
+      }
+    }
+  }
+
+  @Test
+  public void testBufferBytesEstimate() {
+    long perQueue = 100 * (32 + 16L * 2);
+    // the writer's two buffers and the filler's sort queue
+    assertEquals(3 * perQueue, ExportWriter.estimateBufferBytes(100, 2, ExportBuffers.numSortThreads(1, 10)));
+    assertEquals(3 * perQueue, ExportWriter.estimateBufferBytes(100, 2, ExportBuffers.numSortThreads(4, 1)));
+    // plus two buffers and a sort queue per segment group
+    assertEquals((2 + 3 * 4) * perQueue, ExportWriter.estimateBufferBytes(100, 2, ExportBuffers.numSortThreads(4, 10)));
+    assertEquals((2 + 3 * 3) * perQueue, ExportWriter.estimateBufferBytes(100, 2, ExportBuffers.numSortThreads(4, 3)));
+  }
+
   private void createLargeIndex() throws Exception {
     int BATCH_SIZE = 5000;
     int NUM_BATCHES = 20;
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests collapsing on a string field by score when the slices of the searcher are collected concurrently.
+ */
+public class TestParallelCollapseQParserPlugin extends SolrTestCaseJ4 {
+
+  private static final int NUM_DOCS = 60;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("solr.collectorThreads", "4");
+    // small enough that a segment of all the documents gets split into several slices
+    System.setProperty(SolrIndexSearcher.COLLECTOR_MAX_DOCS_PER_SLICE_PROP, "10");
+    // no merges, so that there are enough segments for several slices
+    initCore("solrconfig-segmentcaches.xml", "schema11.xml");
+  }
+
+  @AfterClass
+  public static void afterClass() throws Exception {
+    System.clearProperty("solr.collectorThreads");
+    System.clearProperty(SolrIndexSearcher.COLLECTOR_MAX_DOCS_PER_SLICE_PROP);
+  }
+
+  @Before
+  public void clearIndex() {
+    assertU(delQ("*:*"));
+    assertU(commit());
+  }
+
+  private static String group(int i) {
+    return i % 11 == 0 ? null : "g" + (i % 7);
+  }
+
+  private static int score(int i) {
+    return 1 + i % 5;
+  }
+
+  @Test
+  public void testSameHeadsAsSequential() throws Exception {
+    indexDocs(true);
+    assertTrue(h.getCore().withSearcher(s -> s.getTopReaderContext().leaves().size()) > 5);
+    assertSameHeadsAsSequential();
+  }
+
+  @Test
+  public void testSingleSegment() throws Exception {
+    indexDocs(false);
+    assertEquals(1, (int) h.getCore().withSearcher(s -> s.getTopReaderContext().leaves().size()));
+    // the segment is split into ranges of documents that are collected concurrently
+    assertTrue(h.getCore().withSearcher(s -> s.collectorSlices.length) > 1);
+    assertSameHeadsAsSequential();
+  }
+
+  private void indexDocs(boolean severalSegments) {
+    assertNotNull(h.getCore().getCoreContainer().getCollectorExecutor());
+    for (int i = 0; i < NUM_DOCS; i++) {
+      String group = group(i);
+      if (group == null) {
+        assertU(adoc("id", Integer.toString(i), "id_i", Integer.toString(i), "score_i", Integer.toString(score(i))));
+      } else {
+        assertU(adoc("id", Integer.toString(i), "id_i", Integer.toString(i), "score_i", Integer.toString(score(i)), "group_s_dv", group));
+      }
+      if (severalSegments && i % 5 == 4) {
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+  }
+
+  private void assertSameHeadsAsSequential() throws Exception {
+    // the first document in index order wins ties on score
+    Map<String,Integer> heads = new TreeMap<>();
+    List<Integer> nullDocs = new ArrayList<>();
+    int nullHead = -1;
+    for (int i = 0; i < NUM_DOCS; i++) {
+      String group = group(i);
+      if (group == null) {
+        nullDocs.add(i);
+        if (nullHead == -1 || score(i) > score(nullHead)) {
+          nullHead = i;
+        }
+      } else if (heads.containsKey(group) == false || score(i) > score(heads.get(group))) {
+        heads.put(group, i);
+      }
+    }
+
+    List<Integer> ignore = new ArrayList<>(heads.values());
+    List<Integer> collapse = new ArrayList<>(ignore);
+    collapse.add(nullHead);
+    List<Integer> expand = new ArrayList<>(ignore);
+    expand.addAll(nullDocs);
+
+    assertCollapsed("ignore", ignore);
+    assertCollapsed("collapse", collapse);
+    assertCollapsed("expand", expand);
+  }
+
+  private void assertCollapsed(String nullPolicy, List<Integer> expected) throws Exception {
+    expected.sort(Integer::compare);
+    StringBuilder docs = new StringBuilder();
+    for (int id : expected) {
+      if (docs.length() > 0) docs.append(',');
+      docs.append("{id:'").append(id).append("'}");
+    }
+    assertJQ(req("q", "{!func}score_i", "fq", "{!collapse field=group_s_dv nullPolicy=" + nullPolicy + "}",
+            "fl", "id", "sort", "id_i asc", "rows", Integer.toString(NUM_DOCS))
+        , "/response/numFound==" + expected.size()
+        , "/response/docs==[" + docs + "]"
+    );
+  }
+
+}
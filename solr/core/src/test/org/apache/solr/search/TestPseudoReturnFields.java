@@ -21,12 +21,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Random;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.cloud.TestCloudPseudoReturnFields;
 import org.apache.solr.schema.SchemaField;
 
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.request.SolrQueryRequest;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -99,6 +102,29 @@ public class TestPseudoReturnFields extends SolrTestCaseJ4 {
     );
   }
 
+  public void testPrefetchDocuments() throws Exception {
+    try (SolrQueryRequest req = req()) {
+      h.getCore().withSearcher(searcher -> {
+        SolrDocumentFetcher docFetcher = searcher.getDocFetcher();
+        DocList docs = searcher.getDocList(new MatchAllDocsQuery(), (Query) null, null, 0, 10);
+        assertTrue(docs.size() >= 5);
+
+        // nothing to read from the stored fields
+        assertEquals(0, docFetcher.prefetchDocuments(docs, new SolrReturnFields("score,[docid]", req)));
+
+        docFetcher.getDocumentCache().clear();
+        SolrReturnFields subject = new SolrReturnFields("id,subject", req);
+        assertEquals(docs.size(), docFetcher.prefetchDocuments(docs, subject));
+        // once the documents are cached, they are not read again
+        for (DocIterator it = docs.iterator(); it.hasNext(); ) {
+          docFetcher.solrDoc(it.nextDoc(), subject);
+        }
+        assertEquals(0, docFetcher.prefetchDocuments(docs, new SolrReturnFields("id,subject", req)));
+        return null;
+      });
+    }
+  }
+
   public void testMultiValuedRTG() throws Exception {
 
     // single value int using alias that matches multivalued dynamic field - via RTG
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.queries.function.valuesource.ConstValueSource;
+import org.apache.lucene.queries.function.valuesource.IntFieldSource;
+import org.apache.lucene.queries.function.valuesource.SumFloatFunction;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.search.function.OrdFieldSource;
+import org.apache.solr.search.function.ValueSourceRangeFilter;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test for {@link SegmentFilterCache}.
+ */
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-segmentcaches.xml", "schema.xml");
+  }
+
+  private static long inserts() {
+    SegmentFilterCache cache = h.getCore().getSegmentFilterCache();
+    assertNotNull(cache);
+    return (Long) ((CaffeineCache<?, ?>) cache.getCache()).getMetricsMap().getValue().get("inserts");
+  }
+
+  @Test
+  public void testUnchangedSegmentsAreReused() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      assertU(adoc("id", Integer.toString(i), "cat_s", i % 2 == 0 ? "a" : "b"));
+    }
+    assertU(commit());
+    final long initialInserts = inserts();
+
+    assertQ(req("q", "*:*", "fq", "cat_s:a"), "//*[@numFound='10']");
+    // a single segment
+    assertEquals(initialInserts + 1, inserts());
+
+    // autowarming of the filterCache only needs to run the filter on the new segment
+    assertU(adoc("id", "20", "cat_s", "a"));
+    assertU(commit());
+    assertEquals(initialInserts + 2, inserts());
+    assertQ(req("q", "*:*", "fq", "cat_s:a"), "//*[@numFound='11']");
+    assertQ(req("q", "*:*", "fq", "-cat_s:a"), "//*[@numFound='10']");
+    assertEquals(initialInserts + 2, inserts());
+
+    // deletes are applied to cached segment sets
+    assertU(delI("0"));
+    assertU(commit());
+    assertEquals(initialInserts + 2, inserts());
+    assertQ(req("q", "*:*", "fq", "cat_s:a"), "//*[@numFound='10']");
+    assertQ(req("q", "*:*", "fq", "cat_s:a", "fl", "id", "sort", "id asc"), "//result/doc[1]/str[@name='id'][.='10']");
+
+    // stored fields are read through the core's block cache too
+    assertQ(req("q", "id:5", "fl", "id,cat_s"), "//result/doc[1]/str[@name='cat_s'][.='b']");
+  }
+
+  @Test
+  public void testWhatIsCachedPerSegment() throws Exception {
+    clearIndex();
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i), "cat_s", i % 2 == 0 ? "a" : "b", "num_i_dv", Integer.toString(i)));
+    }
+    assertU(commit());
+    long inserts = inserts();
+
+    // queries whose weights are cacheable
+    assertQ(req("q", "*:*", "fq", "cat_s:a"), "//*[@numFound='5']");
+    assertEquals(++inserts, inserts());
+
+    // function range filters over field values, although their SolrConstantScoreQuery weights aren't cacheable
+    assertQ(req("q", "*:*", "fq", "{!frange l=2 u=5}num_i_dv"), "//*[@numFound='4']");
+    assertEquals(++inserts, inserts());
+
+    // function range filters over functions that depend on the top-level reader or that are opaque are not cached
+    assertQ(req("q", "*:*", "fq", "{!frange l=0}ord(id)"), "//*[@numFound='10']");
+    assertQ(req("q", "*:*", "fq", "{!frange l=2 u=5}sum(num_i_dv,0)"), "//*[@numFound='4']");
+    assertEquals(inserts, inserts());
+
+    // neither are joins, which depend on the top-level reader
+    assertQ(req("q", "*:*", "fq", "{!join from=id to=id}cat_s:a"), "//*[@numFound='5']");
+    assertEquals(inserts, inserts());
+  }
+
+  @Test
+  public void testSetsAreEvictedWhenCoreCloses() throws Exception {
+    clearIndex();
+    assertU(commit());
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i), "cat_s", i % 2 == 0 ? "a" : "b"));
+    }
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "cat_s:a"), "//*[@numFound='5']");
+    assertQ(req("q", "*:*", "fq", "cat_s:b"), "//*[@numFound='5']");
+    final SolrCache<?, ?> cache = h.getCore().getSegmentFilterCache().getCache();
+    // autowarming may have cached the filters of the other tests too
+    assertTrue(cache.size() >= 2);
+
+    // the fully deleted segment is dropped, which closes its core once the old searcher is closed
+    clearIndex();
+    assertU(commit());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testIsSegmentLocal() {
+    assertTrue(SegmentFilterCache.isSegmentLocal(new ValueSourceRangeFilter(new IntFieldSource("num_i_dv"), "1", "5", true, true)));
+    assertTrue(SegmentFilterCache.isSegmentLocal(new ValueSourceRangeFilter(new ConstValueSource(3f), "1", "5", true, true)));
+    assertFalse(SegmentFilterCache.isSegmentLocal(new ValueSourceRangeFilter(new OrdFieldSource("id"), "1", "5", true, true)));
+    assertFalse(SegmentFilterCache.isSegmentLocal(new ValueSourceRangeFilter(
+        new SumFloatFunction(new ValueSource[] {new IntFieldSource("num_i_dv")}), "1", "5", true, true)));
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.codecs.compressing.StoredFieldsBlockCache;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DocumentStoredFieldVisitor;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.TestUtil;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.metrics.SolrMetricManager;
+import org.apache.solr.metrics.SolrMetricsContext;
+
+/**
+ * Test for {@link SegmentStoredFieldsCache}.
+ */
+public class TestSegmentStoredFieldsCache extends SolrTestCase {
+
+  private SegmentStoredFieldsCache newCache() {
+    CaffeineCache<SegmentStoredFieldsCache.BlockKey, StoredFieldsBlockCache.Block> cache = new CaffeineCache<>();
+    Map<String, String> params = new HashMap<>();
+    params.put("maxRamMB", "16");
+    cache.init(params, null, new NoOpRegenerator());
+    cache.setState(SolrCache.State.LIVE);
+    SegmentStoredFieldsCache storedFieldsCache = new SegmentStoredFieldsCache(cache);
+    storedFieldsCache.initializeMetrics(new SolrMetricsContext(new SolrMetricManager(), "foo", "bar"));
+    return storedFieldsCache;
+  }
+
+  private static void addDocs(IndexWriter w, int from, int to) throws IOException {
+    for (int i = from; i < to; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+      doc.add(new StoredField("body", TestUtil.randomSimpleString(random(), 0, 100)));
+      w.addDocument(doc);
+    }
+  }
+
+  private static void assertSameDocuments(SegmentStoredFieldsCache cache, DirectoryReader reader, int from, int to) throws IOException {
+    for (int i = from; i < to; ++i) {
+      DocumentStoredFieldVisitor visitor = new DocumentStoredFieldVisitor();
+      cache.visitDocument(reader, i, visitor);
+      Document expected = reader.document(i);
+      Document actual = visitor.getDocument();
+      assertEquals(expected.get("id"), actual.get("id"));
+      assertEquals(expected.get("body"), actual.get("body"));
+    }
+  }
+
+  private static long inserts(SegmentStoredFieldsCache cache) {
+    return (Long) ((CaffeineCache<?, ?>) cache.getCache()).getMetricsMap().getValue().get("inserts");
+  }
+
+  public void testBlocksSurviveReopen() throws IOException {
+    final int numDocs = 500 + random().nextInt(500);
+    try (Directory dir = new ByteBuffersDirectory();
+         SegmentStoredFieldsCache cache = newCache()) {
+      IndexWriterConfig iwc = new IndexWriterConfig()
+          .setCodec(TestUtil.getDefaultCodec())
+          .setMergePolicy(NoMergePolicy.INSTANCE);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        addDocs(w, 0, numDocs);
+        w.commit();
+        DirectoryReader reader = DirectoryReader.open(w);
+        assertSameDocuments(cache, reader, 0, numDocs);
+        final long inserts = inserts(cache);
+        assertTrue(inserts > 0);
+        assertTrue(inserts < numDocs);
+
+        // blocks are reused
+        assertSameDocuments(cache, reader, 0, numDocs);
+        assertEquals(inserts, inserts(cache));
+
+        // and remain valid after a reopen since the first segment didn't change
+        addDocs(w, numDocs, 2 * numDocs);
+        DirectoryReader newReader = DirectoryReader.openIfChanged(reader, w);
+        assertNotNull(newReader);
+        reader.close();
+        reader = newReader;
+        assertSameDocuments(cache, reader, 0, numDocs);
+        assertEquals(inserts, inserts(cache));
+        assertSameDocuments(cache, reader, numDocs, 2 * numDocs);
+        assertTrue(inserts(cache) > inserts);
+        reader.close();
+      }
+    }
+  }
+
+  public void testBlocksAreEvictedWhenCoreCloses() throws IOException {
+    final int numDocs = 500 + random().nextInt(500);
+    try (Directory dir = new ByteBuffersDirectory();
+         SegmentStoredFieldsCache cache = newCache()) {
+      IndexWriterConfig iwc = new IndexWriterConfig()
+          .setCodec(TestUtil.getDefaultCodec())
+          .setMergePolicy(NoMergePolicy.INSTANCE);
+      try (IndexWriter w = new IndexWriter(dir, iwc)) {
+        addDocs(w, 0, numDocs);
+        w.commit();
+        addDocs(w, numDocs, 2 * numDocs);
+        w.commit();
+      }
+
+      DirectoryReader reader = DirectoryReader.open(dir);
+      assertEquals(2, reader.leaves().size());
+      assertSameDocuments(cache, reader, 0, 2 * numDocs);
+      assertTrue(cache.getCache().size() > 0);
+
+      // closing the reader closes the cores of both segments
+      reader.close();
+      assertEquals(0, cache.getCache().size());
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests JSON facets on multi-valued fields without docValues when <code>uninvertPerSegment</code> is enabled.
+ */
+public class TestPerSegmentUninvertFacets extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-segmentcaches.xml", "schema.xml");
+  }
+
+  @Test
+  public void testCountsMatchTopLevelUninversion() throws Exception {
+    assertTrue(h.getCore().getSolrConfig().uninvertPerSegment);
+
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", Integer.toString(i), "tags_mfacet", "a", "tags_mfacet", i % 2 == 0 ? "b" : "c"));
+    }
+    assertU(commit());
+
+    assertJQ(req("q", "*:*", "rows", "0", "debugQuery", "true",
+            "json.facet", "{tags:{type:terms, field:tags_mfacet}}")
+        , "facets=={count:10, tags:{buckets:[{val:a,count:10},{val:b,count:5},{val:c,count:5}]}}"
+        , "debug/facet-trace/sub-facet/[0]/processor=='FacetFieldProcessorByArrayDV'"
+    );
+
+    // a new segment only needs to be uninverted on its own
+    assertU(adoc("id", "10", "tags_mfacet", "c", "tags_mfacet", "d"));
+    assertU(commit());
+
+    final String expected = "facets=={count:11, tags:{buckets:[{val:a,count:10},{val:c,count:6},{val:b,count:5},{val:d,count:1}]}}";
+    assertJQ(req("q", "*:*", "rows", "0", "json.facet", "{tags:{type:terms, field:tags_mfacet}}"), expected);
+    // an explicit uif request still uses the top level UnInvertedField
+    assertJQ(req("q", "*:*", "rows", "0", "debugQuery", "true",
+            "json.facet", "{tags:{type:terms, field:tags_mfacet, method:uif}}")
+        , expected
+        , "debug/facet-trace/sub-facet/[0]/processor=='FacetFieldProcessorByArrayUIF'"
+    );
+  }
+
+}
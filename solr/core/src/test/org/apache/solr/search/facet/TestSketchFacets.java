@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.facet;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.tdunning.math.stats.AVLTreeDigest;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.Base64;
+import org.apache.solr.common.util.Hash;
+import org.apache.solr.util.hll.HLL;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the percentile and hll aggregations over pre-aggregated sketch fields.
+ */
+public class TestSketchFacets extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeTests() throws Exception {
+    initCore("solrconfig-tlog.xml", "schema_latest.xml");
+  }
+
+  private static String digest(int from, int to) {
+    AVLTreeDigest digest = new AVLTreeDigest(100);
+    for (int i = from; i <= to; i++) {
+      digest.add(i);
+    }
+    ByteBuffer buf = ByteBuffer.allocate(digest.byteSize());
+    digest.asSmallBytes(buf);
+    return Base64.byteArrayToBase64(Arrays.copyOf(buf.array(), buf.position()));
+  }
+
+  private static String hll(int log2m, int from, int to) {
+    HLL hll = new HLL(log2m, 6);
+    for (int i = from; i <= to; i++) {
+      hll.addRaw(Hash.fmix64(i));
+    }
+    return Base64.byteArrayToBase64(hll.toBytes());
+  }
+
+  @Test
+  public void testMergeSketches() throws Exception {
+    assertU(adoc("id", "1", "cat_s", "A", "latency_tdigest", digest(1, 50), "users_hll", hll(13, 1, 100)));
+    assertU(adoc("id", "2", "cat_s", "A", "latency_tdigest", digest(51, 100), "users_hll", hll(13, 51, 150)));
+    assertU(commit());
+    assertU(adoc("id", "3", "cat_s", "B", "latency_tdigest", digest(1000, 1000), "users_hll", hll(13, 1, 10)));
+    assertU(adoc("id", "4", "cat_s", "B"));
+    assertU(commit());
+
+    assertJQ(req("q", "*:*", "rows", "0", "json.facet", "{" +
+            "cats:{type:terms, field:cat_s, sort:'index asc', facet:{p50:'percentile(latency_tdigest,50)', users:'hll(users_hll)'}}" +
+            ", users:'hll(users_hll)'" +
+            "}")
+        , 1.0
+        , "facets=={count:4, users:150, cats:{buckets:[" +
+            "{val:A, count:2, p50:50.5, users:150}," +
+            "{val:B, count:2, p50:1000.0, users:10}" +
+            "]}}"
+    );
+
+    // sorting by the merged sketches
+    assertJQ(req("q", "*:*", "rows", "0", "json.facet",
+            "{cats:{type:terms, field:cat_s, sort:'users desc', facet:{users:'hll(users_hll)'}}}")
+        , "facets/cats/buckets/[0]/val=='A'"
+    );
+  }
+
+  @Test
+  public void testInvalidSketches() throws Exception {
+    ignoreException("log2m=11");
+    assertFailedU(adoc("id", "5", "users_hll", hll(11, 1, 10)));
+    unIgnoreException("log2m=11");
+
+    ignoreException("Invalid TDigestField");
+    assertFailedU(adoc("id", "6", "latency_tdigest", Base64.byteArrayToBase64(new byte[] {1, 2, 3})));
+    unIgnoreException("Invalid TDigestField");
+  }
+
+}
@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 
@@ -292,4 +293,20 @@ public class BlockDirectoryTest extends SolrTestCaseJ4 {
     }
     assertFalse(d.useWriteCache("", mergeContext));
   }
+
+  /**
+   * Verify that excluded file types are never cached, even if they are included.
+   */
+  @Test
+  public void ensureFileTypesAdmitted() throws Exception {
+    BlockDirectory d = new BlockDirectory("test", directory, mapperCache, null, Set.of(".fdt"), true, true, true, true);
+    assertTrue(d.useReadCache("_0.tip", IOContext.DEFAULT));
+    assertFalse(d.useReadCache("_0.fdt", IOContext.DEFAULT));
+    assertFalse(d.useWriteCache("_0.fdt", IOContext.DEFAULT));
+
+    d = new BlockDirectory("test", directory, mapperCache, Set.of(".tip", ".dvd"), Set.of(".dvd"), true, true, true, true);
+    assertTrue(d.useReadCache("_0.tip", IOContext.DEFAULT));
+    assertFalse(d.useReadCache("_0.dvd", IOContext.DEFAULT));
+    assertFalse(d.useReadCache("_0.fdt", IOContext.DEFAULT));
+  }
 }
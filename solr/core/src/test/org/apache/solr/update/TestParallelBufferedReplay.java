@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.update.processor.DistributedUpdateProcessor.DistribPhase;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.apache.solr.update.processor.DistributingUpdateProcessorFactory.DISTRIB_UPDATE_PARAM;
+
+/**
+ * Applies the same buffered updates with serial and with parallel replay and checks both end up with the same index.
+ */
+public class TestParallelBufferedReplay extends SolrTestCaseJ4 {
+
+  private static final String FROM_LEADER = DistribPhase.FROMLEADER.toString();
+
+  private static final int NUM_IDS = 20;
+
+  @After
+  public void afterTest() {
+    deleteCore();
+  }
+
+  @Test
+  public void testParallelMatchesSerial() throws Exception {
+    List<Op> ops = randomOps(atLeast(200));
+
+    List<Object> serial = bufferAndReplay(ops, false);
+    List<Object> parallel = bufferAndReplay(ops, true);
+
+    assertEquals("ops=" + ops, serial, parallel);
+  }
+
+  @Test
+  public void testSameIdAndDeleteByQueryOrdering() throws Exception {
+    List<Op> ops = new ArrayList<>();
+    long version = 0;
+    ops.add(Op.add("A", 1, ++version));
+    ops.add(Op.add("B", 1, ++version));
+    ops.add(Op.add("A", 2, ++version));
+    // removes A=2 and B=1, but not the later A=3
+    ops.add(Op.deleteByQuery("val_i:[1 TO 2]", ++version));
+    ops.add(Op.add("A", 3, ++version));
+    ops.add(Op.add("C", 3, ++version));
+    ops.add(Op.delete("C", ++version));
+    // reordered: arrives after the delete of C but is older, so it must not resurrect the doc
+    ops.add(Op.add("C", 4, version - 1));
+    ops.add(Op.add("B", 5, ++version));
+    // reordered: older than the add of B=5
+    ops.add(Op.add("B", 6, version - 1));
+
+    String expected = "[{'id':'A','val_i':3,'_version_':5},{'id':'B','val_i':5,'_version_':8}]";
+    for (boolean parallelReplay : new boolean[] {false, true}) {
+      List<Object> docs = bufferAndReplay(ops, parallelReplay);
+      assertEquals("parallelBufferedReplay=" + parallelReplay,
+          Utils.fromJSONString(expected.replace('\'', '"')), docs);
+    }
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private List<Object> bufferAndReplay(List<Op> ops, boolean parallelReplay) throws Exception {
+    deleteCore();
+    initCore("solrconfig-tlog.xml", "schema15.xml");
+
+    UpdateLog ulog;
+    try (SolrQueryRequest req = req()) {
+      ulog = req.getCore().getUpdateHandler().getUpdateLog();
+    }
+    ulog.parallelBufferedReplay = parallelReplay;
+
+    ulog.bufferUpdates();
+    assertEquals(UpdateLog.State.BUFFERING, ulog.getState());
+    for (Op op : ops) {
+      op.send();
+    }
+    assertJQ(req("q", "*:*"), "/response/numFound==0");
+
+    Future<UpdateLog.RecoveryInfo> rinfoFuture = ulog.applyBufferedUpdates();
+    assertNotNull(rinfoFuture);
+    UpdateLog.RecoveryInfo rinfo = rinfoFuture.get();
+    assertEquals(0, rinfo.errors);
+    assertEquals(UpdateLog.State.ACTIVE, ulog.getState());
+
+    assertU(commit());
+    Map<String, Object> rsp = (Map<String, Object>) Utils.fromJSONString(
+        JQ(req("q", "*:*", "sort", "id asc", "fl", "id,val_i,_version_", "rows", String.valueOf(NUM_IDS))));
+    return (List<Object>) Utils.getObjectByPath(rsp, false, "response/docs");
+  }
+
+  /** Random updates to a small set of ids, where some pairs of neighbouring updates arrive out of order. */
+  private static List<Op> randomOps(int numOps) {
+    List<Op> ops = new ArrayList<>(numOps);
+    for (long version = 1; version <= numOps; version++) {
+      int kind = random().nextInt(100);
+      String id = "D" + random().nextInt(NUM_IDS);
+      if (kind < 75) {
+        ops.add(Op.add(id, random().nextInt(10), version));
+      } else if (kind < 90) {
+        ops.add(Op.delete(id, version));
+      } else {
+        int low = random().nextInt(10);
+        ops.add(Op.deleteByQuery("val_i:[" + low + " TO " + (low + random().nextInt(3)) + "]", version));
+      }
+    }
+    for (int i = 1; i < numOps; i++) {
+      if (random().nextInt(10) == 0) {
+        Collections.swap(ops, i - 1, i);
+      }
+    }
+    return ops;
+  }
+
+  private static class Op {
+    final String id;
+    final int val;
+    final String query;
+    final long version;
+
+    private Op(String id, int val, String query, long version) {
+      this.id = id;
+      this.val = val;
+      this.query = query;
+      this.version = version;
+    }
+
+    static Op add(String id, int val, long version) {
+      return new Op(id, val, null, version);
+    }
+
+    static Op delete(String id, long version) {
+      return new Op(id, -1, null, version);
+    }
+
+    static Op deleteByQuery(String query, long version) {
+      return new Op(null, -1, query, version);
+    }
+
+    void send() throws Exception {
+      if (query != null) {
+        updateJ(jsonDelQ(query), params(DISTRIB_UPDATE_PARAM, FROM_LEADER, "_version_", "-" + version));
+      } else if (val < 0) {
+        deleteAndGetVersion(id, params(DISTRIB_UPDATE_PARAM, FROM_LEADER, "_version_", "-" + version));
+      } else {
+        updateJ(jsonAdd(sdoc("id", id, "val_i", val, "_version_", version)), params(DISTRIB_UPDATE_PARAM, FROM_LEADER));
+      }
+    }
+
+    @Override
+    public String toString() {
+      if (query != null) return "dbq(" + query + ")@" + version;
+      if (val < 0) return "delete(" + id + ")@" + version;
+      return "add(" + id + "," + val + ")@" + version;
+    }
+  }
+}
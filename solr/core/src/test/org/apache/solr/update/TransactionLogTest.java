@@ -24,7 +24,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
+import org.apache.lucene.util.Constants;
 import org.apache.solr.SolrTestCase;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.update.TransactionLog.LogReader;
@@ -72,4 +78,98 @@ public class TransactionLogTest extends SolrTestCase {
       assertEquals(uuid, (UUID) doc.getFieldValue("uuid"));
     }
   }
+
+  @Test
+  public void testGroupSync() throws Exception {
+    String tlogFileName = String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME,
+        Long.MAX_VALUE);
+    Path path = createTempDir();
+    File logFile = new File(path.toFile(), tlogFileName);
+    Timer fsyncTimer = new Timer();
+    Histogram batchSizes = new Histogram(new UniformReservoir());
+    int numThreads = atLeast(4);
+    try (TransactionLog tlog = new TransactionLog(logFile, new ArrayList<>())) {
+      CyclicBarrier barrier = new CyclicBarrier(numThreads);
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < numThreads; ++i) {
+        final int id = i;
+        Thread t = new Thread(() -> {
+          try {
+            AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+            SolrInputDocument doc = new SolrInputDocument();
+            doc.addField("id", Integer.toString(id));
+            updateCommand.solrDoc = doc;
+            tlog.write(updateCommand);
+            barrier.await();
+            tlog.groupSync(TimeUnit.MILLISECONDS.toNanos(10), fsyncTimer, batchSizes);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        });
+        threads.add(t);
+        t.start();
+      }
+      for (Thread t : threads) {
+        t.join();
+      }
+
+      long numSyncs = fsyncTimer.getCount();
+      assertTrue(numSyncs >= 1);
+      assertTrue(numSyncs <= numThreads);
+      assertEquals(numSyncs, batchSizes.getCount());
+
+      // everything is already durable, so this doesn't need another fsync
+      tlog.groupSync(0, fsyncTimer, batchSizes);
+      assertEquals(numSyncs, fsyncTimer.getCount());
+
+      // but new records do
+      AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+      updateCommand.solrDoc = new SolrInputDocument();
+      tlog.write(updateCommand);
+      tlog.groupSync(0, fsyncTimer, batchSizes);
+      assertEquals(numSyncs + 1, fsyncTimer.getCount());
+    }
+  }
+
+  @Test
+  public void testMappedReadsAfterCommit() throws Exception {
+    String tlogFileName = String.format(Locale.ROOT, UpdateLog.LOG_FILENAME_PATTERN, UpdateLog.TLOG_NAME,
+        Long.MAX_VALUE);
+    Path path = createTempDir();
+    File logFile = new File(path.toFile(), tlogFileName);
+    int numDocs = atLeast(100);
+    List<Long> positions = new ArrayList<>();
+    try (TransactionLog tlog = new TransactionLog(logFile, new ArrayList<>())) {
+      for (int i = 0; i < numDocs; ++i) {
+        AddUpdateCommand updateCommand = new AddUpdateCommand(null);
+        SolrInputDocument doc = new SolrInputDocument();
+        doc.addField("id", Integer.toString(i));
+        updateCommand.solrDoc = doc;
+        positions.add(tlog.write(updateCommand));
+      }
+      tlog.writeCommit(new CommitUpdateCommand(null, false));
+
+      for (int i = 0; i < numDocs; ++i) {
+        List<?> entry = (List<?>) tlog.lookup(positions.get(i));
+        assertEquals(Integer.toString(i), ((SolrInputDocument) entry.get(2)).getFieldValue("id"));
+      }
+
+      LogReader reader = tlog.getReader(0);
+      assertEquals(Constants.WINDOWS == false, reader.fis instanceof TransactionLog.MappedFastInputStream);
+      int count = 0;
+      for (Object entry = reader.next(); entry != null; entry = reader.next()) {
+        count++;
+      }
+      reader.close();
+      assertEquals(numDocs + 1, count); // the docs and the commit
+
+      TransactionLog.ReverseReader reverseReader = tlog.getReverseReader();
+      count = 0;
+      for (Object entry = reverseReader.next(); entry != null; entry = reverseReader.next()) {
+        count++;
+      }
+      reverseReader.close();
+      assertEquals(numDocs + 1, count);
+    }
+  }
 }
@@ -17,10 +17,12 @@
 
 package org.apache.solr.util;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.lucene.util.TestUtil;
 import org.apache.solr.SolrTestCase;
 
 public class DynamicMapsTest extends SolrTestCase {
@@ -87,4 +89,80 @@ public class DynamicMapsTest extends SolrTestCase {
     assertEquals(-1, map.get(101));
     assertEquals(-1, map.get(0));
   }
+
+  public void testOffHeapMaps() {
+    try (OffHeapArena arena = new OffHeapArena(1024 * 1024)) {
+      // the second round gets the dirty buffers of the first round back from the arena
+      for (int round = 0; round < 2; round++) {
+        IntIntDynamicMap ints = new IntIntDynamicMap(10, -1, arena);
+        IntFloatDynamicMap floats = new IntFloatDynamicMap(10, -1.1f, arena);
+        IntLongDynamicMap longs = new IntLongDynamicMap(10, -1, arena);
+        Map<Integer, Integer> standard = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+          int key = random().nextInt(5000) + 1;
+          int val = random().nextInt(Integer.MAX_VALUE);
+          standard.put(key, val);
+          ints.put(key, val);
+          floats.put(key, val);
+          longs.put(key, val);
+        }
+        int removed = random().nextInt(5000) + 1;
+        if (standard.remove(removed) != null) {
+          ints.remove(removed);
+          floats.remove(removed);
+          longs.remove(removed);
+        }
+
+        for (Map.Entry<Integer, Integer> entry: standard.entrySet()) {
+          assertEquals((int)entry.getValue(), ints.get(entry.getKey()));
+          assertEquals((float)entry.getValue(), floats.get(entry.getKey()), 0.0001);
+          assertEquals((long)entry.getValue(), longs.get(entry.getKey()));
+        }
+        AtomicInteger size = new AtomicInteger(0);
+        ints.forEachValue(i -> size.incrementAndGet());
+        assertEquals(standard.size(), size.get());
+        size.set(0);
+        floats.forEachValue(i -> size.incrementAndGet());
+        assertEquals(standard.size(), size.get());
+        size.set(0);
+        longs.forEachValue(i -> size.incrementAndGet());
+        assertEquals(standard.size(), size.get());
+
+        assertEquals(-1, ints.get(0));
+        assertEquals(-1, ints.get(100000));
+        assertEquals(-1.1f, floats.get(100000), 0.0001);
+        assertEquals(-1, longs.get(100000));
+
+        ints.release();
+        floats.release();
+        longs.release();
+        assertTrue(arena.getPooledBytes() > 0);
+      }
+      assertTrue(arena.getReuses() > 0);
+    }
+  }
+
+  public void testOffHeapArenaSizeClasses() {
+    for (int i = 0; i < 1000; i++) {
+      long bytes = TestUtil.nextLong(random(), 1, 1L << 30);
+      int sizeClass = OffHeapArena.sizeClass(bytes);
+      long size = OffHeapArena.sizeOf(sizeClass);
+      assertTrue(size >= bytes);
+      // the smallest size class that fits, with at most 25% of waste
+      assertTrue(sizeClass == 0 || OffHeapArena.sizeOf(sizeClass - 1) < bytes);
+      assertTrue(sizeClass == 0 || size <= bytes + bytes / 4 + 1);
+      assertEquals(sizeClass, OffHeapArena.sizeClass(size));
+    }
+
+    try (OffHeapArena arena = new OffHeapArena(1024 * 1024)) {
+      ByteBuffer buffer = arena.acquire(5000);
+      assertEquals(5 * 1024, buffer.capacity());
+      arena.release(buffer);
+      // buffers of the same size class are reused
+      assertSame(buffer, arena.acquire(5 * 1024));
+      // buffers that aren't of a size class are not pooled
+      arena.release(ByteBuffer.allocateDirect(5000));
+      assertEquals(0, arena.getPooledBytes());
+    }
+  }
 }
@@ -38,6 +38,8 @@ import org.apache.solr.util.circuitbreaker.CPUCircuitBreaker;
 import org.apache.solr.util.circuitbreaker.CircuitBreaker;
 import org.apache.solr.util.circuitbreaker.CircuitBreakerManager;
 import org.apache.solr.util.circuitbreaker.MemoryCircuitBreaker;
+import org.apache.solr.util.circuitbreaker.RequestMemoryBudget;
+import org.apache.solr.util.circuitbreaker.RequestMemoryTracker;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -61,6 +63,7 @@ public class TestCircuitBreaker extends SolrTestCaseJ4 {
     System.setProperty("filterCache.enabled", "false");
     System.setProperty("queryResultCache.enabled", "false");
     System.setProperty("documentCache.enabled", "true");
+    System.setProperty("solr.requestMemoryEnabled", "true");
 
     initCore("solrconfig-memory-circuitbreaker.xml", "schema.xml");
     for (int i = 0 ; i < NUM_DOCS ; i ++) {
@@ -266,6 +269,75 @@ public class TestCircuitBreaker extends SolrTestCaseJ4 {
     );
   }
 
+  public void testRequestMemoryAdmission() {
+    RequestMemoryBudget budget = h.getCore().getCircuitBreakerManager().getRequestMemoryBudget();
+    assertNotNull(budget);
+    assertEquals(64L * 1024 * 1024, budget.getBudgetBytes());
+    assertEquals(16L * 1024 * 1024, h.getCore().getCircuitBreakerManager().getRequestMemoryLimitBytes());
+    // the budget is shared by all cores of the node
+    assertSame(budget, h.getCoreContainer().getRequestMemoryBudget(64L * 1024 * 1024, 0));
+
+    long admitted = budget.getAdmitted();
+    assertQ(req("q", "*:*", "json.facet", "{ids:{type:terms, field:id}}"),
+        "//result[@numFound='3']");
+    assertEquals(admitted + 1, budget.getAdmitted());
+    assertEquals(0, budget.getRejected());
+    // the reservation is given back once the request completes
+    assertEquals(0, budget.getReservedBytes());
+    assertTrue(budget.getEstimatedBytes() > 0);
+  }
+
+  public void testRequestMemoryLimits() {
+    RequestMemoryBudget budget = new RequestMemoryBudget(1000, 10);
+
+    // a single request is limited on its own
+    RequestMemoryTracker first = budget.admit(600);
+    first.charge(500, "first");
+    SolrException e = expectThrows(SolrException.class, () -> first.charge(200, "too much"));
+    assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+    assertThat(e.getMessage(), containsString("too much"));
+    assertEquals(500, first.getChargedBytes());
+
+    // the requests together are limited by the budget
+    RequestMemoryTracker second = budget.admit(600);
+    e = expectThrows(SolrException.class, () -> second.charge(600, "second"));
+    assertEquals(SolrException.ErrorCode.SERVICE_UNAVAILABLE.code, e.code());
+    second.charge(400, "second");
+    assertEquals(900, budget.getReservedBytes());
+    first.close();
+    second.close();
+    assertEquals(0, budget.getReservedBytes());
+    assertTrue(budget.getEstimatedBytes() > 0);
+
+    // memory that is given back can be charged again without reserving more, and the peak is what counts
+    RequestMemoryTracker third = budget.admit(600);
+    long reserved = budget.getReservedBytes();
+    third.charge(500, "sub facet");
+    third.release(500);
+    third.charge(500, "next sub facet");
+    assertEquals(500, third.getChargedBytes());
+    assertEquals(500, third.getPeakBytes());
+    assertEquals(Math.max(reserved, 500), budget.getReservedBytes());
+    third.close();
+    assertEquals(0, budget.getReservedBytes());
+
+    // requests whose estimate doesn't fit next to the running ones are rejected after the admission timeout
+    RequestMemoryBudget admission = new RequestMemoryBudget(1000, 10);
+    for (int i = 0; i < 30; i++) {
+      try (RequestMemoryTracker tracker = admission.admit(0)) {
+        tracker.charge(800, "warmup");
+      }
+    }
+    assertTrue(admission.getEstimatedBytes() > 500);
+    RequestMemoryTracker running = admission.admit(0);
+    e = expectThrows(SolrException.class, () -> admission.admit(0));
+    assertEquals(SolrException.ErrorCode.SERVICE_UNAVAILABLE.code, e.code());
+    assertEquals(1, admission.getRejected());
+    running.close();
+    admission.admit(0).close();
+    assertEquals(0, admission.getReservedBytes());
+  }
+
   private void removeAllExistingCircuitBreakers() {
     List<CircuitBreaker> registeredCircuitBreakers = h.getCore().getCircuitBreakerManager().getRegisteredCircuitBreakers();
 
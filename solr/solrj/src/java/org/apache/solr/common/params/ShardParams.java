@@ -54,6 +54,9 @@ public interface ShardParams {
   /** Should things fail if there is an error? (true/false/{@value #REQUIRE_ZK_CONNECTED}) */
   String SHARDS_TOLERANT = "shards.tolerant";
   
+  /** Whether slow shard requests may be hedged with a request to another replica when the shard handler is configured to do so (true/false) */
+  String SHARDS_HEDGE = "shards.hedge";
+
   /** query purpose for shard requests */
   String SHARDS_PURPOSE = "shards.purpose";
 